@@ -1,6 +1,7 @@
 plugins {
     id("java")
     application
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.cubeGl"
@@ -24,18 +25,32 @@ dependencies {
     implementation("org.lwjgl:lwjgl-opengl:$lwjglVersion")
     implementation("org.lwjgl:lwjgl-stb:$lwjglVersion")
     implementation("org.joml:joml:1.10.5")
+    implementation("org.joml:joml-primitives:1.10.0") // AABBf (cajas envolventes)
 
 
     runtimeOnly("org.lwjgl:lwjgl::$lwjglNatives")
     runtimeOnly("org.lwjgl:lwjgl-glfw::$lwjglNatives")
     runtimeOnly("org.lwjgl:lwjgl-opengl::$lwjglNatives")
     runtimeOnly("org.lwjgl:lwjgl-stb::$lwjglNatives")
+
+    // Pruebas unitarias (src/test/java): ./gradlew test
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 application {
     mainClass.set("com.cubeGl.Main")
 }
 
+// Reenvía las opciones del mundo y del perfil: ./gradlew run -Dcubegl.world.dir=build/world -Dcubegl.profile.output=build/profile.csv
+tasks.named<JavaExec>("run") {
+    listOf("cubegl.world.radius", "cubegl.world.dir", "cubegl.world.cache", "cubegl.chunk.offHeap", "cubegl.remesh.perFrame",
+            "cubegl.world.lod", "cubegl.profile.output", "cubegl.textures.dir").forEach { key ->
+        System.getProperty(key)?.let { systemProperty(key, it) }
+    }
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(21))
@@ -45,3 +60,45 @@ java {
 tasks.test {
     useJUnitPlatform()
 }
+
+// Benchmarks JMH (src/jmh/java): ./gradlew jmh
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
+
+tasks.register<JavaExec>("runStress") {
+    group = "application"
+    description = "Ejecuta la escena de estrés instanciada (argumento opcional: número de cubos)."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.cubeGl.StressScene")
+}
+
+tasks.register<JavaExec>("runHeadless") {
+    group = "application"
+    description = "Ejecuta el benchmark sin ventana visible (argumento opcional: número de frames)."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.cubeGl.HeadlessBenchmark")
+    // Reenvía las opciones de captura y comparación: ./gradlew runHeadless -Dcubegl.capture.dir=build/frames
+    listOf("cubegl.capture.dir", "cubegl.capture.every", "cubegl.golden.dir", "cubegl.egl", "cubegl.occlusion").forEach { key ->
+        System.getProperty(key)?.let { systemProperty(key, it) }
+    }
+}
+
+tasks.register<JavaExec>("convertObj") {
+    group = "application"
+    description = "Convierte OBJ a mallas binarias .cgm: ./gradlew convertObj --args=\"salida.cgm nivel0.obj [nivel1.obj ...]\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.cubeGl.tools.ObjConverter")
+}
+
+tasks.register<JavaExec>("runChunks") {
+    group = "application"
+    description = "Ejecuta la escena de terreno (argumento opcional: chunks por lado). -Dcubegl.indirect=false dibuja un chunk por llamada."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.cubeGl.ChunkScene")
+    listOf("cubegl.indirect", "cubegl.chunk.offHeap", "cubegl.textures.dir").forEach { key ->
+        System.getProperty(key)?.let { systemProperty(key, it) }
+    }
+}
@@ -0,0 +1,85 @@
+package com.cubeGl.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de subasignar en un {@link BufferAllocator} con muchas asignaciones vivas, como un
+ * {@link MegaBuffer} con un chunk por asignación: cada operación libera una malla al azar y reserva otra de
+ * tamaño aleatorio (un chunk que se vuelve a mallar). Al terminar muestra la fragmentación alcanzada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BufferAllocatorBenchmark {
+    private static final int MIN_SIZE = 64;
+    private static final int MAX_SIZE = 4096; // Vértices de un chunk de terreno típico
+
+    @Param({"1024", "16384"})
+    private int allocations;
+
+    private BufferAllocator allocator;
+    private int[] offsets;
+    private final Random random = new Random(7);
+    private int compactions;
+
+    @Setup
+    public void setup() {
+        // Capacidad para el doble del tamaño medio: el allocator nunca tiene que crecer
+        allocator = new BufferAllocator(allocations * (MIN_SIZE + MAX_SIZE));
+        offsets = new int[allocations];
+        for (int i = 0; i < allocations; i++) {
+            offsets[i] = allocator.allocate(size());
+        }
+    }
+
+    private int size() {
+        return MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE);
+    }
+
+    @Benchmark
+    public int replace() {
+        int i = random.nextInt(allocations);
+        allocator.free(offsets[i]);
+        offsets[i] = -1;
+        int size = size();
+        int offset = allocator.allocate(size);
+        if (offset < 0) {
+            compact();
+            offset = allocator.allocate(size);
+        }
+        offsets[i] = offset;
+        return offset;
+    }
+
+    // Como MegaBuffer: las llamadas llegan por orden de offset, igual que los índices ordenados
+    private void compact() {
+        Integer[] order = new Integer[allocator.getAllocationCount()];
+        for (int i = 0, k = 0; i < allocations; i++) {
+            if (offsets[i] >= 0) {
+                order[k++] = i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(offsets[a], offsets[b]));
+        int[] next = new int[1];
+        allocator.compact((from, to, size) -> offsets[order[next[0]++]] = to);
+        compactions++;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%d asignaciones, %d huecos, fragmentación %.2f, %d compactaciones%n",
+                allocator.getAllocationCount(), allocator.getFreeBlockCount(), allocator.getFragmentation(), compactions);
+    }
+}
@@ -0,0 +1,43 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por frame de la {@link Camera}: recalcular la vista y la vista-proyección tras moverla,
+ * y pedir la vista-proyección cuando nada ha cambiado (debe ser solo la comprobación de las banderas).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CameraBenchmark {
+    private Camera camera;
+    private final Matrix4f dest = new Matrix4f();
+
+    @Setup
+    public void setup() {
+        camera = new Camera((float)Math.toRadians(60.0f), 1.0f, 0.1f, 100f);
+    }
+
+    @Benchmark
+    public Matrix4f moveAndGetViewProjection() {
+        camera.movePosition(0.001f, 0, 0.001f);
+        camera.processMouseMovement(0.01f, 0, true);
+        camera.updateViewMatrix();
+        return camera.getViewProjection(dest);
+    }
+
+    @Benchmark
+    public Matrix4f getViewProjectionUnchanged() {
+        camera.updateViewMatrix();
+        return camera.getViewProjection(dest);
+    }
+}
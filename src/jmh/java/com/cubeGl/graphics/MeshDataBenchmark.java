@@ -0,0 +1,104 @@
+package com.cubeGl.graphics;
+
+import com.cubeGl.world.Chunk;
+import com.cubeGl.world.ChunkMesher;
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preparación en CPU de los datos que {@link Mesh} sube a la GPU, sin OpenGL: relleno de los buffers
+ * nativos del cubo (como {@link Mesh#createCube()}) y de un chunk mallado en el formato por defecto
+ * y en los formatos intercalados de {@link VertexLayout}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeshDataBenchmark {
+    private MeshData cube;
+    private MeshData chunk;
+    private FloatBuffer vertices;
+    private FloatBuffer texCoords;
+    private IntBuffer indices;
+    private ByteBuffer interleaved;
+
+    @Setup
+    public void setup() {
+        cube = MeshData.cube();
+
+        // Chunk con terreno irregular: muchas caras visibles
+        Chunk terrain = new Chunk();
+        Random random = new Random(3);
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int height = 4 + random.nextInt(8);
+                for (int y = 0; y < height; y++) {
+                    terrain.setBlock(x, y, z, (short) (1 + random.nextInt(3)));
+                }
+            }
+        }
+        chunk = new ChunkMesher().mesh(terrain);
+
+        vertices = MemoryUtil.memAllocFloat(chunk.getVertices().length);
+        texCoords = MemoryUtil.memAllocFloat(chunk.getTexCoords().length);
+        indices = MemoryUtil.memAllocInt(chunk.getIndices().length);
+        interleaved = MemoryUtil.memAlloc(chunk.getVertexCount() * VertexLayout.STANDARD.getStride());
+    }
+
+    @TearDown
+    public void tearDown() {
+        MemoryUtil.memFree(vertices);
+        MemoryUtil.memFree(texCoords);
+        MemoryUtil.memFree(indices);
+        MemoryUtil.memFree(interleaved);
+    }
+
+    @Benchmark
+    public MeshData buildCube() {
+        return MeshData.cube();
+    }
+
+    @Benchmark
+    public int fillCubeBuffers() {
+        vertices.clear();
+        texCoords.clear();
+        indices.clear();
+        cube.writeTo(vertices, texCoords, indices);
+        return indices.position();
+    }
+
+    @Benchmark
+    public int fillChunkBuffers() {
+        vertices.clear();
+        texCoords.clear();
+        indices.clear();
+        chunk.writeTo(vertices, texCoords, indices);
+        return indices.position();
+    }
+
+    @Benchmark
+    public int packChunkStandard() {
+        interleaved.clear();
+        VertexLayout.STANDARD.write(chunk, interleaved);
+        return interleaved.position();
+    }
+
+    @Benchmark
+    public int packChunkVoxel() {
+        interleaved.clear();
+        VertexLayout.PACKED_VOXEL.write(chunk, interleaved);
+        return interleaved.position();
+    }
+}
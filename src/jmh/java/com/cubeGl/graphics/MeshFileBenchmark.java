@@ -0,0 +1,92 @@
+package com.cubeGl.graphics;
+
+import com.cubeGl.tools.ObjConverter;
+import com.cubeGl.world.Chunk;
+import com.cubeGl.world.ChunkMesher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en CPU de cargar una malla (sin subirla a la GPU): abrir un {@link MeshFile} mapeado y leer sus
+ * bloques frente a interpretar el mismo modelo en OBJ. La malla es un chunk de terreno mallado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeshFileBenchmark {
+    private Path directory;
+    private Path binary;
+    private Path obj;
+
+    @Setup
+    public void setup() throws IOException {
+        Chunk terrain = new Chunk();
+        Random random = new Random(3);
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int height = 4 + random.nextInt(8);
+                for (int y = 0; y < height; y++) {
+                    terrain.setBlock(x, y, z, (short) (1 + random.nextInt(3)));
+                }
+            }
+        }
+        MeshData mesh = new ChunkMesher().mesh(terrain);
+
+        directory = Files.createTempDirectory("cubegl-mesh");
+        binary = directory.resolve("terrain" + MeshFile.EXTENSION);
+        obj = directory.resolve("terrain.obj");
+        MeshFile.write(binary, VertexLayout.STANDARD, new MeshData[]{mesh}, new float[0]);
+        writeObj(mesh, obj);
+    }
+
+    private static void writeObj(MeshData mesh, Path path) throws IOException {
+        float[] vertices = mesh.getVertices();
+        float[] texCoords = mesh.getTexCoords();
+        int[] indices = mesh.getIndices();
+        try (Writer out = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < mesh.getVertexCount(); i++) {
+                int vi = i * MeshData.FLOATS_PER_VERTEX;
+                int ti = i * MeshData.TEX_FLOATS_PER_VERTEX;
+                out.write(String.format(Locale.ROOT, "v %f %f %f%nvt %f %f%n",
+                        vertices[vi], vertices[vi + 1], vertices[vi + 2], texCoords[ti], texCoords[ti + 1]));
+            }
+            for (int i = 0; i < indices.length; i += 3) {
+                out.write(String.format("f %d/%d %d/%d %d/%d%n", indices[i] + 1, indices[i] + 1,
+                        indices[i + 1] + 1, indices[i + 1] + 1, indices[i + 2] + 1, indices[i + 2] + 1));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binary);
+        Files.deleteIfExists(obj);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int openMapped() throws IOException {
+        MeshFile file = MeshFile.open(binary);
+        return file.getVertices(0).remaining() + file.getIndices(0).remaining();
+    }
+
+    @Benchmark
+    public int parseObj() throws IOException {
+        return ObjConverter.parse(obj).getIndexCount();
+    }
+}
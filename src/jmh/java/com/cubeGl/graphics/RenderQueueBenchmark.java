@@ -0,0 +1,71 @@
+package com.cubeGl.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordenación y agrupación de la {@link RenderQueue} sin OpenGL: 4 shaders, 64 texturas, 1000 mallas
+ * y profundidades aleatorias. Incluye {@link Arrays#sort(long[])} como referencia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RenderQueueBenchmark {
+    @Param({"100000", "1000000"})
+    public int drawCount;
+
+    private long[] frameKeys;
+    private long[] scratch;
+    private RenderQueue queue;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        frameKeys = new long[drawCount];
+        for (int i = 0; i < drawCount; i++) {
+            frameKeys[i] = RenderQueue.packKey(random.nextInt(4), random.nextInt(64), random.nextInt(1000),
+                    random.nextInt(1 << RenderQueue.DEPTH_BITS));
+        }
+        scratch = new long[drawCount];
+        queue = new RenderQueue(drawCount);
+    }
+
+    private void fill() {
+        queue.clear();
+        for (long key : frameKeys) {
+            queue.add(key);
+        }
+    }
+
+    @Benchmark
+    public int radixSort() {
+        fill();
+        queue.sort();
+        return queue.size();
+    }
+
+    @Benchmark
+    public int radixSortAndBatch() {
+        fill();
+        queue.sort();
+        queue.countStateChanges();
+        return queue.getMeshChanges();
+    }
+
+    @Benchmark
+    public long arraysSortBaseline() {
+        System.arraycopy(frameKeys, 0, scratch, 0, drawCount);
+        Arrays.sort(scratch);
+        return scratch[0];
+    }
+}
@@ -0,0 +1,55 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composición de la matriz del modelo de un {@link Transform} suelto (el caso del cubo de Main):
+ * con la rotación cambiando cada frame, sin cambios (caché) y junto con la vista-proyección (MVP).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransformBenchmark {
+    private Transform transform;
+    private final Quaternionf rotation = new Quaternionf();
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final Matrix4f dest = new Matrix4f();
+    private float angle;
+
+    @Setup
+    public void setup() {
+        transform = new Transform();
+        transform.setPosition(1, 2, 3).setScale(2, 2, 2);
+        viewProjection.setPerspective((float)Math.toRadians(60.0f), 1.0f, 0.1f, 100f)
+                .lookAt(0, 0, 3, 0, 0, 0, 0, 1, 0);
+    }
+
+    @Benchmark
+    public Matrix4f rotateAndCompose() {
+        angle += 0.01f;
+        transform.setRotation(rotation.identity().rotateY(angle).rotateX(angle));
+        return transform.getModelMatrix(dest);
+    }
+
+    @Benchmark
+    public Matrix4f composeUnchanged() {
+        return transform.getModelMatrix(dest);
+    }
+
+    @Benchmark
+    public Matrix4f rotateAndComposeMvp() {
+        angle += 0.01f;
+        transform.setRotation(rotation.identity().rotateY(angle).rotateX(angle));
+        return transform.getMvp(viewProjection, dest);
+    }
+}
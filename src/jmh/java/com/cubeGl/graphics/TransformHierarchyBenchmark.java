@@ -0,0 +1,74 @@
+package com.cubeGl.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de {@link TransformHierarchy#update()} con 100k nodos (1000 raíces de 100 nodos cada una).
+ * Cada invocación rota todas las raíces (se recalculan todos los nodos) o solo el 1% de las hojas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransformHierarchyBenchmark {
+    private static final int ROOTS = 1000;
+    private static final int NODES_PER_ROOT = 100;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private TransformHierarchy hierarchy;
+    private float angle;
+
+    @Setup
+    public void setup() {
+        hierarchy = new TransformHierarchy(ROOTS * NODES_PER_ROOT);
+        for (int r = 0; r < ROOTS; r++) {
+            int root = hierarchy.createNode(-1);
+            hierarchy.setPosition(root, r, 0, 0);
+            int previous = root;
+            for (int i = 1; i < NODES_PER_ROOT; i++) {
+                // Cadenas de 10 niveles colgando de cada raíz
+                int parent = i % 10 == 0 ? root : previous;
+                previous = hierarchy.createNode(parent);
+                hierarchy.setPosition(previous, 0, 1, 0);
+            }
+        }
+        hierarchy.update();
+    }
+
+    private void run() {
+        if (parallel) {
+            hierarchy.updateParallel();
+        } else {
+            hierarchy.update();
+        }
+    }
+
+    @Benchmark
+    public void rotateAllRoots() {
+        angle += 0.01f;
+        float s = (float)Math.sin(angle * 0.5f), c = (float)Math.cos(angle * 0.5f);
+        for (int node = 0; node < ROOTS * NODES_PER_ROOT; node += NODES_PER_ROOT) {
+            hierarchy.setRotation(node, 0, s, 0, c);
+        }
+        run();
+    }
+
+    @Benchmark
+    public void moveOnePercentOfLeaves() {
+        angle += 0.01f;
+        for (int node = NODES_PER_ROOT - 1; node < ROOTS * NODES_PER_ROOT; node += NODES_PER_ROOT) {
+            hierarchy.setPosition(node, angle, 1, 0);
+        }
+        run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parte en CPU de subir un uniform con {@link ShaderProgram}, medida sobre su {@link UniformCache}:
+ * búsqueda por nombre frente a handle, y comparación con el último valor cuando se repite o cambia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UniformCacheBenchmark {
+    private static final String[] NAMES = {"model", "uTexture", "uColor", "uTime", "uLight", "uFog"};
+
+    private UniformCache cache;
+    private int modelHandle;
+    private final Matrix4f model = new Matrix4f();
+    private final float[] values = new float[16];
+    private float angle;
+
+    @Setup
+    public void setup() {
+        cache = new UniformCache();
+        for (int i = 0; i < NAMES.length; i++) {
+            cache.register(NAMES[i], i);
+        }
+        modelHandle = cache.find("model");
+        model.get(values);
+        cache.updateMatrix(modelHandle, values, 0);
+    }
+
+    @Benchmark
+    public int lookupByName() {
+        return cache.getLocation(cache.find("model"));
+    }
+
+    @Benchmark
+    public int lookupByHandle() {
+        return cache.getLocation(modelHandle);
+    }
+
+    @Benchmark
+    public boolean sameMatrix() {
+        model.get(values);
+        return cache.updateMatrix(modelHandle, values, 0);
+    }
+
+    @Benchmark
+    public boolean changedMatrix() {
+        angle += 0.01f;
+        model.rotationY(angle).get(values);
+        return cache.updateMatrix(modelHandle, values, 0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.cubeGl.scene;
+
+import com.cubeGl.graphics.Camera;
+
+import org.joml.FrustumIntersection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el culling por frustum con un recorrido lineal frente a la jerarquía {@link Bvh}.
+ * Los objetos son cubos unitarios repartidos al azar en un volumen de 2000³ unidades.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BvhCullingBenchmark {
+    private static final float WORLD_HALF_SIZE = 1000.0f;
+
+    @Param({"100000", "1000000"})
+    public int objectCount;
+
+    private float[] bounds;
+    private Bvh bvh;
+    private int[] visible;
+    private final FrustumIntersection frustum = new FrustumIntersection();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        bounds = new float[objectCount * Bvh.FLOATS_PER_BOX];
+        for (int i = 0; i < objectCount; i++) {
+            int b = i * Bvh.FLOATS_PER_BOX;
+            for (int k = 0; k < 3; k++) {
+                float min = (random.nextFloat() * 2.0f - 1.0f) * WORLD_HALF_SIZE;
+                bounds[b + k] = min;
+                bounds[b + 3 + k] = min + 1.0f;
+            }
+        }
+        bvh = new Bvh(bounds, objectCount);
+        visible = new int[objectCount];
+
+        Camera camera = new Camera((float)Math.toRadians(60.0f), 1.0f, 0.1f, 500f);
+        frustum.set(camera.getViewProjection());
+    }
+
+    @Benchmark
+    public int linearScan() {
+        return Bvh.cullLinear(frustum, bounds, objectCount, visible);
+    }
+
+    @Benchmark
+    public int hierarchy() {
+        return bvh.cull(frustum, visible);
+    }
+}
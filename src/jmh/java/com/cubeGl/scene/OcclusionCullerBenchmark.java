@@ -0,0 +1,67 @@
+package com.cubeGl.scene;
+
+import com.cubeGl.graphics.Camera;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por frame del {@link OcclusionCuller} en una escena densa: una pared de cubos pegados delante de la
+ * cámara (los oclusores) y una rejilla de cubos detrás, casi toda oculta. Al preparar el estado se imprimen
+ * los cubos visibles y ocultos de un frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OcclusionCullerBenchmark {
+    private static final int WALL = 16;  // WALL² cubos en la pared
+    private static final int GRID = 20;  // GRID³ cubos detrás
+
+    @Param({"64", "128", "256"})
+    public int resolution;
+
+    private OcclusionCuller culler;
+    private Matrix4f[] occluders;
+    private Matrix4f[] candidates;
+    private Matrix4f viewProjection;
+
+    @Setup
+    public void setup() {
+        Camera camera = new Camera((float)Math.toRadians(60.0f), 1.0f, 0.1f, 200f);
+        viewProjection = camera.getViewProjection(new Matrix4f());
+        culler = new OcclusionCuller(resolution, resolution);
+
+        occluders = new Matrix4f[WALL * WALL];
+        for (int i = 0; i < occluders.length; i++) {
+            occluders[i] = new Matrix4f().translation(i % WALL - WALL * 0.5f + 0.5f, i / WALL - WALL * 0.5f + 0.5f, -5.0f);
+        }
+        candidates = new Matrix4f[GRID * GRID * GRID];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = new Matrix4f().translation(
+                    (i % GRID - GRID * 0.5f) * 1.5f, (i / GRID % GRID - GRID * 0.5f) * 1.5f, -10.0f - (i / (GRID * GRID)) * 1.5f);
+        }
+        cullFrame();
+        System.out.printf("Resolución %d: %d visibles, %d ocultos%n", resolution, culler.getVisibleCount(), culler.getCulledCount());
+    }
+
+    @Benchmark
+    public int cullFrame() {
+        culler.begin(viewProjection);
+        for (Matrix4f model : occluders) {
+            culler.addOccluder(model, -0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f);
+        }
+        for (Matrix4f model : candidates) {
+            culler.isVisible(model, -0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f);
+        }
+        return culler.getVisibleCount();
+    }
+}
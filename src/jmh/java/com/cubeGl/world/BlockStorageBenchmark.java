@@ -0,0 +1,96 @@
+package com.cubeGl.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de leer, escribir y recorrer los {@link Chunk#VOLUME} bloques de un chunk con paleta
+ * ({@link BlockStorage}), en el heap o en memoria nativa, frente a un {@code short[]} sin comprimir.
+ * {@code blockTypes} fija cuántos tipos distintos hay (y con ello los bits por bloque). Al preparar el estado
+ * se imprime la memoria que ocupa el chunk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlockStorageBenchmark {
+    @Param({"heap", "offHeap"})
+    private String storage;
+
+    @Param({"4", "64", "1024"})
+    private int blockTypes;
+
+    private Chunk chunk;
+    private short[] array;        // Los mismos bloques sin comprimir, como referencia
+    private short[] values;       // Bloques a escribir en setAll (ya están en la paleta: no la hacen crecer)
+    private final short[] scratch = new short[Chunk.VOLUME];
+
+    @Setup
+    public void setup() {
+        chunk = new Chunk(storage.equals("offHeap"));
+        array = new short[Chunk.VOLUME];
+        values = new short[Chunk.VOLUME];
+        Random random = new Random(11);
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            // La mitad inferior, sólida; la superior, aire (como un chunk de superficie)
+            short block = i < Chunk.VOLUME / 2 ? (short) (1 + random.nextInt(blockTypes)) : Chunk.AIR;
+            chunk.setBlock(i, block);
+            array[i] = block;
+            values[i] = (short) (1 + random.nextInt(blockTypes));
+        }
+        BlockStorage blocks = chunk.getStorage();
+        System.out.printf("%n%s, %d tipos: %d bits/bloque, paleta %d, %d bytes en heap + %d nativos (short[]: %d)%n",
+                storage, blockTypes, blocks.getBitsPerBlock(), blocks.getPaletteSize(),
+                blocks.getHeapBytes(), blocks.getNativeBytes(), Chunk.VOLUME * Short.BYTES);
+    }
+
+    @Benchmark
+    public int getAll() {
+        int sum = 0;
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            sum += chunk.getBlock(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int iterate() {
+        chunk.copyBlocks(scratch);
+        int sum = 0;
+        for (short block : scratch) {
+            sum += block;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int arrayBaseline() {
+        int sum = 0;
+        for (short block : array) {
+            sum += block;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int setAll() {
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            chunk.setBlock(i, values[i]);
+        }
+        return chunk.getSolidCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunk.free();
+    }
+}
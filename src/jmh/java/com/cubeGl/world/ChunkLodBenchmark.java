@@ -0,0 +1,56 @@
+package com.cubeGl.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de generar cada nivel de detalle de un chunk de terreno (reducción + mallado), sin OpenGL.
+ * Al preparar el estado se imprimen los triángulos de cada nivel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkLodBenchmark {
+    @Param({"0", "1", "2", "3"})
+    private int level;
+
+    private Chunk terrain;
+    private Chunk reduced;
+    private final ChunkMesher mesher = new ChunkMesher();
+
+    @Setup
+    public void setup() {
+        terrain = new Chunk();
+        Random random = new Random(3);
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int height = 4 + random.nextInt(8);
+                for (int y = 0; y < height; y++) {
+                    terrain.setBlock(x, y, z, (short) (1 + random.nextInt(3)));
+                }
+            }
+        }
+        reduced = ChunkLod.downsample(terrain, level);
+        System.out.println("Triángulos por nivel: " + Arrays.toString(ChunkLod.triangleCounts(mesher, terrain)));
+    }
+
+    @Benchmark
+    public Chunk downsample() {
+        return ChunkLod.downsample(terrain, level);
+    }
+
+    @Benchmark
+    public int mesh() {
+        return mesher.build(reduced, ChunkLod.factor(level));
+    }
+}
@@ -0,0 +1,98 @@
+package com.cubeGl.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rayos por segundo contra terreno generado (9×9 columnas de 3 chunks), sin OpenGL: en un hilo
+ * ({@code serial}) y repartidos con fork-join ({@code batch}, pool común). {@code distance} es la distancia
+ * máxima: 8 bloques como al apuntar, 64 como una línea de visión larga. Los orígenes están por encima y por
+ * debajo de la superficie, con direcciones aleatorias.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RaycastBenchmark {
+    private static final int RAYS = 4096;
+    private static final int RADIUS = 4;
+
+    @Param({"8", "64"})
+    private float distance;
+
+    private final ChunkGrid grid = new ChunkGrid(2 * RADIUS + 1, 4, 2 * RADIUS + 1);
+    private final Chunk[] chunks = new Chunk[(2 * RADIUS + 1) * (2 * RADIUS + 1) * 3];
+    private VoxelRaycast raycast;
+    private RaycastBatch batch;
+    private final float[] origins = new float[RAYS * 3];
+    private final float[] directions = new float[RAYS * 3];
+    private final float[] maxDistances = new float[RAYS];
+    private final float[] hitDistances = new float[RAYS];
+
+    @Setup
+    public void setup() {
+        TerrainGenerator generator = new TerrainGenerator(1, -12, 8);
+        int n = 0;
+        for (int cx = -RADIUS; cx <= RADIUS; cx++) {
+            for (int cy = -2; cy <= 0; cy++) {
+                for (int cz = -RADIUS; cz <= RADIUS; cz++) {
+                    Chunk chunk = generator.generate(cx, cy, cz);
+                    chunks[n++] = chunk;
+                    grid.put(ChunkKey.of(cx, cy, cz), chunk);
+                }
+            }
+        }
+        raycast = new VoxelRaycast(grid);
+        batch = new RaycastBatch(grid);
+
+        Random random = new Random(5);
+        float extent = RADIUS * Chunk.SIZE * 0.5f;
+        for (int i = 0; i < RAYS; i++) {
+            origins[i * 3] = (random.nextFloat() * 2 - 1) * extent;
+            origins[i * 3 + 1] = -20 + random.nextFloat() * 20;
+            origins[i * 3 + 2] = (random.nextFloat() * 2 - 1) * extent;
+            directions[i * 3] = (float) random.nextGaussian();
+            directions[i * 3 + 1] = (float) random.nextGaussian();
+            directions[i * 3 + 2] = (float) random.nextGaussian();
+            maxDistances[i] = distance;
+        }
+        System.out.println("Impactos: " + batch.cast(origins, directions, maxDistances, hitDistances, RAYS) + "/" + RAYS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Chunk chunk : chunks) {
+            chunk.free();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public int serial() {
+        int hits = 0;
+        for (int i = 0; i < RAYS; i++) {
+            int o = i * 3;
+            if (raycast.cast(origins[o], origins[o + 1], origins[o + 2],
+                    directions[o], directions[o + 1], directions[o + 2], distance)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public int batch() {
+        return batch.cast(origins, directions, maxDistances, hitDistances, RAYS);
+    }
+}
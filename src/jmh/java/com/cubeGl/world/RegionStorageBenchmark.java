@@ -0,0 +1,118 @@
+package com.cubeGl.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rendimiento de la persistencia del mundo: compresión de un chunk ({@link ChunkCodec}) y guardado/carga en
+ * un {@link RegionStorage} (una región completa de chunks, recorrida en orden). {@code content} elige chunks
+ * de terreno generado o de bloques aleatorios (el peor caso para el RLE). Al terminar se imprime el tamaño
+ * medio de un chunk comprimido y el de la región en disco.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegionStorageBenchmark {
+    @Param({"terrain", "noise"})
+    private String content;
+
+    private Chunk[] chunks;
+    private Path directory;
+    private RegionStorage storage;
+    private final ByteBuffer encoded = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES);
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        chunks = new Chunk[RegionFile.CHUNKS];
+        TerrainGenerator generator = new TerrainGenerator(1, 8, 6);
+        Random random = new Random(5);
+        for (int i = 0; i < chunks.length; i++) {
+            if (content.equals("terrain")) {
+                chunks[i] = generator.generate(x(i), 0, z(i));
+            } else {
+                Chunk chunk = new Chunk();
+                for (int block = 0; block < Chunk.VOLUME; block++) {
+                    chunk.setBlock(block % Chunk.SIZE, block / (Chunk.SIZE * Chunk.SIZE), block / Chunk.SIZE % Chunk.SIZE,
+                            (short) random.nextInt(4));
+                }
+                chunks[i] = chunk;
+            }
+        }
+        directory = Files.createTempDirectory("cubegl-regions");
+        storage = new RegionStorage(directory, 4);
+        for (int i = 0; i < chunks.length; i++) {
+            storage.save(x(i), y(i), z(i), chunks[i]);
+        }
+    }
+
+    // Recorre los chunks de la región 0 en orden X, Z, Y
+    private static int x(int i) { return i % RegionFile.SIZE; }
+    private static int z(int i) { return i / RegionFile.SIZE % RegionFile.SIZE; }
+    private static int y(int i) { return i / (RegionFile.SIZE * RegionFile.SIZE); }
+
+    private int nextIndex() {
+        int i = next;
+        next = (next + 1) % chunks.length;
+        return i;
+    }
+
+    @Benchmark
+    public int encode() {
+        encoded.clear();
+        return ChunkCodec.encode(chunks[nextIndex()], encoded);
+    }
+
+    @Benchmark
+    public Chunk decode() {
+        encoded.clear();
+        ChunkCodec.encode(chunks[nextIndex()], encoded);
+        encoded.flip();
+        return ChunkCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        int i = nextIndex();
+        storage.save(x(i), y(i), z(i), chunks[i]);
+    }
+
+    @Benchmark
+    public Chunk load() throws IOException {
+        int i = nextIndex();
+        return storage.load(x(i), y(i), z(i));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        long fileBytes;
+        try (Stream<Path> files = Files.list(directory)) {
+            fileBytes = files.mapToLong(path -> path.toFile().length()).sum();
+        }
+        System.out.printf("%n%s: %.1f bytes por chunk comprimido (%d sin comprimir), %d KB en disco%n",
+                content, (double) storage.getBytesWritten() / storage.getSaveCount(), Chunk.VOLUME * Short.BYTES,
+                fileBytes / 1024);
+        storage.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.cubeGl.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Coste en CPU de volver a mallar tras editar un bloque, sin OpenGL: copia de los bordes de los vecinos y
+ * mallado del chunk ({@code remeshChunk}), y ordenación por distancia de la cola de remallado con
+ * {@code dirtyChunks} chunks marcados, entregando 16 por frame ({@code drainQueue}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RemeshBenchmark {
+    private static final int PER_FRAME = 16;
+
+    @Param({"64", "1024"})
+    private int dirtyChunks;
+
+    private final TerrainGenerator generator = new TerrainGenerator(1, -12, 8);
+    private final Chunk[] neighbors = new Chunk[ChunkBorders.FACES];
+    private final ChunkBorders borders = new ChunkBorders();
+    private final ChunkMesher mesher = new ChunkMesher();
+    private Chunk chunk;
+    private int edit;
+
+    private final RemeshQueue queue = new RemeshQueue();
+    private final LongConsumer uploadNow = queue::uploaded;
+
+    @Setup
+    public void setup() {
+        long key = ChunkKey.of(0, -1, 0); // Chunk con superficie
+        chunk = generator.generate(0, -1, 0);
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            long neighbor = ChunkBorders.neighborKey(key, face);
+            neighbors[face] = generator.generate(ChunkKey.x(neighbor), ChunkKey.y(neighbor), ChunkKey.z(neighbor));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunk.free();
+        for (Chunk neighbor : neighbors) {
+            neighbor.free();
+        }
+    }
+
+    @Benchmark
+    public int remeshChunk() {
+        // Alterna cavar y rellenar un bloque para que el chunk no cambie entre iteraciones
+        int index = (edit++ * 31) & (Chunk.VOLUME - 1);
+        chunk.setBlock(index, chunk.getBlock(index) == Chunk.AIR ? TerrainGenerator.STONE : Chunk.AIR);
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            borders.set(face, neighbors[face]);
+        }
+        return mesher.build(chunk, 1, borders);
+    }
+
+    @Benchmark
+    public int drainQueue() {
+        int side = (int) Math.ceil(Math.sqrt(dirtyChunks));
+        for (int i = 0; i < dirtyChunks; i++) {
+            queue.markDirty(ChunkKey.of(i % side - side / 2, -1, i / side - side / 2));
+        }
+        int frames = 0;
+        while (queue.drain(0, 0, 0, PER_FRAME, uploadNow) > 0) {
+            frames++;
+        }
+        return frames;
+    }
+}
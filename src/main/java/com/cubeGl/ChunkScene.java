@@ -0,0 +1,279 @@
+package com.cubeGl;
+
+import com.cubeGl.graphics.Camera;
+import com.cubeGl.graphics.FrameUniforms;
+import com.cubeGl.graphics.GLState;
+import com.cubeGl.graphics.IndirectBatch;
+import com.cubeGl.graphics.MegaBuffer;
+import com.cubeGl.graphics.Mesh;
+import com.cubeGl.graphics.ShaderProgram;
+import com.cubeGl.graphics.TextureArray;
+import com.cubeGl.graphics.VertexLayout;
+import com.cubeGl.graphics.Window;
+import com.cubeGl.world.Chunk;
+import com.cubeGl.world.ChunkMesher;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.primitives.AABBf;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+/**
+ * Escena de terreno: una rejilla de N×N chunks (32×32 por defecto) vista desde una cámara que gira, con
+ * culling por frustum de cada chunk. Informa cada segundo del tiempo de frame y del tiempo de envío en CPU.
+ * <p>
+ * Por defecto todos los chunks comparten un {@link MegaBuffer} y los visibles se dibujan con una sola llamada
+ * ({@link IndirectBatch}); con {@code -Dcubegl.indirect=false} cada chunk es un {@link Mesh} con su propio VAO
+ * y se dibuja con su uniform "model", para comparar.
+ */
+public class ChunkScene {
+    private static final int DEFAULT_GRID = 32;
+    private static final float ORBIT_SECONDS = 60.0f; // Tiempo de una vuelta completa de la cámara
+
+    private final int grid;
+    private final boolean indirect = Boolean.parseBoolean(System.getProperty("cubegl.indirect", "true"));
+
+    private Window window;
+    private Camera camera;
+    private FrameUniforms frameUniforms;
+    private TextureArray textures;
+    private ShaderProgram shader;
+
+    // Modo indirecto
+    private MegaBuffer megaBuffer;
+    private IndirectBatch batch;
+    private int[] meshHandles;
+
+    // Modo de un draw por chunk
+    private Mesh[] meshes;
+    private int modelUniform;
+    private final Matrix4f model = new Matrix4f();
+
+    private final FrustumIntersection frustum = new FrustumIntersection();
+
+    public ChunkScene(int grid) {
+        this.grid = grid;
+    }
+
+    public void run() {
+        try {
+            init();
+            loop();
+        } catch (Exception e) {
+            System.err.println("Un error fatal ocurrió:");
+            e.printStackTrace();
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void init() {
+        window = new Window(800, 800, "CubeGl Chunks (" + grid + "x" + grid + (indirect ? ", indirecto)" : ", un draw por chunk)"));
+        window.init();
+
+        textures = new TextureArray(312, 312, 1);
+        textures.load("sasel.png");
+        textures.finishLoading();
+        shader = indirect ? ShaderProgram.createPackedIndirect() : ShaderProgram.createPacked();
+        shader.use();
+        shader.setUniformTexture("uTexture", 0);
+        modelUniform = indirect ? -1 : shader.getUniform("model");
+        shader.unuse();
+        frameUniforms = new FrameUniforms();
+        camera = new Camera((float) Math.toRadians(60.0f), 1.0f, 0.1f, grid * Chunk.SIZE);
+
+        if (indirect) {
+            // Capacidad inicial pequeña a propósito: el MegaBuffer crece según llegan los chunks
+            megaBuffer = new MegaBuffer(VertexLayout.PACKED_VOXEL, 1 << 16, 1 << 16);
+            batch = new IndirectBatch(grid * grid);
+            meshHandles = new int[grid * grid];
+        } else {
+            meshes = new Mesh[grid * grid];
+        }
+        buildChunks();
+    }
+
+    /**
+     * Genera el terreno de cada chunk (una altura por columna) y sube su malla en formato compacto.
+     */
+    private void buildChunks() {
+        long start = System.nanoTime();
+        ChunkMesher mesher = new ChunkMesher();
+        mesher.setBlockLayers(new int[]{0, 0, 0, 0}); // Una sola textura para todos los bloques
+        Random random = new Random(1);
+        AABBf bounds = new AABBf(0, 0, 0, Chunk.SIZE, Chunk.SIZE, Chunk.SIZE);
+        ByteBuffer vertices = null;
+        IntBuffer indices = null;
+        int triangles = 0;
+        try {
+            for (int cz = 0; cz < grid; cz++) {
+                for (int cx = 0; cx < grid; cx++) {
+                    Chunk chunk = new Chunk();
+                    for (int x = 0; x < Chunk.SIZE; x++) {
+                        for (int z = 0; z < Chunk.SIZE; z++) {
+                            float wx = cx * Chunk.SIZE + x;
+                            float wz = cz * Chunk.SIZE + z;
+                            int height = 4 + (int) (3 * Math.sin(wx * 0.1) + 3 * Math.cos(wz * 0.13)) + random.nextInt(3);
+                            for (int y = 0; y < height; y++) {
+                                chunk.setBlock(x, y, z, (short) (1 + random.nextInt(3)));
+                            }
+                        }
+                    }
+                    int index = cz * grid + cx;
+                    int quads = mesher.build(chunk);
+                    chunk.free(); // Solo hace algo con -Dcubegl.chunk.offHeap=true
+                    if (quads == 0) {
+                        if (indirect) {
+                            meshHandles[index] = -1;
+                        }
+                        continue;
+                    }
+                    if (vertices == null || vertices.capacity() < mesher.getPackedVertexByteCount()) {
+                        MemoryUtil.memFree(vertices);
+                        MemoryUtil.memFree(indices);
+                        vertices = MemoryUtil.memAlloc(mesher.getPackedVertexByteCount() * 2);
+                        indices = MemoryUtil.memAllocInt(mesher.getIndexCount() * 2);
+                    }
+                    vertices.clear();
+                    indices.clear();
+                    mesher.copyPackedTo(vertices, indices);
+                    vertices.flip();
+                    indices.flip();
+                    triangles += indices.remaining() / 3;
+
+                    if (indirect) {
+                        meshHandles[index] = megaBuffer.add(vertices, indices, bounds);
+                    } else {
+                        meshes[index] = Mesh.create(VertexLayout.PACKED_VOXEL, vertices, indices, bounds);
+                    }
+                }
+            }
+        } finally {
+            MemoryUtil.memFree(vertices);
+            MemoryUtil.memFree(indices);
+        }
+        System.out.printf("%d chunks, %d triángulos, subidos en %.1f ms%n",
+                grid * grid, triangles, (System.nanoTime() - start) / 1e6);
+        if (indirect) {
+            System.out.println(megaBuffer.report());
+        }
+    }
+
+    private void loop() {
+        long reportStart = System.nanoTime();
+        long lastFrame = reportStart;
+        long submitNanos = 0;
+        long frameNanos = 0;
+        long drawn = 0;
+        int frames = 0;
+        float center = grid * Chunk.SIZE * 0.5f;
+
+        while (!window.shouldClose()) {
+            if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+                glfwSetWindowShouldClose(window.getWindowHandle(), true);
+            }
+
+            // La cámara gira alrededor del centro del terreno, mirando hacia fuera
+            float time = (float) GLFW.glfwGetTime();
+            float yaw = 360.0f * time / ORBIT_SECONDS;
+            camera.setPose(center, 24.0f, center, yaw, -15.0f);
+            camera.updateViewMatrix();
+            long submitStart = System.nanoTime();
+
+            // Envío: culling por frustum y dibujado de los chunks visibles
+            window.clear();
+            frameUniforms.update(camera, time);
+            shader.use();
+            textures.bind(0);
+            frustum.set(camera.getViewProjection());
+            if (indirect) {
+                batch.clear();
+            }
+            for (int cz = 0; cz < grid; cz++) {
+                for (int cx = 0; cx < grid; cx++) {
+                    float x = cx * Chunk.SIZE;
+                    float z = cz * Chunk.SIZE;
+                    if (!frustum.testAab(x, 0, z, x + Chunk.SIZE, Chunk.SIZE, z + Chunk.SIZE)) {
+                        continue;
+                    }
+                    int index = cz * grid + cx;
+                    if (indirect ? meshHandles[index] < 0 : meshes[index] == null) {
+                        continue; // Chunk vacío
+                    }
+                    if (indirect) {
+                        batch.add(meshHandles[index], x, 0, z, 1.0f);
+                    } else {
+                        shader.setUniformMat4f(modelUniform, model.translation(x, 0, z));
+                        meshes[index].render();
+                    }
+                    drawn++;
+                }
+            }
+            if (indirect) {
+                batch.draw(megaBuffer);
+            }
+            long submitEnd = System.nanoTime();
+
+            window.swapBuffers();
+            window.pollEvents();
+
+            long now = System.nanoTime();
+            submitNanos += submitEnd - submitStart;
+            frameNanos += now - lastFrame;
+            lastFrame = now;
+            frames++;
+
+            if (now - reportStart >= 1_000_000_000L) {
+                System.out.printf("%d fps | frame %.3f ms | submit CPU %.3f ms | %.0f chunks/frame | %s%n",
+                        frames, frameNanos / 1e6 / frames, submitNanos / 1e6 / frames, (double) drawn / frames,
+                        indirect ? batch.report() : GLState.report());
+                GLState.resetCounters();
+                reportStart = now;
+                submitNanos = 0;
+                frameNanos = 0;
+                drawn = 0;
+                frames = 0;
+            }
+        }
+    }
+
+    private void cleanup() {
+        if (batch != null) {
+            batch.cleanup();
+        }
+        if (megaBuffer != null) {
+            System.out.println(megaBuffer.report());
+            megaBuffer.cleanup();
+        }
+        if (meshes != null) {
+            for (Mesh mesh : meshes) {
+                if (mesh != null) {
+                    mesh.cleanup();
+                }
+            }
+        }
+        if (shader != null) {
+            shader.cleanup();
+        }
+        if (frameUniforms != null) {
+            frameUniforms.cleanup();
+        }
+        if (textures != null) {
+            textures.cleanup();
+        }
+
+        GLFW.glfwTerminate();
+    }
+
+    public static void main(String[] args) {
+        int grid = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GRID;
+        new ChunkScene(grid).run();
+    }
+}
@@ -0,0 +1,297 @@
+package com.cubeGl;
+
+import com.cubeGl.graphics.Camera;
+import com.cubeGl.graphics.FrameCapture;
+import com.cubeGl.graphics.FrameUniforms;
+import com.cubeGl.graphics.Framebuffer;
+import com.cubeGl.graphics.GLState;
+import com.cubeGl.graphics.Mesh;
+import com.cubeGl.graphics.RenderQueue;
+import com.cubeGl.graphics.ShaderProgram;
+import com.cubeGl.graphics.Texture;
+import com.cubeGl.graphics.Window;
+import com.cubeGl.scene.OcclusionCuller;
+import com.cubeGl.util.Profiler;
+
+import org.joml.Matrix4f;
+import org.joml.primitives.AABBf;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.stb.STBImageWrite;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.lwjgl.opengl.GL11.glFinish;
+
+/**
+ * Modo sin ventana visible para medir y comprobar el render de forma reproducible (por ejemplo, en un
+ * agente de integración con Mesa bajo Xvfb, o con {@code -Dcubegl.egl=true}).
+ * <p>
+ * Dibuja una rejilla de cubos en un {@link Framebuffer}, sin V-Sync, durante un número fijo de frames y con
+ * un paso de tiempo fijo: la escena de cada frame depende solo de su número. Al terminar informa del
+ * rendimiento. Opciones:
+ * <ul>
+ *   <li>{@code -Dcubegl.capture.dir=dir}: guarda frames en PNG (lectura asíncrona con PBOs).</li>
+ *   <li>{@code -Dcubegl.capture.every=N}: captura uno de cada N frames (60 por defecto).</li>
+ *   <li>{@code -Dcubegl.golden.dir=dir}: compara las capturas con las imágenes de referencia de esa carpeta
+ *       (mismos nombres) y termina con código 1 si alguna difiere.</li>
+ *   <li>{@code -Dcubegl.occlusion=false}: desactiva el culling por oclusión ({@link OcclusionCuller}).</li>
+ * </ul>
+ */
+public class HeadlessBenchmark {
+    private static final int DEFAULT_FRAMES = 1000;
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 800;
+    private static final float TIMESTEP = 1.0f / 60.0f;
+    private static final int GRID = 10; // GRID^3 cubos
+    private static final float SPACING = 1.5f;
+    private static final float FAR_PLANE = 100f;
+    private static final int PIXEL_TOLERANCE = 2;        // Diferencia máxima por canal
+    private static final double MAX_DIFF_FRACTION = 0.001; // Fracción de píxeles distintos permitida
+
+    private final int frames;
+    private final Path captureDir;
+    private final Path goldenDir;
+    private final int captureEvery;
+    private final AtomicInteger goldenFailures = new AtomicInteger();
+
+    private Window window;
+    private Framebuffer framebuffer;
+    private FrameCapture capture;
+    private Mesh cube;
+    private ShaderProgram shader;
+    private Texture texture;
+    private FrameUniforms frameUniforms;
+    private Camera camera;
+    private final RenderQueue renderQueue = new RenderQueue(GRID * GRID * GRID);
+    private final Profiler profiler = new Profiler(DEFAULT_FRAMES);
+    private final int cullScope = profiler.addSeries("cull");
+    private final Matrix4f[] models = new Matrix4f[GRID * GRID * GRID];
+
+    // Los mismos cubos sirven de oclusores y de candidatos; con los huecos de la rejilla solo se ocultan
+    // los que quedan completamente tapados por los de delante
+    private static final int OCCLUSION_WIDTH = 128;
+    private static final int OCCLUSION_HEIGHT = 128;
+    private final OcclusionCuller occlusion = Boolean.parseBoolean(System.getProperty("cubegl.occlusion", "true"))
+            ? new OcclusionCuller(OCCLUSION_WIDTH, OCCLUSION_HEIGHT) : null;
+
+    public HeadlessBenchmark(int frames, Path captureDir, Path goldenDir, int captureEvery) {
+        this.frames = frames;
+        this.captureDir = captureDir;
+        this.goldenDir = goldenDir;
+        this.captureEvery = captureEvery;
+    }
+
+    /**
+     * @return Verdadero si la ejecución terminó y todas las capturas coinciden con las de referencia.
+     */
+    public boolean run() {
+        try {
+            init();
+            loop();
+            return goldenFailures.get() == 0;
+        } catch (Exception e) {
+            System.err.println("Un error fatal ocurrió:");
+            e.printStackTrace();
+            return false;
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void init() throws Exception {
+        window = new Window(WIDTH, HEIGHT, "CubeGl Headless", true);
+        window.init();
+        framebuffer = new Framebuffer(WIDTH, HEIGHT);
+
+        cube = Mesh.createCube();
+        shader = new ShaderProgram();
+        texture = new Texture("sasel.png");
+        shader.use();
+        shader.setUniformTexture("uTexture", 0);
+        frameUniforms = new FrameUniforms();
+        camera = new Camera((float)Math.toRadians(60.0f), (float) WIDTH / HEIGHT, 0.1f, FAR_PLANE);
+        camera.movePosition(0, 0, -12.0f); // Retroceder para ver toda la rejilla
+        camera.updateViewMatrix();
+
+        if (captureDir != null || goldenDir != null) {
+            if (captureDir != null) {
+                Files.createDirectories(captureDir);
+            }
+            capture = new FrameCapture(WIDTH, HEIGHT, 3, this::onCapture);
+        }
+    }
+
+    private void loop() {
+        int shaderId = renderQueue.registerShader(shader);
+        int textureId = renderQueue.registerTexture(texture);
+        int cubeId = renderQueue.registerMesh(cube);
+        float half = (GRID - 1) * SPACING * 0.5f;
+        AABBf bounds = cube.getBounds();
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new Matrix4f();
+        }
+        long visibleTotal = 0;
+
+        framebuffer.bind();
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            float time = frame * TIMESTEP; // Paso fijo: el contenido de cada frame es determinista
+
+            frameUniforms.update(camera, time);
+            window.clear();
+            renderQueue.clear();
+            long t = System.nanoTime();
+            for (int i = 0; i < models.length; i++) {
+                models[i].translation(i % GRID * SPACING - half, i / GRID % GRID * SPACING - half, -(i / (GRID * GRID)) * SPACING)
+                        .rotateY(time * 0.5f + i * 0.1f)
+                        .rotateX(time * 0.5f);
+            }
+            if (occlusion != null) {
+                occlusion.begin(camera.getViewProjection());
+                for (Matrix4f model : models) {
+                    occlusion.addOccluder(model, bounds.minX, bounds.minY, bounds.minZ, bounds.maxX, bounds.maxY, bounds.maxZ);
+                }
+            }
+            for (Matrix4f model : models) {
+                if (occlusion != null && !occlusion.isVisible(model,
+                        bounds.minX, bounds.minY, bounds.minZ, bounds.maxX, bounds.maxY, bounds.maxZ)) {
+                    continue;
+                }
+                float distance = camera.getPosition().distance(model.m30(), model.m31(), model.m32());
+                renderQueue.submit(shaderId, textureId, cubeId, distance, FAR_PLANE, model);
+            }
+            visibleTotal += renderQueue.size();
+            profiler.record(cullScope, t);
+            renderQueue.sort();
+            renderQueue.execute();
+
+            if (capture != null) {
+                if (frame % captureEvery == 0) {
+                    capture.capture(frame);
+                }
+                capture.poll();
+            }
+            // Sin ventana que presentar, el swap sigue marcando el final del frame para el driver
+            window.swapBuffers();
+            window.pollEvents();
+            profiler.endFrame();
+        }
+        glFinish();
+        long elapsed = System.nanoTime() - start;
+        if (capture != null) {
+            capture.finish();
+        }
+
+        System.out.printf("Headless: %d frames en %.3f s | %.1f fps | %d cubos, %.1f dibujados/frame%n",
+                frames, elapsed / 1e9, frames / (elapsed / 1e9), GRID * GRID * GRID, (double) visibleTotal / frames);
+        System.out.println(profiler.summary());
+        if (occlusion != null) {
+            System.out.println(occlusion.report());
+        }
+        System.out.println(GLState.report());
+        if (capture != null) {
+            System.out.printf("Capturas: %d (esperas por PBO: %d)%n", capture.getCapturedCount(), capture.getStallCount());
+        }
+    }
+
+    // Se ejecuta en el hilo de escritura de FrameCapture
+    private void onCapture(int frame, ByteBuffer rgba, int width, int height) {
+        String name = String.format("frame_%05d.png", frame);
+        if (captureDir != null) {
+            STBImageWrite.stbi_flip_vertically_on_write(true); // OpenGL devuelve las filas de abajo arriba
+            if (!STBImageWrite.stbi_write_png(captureDir.resolve(name).toString(), width, height, 4, rgba, width * 4)) {
+                System.err.println("Advertencia: no se pudo escribir " + name);
+            }
+        }
+        if (goldenDir != null) {
+            compareWithGolden(goldenDir.resolve(name), rgba, width, height);
+        }
+    }
+
+    private void compareWithGolden(Path golden, ByteBuffer rgba, int width, int height) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer c = stack.mallocInt(1);
+            ByteBuffer expected = STBImage.stbi_load(golden.toString(), w, h, c, 4);
+            if (expected == null) {
+                System.err.println("Referencia no encontrada o ilegible: " + golden);
+                goldenFailures.incrementAndGet();
+                return;
+            }
+            try {
+                if (w.get(0) != width || h.get(0) != height) {
+                    System.err.println("La referencia " + golden + " tiene otro tamaño.");
+                    goldenFailures.incrementAndGet();
+                    return;
+                }
+                int different = 0;
+                for (int y = 0; y < height; y++) {
+                    int capturedRow = y * width * 4;
+                    int expectedRow = (height - 1 - y) * width * 4; // El PNG está de arriba abajo
+                    for (int x = 0; x < width * 4; x += 4) {
+                        for (int k = 0; k < 4; k++) {
+                            int a = rgba.get(capturedRow + x + k) & 0xFF;
+                            int b = expected.get(expectedRow + x + k) & 0xFF;
+                            if (Math.abs(a - b) > PIXEL_TOLERANCE) {
+                                different++;
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (different > MAX_DIFF_FRACTION * width * height) {
+                    System.err.printf("Diferencia con %s: %d píxeles distintos%n", golden.getFileName(), different);
+                    goldenFailures.incrementAndGet();
+                }
+            } finally {
+                STBImage.stbi_image_free(expected);
+            }
+        }
+    }
+
+    private void cleanup() {
+        if (capture != null) {
+            capture.cleanup();
+        }
+        if (framebuffer != null) {
+            framebuffer.cleanup();
+        }
+        if (shader != null) {
+            shader.cleanup();
+        }
+        if (frameUniforms != null) {
+            frameUniforms.cleanup();
+        }
+        if (cube != null) {
+            cube.cleanup();
+        }
+        if (texture != null) {
+            texture.cleanup();
+        }
+
+        GLFW.glfwTerminate();
+    }
+
+    private static Path pathProperty(String name) {
+        String value = System.getProperty(name);
+        return value == null || value.isEmpty() ? null : Path.of(value);
+    }
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        HeadlessBenchmark benchmark = new HeadlessBenchmark(frames,
+                pathProperty("cubegl.capture.dir"),
+                pathProperty("cubegl.golden.dir"),
+                Integer.getInteger("cubegl.capture.every", 60));
+        if (!benchmark.run()) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,14 +1,52 @@
 package com.cubeGl;
 
 import com.cubeGl.graphics.Camera;
+import com.cubeGl.graphics.FrameUniforms;
+import com.cubeGl.graphics.GLState;
+import com.cubeGl.graphics.GpuTimer;
+import com.cubeGl.graphics.IndirectBatch;
+import com.cubeGl.graphics.LodSelector;
+import com.cubeGl.graphics.MegaBuffer;
 import com.cubeGl.graphics.Mesh;
+import com.cubeGl.graphics.MeshFile;
+import com.cubeGl.graphics.RenderQueue;
+import com.cubeGl.graphics.ShaderManager;
 import com.cubeGl.graphics.ShaderProgram;
+import com.cubeGl.graphics.TextureArray;
+import com.cubeGl.graphics.VertexLayout;
 import com.cubeGl.graphics.Window;
 import com.cubeGl.graphics.Transform;
 import com.cubeGl.graphics.Texture; // Importar la clase Texture
+import com.cubeGl.sim.Simulation;
+import com.cubeGl.sim.SimulationState;
+import com.cubeGl.util.AllocationMonitor;
+import com.cubeGl.util.LongLongMap;
+import com.cubeGl.util.Profiler;
+import com.cubeGl.world.Chunk;
+import com.cubeGl.world.ChunkBorders;
+import com.cubeGl.world.ChunkGrid;
+import com.cubeGl.world.ChunkKey;
+import com.cubeGl.world.ChunkMeshScheduler;
+import com.cubeGl.world.RegionStorage;
+import com.cubeGl.world.RemeshQueue;
+import com.cubeGl.world.TerrainGenerator;
+import com.cubeGl.world.VoxelRaycast;
+import com.cubeGl.world.WorldStreamer;
 
+import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.primitives.AABBf;
 import org.lwjgl.glfw.GLFW;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
 import static org.lwjgl.glfw.GLFW.*;
 
 /**
@@ -18,13 +56,130 @@ public class Main {
     private Window window;
     private Mesh cube;
     private ShaderProgram shader;
+    private ShaderManager shaders; // Caché de binarios y recarga en caliente (-Dcubegl.shaders.*)
     private Transform transform;
     private Camera camera;
     private Texture texture; // Campo para la textura
+    private FrameUniforms frameUniforms; // UBO con vista/proyección/tiempo, compartido por los shaders
+
+    // Cola de dibujado ordenada por clave (shader, textura, malla, profundidad)
+    private static final float FAR_PLANE = 100f;
+    private final RenderQueue renderQueue = new RenderQueue(64);
+    private int shaderId;
+    private int textureId;
+    private int cubeId;
+
+    // Culling por frustum: planos de la cámara y caja del cubo en espacio de mundo
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final Vector3f worldMin = new Vector3f();
+    private final Vector3f worldMax = new Vector3f();
+
+    // Matrices reutilizadas en cada frame (el bucle no debe generar basura)
+    private final Matrix4f model = new Matrix4f();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3f interpolatedPosition = new Vector3f();
 
-    // Variables para el control del tiempo (deltaTime y lastFrame)
-    private float deltaTime = 0.0f;
-    private float lastFrame = 0.0f;
+    // Mundo por chunks alrededor de la cámara. Solo se guarda en disco, en archivos de región, si se indica un
+    // directorio con -Dcubegl.world.dir (por ejemplo, build/world); si no, los cambios duran lo que la sesión.
+    // -Dcubegl.world.radius fija el radio de carga en chunks (0 lo desactiva) y -Dcubegl.world.cache los chunks
+    // descargados que se conservan en memoria
+    private static final int WORLD_MIN_CHUNK_Y = -2; // La superficie queda por debajo del cubo
+    private static final int WORLD_MAX_CHUNK_Y = 0;
+    private static final int WORLD_OPEN_REGIONS = 16;
+    private static final long WORLD_BUDGET_NANOS = 2_000_000L; // Por frame, para entregar chunks y para subir mallas
+    private WorldStreamer world;
+    private ChunkMeshScheduler<Long> chunkMeshes;
+    private MegaBuffer worldBuffer;
+    private IndirectBatch worldBatch;
+    private TextureArray worldTextures;
+    private ShaderProgram worldShader;
+    // Chunks con malla en arrays paralelos (se recorren cada frame sin iteradores) y su posición en ellos
+    private long[] meshKeys = new long[256];
+    private int[] meshHandles = new int[256];
+    private int meshCount;
+    private final LongLongMap meshSlots = new LongLongMap(256, -1);
+    private final AABBf chunkBounds = new AABBf(0, 0, 0, Chunk.SIZE, Chunk.SIZE, Chunk.SIZE);
+    // Todo el mallado pasa por la cola de remallado: al cargarse un chunk, al cambiar un vecino o al editar
+    // bloques (F quita el bloque al que apunta la cámara y G pone otro delante). Como mucho
+    // -Dcubegl.remesh.perFrame chunks por frame (16 por defecto), los más cercanos primero
+    private final RemeshQueue remesh = new RemeshQueue();
+    private final ChunkBorders chunkBorders = new ChunkBorders();
+    private int remeshPerFrame;
+    private final LongConsumer remeshChunk = this::remeshChunk;
+    // Nivel de detalle de cada chunk con bloques (ver ChunkLod) según su tamaño en pantalla, con histéresis para
+    // que un chunk en el límite no alterne de nivel; al cambiar de nivel vuelve a la cola de remallado. Sin
+    // nivel guardado (-Dcubegl.world.lod=false, o un chunk vacío al que se le ponen bloques) se malla completo
+    private static final float CHUNK_RADIUS = Chunk.SIZE * 0.8660254f; // Radio de la esfera envolvente
+    private static final float[] CHUNK_LOD_THRESHOLDS = {0.5f, 0.25f, 0.125f}; // Con 60° de FOV: a 3, 6 y 12 chunks
+    private static final float CHUNK_LOD_HYSTERESIS = 0.15f;
+    private final LodSelector chunkLod = new LodSelector(CHUNK_LOD_THRESHOLDS, CHUNK_LOD_HYSTERESIS);
+    private final LongLongMap chunkLevels = new LongLongMap(256, -1); // Nivel con que se malla cada chunk
+    private boolean chunkLodEnabled;
+    // Chunks cargados por coordenadas, para los rayos (ver VoxelRaycast)
+    private static final float PICK_DISTANCE = 8.0f;
+    private ChunkGrid worldGrid;
+    private VoxelRaycast picker;
+    private final Vector3f pickDirection = new Vector3f();
+    private final WorldStreamer.Listener worldListener = new WorldStreamer.Listener() {
+        @Override
+        public void chunkLoaded(long key, Chunk chunk) {
+            worldGrid.put(key, chunk); // También los vacíos: se puede construir en ellos
+            if (chunk.isEmpty()) {
+                return; // Para los vecinos, un chunk vacío es igual que uno sin cargar
+            }
+            if (chunkLodEnabled) {
+                chunkLevels.put(key, chunkLod.levelFor(chunkScreenSize(key))); // Antes de mallar él o sus vecinos
+            }
+            remesh.markDirty(key);
+            markLoadedNeighbors(key); // Sus caras del borde con este chunk ya no se ven
+        }
+
+        @Override
+        public void chunkUnloaded(long key) {
+            worldGrid.remove(key);
+            removeChunkMesh(key);
+            remesh.remove(key);
+            chunkLevels.remove(key);
+            markLoadedNeighbors(key);
+        }
+    };
+    private final ChunkMeshScheduler.PackedUploader<Long> chunkUploader = new ChunkMeshScheduler.PackedUploader<>() {
+        @Override
+        public void upload(Long key, ByteBuffer vertices, IntBuffer indices) {
+            uploadChunkMesh(key, vertices, indices);
+        }
+
+        // Se conserva la malla anterior; el chunk vuelve a mallarse con el siguiente cambio (un bloque, un vecino
+        // o su nivel de detalle). No se reintenta enseguida: un fallo así suele repetirse con los mismos bloques
+        @Override
+        public void failed(Long key, RuntimeException error) {
+            System.err.println("Advertencia: no se pudo mallar el chunk " + ChunkKey.toString(key) + ": " + error);
+            remesh.uploaded(key);
+        }
+    };
+
+    // Simulación a paso fijo en su propio hilo (-Dcubegl.sim.hz, 60 por defecto); el render interpola
+    private Simulation simulation;
+
+    // Con -Dcubegl.allocationCheck=true se informa al salir de la memoria reservada por frame tras el calentamiento
+    // (la comprobación automática está en FrameAllocationTest)
+    private static final int ALLOCATION_WARMUP_FRAMES = 120;
+    private AllocationMonitor allocationMonitor;
+
+    // Perfilador siempre activo: ámbitos de CPU por fase y tiempo de GPU del render.
+    // Al salir se imprime un resumen; los percentiles solo se escriben si se indica -Dcubegl.profile.output
+    // (CSV, o JSON si termina en .json)
+    private static final int PROFILE_HISTORY_FRAMES = 8192;
+    private static final int GPU_TIMER_LATENCY = 4;
+    private static final int GPU_RENDER = 0;
+    private final Profiler profiler = new Profiler(PROFILE_HISTORY_FRAMES);
+    private final int inputScope = profiler.addSeries("input");
+    private final int updateScope = profiler.addSeries("update");
+    private final int worldScope = profiler.addSeries("world");
+    private final int cullScope = profiler.addSeries("cull");
+    private final int submitScope = profiler.addSeries("submit");
+    private final int swapScope = profiler.addSeries("swap");
+    private GpuTimer gpuTimer;
 
     public void run() {
         try {
@@ -45,9 +200,19 @@ public class Main {
         window = new Window(800, 800, "CubeGl Modular");
         window.init();
 
-        // Carga de recursos
-        cube = Mesh.createCube();
-        shader = new ShaderProgram();
+        // Carga de recursos (con -Dcubegl.mesh=archivo.cgm, una malla precompilada en formato STANDARD en lugar del cubo)
+        String meshPath = System.getProperty("cubegl.mesh");
+        if (meshPath != null) {
+            try {
+                cube = MeshFile.open(Path.of(meshPath)).createMesh(0);
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo cargar la malla " + meshPath, e);
+            }
+        } else {
+            cube = Mesh.createCube();
+        }
+        shaders = ShaderManager.fromSystemProperties();
+        shader = shaders.load("default.vert", "texture.frag", "model", "uTexture");
         transform = new Transform();
 
         // --- Cargar la Textura sasel.png ---
@@ -65,59 +230,246 @@ public class Main {
         // Le decimos al shader que la uniform 'uTexture' debe leer de la unidad de textura 0
         shader.setUniformTexture("uTexture", 0);
         shader.unuse();
+        frameUniforms = new FrameUniforms();
+
+        shaderId = renderQueue.registerShader(shader);
+        textureId = renderQueue.registerTexture(texture);
+        cubeId = renderQueue.registerMesh(cube);
 
         // Inicializar la cámara
         float fov = (float)Math.toRadians(60.0f);
         float aspectRatio = 1.0f;
-        camera = new Camera(fov, aspectRatio, 0.1f, 100f);
+        camera = new Camera(fov, aspectRatio, 0.1f, FAR_PLANE);
+        simulation = new Simulation(Integer.getInteger("cubegl.sim.hz", 60), camera, profiler);
+
+        gpuTimer = new GpuTimer(profiler, GPU_TIMER_LATENCY, "render");
+
+        int worldRadius = Integer.getInteger("cubegl.world.radius", 5);
+        if (worldRadius > 0) {
+            initWorld(worldRadius);
+        }
+
+        if (Boolean.getBoolean("cubegl.allocationCheck")) {
+            allocationMonitor = new AllocationMonitor(ALLOCATION_WARMUP_FRAMES);
+        }
     }
 
     /**
-     * Procesa la entrada del teclado para mover la cámara.
+     * Prepara el mundo por chunks: carga y guardado en segundo plano, mallado en hilos de trabajo y dibujado
+     * de todos los chunks visibles con una sola llamada desde un {@link MegaBuffer}.
      */
-    private void processInput() {
-        float cameraMoveSpeed = 5.0f * deltaTime;
-        float cameraRotationSpeed = 80.0f * deltaTime;
+    private void initWorld(int radius) {
+        String directory = System.getProperty("cubegl.world.dir");
+        RegionStorage storage = null;
+        if (directory != null && !directory.isEmpty()) {
+            try {
+                storage = new RegionStorage(Path.of(directory), WORLD_OPEN_REGIONS);
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo abrir el mundo en " + directory, e);
+            }
+        }
+        world = new WorldStreamer(storage, new TerrainGenerator(1, -12, 8), radius,
+                WORLD_MIN_CHUNK_Y, WORLD_MAX_CHUNK_Y, Integer.getInteger("cubegl.world.cache", 1024));
 
-        // --- CERRAR VENTANA ---
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_ESCAPE) == GLFW_PRESS) {
-            glfwSetWindowShouldClose(window.getWindowHandle(), true);
+        chunkMeshes = new ChunkMeshScheduler<>(Math.max(1, Runtime.getRuntime().availableProcessors() - 2), true);
+        chunkMeshes.setBlockLayers(new int[]{0, 0, 0, 0}); // Una sola textura para todos los bloques
+        remeshPerFrame = Integer.getInteger("cubegl.remesh.perFrame", 16);
+        chunkLodEnabled = Boolean.parseBoolean(System.getProperty("cubegl.world.lod", "true"));
+        worldTextures = new TextureArray(312, 312, 1);
+        worldTextures.load("sasel.png");
+        worldTextures.finishLoading();
+        worldShader = shaders.load("packed_indirect.vert", "texture_array.frag", "uTexture");
+        worldShader.use();
+        worldShader.setUniformTexture("uTexture", 0);
+        worldShader.unuse();
+
+        // Como mucho, los chunks del radio de descarga (un chunk más que el de carga)
+        int side = 2 * (radius + 1) + 1;
+        worldBuffer = new MegaBuffer(VertexLayout.PACKED_VOXEL, 1 << 18, 1 << 18);
+        worldBatch = new IndirectBatch(side * side * (WORLD_MAX_CHUNK_Y - WORLD_MIN_CHUNK_Y));
+        worldGrid = new ChunkGrid(side, WORLD_MAX_CHUNK_Y - WORLD_MIN_CHUNK_Y, side);
+        picker = new VoxelRaycast(worldGrid);
+    }
+
+    private void markLoadedNeighbors(long key) {
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            long neighbor = ChunkBorders.neighborKey(key, face);
+            Chunk chunk = world.getChunk(neighbor);
+            if (chunk != null && !chunk.isEmpty()) {
+                remesh.markDirty(neighbor);
+            }
         }
+    }
 
-        // --- TRASLACIÓN (Movimiento Local/Relativo) ---
-        // W/S (Front/Back)
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_W) == GLFW_PRESS) {
-            camera.movePosition(0, 0, cameraMoveSpeed);
+    // Encola el mallado de un chunk que sale de la cola de remallado, en su nivel de detalle. Los chunks
+    // completos tienen en cuenta los bordes de sus vecinos completos; contra un vecino reducido (o en los
+    // niveles reducidos, contra todos) se emiten las caras del borde, que tapan las grietas entre niveles
+    private void remeshChunk(long key) {
+        Chunk chunk = world.getChunk(key);
+        if (chunk == null || chunk.isEmpty()) {
+            removeChunkMesh(key); // Sin chunk o sin bloques no hay nada que mallar
+            chunkLevels.remove(key);
+            remesh.uploaded(key);
+            return;
+        }
+        int level = (int) chunkLevels.get(key);
+        if (level > 0) {
+            chunkMeshes.submit(key, chunk, level);
+            return;
+        }
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            long neighbor = ChunkBorders.neighborKey(key, face);
+            chunkBorders.set(face, chunkLevels.get(neighbor) > 0 ? null : world.getChunk(neighbor));
+        }
+        chunkMeshes.submit(key, chunk, chunkBorders);
+    }
+
+    /**
+     * Recalcula el nivel de detalle de los chunks mallados (o en la cola) según la cámara. Los que cambian de
+     * nivel se vuelven a mallar y, si pasan de completo a reducido o al revés, también sus vecinos (sus caras
+     * del borde dependen de ello).
+     */
+    private void updateChunkLods() {
+        for (int slot = chunkLevels.nextSlot(-1); slot >= 0; slot = chunkLevels.nextSlot(slot)) {
+            long key = chunkLevels.keyAt(slot);
+            int level = (int) chunkLevels.valueAt(slot);
+            int selected = chunkLod.select(level, chunkScreenSize(key));
+            if (selected == level) {
+                continue;
+            }
+            chunkLevels.put(key, selected); // La clave ya está: no cambia el recorrido
+            remesh.markDirty(key);
+            if ((level == 0) != (selected == 0)) {
+                markLoadedNeighbors(key);
+            }
+        }
+    }
+
+    private float chunkScreenSize(long key) {
+        Vector3f position = camera.getPosition();
+        float dx = (ChunkKey.x(key) + 0.5f) * Chunk.SIZE - position.x;
+        float dy = (ChunkKey.y(key) + 0.5f) * Chunk.SIZE - position.y;
+        float dz = (ChunkKey.z(key) + 0.5f) * Chunk.SIZE - position.z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return LodSelector.screenSize(CHUNK_RADIUS, distance, camera.getProjectionMatrix());
+    }
+
+    /**
+     * Quita el bloque al que apunta la cámara (a menos de {@link #PICK_DISTANCE}) o pone uno de piedra
+     * pegado a la cara apuntada. Solo se vuelven a mallar su chunk y, si está en un borde, el vecino.
+     */
+    private void editPicked(boolean place) {
+        Vector3f position = camera.getPosition();
+        camera.getFront(pickDirection);
+        if (!picker.cast(position.x, position.y, position.z,
+                pickDirection.x, pickDirection.y, pickDirection.z, PICK_DISTANCE)) {
+            return;
         }
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_S) == GLFW_PRESS) {
-            camera.movePosition(0, 0, -cameraMoveSpeed);
+        int x = picker.getBlockX();
+        int y = picker.getBlockY();
+        int z = picker.getBlockZ();
+        if (place) {
+            if (picker.getNormalX() == 0 && picker.getNormalY() == 0 && picker.getNormalZ() == 0) {
+                return; // La cámara está dentro del bloque
+            }
+            x += picker.getNormalX();
+            y += picker.getNormalY();
+            z += picker.getNormalZ();
         }
+        if (world.setBlock(x, y, z, place ? TerrainGenerator.STONE : Chunk.AIR)) {
+            remesh.markBlockChanged(x, y, z);
+        }
+    }
 
-        // A/D (Left/Right - Strafe)
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_A) == GLFW_PRESS) {
-            camera.movePosition(-cameraMoveSpeed, 0, 0);
+    // Sube (o sustituye, en su sitio si cabe) la malla de un chunk que sigue cargado
+    private void uploadChunkMesh(Long key, ByteBuffer vertices, IntBuffer indices) {
+        remesh.uploaded(key);
+        if (world.getChunk(key) == null) {
+            return; // Se descargó mientras se mallaba
+        }
+        if (!indices.hasRemaining()) {
+            removeChunkMesh(key);
+            return;
         }
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_D) == GLFW_PRESS) {
-            camera.movePosition(cameraMoveSpeed, 0, 0);
+        int slot = (int) meshSlots.get(key);
+        if (slot >= 0) {
+            worldBuffer.update(meshHandles[slot], vertices, indices, chunkBounds);
+            return;
         }
+        if (meshCount == meshKeys.length) {
+            meshKeys = Arrays.copyOf(meshKeys, meshCount * 2);
+            meshHandles = Arrays.copyOf(meshHandles, meshCount * 2);
+        }
+        meshKeys[meshCount] = key;
+        meshHandles[meshCount] = worldBuffer.add(vertices, indices, chunkBounds);
+        meshSlots.put(key, meshCount++);
+    }
 
-        // SPACE/SHIFT (Up/Down)
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_SPACE) == GLFW_PRESS) {
-            camera.movePosition(0, cameraMoveSpeed, 0);
+    private void removeChunkMesh(long key) {
+        int slot = (int) meshSlots.remove(key);
+        if (slot < 0) {
+            return;
         }
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_LEFT_SHIFT) == GLFW_PRESS) {
-            camera.movePosition(0, -cameraMoveSpeed, 0);
+        worldBuffer.remove(meshHandles[slot]);
+        // El último ocupa el hueco
+        int last = --meshCount;
+        if (slot != last) {
+            meshKeys[slot] = meshKeys[last];
+            meshHandles[slot] = meshHandles[last];
+            meshSlots.put(meshKeys[slot], slot);
         }
+    }
 
-        // --- ROTACIÓN (Giro de la vista con Q/E) ---
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_Q) == GLFW_PRESS) {
-            camera.processMouseMovement(-cameraRotationSpeed, 0, true);
+    /**
+     * Dibuja los chunks con malla que tocan el frustum, con una sola llamada.
+     */
+    private void renderWorld() {
+        worldShader.use();
+        worldTextures.bind(0);
+        worldBatch.clear();
+        for (int i = 0; i < meshCount; i++) {
+            long key = meshKeys[i];
+            float x = ChunkKey.x(key) * Chunk.SIZE;
+            float y = ChunkKey.y(key) * Chunk.SIZE;
+            float z = ChunkKey.z(key) * Chunk.SIZE;
+            if (frustum.testAab(x, y, z, x + Chunk.SIZE, y + Chunk.SIZE, z + Chunk.SIZE)) {
+                worldBatch.add(meshHandles[i], x, y, z, 1.0f);
+            }
+        }
+        worldBatch.draw(worldBuffer);
+    }
+
+    /**
+     * Lee el teclado y pasa la entrada a la simulación, que mueve la cámara en su propio hilo.
+     */
+    private void processInput() {
+        long handle = window.getWindowHandle();
+
+        // --- CERRAR VENTANA ---
+        if (glfwGetKey(handle, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+            glfwSetWindowShouldClose(handle, true);
         }
-        if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_E) == GLFW_PRESS) {
-            camera.processMouseMovement(cameraRotationSpeed, 0, true);
+
+        int input = 0;
+        // --- TRASLACIÓN (Movimiento Local/Relativo) ---
+        if (glfwGetKey(handle, GLFW_KEY_W) == GLFW_PRESS) input |= Simulation.INPUT_FORWARD;
+        if (glfwGetKey(handle, GLFW_KEY_S) == GLFW_PRESS) input |= Simulation.INPUT_BACK;
+        if (glfwGetKey(handle, GLFW_KEY_A) == GLFW_PRESS) input |= Simulation.INPUT_LEFT;
+        if (glfwGetKey(handle, GLFW_KEY_D) == GLFW_PRESS) input |= Simulation.INPUT_RIGHT;
+        if (glfwGetKey(handle, GLFW_KEY_SPACE) == GLFW_PRESS) input |= Simulation.INPUT_UP;
+        if (glfwGetKey(handle, GLFW_KEY_LEFT_SHIFT) == GLFW_PRESS) input |= Simulation.INPUT_DOWN;
+
+        // --- ROTACIÓN (Giro de la vista con Q/E) ---
+        if (glfwGetKey(handle, GLFW_KEY_Q) == GLFW_PRESS) input |= Simulation.INPUT_TURN_LEFT;
+        if (glfwGetKey(handle, GLFW_KEY_E) == GLFW_PRESS) input |= Simulation.INPUT_TURN_RIGHT;
+
+        // --- EDICIÓN (F quita y G pone el bloque apuntado, uno por frame mientras se mantiene) ---
+        if (world != null) {
+            if (glfwGetKey(handle, GLFW_KEY_F) == GLFW_PRESS) editPicked(false);
+            else if (glfwGetKey(handle, GLFW_KEY_G) == GLFW_PRESS) editPicked(true);
         }
 
-        camera.updateViewMatrix();
+        simulation.setInput(input);
     }
 
 
@@ -125,38 +477,77 @@ public class Main {
      * Bucle principal de renderizado.
      */
     private void loop() {
+        simulation.start();
         while (!window.shouldClose()) {
-            // Calcular delta time
-            float currentFrame = (float)GLFW.glfwGetTime();
-            deltaTime = currentFrame - lastFrame;
-            lastFrame = currentFrame;
-
-            // 1. Entrada de datos y Lógica
+            // 1. Entrada de datos (la lógica avanza en el hilo de simulación)
+            long t = System.nanoTime();
             processInput();
+            shaders.poll();
+            t = profiler.record(inputScope, t);
+
+            // Último tick publicado, interpolado entre él y el anterior según el tiempo transcurrido
+            SimulationState state = simulation.latest();
+            float alpha = state.alpha(t, simulation.getTickNanos());
+            float time = state.getTime(alpha, simulation.getTickSeconds());
+            state.interpolateCamera(alpha, camera, interpolatedPosition);
+            camera.updateViewMatrix();
 
-            float time = (float)GLFW.glfwGetTime();
+            // --- Movimiento del Cubo (Rotación del nodo; la matriz del modelo se recalcula al pedirla) ---
+            transform.setRotation(state.interpolateCubeRotation(alpha, rotation));
+            transform.getModelMatrix(model);
 
-            // --- Movimiento del Cubo (Matriz del Modelo) ---
-            transform.getModelMatrix().identity()
-                    .rotateY(time * 0.5f)
-                    .rotateX(time * 0.5f);
+            // 2. Datos del frame (Vista, Proyección, tiempo) en el UBO: una sola subida para todos los shaders
+            frameUniforms.update(camera, time);
+            t = profiler.record(updateScope, t);
 
-            // 2. CÁLCULO DE LA MATRIZ MVP (Modelo * Vista * Proyección)
-            Matrix4f mvp = camera.getViewProjection().mul(transform.getModelMatrix());
+            // Carga y descarga de chunks alrededor de la cámara, y subida de las mallas terminadas
+            if (world != null) {
+                Vector3f position = camera.getPosition();
+                world.update(position.x, position.z, WORLD_BUDGET_NANOS, worldListener);
+                if (chunkLodEnabled) {
+                    updateChunkLods();
+                }
+                remesh.drain(position.x, position.y, position.z, remeshPerFrame, remeshChunk);
+                chunkMeshes.drainUploads(WORLD_BUDGET_NANOS, chunkUploader);
+            }
+            t = profiler.record(worldScope, t);
 
             // 3. Renderizado
+            gpuTimer.begin(GPU_RENDER);
             window.clear();
-            shader.use();
-            shader.setUniformMat4f("mvp", mvp);
 
-            // Enlazar (Bind) la Textura ANTES de dibujar el cubo
-            texture.bind();
+            // Culling: solo se encola si la caja del cubo (en espacio de mundo) toca el frustum
+            frustum.set(camera.getViewProjection());
+            renderQueue.clear();
+            AABBf bounds = cube.getBounds();
+            model.transformAab(bounds.minX, bounds.minY, bounds.minZ,
+                    bounds.maxX, bounds.maxY, bounds.maxZ, worldMin, worldMax);
+            if (frustum.testAab(worldMin, worldMax)) {
+                float distance = camera.getPosition().distance(model.m30(), model.m31(), model.m32());
+                renderQueue.submit(shaderId, textureId, cubeId, distance, FAR_PLANE, model);
+            }
 
-            cube.render();
+            t = profiler.record(cullScope, t);
+
+            // Ordenar por clave y dibujar: shader, textura y malla solo cambian entre lotes
+            renderQueue.sort();
+            renderQueue.execute();
+            if (world != null) {
+                renderWorld();
+            }
+            gpuTimer.end();
+            t = profiler.record(submitScope, t);
 
             // 4. Presentación
             window.swapBuffers();
             window.pollEvents();
+            profiler.record(swapScope, t);
+            gpuTimer.endFrame();
+            profiler.endFrame();
+
+            if (allocationMonitor != null) {
+                allocationMonitor.endFrame();
+            }
         }
     }
 
@@ -164,9 +555,54 @@ public class Main {
      * Libera los recursos de OpenGL y termina GLFW.
      */
     private void cleanup() {
+        if (simulation != null) {
+            simulation.stop();
+            System.out.printf("Simulación: %d ticks (%d descartados por retraso)%n",
+                    simulation.getTick(), simulation.getDroppedTicks());
+        }
+        if (allocationMonitor != null) {
+            System.out.println(allocationMonitor.report());
+        }
+        System.out.println(GLState.report());
+        if (world != null) {
+            System.out.println(world.report());
+            System.out.println(remesh.report());
+            System.out.println("LOD de chunks: " + chunkLod.getSwitchCount() + " cambios de nivel");
+            System.out.println(worldBatch.report());
+            System.out.println(worldBuffer.report());
+            chunkMeshes.cleanup();
+            worldGrid.clear();
+            world.cleanup(); // Guarda los chunks cargados
+            if (world.getStorage() != null) {
+                System.out.println(world.getStorage().report());
+            }
+            worldBatch.cleanup();
+            worldBuffer.cleanup();
+            worldTextures.cleanup();
+            worldShader.cleanup();
+        }
+        if (shaders != null) {
+            System.out.println(shaders.report());
+            shaders.cleanup();
+        }
+        System.out.println(profiler.summary());
+        String profileOutput = System.getProperty("cubegl.profile.output");
+        if (profileOutput != null && !profileOutput.isEmpty()) {
+            try {
+                profiler.writeReport(Path.of(profileOutput));
+            } catch (IOException e) {
+                System.err.println("Advertencia: no se pudo escribir el perfil en " + profileOutput + ": " + e.getMessage());
+            }
+        }
+        if (gpuTimer != null) {
+            gpuTimer.cleanup();
+        }
         if (shader != null) {
             shader.cleanup();
         }
+        if (frameUniforms != null) {
+            frameUniforms.cleanup();
+        }
         if (cube != null) {
             cube.cleanup();
         }
@@ -0,0 +1,209 @@
+package com.cubeGl;
+
+import com.cubeGl.graphics.Camera;
+import com.cubeGl.graphics.FrameUniforms;
+import com.cubeGl.graphics.GLState;
+import com.cubeGl.graphics.Mesh;
+import com.cubeGl.graphics.ShaderProgram;
+import com.cubeGl.graphics.StreamBuffer;
+import com.cubeGl.graphics.Texture;
+import com.cubeGl.graphics.Window;
+
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+
+/**
+ * Escena de estrés: dibuja N cubos (100k por defecto) con una única llamada instanciada
+ * e informa cada segundo del tiempo de frame y del tiempo de envío en CPU.
+ * <p>
+ * Los datos por instancia se escriben directamente en un {@link StreamBuffer}; con
+ * {@code -Dcubegl.orphaning=true} se suben con glBufferData + glBufferSubData, para comparar.
+ */
+public class StressScene {
+    private static final int DEFAULT_CUBE_COUNT = 100_000;
+    private static final float SPACING = 1.5f;
+
+    private final int cubeCount;
+
+    private Window window;
+    private Mesh cube;
+    private ShaderProgram shader;
+    private Camera camera;
+    private Texture texture;
+    private FrameUniforms frameUniforms;
+    private FloatBuffer instanceData; // Memoria nativa, se reescribe cada frame (solo con orphaning)
+    private StreamBuffer instanceStream;
+
+    public StressScene(int cubeCount) {
+        this.cubeCount = cubeCount;
+    }
+
+    public void run() {
+        try {
+            init();
+            loop();
+        } catch (Exception e) {
+            System.err.println("Un error fatal ocurrió:");
+            e.printStackTrace();
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void init() throws Exception {
+        window = new Window(800, 800, "CubeGl Stress (" + cubeCount + " cubos)");
+        window.init();
+
+        cube = Mesh.createCube();
+        shader = ShaderProgram.createInstanced();
+        texture = new Texture("sasel.png");
+        if (Boolean.getBoolean("cubegl.orphaning")) {
+            cube.enableInstancing(cubeCount);
+            instanceData = MemoryUtil.memAllocFloat(cubeCount * Mesh.INSTANCE_FLOATS);
+        } else {
+            instanceStream = new StreamBuffer(GL_ARRAY_BUFFER, cubeCount * Mesh.INSTANCE_FLOATS * Float.BYTES);
+        }
+
+        shader.use();
+        shader.setUniformTexture("uTexture", 0);
+        shader.unuse();
+        frameUniforms = new FrameUniforms();
+
+        // La rejilla de cubos se extiende hacia -Z, así que ampliamos el plano lejano
+        camera = new Camera((float)Math.toRadians(60.0f), 1.0f, 0.1f, 250f);
+    }
+
+    /**
+     * Escribe posición, escala y rotación de cada cubo en {@code instanceData} (desde el índice 0).
+     * Los cubos se colocan en una rejilla cúbica delante de la cámara.
+     */
+    private void updateInstances(FloatBuffer instanceData, float time) {
+        int side = (int)Math.ceil(Math.cbrt(cubeCount));
+        float half = (side - 1) * SPACING * 0.5f;
+
+        for (int i = 0; i < cubeCount; i++) {
+            int x = i % side;
+            int y = (i / side) % side;
+            int z = i / (side * side);
+
+            // Rotación alrededor del eje (1,1,0) normalizado, desfasada por instancia
+            float angle = time * 0.5f + i * 0.01f;
+            float s = (float)Math.sin(angle * 0.5f) * 0.70710677f;
+            float c = (float)Math.cos(angle * 0.5f);
+
+            int base = i * Mesh.INSTANCE_FLOATS;
+            instanceData.put(base, x * SPACING - half);
+            instanceData.put(base + 1, y * SPACING - half);
+            instanceData.put(base + 2, -5.0f - z * SPACING);
+            instanceData.put(base + 3, 1.0f);
+            instanceData.put(base + 4, s);
+            instanceData.put(base + 5, s);
+            instanceData.put(base + 6, 0.0f);
+            instanceData.put(base + 7, c);
+        }
+        instanceData.limit(cubeCount * Mesh.INSTANCE_FLOATS);
+    }
+
+    private void loop() {
+        long reportStart = System.nanoTime();
+        long lastFrame = reportStart;
+        long updateNanos = 0;
+        long submitNanos = 0;
+        long frameNanos = 0;
+        int frames = 0;
+
+        while (!window.shouldClose()) {
+            if (glfwGetKey(window.getWindowHandle(), GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+                glfwSetWindowShouldClose(window.getWindowHandle(), true);
+            }
+
+            // 1. Lógica: animación de todas las instancias (directamente en la memoria mapeada, si hay streaming)
+            long updateStart = System.nanoTime();
+            float time = (float)GLFW.glfwGetTime();
+            long instanceOffset = 0;
+            if (instanceStream != null) {
+                instanceStream.beginFrame();
+                updateInstances(instanceStream.begin(cubeCount * Mesh.INSTANCE_FLOATS * Float.BYTES,
+                        Mesh.INSTANCE_FLOATS * Float.BYTES).asFloatBuffer(), time);
+                instanceOffset = instanceStream.end();
+            } else {
+                updateInstances(instanceData, time);
+            }
+            long submitStart = System.nanoTime();
+
+            // 2. Envío: una sola llamada de dibujo (con orphaning, precedida de la subida de instancias)
+            window.clear();
+            frameUniforms.update(camera, time);
+            shader.use();
+            texture.bind();
+            if (instanceStream != null) {
+                cube.renderInstanced(instanceStream, instanceOffset, cubeCount);
+                instanceStream.endFrame();
+            } else {
+                cube.updateInstances(instanceData);
+                cube.renderInstanced(cubeCount);
+            }
+            long submitEnd = System.nanoTime();
+
+            // 3. Presentación
+            window.swapBuffers();
+            window.pollEvents();
+
+            long now = System.nanoTime();
+            updateNanos += submitStart - updateStart;
+            submitNanos += submitEnd - submitStart;
+            frameNanos += now - lastFrame;
+            lastFrame = now;
+            frames++;
+
+            if (now - reportStart >= 1_000_000_000L) {
+                System.out.printf("%d cubos | %d fps | frame %.3f ms | update CPU %.3f ms | submit CPU %.3f ms | %s%s%n",
+                        cubeCount, frames,
+                        frameNanos / 1e6 / frames, updateNanos / 1e6 / frames, submitNanos / 1e6 / frames,
+                        GLState.report(), instanceStream != null ? " | " + instanceStream.report() : "");
+                GLState.resetCounters();
+                if (instanceStream != null) {
+                    instanceStream.resetCounters();
+                }
+                reportStart = now;
+                updateNanos = 0;
+                submitNanos = 0;
+                frameNanos = 0;
+                frames = 0;
+            }
+        }
+    }
+
+    private void cleanup() {
+        if (instanceData != null) {
+            MemoryUtil.memFree(instanceData);
+        }
+        if (instanceStream != null) {
+            instanceStream.cleanup();
+        }
+        if (shader != null) {
+            shader.cleanup();
+        }
+        if (frameUniforms != null) {
+            frameUniforms.cleanup();
+        }
+        if (cube != null) {
+            cube.cleanup();
+        }
+        if (texture != null) {
+            texture.cleanup();
+        }
+
+        GLFW.glfwTerminate();
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CUBE_COUNT;
+        new StressScene(count).run();
+    }
+}
@@ -0,0 +1,178 @@
+package com.cubeGl.graphics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reparte un rango {@code [0, capacidad)} de unidades (vértices, índices...) entre muchas asignaciones de
+ * tamaño variable. No usa OpenGL: {@link MegaBuffer} lo usa para subasignar sus buffers y puede medirse o
+ * probarse sin contexto (ver los benchmarks JMH).
+ * <p>
+ * Los huecos libres se guardan ordenados por offset (para fusionar vecinos) y además por tamaño, así que el
+ * más pequeño en el que cabe la petición (best-fit) se encuentra en O(log n). Al liberar, el hueco se fusiona con sus vecinos, así que nunca hay dos huecos contiguos.
+ * Cuando la memoria libre está repartida en huecos demasiado pequeños, {@link #compact(Mover)} junta todas
+ * las asignaciones al principio y deja un único hueco al final.
+ */
+public class BufferAllocator {
+
+    /**
+     * Recibe cada asignación al compactar con {@link #compact(Mover)}, incluidas las que no se mueven
+     * ({@code from == to}), para que quien posee los datos pueda copiarlos. Las llamadas llegan en orden
+     * creciente de offset y siempre con {@code to <= from}.
+     */
+    public interface Mover {
+        void move(int from, int to, int size);
+    }
+
+    private final TreeMap<Integer, Integer> free = new TreeMap<>(); // offset -> tamaño
+    private final TreeSet<Long> freeBySize = new TreeSet<>();       // tamaño << 32 | offset, de los mismos huecos
+    private final TreeMap<Integer, Integer> used = new TreeMap<>();
+    private int capacity;
+    private int usedUnits;
+
+    public BufferAllocator(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        addHole(0, capacity);
+    }
+
+    private static long sizeKey(int offset, int size) {
+        return (long) size << 32 | offset;
+    }
+
+    private void addHole(int offset, int size) {
+        free.put(offset, size);
+        freeBySize.add(sizeKey(offset, size));
+    }
+
+    private void removeHole(int offset, int size) {
+        free.remove(offset);
+        freeBySize.remove(sizeKey(offset, size));
+    }
+
+    /**
+     * Reserva {@code size} unidades contiguas.
+     * @return Offset de la asignación, o -1 si no hay ningún hueco suficiente (ver {@link #grow} y {@link #compact}).
+     */
+    public int allocate(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("El tamaño debe ser positivo: " + size);
+        }
+        // El menor hueco de al menos size unidades; entre los de igual tamaño, el de menor offset
+        Long best = freeBySize.ceiling(sizeKey(0, size));
+        if (best == null) {
+            return -1;
+        }
+        int bestOffset = (int) (long) best;
+        int bestSize = (int) (best >>> 32);
+        removeHole(bestOffset, bestSize);
+        if (bestSize > size) {
+            addHole(bestOffset + size, bestSize - size);
+        }
+        used.put(bestOffset, size);
+        usedUnits += size;
+        return bestOffset;
+    }
+
+    /**
+     * Libera la asignación que empieza en {@code offset}, fusionando el hueco con los vecinos.
+     */
+    public void free(int offset) {
+        Integer size = used.remove(offset);
+        if (size == null) {
+            throw new IllegalArgumentException("No hay ninguna asignación en el offset " + offset);
+        }
+        usedUnits -= size;
+
+        int start = offset;
+        int end = offset + size;
+        Map.Entry<Integer, Integer> before = free.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            start = before.getKey();
+            removeHole(start, before.getValue());
+        }
+        Integer after = free.get(end);
+        if (after != null) {
+            removeHole(end, after);
+            end += after;
+        }
+        addHole(start, end - start);
+    }
+
+    /**
+     * Amplía el rango hasta {@code newCapacity} unidades; el espacio nuevo se une al último hueco.
+     */
+    public void grow(int newCapacity) {
+        if (newCapacity < capacity) {
+            throw new IllegalArgumentException("La nueva capacidad (" + newCapacity + ") es menor que la actual (" + capacity + ")");
+        }
+        if (newCapacity == capacity) {
+            return;
+        }
+        int start = capacity;
+        Map.Entry<Integer, Integer> last = free.lastEntry();
+        if (last != null && last.getKey() + last.getValue() == capacity) {
+            start = last.getKey();
+            removeHole(start, last.getValue());
+        }
+        addHole(start, newCapacity - start);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Desplaza todas las asignaciones al principio del rango, en el mismo orden, y deja un único hueco al final.
+     * @return Número de asignaciones desplazadas.
+     */
+    public int compact(Mover mover) {
+        TreeMap<Integer, Integer> moved = new TreeMap<>();
+        int next = 0;
+        int count = 0;
+        for (Map.Entry<Integer, Integer> allocation : used.entrySet()) {
+            int offset = allocation.getKey();
+            int size = allocation.getValue();
+            mover.move(offset, next, size);
+            if (offset != next) {
+                count++;
+            }
+            moved.put(next, size);
+            next += size;
+        }
+        used.clear();
+        used.putAll(moved);
+        free.clear();
+        freeBySize.clear();
+        if (next < capacity) {
+            addHole(next, capacity - next);
+        }
+        return count;
+    }
+
+    /** @return Tamaño de la asignación que empieza en {@code offset}, o -1 si no existe. */
+    public int sizeOf(int offset) {
+        Integer size = used.get(offset);
+        return size != null ? size : -1;
+    }
+
+    public int getCapacity() { return capacity; }
+    public int getUsed() { return usedUnits; }
+    public int getFree() { return capacity - usedUnits; }
+    public int getAllocationCount() { return used.size(); }
+    public int getFreeBlockCount() { return free.size(); }
+
+    /** @return Tamaño del mayor hueco libre (la mayor asignación que cabe sin crecer ni compactar). */
+    public int getLargestFreeBlock() {
+        return freeBySize.isEmpty() ? 0 : (int) (freeBySize.last() >>> 32);
+    }
+
+    /**
+     * @return Fragmentación en [0, 1]: 0 si toda la memoria libre es un único hueco, cerca de 1 si está
+     * repartida en muchos huecos pequeños.
+     */
+    public float getFragmentation() {
+        int freeUnits = getFree();
+        return freeUnits == 0 ? 0.0f : 1.0f - (float) getLargestFreeBlock() / freeUnits;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cubeGl.graphics;
 
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3f;
 
 /**
@@ -11,6 +12,9 @@ import org.joml.Vector3f;
 public class Camera {
     private final Matrix4f viewMatrix;
     private final Matrix4f projectionMatrix;
+    private final Matrix4f viewProjectionMatrix; // Caché de Proyección * Vista
+
+    private final Vector3f target; // Auxiliar para lookAt (evita crear un Vector3f por frame)
 
     private final Vector3f position; // Posición de la cámara en el mundo
     private final Vector3f front;    // Vector que apunta hacia adelante (se recalcula con rotación)
@@ -20,11 +24,17 @@ public class Camera {
     private float yaw;   // Rotación horizontal (grados)
     private float pitch; // Rotación vertical (grados)
 
+    // Banderas "sucias": las matrices solo se recalculan cuando algo ha cambiado
+    private boolean viewDirty = true;
+    private boolean viewProjectionDirty = true;
+
     private static final float PITCH_LIMIT = 89.0f;
 
     public Camera(float fov, float aspectRatio, float near, float far) {
         this.viewMatrix = new Matrix4f();
         this.projectionMatrix = new Matrix4f();
+        this.viewProjectionMatrix = new Matrix4f();
+        this.target = new Vector3f();
 
         // Inicialización
         this.position = new Vector3f(0.0f, 0.0f, 3.0f);
@@ -53,18 +63,25 @@ public class Camera {
 
         // Recalcular el vector 'Right'
         this.front.cross(this.up, this.right).normalize();
+
+        this.viewDirty = true;
     }
 
     /**
-     * Recalcula la matriz de vista usando la posición y el vector Front.
+     * Recalcula la matriz de vista usando la posición y el vector Front (solo si la cámara ha cambiado).
      */
     public void updateViewMatrix() {
+        if (!viewDirty) {
+            return;
+        }
         // lookAt(posición, posición + vector Front, vector Up)
         this.viewMatrix.identity().lookAt(
                 this.position,
-                new Vector3f(position).add(this.front),
+                this.position.add(this.front, this.target),
                 this.up
         );
+        this.viewDirty = false;
+        this.viewProjectionDirty = true;
     }
 
     /**
@@ -110,11 +127,50 @@ public class Camera {
         if (offsetY != 0) {
             this.position.y += offsetY;
         }
+
+        if (offsetX != 0 || offsetY != 0 || offsetZ != 0) {
+            this.viewDirty = true;
+        }
+    }
+
+    /**
+     * Fija posición y orientación de una vez (por ejemplo, la pose interpolada que llega de la simulación).
+     */
+    public void setPose(float x, float y, float z, float yaw, float pitch) {
+        this.position.set(x, y, z);
+        this.yaw = yaw;
+        this.pitch = pitch;
+        updateCameraVectors();
+    }
+
+    /**
+     * @return Proyección * Vista, en caché hasta que la vista cambie. Es de solo lectura:
+     * para operar sobre ella usar {@link #getViewProjection(Matrix4f)} o los métodos con {@code dest} de JOML.
+     */
+    public Matrix4fc getViewProjection() {
+        updateViewMatrix();
+        if (viewProjectionDirty) {
+            projectionMatrix.mul(viewMatrix, viewProjectionMatrix);
+            viewProjectionDirty = false;
+        }
+        return viewProjectionMatrix;
+    }
+
+    /**
+     * Copia Proyección * Vista en {@code dest} sin reservar memoria.
+     */
+    public Matrix4f getViewProjection(Matrix4f dest) {
+        return dest.set(getViewProjection());
     }
 
     // Métodos Getters...
     public Vector3f getPosition() { return position; }
-    public Matrix4f getViewProjection() { return new Matrix4f(projectionMatrix).mul(viewMatrix); }
+    public Vector3f getPosition(Vector3f dest) { return dest.set(position); }
+    public Vector3f getFront(Vector3f dest) { return dest.set(front); }
+    public float getYaw() { return yaw; }
+    public float getPitch() { return pitch; }
     public Matrix4f getViewMatrix() { return viewMatrix; }
+    public Matrix4f getViewMatrix(Matrix4f dest) { return dest.set(viewMatrix); }
     public Matrix4f getProjectionMatrix() { return projectionMatrix; }
+    public Matrix4f getProjectionMatrix(Matrix4f dest) { return dest.set(projectionMatrix); }
 }
\ No newline at end of file
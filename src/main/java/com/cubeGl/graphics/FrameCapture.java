@@ -0,0 +1,182 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL21.GL_PIXEL_PACK_BUFFER;
+import static org.lwjgl.opengl.GL30.GL_MAP_READ_BIT;
+import static org.lwjgl.opengl.GL30.glMapBufferRange;
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * Captura asíncrona de frames: glReadPixels escribe en un Pixel Buffer Object (PBO) en lugar de en memoria
+ * de la CPU, así que la llamada vuelve enseguida y la copia la hace la GPU. Los PBOs forman un anillo y cada
+ * uno se lee (mapeándolo) cuando su fence indica que la copia ha terminado, varios frames después.
+ * <p>
+ * Los píxeles (RGBA8, de abajo arriba como los devuelve OpenGL) se entregan a un {@link Sink} en un hilo
+ * aparte, para que escribir o comparar imágenes tampoco frene el render.
+ */
+public class FrameCapture {
+
+    /**
+     * Recibe un frame capturado en el hilo de escritura. El buffer solo es válido durante la llamada.
+     */
+    public interface Sink {
+        void accept(int frame, ByteBuffer rgba, int width, int height);
+    }
+
+    private final int width;
+    private final int height;
+    private final int frameBytes;
+    private final Sink sink;
+
+    private final int[] pbos;
+    private final long[] fences;
+    private final int[] frameNumbers;
+    private int next;  // Siguiente PBO del anillo
+    private int oldest; // PBO pendiente más antiguo
+    private int pendingCount;
+
+    private final NativeBufferPool pixelPool = new NativeBufferPool(4);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cubegl-frame-capture");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Contadores
+    private long capturedCount;
+    private long stallCount; // Capturas que tuvieron que esperar porque el anillo estaba lleno
+
+    /**
+     * @param pboCount Tamaño del anillo (frames en vuelo antes de tener que esperar a la GPU).
+     */
+    public FrameCapture(int width, int height, int pboCount, Sink sink) {
+        this.width = width;
+        this.height = height;
+        this.frameBytes = width * height * 4;
+        this.sink = sink;
+        this.pbos = new int[pboCount];
+        this.fences = new long[pboCount];
+        this.frameNumbers = new int[pboCount];
+
+        glGenBuffers(pbos);
+        for (int pbo : pbos) {
+            GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, pbo);
+            glBufferData(GL_PIXEL_PACK_BUFFER, frameBytes, GL_STREAM_READ);
+        }
+        GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+    }
+
+    /**
+     * Encola la lectura del framebuffer enlazado para lectura (el del frame actual) sin esperar a la GPU.
+     */
+    public void capture(int frame) {
+        if (pendingCount == pbos.length) {
+            stallCount++;
+            resolveOldest(true);
+        }
+        int slot = next;
+        GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, pbos[slot]);
+        glPixelStorei(GL_PACK_ALIGNMENT, 1);
+        glReadPixels(0, 0, width, height, GL_RGBA, GL_UNSIGNED_BYTE, 0L); // Destino: offset 0 del PBO
+        GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+        fences[slot] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        frameNumbers[slot] = frame;
+        next = (next + 1) % pbos.length;
+        pendingCount++;
+    }
+
+    /**
+     * Entrega las capturas cuya copia ya ha terminado, sin esperar. Se llama una vez por frame.
+     */
+    public void poll() {
+        while (pendingCount > 0 && isReady(oldest)) {
+            resolveOldest(false);
+        }
+    }
+
+    private boolean isReady(int slot) {
+        int status = glClientWaitSync(fences[slot], 0, 0);
+        return status == GL_ALREADY_SIGNALED || status == GL_CONDITION_SATISFIED;
+    }
+
+    private void resolveOldest(boolean wait) {
+        int slot = oldest;
+        if (wait) {
+            while (glClientWaitSync(fences[slot], GL_SYNC_FLUSH_COMMANDS_BIT, 1_000_000L) == GL_TIMEOUT_EXPIRED) {
+                Thread.onSpinWait();
+            }
+        }
+        glDeleteSync(fences[slot]);
+        fences[slot] = 0;
+
+        GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, pbos[slot]);
+        ByteBuffer mapped = glMapBufferRange(GL_PIXEL_PACK_BUFFER, 0, frameBytes, GL_MAP_READ_BIT);
+        ByteBuffer pixels = null;
+        if (mapped != null) {
+            pixels = pixelPool.acquire(frameBytes);
+            MemoryUtil.memCopy(mapped, pixels);
+            glUnmapBuffer(GL_PIXEL_PACK_BUFFER);
+        } else {
+            System.err.println("Advertencia: no se pudo mapear el PBO del frame " + frameNumbers[slot]);
+        }
+        GLState.bindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+
+        oldest = (oldest + 1) % pbos.length;
+        pendingCount--;
+        if (pixels != null) {
+            int frame = frameNumbers[slot];
+            ByteBuffer captured = pixels;
+            capturedCount++;
+            writer.execute(() -> {
+                try {
+                    sink.accept(frame, captured, width, height);
+                } finally {
+                    pixelPool.release(captured);
+                }
+            });
+        }
+    }
+
+    /**
+     * Espera a todas las capturas pendientes y a que el hilo de escritura termine con ellas.
+     */
+    public void finish() {
+        while (pendingCount > 0) {
+            resolveOldest(true);
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Advertencia: la escritura de capturas no terminó a tiempo.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getCapturedCount() { return capturedCount; }
+    public long getStallCount() { return stallCount; }
+
+    /**
+     * Libera los PBOs y la memoria de píxeles. Llamar después de {@link #finish()}.
+     */
+    public void cleanup() {
+        writer.shutdownNow();
+        for (int i = 0; i < pbos.length; i++) {
+            if (fences[i] != 0) {
+                glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+            GLState.deleteBuffer(pbos[i]);
+        }
+        pixelPool.cleanup();
+    }
+}
@@ -0,0 +1,80 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+
+/**
+ * Uniform Buffer Object (UBO) con los datos comunes a todo el frame (vista, proyección, tiempo...).
+ * Se sube una sola vez por frame y lo comparten todos los {@link ShaderProgram} que declaran el
+ * bloque {@link #BLOCK_NAME}, en lugar de subir las mismas matrices a cada programa.
+ * <p>
+ * Disposición std140 (offsets en bytes): view 0, projection 64, viewProjection 128,
+ * cameraPosition 192, time 208. Tamaño total: 224 bytes.
+ */
+public class FrameUniforms {
+    public static final String BLOCK_NAME = "FrameData";
+    public static final int BINDING = 0; // Punto de enlace del UBO
+
+    // Declaración GLSL del bloque, para incluirla en los shaders
+    public static final String GLSL_BLOCK = """
+            layout(std140) uniform FrameData {
+                mat4 view;
+                mat4 projection;
+                mat4 viewProjection;
+                vec4 cameraPosition;
+                float time;
+            };
+            """;
+
+    private static final int VIEW_OFFSET = 0;
+    private static final int PROJECTION_OFFSET = 64;
+    private static final int VIEW_PROJECTION_OFFSET = 128;
+    private static final int CAMERA_POSITION_OFFSET = 192;
+    private static final int TIME_OFFSET = 208;
+    static final int SIZE = 224;
+
+    private final int uboId;
+    private final ByteBuffer data; // Copia en memoria nativa del contenido del UBO
+
+    public FrameUniforms() {
+        this.data = MemoryUtil.memCalloc(SIZE);
+        this.uboId = glGenBuffers();
+        // El UBO queda enlazado al punto BINDING de forma permanente
+        GLState.bindBufferBase(GL_UNIFORM_BUFFER, BINDING, uboId);
+        glBufferData(GL_UNIFORM_BUFFER, SIZE, GL_DYNAMIC_DRAW);
+    }
+
+    /**
+     * Escribe los datos de la cámara y el tiempo, y los sube a la GPU con una sola llamada.
+     */
+    public void update(Camera camera, float time) {
+        write(camera, time, data);
+
+        GLState.bindBuffer(GL_UNIFORM_BUFFER, uboId);
+        glBufferSubData(GL_UNIFORM_BUFFER, 0, data);
+    }
+
+    /**
+     * Escribe el contenido del bloque ({@link #SIZE} bytes, std140) en {@code dest}, sin OpenGL.
+     */
+    static void write(Camera camera, float time, ByteBuffer dest) {
+        camera.getViewProjection().get(VIEW_PROJECTION_OFFSET, dest); // Actualiza también la vista si hace falta
+        camera.getViewMatrix().get(VIEW_OFFSET, dest);
+        camera.getProjectionMatrix().get(PROJECTION_OFFSET, dest);
+        camera.getPosition().get(CAMERA_POSITION_OFFSET, dest);
+        dest.putFloat(CAMERA_POSITION_OFFSET + 12, 1.0f);
+        dest.putFloat(TIME_OFFSET, time);
+    }
+
+    /**
+     * Libera el UBO y su memoria nativa.
+     */
+    public void cleanup() {
+        GLState.deleteBuffer(uboId);
+        MemoryUtil.memFree(data);
+    }
+}
@@ -0,0 +1,63 @@
+package com.cubeGl.graphics;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL14.GL_DEPTH_COMPONENT24;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Framebuffer fuera de pantalla (FBO) con color RGBA8 y profundidad de 24 bits en renderbuffers.
+ * Permite renderizar sin mostrar nada (modo headless) y leer el resultado con glReadPixels.
+ */
+public class Framebuffer {
+    private final int fboId;
+    private final int colorRboId;
+    private final int depthRboId;
+    private final int width;
+    private final int height;
+
+    public Framebuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        fboId = glGenFramebuffers();
+        GLState.bindFramebuffer(fboId);
+
+        colorRboId = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, colorRboId);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA8, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, colorRboId);
+
+        depthRboId = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, depthRboId);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT24, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_RENDERBUFFER, depthRboId);
+        glBindRenderbuffer(GL_RENDERBUFFER, 0);
+
+        int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        GLState.bindFramebuffer(0);
+        if (status != GL_FRAMEBUFFER_COMPLETE) {
+            cleanup();
+            throw new RuntimeException("Framebuffer incompleto (estado 0x" + Integer.toHexString(status) + ").");
+        }
+    }
+
+    /** Dibuja en este framebuffer a partir de ahora (y ajusta el viewport a su tamaño). */
+    public void bind() {
+        GLState.bindFramebuffer(fboId);
+        glViewport(0, 0, width, height);
+    }
+
+    /** Vuelve al framebuffer de la ventana. */
+    public void unbind() {
+        GLState.bindFramebuffer(0);
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    public void cleanup() {
+        GLState.deleteFramebuffer(fboId);
+        glDeleteRenderbuffers(colorRboId);
+        glDeleteRenderbuffers(depthRboId);
+    }
+}
@@ -0,0 +1,246 @@
+package com.cubeGl.graphics;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glDeleteProgram;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.GL21.GL_PIXEL_PACK_BUFFER;
+import static org.lwjgl.opengl.GL21.GL_PIXEL_UNPACK_BUFFER;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.GL_COPY_READ_BUFFER;
+import static org.lwjgl.opengl.GL31.GL_COPY_WRITE_BUFFER;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+import static org.lwjgl.opengl.GL40.GL_DRAW_INDIRECT_BUFFER;
+
+/**
+ * Caché centralizada del estado de OpenGL: programa, VAO, framebuffer, buffers, texturas por unidad y estado
+ * de profundidad/mezcla/culling. Cada cambio se compara con el valor ya activo y las llamadas que no
+ * cambian nada se omiten, que es el coste dominante en CPU por draw con LWJGL.
+ * <p>
+ * Todas las llamadas de enlace del proyecto deben pasar por aquí (también las de borrado), o la
+ * caché dejaría de reflejar el estado real; tras usar código externo se puede llamar a {@link #invalidate()}.
+ * Solo debe usarse desde el hilo que posee el contexto de OpenGL.
+ */
+public final class GLState {
+    private static final int UNKNOWN = -1;
+    private static final int MAX_TEXTURE_UNITS = 32;
+    private static final int[] TEXTURE_TARGETS = {GL_TEXTURE_2D, GL_TEXTURE_2D_ARRAY};
+    private static final int[] BUFFER_TARGETS = {
+            GL_ARRAY_BUFFER, GL_ELEMENT_ARRAY_BUFFER, GL_UNIFORM_BUFFER, GL_COPY_READ_BUFFER,
+            GL_COPY_WRITE_BUFFER, GL_PIXEL_PACK_BUFFER, GL_PIXEL_UNPACK_BUFFER, GL_DRAW_INDIRECT_BUFFER
+    };
+    private static final int ELEMENT_SLOT = 1; // El EBO enlazado forma parte del estado del VAO
+
+    private static int program;
+    private static int vertexArray;
+    private static int framebuffer;
+    private static final int[] buffers = new int[BUFFER_TARGETS.length];
+    private static int activeTextureUnit;
+    private static final int[] textures = new int[MAX_TEXTURE_UNITS * TEXTURE_TARGETS.length];
+
+    // Estado fijo (-1 desconocido, 0 desactivado, 1 activado)
+    private static int depthTest;
+    private static int depthMask;
+    private static int blend;
+    private static int cullFace;
+    private static int blendSrc;
+    private static int blendDst;
+
+    // Contadores
+    private static long issuedCount;
+    private static long skippedCount;
+
+    static {
+        invalidate();
+    }
+
+    private GLState() {
+    }
+
+    /**
+     * Olvida todo el estado conocido: la siguiente llamada de cada tipo se emitirá siempre.
+     */
+    public static void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        framebuffer = UNKNOWN;
+        Arrays.fill(buffers, UNKNOWN);
+        activeTextureUnit = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+        depthTest = UNKNOWN;
+        depthMask = UNKNOWN;
+        blend = UNKNOWN;
+        cullFace = UNKNOWN;
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+
+    private static boolean skip(boolean redundant) {
+        if (redundant) {
+            skippedCount++;
+        } else {
+            issuedCount++;
+        }
+        return redundant;
+    }
+
+    // --- Programas y VAOs ---
+
+    public static void useProgram(int programId) {
+        if (skip(program == programId)) return;
+        glUseProgram(programId);
+        program = programId;
+    }
+
+    public static void bindVertexArray(int vaoId) {
+        if (skip(vertexArray == vaoId)) return;
+        glBindVertexArray(vaoId);
+        vertexArray = vaoId;
+        buffers[ELEMENT_SLOT] = UNKNOWN; // Cada VAO tiene su propio EBO enlazado
+    }
+
+    public static void deleteProgram(int programId) {
+        glDeleteProgram(programId);
+        if (program == programId) program = UNKNOWN;
+    }
+
+    public static void deleteVertexArray(int vaoId) {
+        glDeleteVertexArrays(vaoId);
+        if (vertexArray == vaoId) {
+            vertexArray = 0; // Borrar el VAO activo vuelve al VAO 0
+            buffers[ELEMENT_SLOT] = UNKNOWN;
+        }
+    }
+
+    // --- Framebuffers ---
+
+    /** Enlaza el framebuffer para lectura y escritura (GL_FRAMEBUFFER); 0 es el de la ventana. */
+    public static void bindFramebuffer(int framebufferId) {
+        if (skip(framebuffer == framebufferId)) return;
+        glBindFramebuffer(GL_FRAMEBUFFER, framebufferId);
+        framebuffer = framebufferId;
+    }
+
+    public static void deleteFramebuffer(int framebufferId) {
+        glDeleteFramebuffers(framebufferId);
+        if (framebuffer == framebufferId) framebuffer = 0;
+    }
+
+    // --- Buffers ---
+
+    private static int bufferSlot(int target) {
+        for (int i = 0; i < BUFFER_TARGETS.length; i++) {
+            if (BUFFER_TARGETS[i] == target) return i;
+        }
+        return -1;
+    }
+
+    public static void bindBuffer(int target, int bufferId) {
+        int slot = bufferSlot(target);
+        if (slot >= 0 && skip(buffers[slot] == bufferId)) return;
+        if (slot < 0) issuedCount++;
+        glBindBuffer(target, bufferId);
+        if (slot >= 0) buffers[slot] = bufferId;
+    }
+
+    /**
+     * glBindBufferBase enlaza el punto indexado y también el enlace genérico del target.
+     */
+    public static void bindBufferBase(int target, int index, int bufferId) {
+        issuedCount++;
+        glBindBufferBase(target, index, bufferId);
+        int slot = bufferSlot(target);
+        if (slot >= 0) buffers[slot] = bufferId;
+    }
+
+    public static void deleteBuffer(int bufferId) {
+        glDeleteBuffers(bufferId);
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == bufferId) buffers[i] = 0;
+        }
+    }
+
+    // --- Texturas ---
+
+    private static int textureSlot(int unit, int target) {
+        for (int i = 0; i < TEXTURE_TARGETS.length; i++) {
+            if (TEXTURE_TARGETS[i] == target) return unit * TEXTURE_TARGETS.length + i;
+        }
+        return -1;
+    }
+
+    public static void activeTexture(int unit) {
+        if (skip(activeTextureUnit == unit)) return;
+        glActiveTexture(GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+    }
+
+    /**
+     * Enlaza una textura en la unidad indicada (cambiando la unidad activa solo si hace falta).
+     */
+    public static void bindTexture(int unit, int target, int textureId) {
+        int slot = unit < MAX_TEXTURE_UNITS ? textureSlot(unit, target) : -1;
+        if (slot >= 0 && skip(textures[slot] == textureId)) return;
+        activeTexture(unit);
+        if (slot < 0) issuedCount++;
+        glBindTexture(target, textureId);
+        if (slot >= 0) textures[slot] = textureId;
+    }
+
+    public static void deleteTexture(int textureId) {
+        glDeleteTextures(textureId);
+        for (int i = 0; i < textures.length; i++) {
+            if (textures[i] == textureId) textures[i] = 0;
+        }
+    }
+
+    // --- Estado fijo ---
+
+    private static int toggle(int cap, int current, boolean enabled) {
+        int wanted = enabled ? 1 : 0;
+        if (skip(current == wanted)) return current;
+        if (enabled) glEnable(cap); else glDisable(cap);
+        return wanted;
+    }
+
+    public static void setDepthTest(boolean enabled) { depthTest = toggle(GL_DEPTH_TEST, depthTest, enabled); }
+    public static void setBlend(boolean enabled) { blend = toggle(GL_BLEND, blend, enabled); }
+    public static void setCullFace(boolean enabled) { cullFace = toggle(GL_CULL_FACE, cullFace, enabled); }
+
+    public static void setDepthMask(boolean enabled) {
+        int wanted = enabled ? 1 : 0;
+        if (skip(depthMask == wanted)) return;
+        glDepthMask(enabled);
+        depthMask = wanted;
+    }
+
+    public static void setBlendFunc(int src, int dst) {
+        if (skip(blendSrc == src && blendDst == dst)) return;
+        glBlendFunc(src, dst);
+        blendSrc = src;
+        blendDst = dst;
+    }
+
+    // --- Estadísticas ---
+
+    /** @return Llamadas de estado emitidas al driver desde el último {@link #resetCounters()}. */
+    public static long getIssuedCount() { return issuedCount; }
+
+    /** @return Llamadas de estado omitidas por redundantes desde el último {@link #resetCounters()}. */
+    public static long getSkippedCount() { return skippedCount; }
+
+    public static void resetCounters() {
+        issuedCount = 0;
+        skippedCount = 0;
+    }
+
+    public static String report() {
+        long total = issuedCount + skippedCount;
+        return String.format("GLState: %d llamadas emitidas, %d omitidas (%.1f%%)",
+                issuedCount, skippedCount, total == 0 ? 0.0 : 100.0 * skippedCount / total);
+    }
+}
@@ -0,0 +1,93 @@
+package com.cubeGl.graphics;
+
+import com.cubeGl.util.Profiler;
+
+import static org.lwjgl.opengl.GL11.GL_FALSE;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL33.GL_TIME_ELAPSED;
+import static org.lwjgl.opengl.GL33.glGetQueryObjecti64;
+
+/**
+ * Mide el tiempo de GPU de ámbitos con nombre mediante timer queries (GL_TIME_ELAPSED).
+ * <p>
+ * Cada ámbito tiene un juego de queries por cada uno de los últimos {@code latencyFrames} frames. El
+ * resultado de un frame se lee cuando su juego vuelve a usarse, {@code latencyFrames} frames después, y solo
+ * si ya está disponible: la CPU nunca espera a la GPU (los resultados que aún no han llegado se descartan).
+ * Los tiempos se añaden a la serie "gpu:nombre" del {@link Profiler}.
+ * <p>
+ * GL_TIME_ELAPSED no admite anidamiento: solo puede haber un ámbito abierto a la vez.
+ */
+public class GpuTimer {
+    private final Profiler profiler;
+    private final int latencyFrames;
+    private final int[] series;
+    private final int[][] queries;    // [frame][ámbito]
+    private final boolean[][] issued; // Si la query se usó en ese frame
+    private int frame;
+    private int activeScope = -1;
+    private long droppedResults;
+
+    /**
+     * @param latencyFrames Frames de retraso con que se leen los resultados (3 o 4 suele bastar).
+     * @param scopeNames    Nombres de los ámbitos; el índice de cada uno es su id en {@link #begin(int)}.
+     */
+    public GpuTimer(Profiler profiler, int latencyFrames, String... scopeNames) {
+        this.profiler = profiler;
+        this.latencyFrames = latencyFrames;
+        this.series = new int[scopeNames.length];
+        for (int i = 0; i < scopeNames.length; i++) {
+            series[i] = profiler.addSeries("gpu:" + scopeNames[i]);
+        }
+        this.queries = new int[latencyFrames][scopeNames.length];
+        this.issued = new boolean[latencyFrames][scopeNames.length];
+        for (int[] frameQueries : queries) {
+            glGenQueries(frameQueries);
+        }
+    }
+
+    public void begin(int scope) {
+        if (activeScope >= 0) {
+            throw new IllegalStateException("Ya hay un ámbito de GPU abierto: los timer queries no se pueden anidar.");
+        }
+        glBeginQuery(GL_TIME_ELAPSED, queries[frame][scope]);
+        issued[frame][scope] = true;
+        activeScope = scope;
+    }
+
+    public void end() {
+        if (activeScope < 0) {
+            throw new IllegalStateException("No hay ningún ámbito de GPU abierto.");
+        }
+        glEndQuery(GL_TIME_ELAPSED);
+        activeScope = -1;
+    }
+
+    /**
+     * Pasa al siguiente juego de queries y recoge los resultados que se midieron en él hace
+     * {@code latencyFrames} frames. Se llama una vez por frame, después de los ámbitos.
+     */
+    public void endFrame() {
+        frame = (frame + 1) % latencyFrames;
+        for (int scope = 0; scope < series.length; scope++) {
+            if (!issued[frame][scope]) {
+                continue;
+            }
+            int query = queries[frame][scope];
+            if (glGetQueryObjecti(query, GL_QUERY_RESULT_AVAILABLE) == GL_FALSE) {
+                droppedResults++; // La GPU va muy por detrás; no esperamos
+            } else {
+                profiler.addSample(series[scope], glGetQueryObjecti64(query, GL_QUERY_RESULT));
+            }
+            issued[frame][scope] = false;
+        }
+    }
+
+    /** @return Resultados descartados porque no estaban listos a tiempo. */
+    public long getDroppedResults() { return droppedResults; }
+
+    public void cleanup() {
+        for (int[] frameQueries : queries) {
+            glDeleteQueries(frameQueries);
+        }
+    }
+}
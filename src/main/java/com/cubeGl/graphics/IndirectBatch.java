@@ -0,0 +1,165 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL32.glDrawElementsInstancedBaseVertex;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+import static org.lwjgl.opengl.GL40.GL_DRAW_INDIRECT_BUFFER;
+import static org.lwjgl.opengl.GL43.glMultiDrawElementsIndirect;
+
+/**
+ * Lista de draws de mallas de un {@link MegaBuffer} que se envía con una sola llamada
+ * glMultiDrawElementsIndirect: el coste en CPU ya no depende del número de mallas visibles.
+ * <p>
+ * Cada frame se llama a {@link #clear()}, se añaden las mallas visibles con {@link #add} y se dibuja con
+ * {@link #draw(MegaBuffer)}. Cada draw lleva su propio vec4 (posición xyz + escala w), que el shader lee en la
+ * location 3 como atributo por instancia: el comando usa como {@code baseInstance} su índice en la lista, así
+ * que cada draw lee el suyo sin cambiar uniforms entre draws (ver {@code packed_indirect.vert}).
+ * <p>
+ * Los comandos ({@code DrawElementsIndirectCommand}, 5 enteros) y los datos por draw se escriben en dos
+ * {@link StreamBuffer}, sin esperar a la GPU, así que {@link #draw(MegaBuffer)} se llama una vez por frame. Sin OpenGL 4.3 ni ARB_multi_draw_indirect se envía un
+ * glDrawElementsInstancedBaseVertex por draw, igualmente sin cambiar de VAO.
+ */
+public class IndirectBatch {
+    public static final int COMMAND_BYTES = 5 * Integer.BYTES;
+    public static final int DRAW_DATA_FLOATS = 4;
+    private static final int DRAW_DATA_LOCATION = 3;
+
+    private final int maxDraws;
+    private final boolean multiDraw;
+    private final StreamBuffer commands;
+    private final StreamBuffer drawData;
+
+    // Draws del frame en curso
+    private final int[] handles;
+    private final float[] data;
+    private int count;
+
+    // Contadores
+    private int drawsLastFrame;
+    private long totalDraws;
+    private long totalCalls;
+    private long frames;
+
+    public IndirectBatch(int maxDraws) {
+        this.maxDraws = maxDraws;
+        GLCapabilities caps = GL.getCapabilities();
+        this.multiDraw = caps.OpenGL43 || caps.GL_ARB_multi_draw_indirect;
+        if (!multiDraw) {
+            System.err.println("Advertencia: glMultiDrawElementsIndirect no disponible; se enviará un draw por malla.");
+        }
+        this.commands = multiDraw ? new StreamBuffer(GL_DRAW_INDIRECT_BUFFER, maxDraws * COMMAND_BYTES) : null;
+        this.drawData = new StreamBuffer(GL_ARRAY_BUFFER, maxDraws * DRAW_DATA_FLOATS * Float.BYTES);
+        this.handles = new int[maxDraws];
+        this.data = new float[maxDraws * DRAW_DATA_FLOATS];
+    }
+
+    /** Vacía la lista para empezar un frame nuevo. */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Añade una malla a la lista, dibujada en {@code (x, y, z)} con escala uniforme {@code scale}.
+     * @return false si la lista está llena.
+     */
+    public boolean add(int meshHandle, float x, float y, float z, float scale) {
+        if (count == maxDraws) {
+            return false;
+        }
+        handles[count] = meshHandle;
+        int base = count * DRAW_DATA_FLOATS;
+        data[base] = x;
+        data[base + 1] = y;
+        data[base + 2] = z;
+        data[base + 3] = scale;
+        count++;
+        return true;
+    }
+
+    /**
+     * Dibuja todas las mallas añadidas desde el último {@link #clear()}. Los offsets de cada malla se leen
+     * ahora, así que el MegaBuffer puede haberse recolocado entre {@link #add} y esta llamada.
+     * El programa de shaders debe estar en uso.
+     * @return Número de draws enviados.
+     */
+    public int draw(MegaBuffer buffer) {
+        if (count == 0) {
+            drawsLastFrame = 0;
+            return 0;
+        }
+        buffer.bind();
+
+        drawData.beginFrame();
+        ByteBuffer perDraw = drawData.begin(count * DRAW_DATA_FLOATS * Float.BYTES);
+        perDraw.asFloatBuffer().put(data, 0, count * DRAW_DATA_FLOATS);
+        long dataOffset = drawData.end();
+        // Los atributos por instancia se leen desde baseInstance: el draw i usa el vec4 i
+        GLState.bindBuffer(GL_ARRAY_BUFFER, drawData.getBufferId());
+        glVertexAttribPointer(DRAW_DATA_LOCATION, DRAW_DATA_FLOATS, GL_FLOAT, false, DRAW_DATA_FLOATS * Float.BYTES, dataOffset);
+        glEnableVertexAttribArray(DRAW_DATA_LOCATION);
+        glVertexAttribDivisor(DRAW_DATA_LOCATION, 1);
+
+        if (multiDraw) {
+            commands.beginFrame();
+            ByteBuffer out = commands.begin(count * COMMAND_BYTES, Integer.BYTES);
+            for (int i = 0; i < count; i++) {
+                int handle = handles[i];
+                out.putInt(buffer.getIndexCount(handle))
+                        .putInt(1)                              // instanceCount
+                        .putInt(buffer.getIndexOffset(handle))  // firstIndex
+                        .putInt(buffer.getVertexOffset(handle)) // baseVertex
+                        .putInt(i);                             // baseInstance
+            }
+            long commandOffset = commands.end();
+            GLState.bindBuffer(GL_DRAW_INDIRECT_BUFFER, commands.getBufferId());
+            glMultiDrawElementsIndirect(GL_TRIANGLES, GL_UNSIGNED_INT, commandOffset, count, 0);
+            commands.endFrame();
+            totalCalls++;
+        } else {
+            // Sin baseInstance: se vuelve a apuntar el atributo al vec4 de cada draw
+            for (int i = 0; i < count; i++) {
+                int handle = handles[i];
+                glVertexAttribPointer(DRAW_DATA_LOCATION, DRAW_DATA_FLOATS, GL_FLOAT, false, 0,
+                        dataOffset + (long) i * DRAW_DATA_FLOATS * Float.BYTES);
+                glDrawElementsInstancedBaseVertex(GL_TRIANGLES, buffer.getIndexCount(handle), GL_UNSIGNED_INT,
+                        (long) buffer.getIndexOffset(handle) * Integer.BYTES, 1, buffer.getVertexOffset(handle));
+            }
+            totalCalls += count;
+        }
+        drawData.endFrame();
+
+        drawsLastFrame = count;
+        totalDraws += count;
+        frames++;
+        return count;
+    }
+
+    public int getCount() { return count; }
+    public int getMaxDraws() { return maxDraws; }
+    public boolean isMultiDraw() { return multiDraw; }
+    public int getDrawsLastFrame() { return drawsLastFrame; }
+
+    public String report() {
+        long n = Math.max(1, frames);
+        return String.format("IndirectBatch (%s): %.1f mallas/frame en %.1f llamadas/frame",
+                multiDraw ? "glMultiDrawElementsIndirect" : "un draw por malla",
+                (double) totalDraws / n, (double) totalCalls / n);
+    }
+
+    public void cleanup() {
+        if (commands != null) {
+            commands.cleanup();
+        }
+        drawData.cleanup();
+    }
+}
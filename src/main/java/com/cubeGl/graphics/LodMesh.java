@@ -0,0 +1,60 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4fc;
+import org.joml.primitives.AABBf;
+
+/**
+ * Malla con varios niveles de detalle (un juego de vértices e índices por nivel, el 0 el más detallado).
+ * Todos los niveles deben ocupar el mismo espacio; la esfera envolvente se toma de la caja del nivel 0.
+ * <p>
+ * El nivel de cada objeto lo guarda quien dibuja y se actualiza cada frame con {@link #select(int, float, float, Matrix4fc)}.
+ */
+public class LodMesh {
+    private final Mesh[] levels;
+    private final LodSelector selector;
+    private final float radius;
+    private final int[] meshIds; // Ids en la RenderQueue (ver register)
+
+    public LodMesh(Mesh[] levels, LodSelector selector) {
+        if (levels.length != selector.getLevelCount()) {
+            throw new IllegalArgumentException("Se esperaban " + selector.getLevelCount() + " niveles y hay " + levels.length);
+        }
+        this.levels = levels.clone();
+        this.selector = selector;
+        AABBf bounds = levels[0].getBounds();
+        float dx = bounds.maxX - bounds.minX;
+        float dy = bounds.maxY - bounds.minY;
+        float dz = bounds.maxZ - bounds.minZ;
+        this.radius = 0.5f * (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        this.meshIds = new int[levels.length];
+    }
+
+    /**
+     * Registra todos los niveles en la cola de dibujado; después se usa {@link #getMeshId(int)} al encolar.
+     */
+    public void register(RenderQueue queue) {
+        for (int i = 0; i < levels.length; i++) {
+            meshIds[i] = queue.registerMesh(levels[i]);
+        }
+    }
+
+    /**
+     * @param scale    Escala del objeto (afecta al radio de la esfera envolvente).
+     * @param distance Distancia de la cámara al centro del objeto.
+     */
+    public int select(int currentLevel, float scale, float distance, Matrix4fc projection) {
+        return selector.select(currentLevel, LodSelector.screenSize(radius * scale, distance, projection));
+    }
+
+    public Mesh getLevel(int level) { return levels[level]; }
+    public int getMeshId(int level) { return meshIds[level]; }
+    public int getLevelCount() { return levels.length; }
+    public float getRadius() { return radius; }
+    public LodSelector getSelector() { return selector; }
+
+    public void cleanup() {
+        for (Mesh level : levels) {
+            level.cleanup();
+        }
+    }
+}
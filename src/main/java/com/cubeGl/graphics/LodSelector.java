@@ -0,0 +1,78 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4fc;
+
+/**
+ * Elige el nivel de detalle de un objeto según su tamaño proyectado en pantalla, sin OpenGL.
+ * <p>
+ * El tamaño es la fracción de la altura de la pantalla que ocupa la esfera envolvente
+ * ({@link #screenSize(float, float, Matrix4fc)}). El nivel {@code i} se usa mientras el tamaño sea mayor que
+ * {@code thresholds[i]}; el último nivel no tiene umbral. Para que un objeto cerca de un umbral no alterne de
+ * nivel en cada frame ("popping"), cambiar exige cruzar el umbral con un margen de {@code hysteresis}: pasar
+ * a un nivel más simple por debajo de {@code umbral * (1 - h)} y volver al detallado por encima de
+ * {@code umbral * (1 + h)}. Por eso el nivel actual de cada objeto lo guarda quien llama.
+ */
+public class LodSelector {
+    private final float[] thresholds;
+    private final float hysteresis;
+    private long switchCount;
+
+    /**
+     * @param thresholds Tamaño mínimo en pantalla de cada nivel salvo el último, de mayor a menor.
+     * @param hysteresis Margen relativo alrededor de cada umbral (por ejemplo, 0.15).
+     */
+    public LodSelector(float[] thresholds, float hysteresis) {
+        for (int i = 1; i < thresholds.length; i++) {
+            if (thresholds[i] >= thresholds[i - 1]) {
+                throw new IllegalArgumentException("Los umbrales de LOD deben ser decrecientes.");
+            }
+        }
+        this.thresholds = thresholds.clone();
+        this.hysteresis = hysteresis;
+    }
+
+    /**
+     * Fracción de la altura de la pantalla que ocupa una esfera de radio {@code radius} a {@code distance}
+     * de la cámara. {@code projection.m11()} es 1 / tan(fov / 2).
+     */
+    public static float screenSize(float radius, float distance, Matrix4fc projection) {
+        if (distance <= radius) {
+            return Float.POSITIVE_INFINITY; // Cámara dentro de la esfera: máximo detalle
+        }
+        return radius * projection.m11() / distance;
+    }
+
+    /**
+     * @param currentLevel Nivel con que se dibujó el objeto en el frame anterior.
+     * @return Nivel para este frame.
+     */
+    public int select(int currentLevel, float screenSize) {
+        int level = Math.max(0, Math.min(currentLevel, thresholds.length));
+        while (level < thresholds.length && screenSize < thresholds[level] * (1.0f - hysteresis)) {
+            level++;
+        }
+        while (level > 0 && screenSize > thresholds[level - 1] * (1.0f + hysteresis)) {
+            level--;
+        }
+        if (level != currentLevel) {
+            switchCount++;
+        }
+        return level;
+    }
+
+    /**
+     * Nivel para un objeto que aún no se ha dibujado: sin histéresis, y no cuenta como cambio de nivel.
+     */
+    public int levelFor(float screenSize) {
+        int level = 0;
+        while (level < thresholds.length && screenSize < thresholds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    public int getLevelCount() { return thresholds.length + 1; }
+
+    /** @return Cambios de nivel desde el inicio (para detectar popping). */
+    public long getSwitchCount() { return switchCount; }
+}
@@ -0,0 +1,301 @@
+package com.cubeGl.graphics;
+
+import org.joml.primitives.AABBf;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31.GL_COPY_READ_BUFFER;
+import static org.lwjgl.opengl.GL31.GL_COPY_WRITE_BUFFER;
+import static org.lwjgl.opengl.GL31.glCopyBufferSubData;
+
+/**
+ * Geometría de muchas mallas en un único VAO, con un VBO y un EBO compartidos: cada malla ocupa un rango de
+ * vértices y otro de índices, repartidos con un {@link BufferAllocator}. Así se dibujan todas sin cambiar de
+ * VAO, normalmente con una sola llamada (ver {@link IndirectBatch}).
+ * <p>
+ * Los índices de cada malla empiezan en 0 y se dibujan con su offset de vértices como {@code baseVertex},
+ * así que se copian tal cual. Si una malla no cabe, el buffer se compacta (cuando la memoria libre está
+ * repartida en huecos) o se duplica; en ambos casos los datos se copian en la GPU con glCopyBufferSubData.
+ * <p>
+ * Cada malla se identifica por un handle entero; los handles de mallas borradas se reutilizan. Al cambiar una
+ * malla ({@link #update}), si la nueva cabe en su espacio se sobrescribe ahí mismo.
+ */
+public class MegaBuffer {
+    private static final int MIN_FREE_DIVISOR = 4; // Tras recolocar, al menos 1/4 del buffer debe quedar libre
+    private static final int MAX_WASTE_DIVISOR = 4; // Se reutiliza el espacio si la malla nueva ocupa al menos 1/4
+
+    private final VertexLayout layout;
+    private final int vaoId;
+    private int vboId;
+    private int eboId;
+    private final BufferAllocator vertexAllocator;
+    private final BufferAllocator indexAllocator;
+
+    // Indexados por handle
+    private int[] vertexOffsets = new int[16];
+    private int[] indexOffsets = new int[16];
+    private int[] indexCounts = new int[16];
+    private AABBf[] bounds = new AABBf[16];
+    private int handleCount;
+    private int[] freeHandles = new int[16];
+    private int freeHandleCount;
+    private int meshCount;
+
+    // Contadores
+    private int growCount;
+    private int compactCount;
+    private long copiedBytes;
+    private int inPlaceUpdates;
+    private int movedUpdates;
+
+    /**
+     * @param layout         Formato de los vértices (intercalado).
+     * @param vertexCapacity Vértices reservados al principio.
+     * @param indexCapacity  Índices reservados al principio.
+     */
+    public MegaBuffer(VertexLayout layout, int vertexCapacity, int indexCapacity) {
+        this.layout = layout;
+        this.vertexAllocator = new BufferAllocator(vertexCapacity);
+        this.indexAllocator = new BufferAllocator(indexCapacity);
+
+        vaoId = glGenVertexArrays();
+        vboId = createBuffer((long) vertexCapacity * layout.getStride());
+        eboId = createBuffer((long) indexCapacity * Integer.BYTES);
+        attachBuffers();
+    }
+
+    private static int createBuffer(long bytes) {
+        int buffer = glGenBuffers();
+        GLState.bindBuffer(GL_COPY_WRITE_BUFFER, buffer);
+        glBufferData(GL_COPY_WRITE_BUFFER, bytes, GL_STATIC_DRAW);
+        return buffer;
+    }
+
+    // Apunta los atributos del VAO al VBO actual y le enlaza el EBO actual
+    private void attachBuffers() {
+        GLState.bindVertexArray(vaoId);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        layout.apply();
+        GLState.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+    }
+
+    /**
+     * Copia una malla (vértices codificados con el formato del buffer e índices desde 0, desde la posición
+     * hasta el límite de cada buffer). Los buffers no se liberan: siguen perteneciendo al llamador.
+     * @param bounds Caja envolvente en espacio local (se copia).
+     * @return Handle de la malla.
+     */
+    public int add(ByteBuffer vertices, IntBuffer indices, AABBf bounds) {
+        int vertexCount = checkVertexCount(vertices, indices);
+        int handle = newHandle();
+        vertexOffsets[handle] = allocate(vertexAllocator, vertexCount, true);
+        indexOffsets[handle] = allocate(indexAllocator, indices.remaining(), false);
+        this.bounds[handle] = new AABBf(bounds);
+        meshCount++;
+        write(handle, vertices, indices);
+        return handle;
+    }
+
+    /**
+     * Sustituye la geometría de una malla manteniendo su handle (mismas condiciones que
+     * {@link #add(ByteBuffer, IntBuffer, AABBf)}). Si los vértices y los índices nuevos caben en el espacio
+     * que ya ocupa, y no lo desperdician, se sobrescriben ahí con glBufferSubData; si no, la malla se mueve a
+     * otro sitio del buffer.
+     * @return true si se ha escrito en el mismo sitio.
+     */
+    public boolean update(int handle, ByteBuffer vertices, IntBuffer indices, AABBf bounds) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Handle de malla no válido: " + handle);
+        }
+        int vertexCount = checkVertexCount(vertices, indices);
+        int indexCount = indices.remaining();
+        boolean inPlace = fits(vertexAllocator, vertexOffsets[handle], vertexCount)
+                && fits(indexAllocator, indexOffsets[handle], indexCount);
+        if (inPlace) {
+            inPlaceUpdates++;
+        } else {
+            // Primero se libera el espacio antiguo, que así puede formar parte del nuevo hueco
+            vertexAllocator.free(vertexOffsets[handle]);
+            indexAllocator.free(indexOffsets[handle]);
+            indexCounts[handle] = 0;
+            this.bounds[handle] = null; // Fuera de las compactaciones mientras no tiene espacio
+            meshCount--;
+            vertexOffsets[handle] = allocate(vertexAllocator, vertexCount, true);
+            indexOffsets[handle] = allocate(indexAllocator, indexCount, false);
+            meshCount++;
+            movedUpdates++;
+        }
+        this.bounds[handle] = new AABBf(bounds);
+        write(handle, vertices, indices);
+        return inPlace;
+    }
+
+    private int checkVertexCount(ByteBuffer vertices, IntBuffer indices) {
+        int stride = layout.getStride();
+        if (vertices.remaining() % stride != 0) {
+            throw new IllegalArgumentException("El tamaño de los vértices no es múltiplo del stride del formato " + layout.getName());
+        }
+        int vertexCount = vertices.remaining() / stride;
+        if (vertexCount == 0 || indices.remaining() == 0) {
+            throw new IllegalArgumentException("La malla está vacía.");
+        }
+        return vertexCount;
+    }
+
+    private static boolean fits(BufferAllocator allocator, int offset, int size) {
+        int allocated = allocator.sizeOf(offset);
+        return size <= allocated && size * MAX_WASTE_DIVISOR >= allocated;
+    }
+
+    private void write(int handle, ByteBuffer vertices, IntBuffer indices) {
+        GLState.bindBuffer(GL_COPY_WRITE_BUFFER, vboId);
+        glBufferSubData(GL_COPY_WRITE_BUFFER, (long) vertexOffsets[handle] * layout.getStride(), vertices);
+        GLState.bindBuffer(GL_COPY_WRITE_BUFFER, eboId);
+        glBufferSubData(GL_COPY_WRITE_BUFFER, (long) indexOffsets[handle] * Integer.BYTES, indices);
+        indexCounts[handle] = indices.remaining();
+    }
+
+    /**
+     * Libera el espacio de una malla. El handle queda libre para otra.
+     */
+    public void remove(int handle) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Handle de malla no válido: " + handle);
+        }
+        vertexAllocator.free(vertexOffsets[handle]);
+        indexAllocator.free(indexOffsets[handle]);
+        indexCounts[handle] = 0;
+        bounds[handle] = null;
+        if (freeHandleCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeHandleCount * 2);
+        }
+        freeHandles[freeHandleCount++] = handle;
+        meshCount--;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < handleCount && bounds[handle] != null;
+    }
+
+    private int newHandle() {
+        if (freeHandleCount > 0) {
+            return freeHandles[--freeHandleCount];
+        }
+        if (handleCount == vertexOffsets.length) {
+            int capacity = handleCount * 2;
+            vertexOffsets = Arrays.copyOf(vertexOffsets, capacity);
+            indexOffsets = Arrays.copyOf(indexOffsets, capacity);
+            indexCounts = Arrays.copyOf(indexCounts, capacity);
+            bounds = Arrays.copyOf(bounds, capacity);
+        }
+        return handleCount++;
+    }
+
+    /**
+     * Reserva {@code size} unidades; si no hay hueco, compacta o duplica el buffer correspondiente.
+     */
+    private int allocate(BufferAllocator allocator, int size, boolean vertexBuffer) {
+        int offset = allocator.allocate(size);
+        if (offset >= 0) {
+            return offset;
+        }
+        // Si la memoria libre está en huecos y sobra espacio, basta con compactar; si no, se duplica el buffer
+        // (compactándolo al copiarlo), para no recolocarlo todo en cada malla nueva cuando está casi lleno
+        int capacity = allocator.getCapacity();
+        while (capacity - allocator.getUsed() - size < capacity / MIN_FREE_DIVISOR) {
+            capacity *= 2;
+        }
+        reallocate(allocator, vertexBuffer, capacity);
+        offset = allocator.allocate(size); // Tras compactar, toda la memoria libre es un único hueco al final
+        if (offset < 0) {
+            throw new IllegalStateException("No se pudo reservar " + size + " unidades en el MegaBuffer.");
+        }
+        return offset;
+    }
+
+    /**
+     * Crea un buffer de {@code capacity} unidades con las asignaciones compactadas al principio, copia los
+     * datos en la GPU y sustituye al anterior.
+     */
+    private void reallocate(BufferAllocator allocator, boolean vertexBuffer, int capacity) {
+        int unitBytes = vertexBuffer ? layout.getStride() : Integer.BYTES;
+        int[] offsets = vertexBuffer ? vertexOffsets : indexOffsets;
+        int oldBuffer = vertexBuffer ? vboId : eboId;
+        if (capacity > allocator.getCapacity()) {
+            allocator.grow(capacity);
+            growCount++;
+        } else {
+            compactCount++;
+        }
+
+        // compact() recorre las asignaciones por offset: ordenando los handles igual, la k-ésima llamada
+        // corresponde al k-ésimo handle
+        Integer[] order = new Integer[meshCount];
+        for (int handle = 0, k = 0; handle < handleCount; handle++) {
+            if (bounds[handle] != null) {
+                order[k++] = handle;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(offsets[a], offsets[b]));
+
+        int newBuffer = createBuffer((long) capacity * unitBytes);
+        GLState.bindBuffer(GL_COPY_READ_BUFFER, oldBuffer);
+        GLState.bindBuffer(GL_COPY_WRITE_BUFFER, newBuffer);
+        int[] next = new int[1];
+        allocator.compact((from, to, size) -> {
+            glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                    (long) from * unitBytes, (long) to * unitBytes, (long) size * unitBytes);
+            copiedBytes += (long) size * unitBytes;
+            offsets[order[next[0]++]] = to;
+        });
+
+        GLState.deleteBuffer(oldBuffer);
+        if (vertexBuffer) {
+            vboId = newBuffer;
+        } else {
+            eboId = newBuffer;
+        }
+        attachBuffers();
+    }
+
+    public void bind() {
+        GLState.bindVertexArray(vaoId);
+    }
+
+    public VertexLayout getLayout() { return layout; }
+    public int getVaoId() { return vaoId; }
+    public int getVertexBufferId() { return vboId; }
+    public int getIndexBufferId() { return eboId; }
+
+    // Datos de cada malla, para los comandos de dibujado
+    public int getVertexOffset(int handle) { return vertexOffsets[handle]; }
+    public int getIndexOffset(int handle) { return indexOffsets[handle]; }
+    public int getIndexCount(int handle) { return indexCounts[handle]; }
+    /** @return Caja envolvente de la malla en espacio local (no debe modificarse). */
+    public AABBf getBounds(int handle) { return bounds[handle]; }
+
+    public int getMeshCount() { return meshCount; }
+    public BufferAllocator getVertexAllocator() { return vertexAllocator; }
+    public BufferAllocator getIndexAllocator() { return indexAllocator; }
+
+    public String report() {
+        return String.format("MegaBuffer (%s): %d mallas, vértices %d/%d (frag. %.2f), índices %d/%d (frag. %.2f), "
+                        + "%d ampliaciones, %d compactaciones, %.2f MB copiados, %d actualizaciones en el sitio, %d movidas",
+                layout.getName(), meshCount,
+                vertexAllocator.getUsed(), vertexAllocator.getCapacity(), vertexAllocator.getFragmentation(),
+                indexAllocator.getUsed(), indexAllocator.getCapacity(), indexAllocator.getFragmentation(),
+                growCount, compactCount, copiedBytes / (1024.0 * 1024.0), inPlaceUpdates, movedUpdates);
+    }
+
+    public void cleanup() {
+        GLState.deleteBuffer(vboId);
+        GLState.deleteBuffer(eboId);
+        GLState.deleteVertexArray(vaoId);
+    }
+}
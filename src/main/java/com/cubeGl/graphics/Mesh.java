@@ -1,11 +1,16 @@
 package com.cubeGl.graphics;
 
+import org.joml.primitives.AABBf;
 import org.lwjgl.system.MemoryUtil;
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
 import static org.lwjgl.opengl.GL20.*;
 import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
 
 /**
  * Representa una malla 3D (geometría). Contiene el VAO, VBO, EBO y la información de conteo.
@@ -15,17 +20,27 @@ public class Mesh {
     private final int vertexCount;
 
     // IDs de VBO/EBO para su correcta liberación
-    private final int posColorVboId; // VBO único para Posición y Color
-    private final int texVboId;      // VBO para Coordenadas de Textura
+    private final int posColorVboId; // VBO único para Posición y Color (o todo el vértice, si es intercalado)
+    private final int texVboId;      // VBO para Coordenadas de Textura (0 con un VertexLayout intercalado)
     private final int eboId;
+    private final long vertexBytes; // Memoria de vértices en la GPU
+
+    private final AABBf bounds; // Caja envolvente en espacio local (para el culling)
+
+    // Datos por instancia: posición (x,y,z) + escala uniforme, y rotación como cuaternión (x,y,z,w)
+    public static final int INSTANCE_FLOATS = 8;
+    private int instanceVboId;  // 0 mientras el modo instanciado no esté activado
+    private int maxInstances;
 
     // Constructor privado
-    private Mesh(int vaoId, int vertexCount, int posColorVboId, int texVboId, int eboId) {
+    private Mesh(int vaoId, int vertexCount, int posColorVboId, int texVboId, int eboId, long vertexBytes, AABBf bounds) {
         this.vaoId = vaoId;
         this.vertexCount = vertexCount;
         this.posColorVboId = posColorVboId;
         this.texVboId = texVboId;
         this.eboId = eboId;
+        this.vertexBytes = vertexBytes;
+        this.bounds = bounds;
     }
 
     /**
@@ -33,82 +48,43 @@ public class Mesh {
      * @return Una instancia de Mesh con la geometría del cubo cargada.
      */
     public static Mesh createCube() {
-        // --- 1. 24 VÉRTICES ÚNICOS (4 por cara * 6 caras) ---
-        float[] vertices = {
-                // Posiciones x,y,z         // Colores r,g,b (mantener 1,1,1 o el color base)
-                // Cara frontal (-Z)
-                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 0
-                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 1
-                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 2
-                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 3
-
-                // Cara trasera (+Z)
-                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 4
-                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 5
-                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 6
-                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 7
-
-                // Cara Izquierda (-X)
-                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 8 (coincide con 4)
-                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 9 (coincide con 0)
-                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 10 (coincide con 3)
-                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 11 (coincide con 7)
-
-                // Cara Derecha (+X)
-                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 12 (coincide con 1)
-                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 13 (coincide con 5)
-                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 14 (coincide con 6)
-                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 15 (coincide con 2)
-
-                // Cara Arriba (+Y)
-                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 16 (coincide con 3)
-                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 17 (coincide con 2)
-                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 18 (coincide con 6)
-                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 19 (coincide con 7)
-
-                // Cara Abajo (-Y)
-                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 20 (coincide con 0)
-                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 21 (coincide con 1)
-                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 22 (coincide con 5)
-                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f  // 23 (coincide con 4)
-        };
-
-        // --- 2. 24 COORDENADAS DE TEXTURA (4 por cara * 6 caras) ---
-        // Se repiten las mismas 4 coordenadas (0,0) a (1,1) para cada cara
-        float[] texCoords = {
-                // Frontal (-Z)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f,
-                // Trasera (+Z)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f,
-                // Izquierda (-X)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f,
-                // Derecha (+X)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f,
-                // Arriba (+Y)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f,
-                // Abajo (-Y)
-                0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f
-        };
-
-        // --- 3. 36 ÍNDICES (6 por cara * 6 caras) ---
-        int[] indices = {
-                // Frontal
-                0, 1, 2, 2, 3, 0,
-                // Trasera
-                4, 5, 6, 6, 7, 4,
-                // Izquierda
-                8, 9, 10, 10, 11, 8,
-                // Derecha
-                12, 13, 14, 14, 15, 12,
-                // Arriba
-                16, 17, 18, 18, 19, 16,
-                // Abajo
-                20, 21, 22, 22, 23, 20
-        };
+        return create(MeshData.cube());
+    }
+
+    /**
+     * Crea un objeto Mesh a partir de geometría ya preparada en CPU (por ejemplo, la de un chunk).
+     * @return Una instancia de Mesh con la geometría cargada en la GPU.
+     */
+    public static Mesh create(MeshData data) {
+        FloatBuffer vertexBuffer = null;
+        FloatBuffer texCoordsBuffer = null;
+        IntBuffer indexBuffer = null;
+        try {
+            vertexBuffer = MemoryUtil.memAllocFloat(data.getVertices().length);
+            texCoordsBuffer = MemoryUtil.memAllocFloat(data.getTexCoords().length);
+            indexBuffer = MemoryUtil.memAllocInt(data.getIndices().length);
+            data.writeTo(vertexBuffer, texCoordsBuffer, indexBuffer);
+            vertexBuffer.flip();
+            texCoordsBuffer.flip();
+            indexBuffer.flip();
+
+            return create(vertexBuffer, texCoordsBuffer, indexBuffer);
+        } finally {
+            if (vertexBuffer != null) MemoryUtil.memFree(vertexBuffer);
+            if (texCoordsBuffer != null) MemoryUtil.memFree(texCoordsBuffer);
+            if (indexBuffer != null) MemoryUtil.memFree(indexBuffer);
+        }
+    }
 
+    /**
+     * Crea un objeto Mesh a partir de buffers nativos ya rellenos (desde la posición hasta el límite).
+     * Los buffers no se liberan: siguen perteneciendo al llamador (por ejemplo, a un pool).
+     * @return Una instancia de Mesh con la geometría cargada en la GPU.
+     */
+    public static Mesh create(FloatBuffer vertices, FloatBuffer texCoords, IntBuffer indices) {
         // --- INICIALIZACIÓN DE OPENGL ---
         int vao = glGenVertexArrays();
-        glBindVertexArray(vao);
+        GLState.bindVertexArray(vao);
 
         // VBOs e EBO IDs
         int posColorVboId = glGenBuffers();
@@ -116,84 +92,225 @@ public class Mesh {
         int eboId = glGenBuffers();
 
         // 1. VBO de Posición y Color (location 0 y 1)
-        FloatBuffer vertexBuffer = null;
-        try {
-            vertexBuffer = MemoryUtil.memAllocFloat(vertices.length);
-            vertexBuffer.put(vertices).flip();
-            glBindBuffer(GL_ARRAY_BUFFER, posColorVboId);
-            glBufferData(GL_ARRAY_BUFFER, vertexBuffer, GL_STATIC_DRAW);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, posColorVboId);
+        glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
 
-            int stride = (3 + 3) * Float.BYTES;
+        int stride = (3 + 3) * Float.BYTES;
 
-            // Atributo 0: Posición
-            glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
-            glEnableVertexAttribArray(0);
+        // Atributo 0: Posición
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
+        glEnableVertexAttribArray(0);
 
-            // Atributo 1: Color
-            glVertexAttribPointer(1, 3, GL_FLOAT, false, stride, 3L * Float.BYTES);
-            glEnableVertexAttribArray(1);
-        } finally {
-            if (vertexBuffer != null) MemoryUtil.memFree(vertexBuffer);
-        }
+        // Atributo 1: Color
+        glVertexAttribPointer(1, 3, GL_FLOAT, false, stride, 3L * Float.BYTES);
+        glEnableVertexAttribArray(1);
 
         // 2. VBO de Coordenadas de Textura (location 2)
-        FloatBuffer texCoordsBuffer = null;
-        try {
-            texCoordsBuffer = MemoryUtil.memAllocFloat(texCoords.length);
-            texCoordsBuffer.put(texCoords).flip();
-            glBindBuffer(GL_ARRAY_BUFFER, texVboId);
-            glBufferData(GL_ARRAY_BUFFER, texCoordsBuffer, GL_STATIC_DRAW);
-
-            // Atributo 2: TexCoord (2 floats, no intercalado, stride 0)
-            glVertexAttribPointer(2, 2, GL_FLOAT, false, 0, 0);
-            glEnableVertexAttribArray(2);
-        } finally {
-            if (texCoordsBuffer != null) MemoryUtil.memFree(texCoordsBuffer);
-        }
+        GLState.bindBuffer(GL_ARRAY_BUFFER, texVboId);
+        glBufferData(GL_ARRAY_BUFFER, texCoords, GL_STATIC_DRAW);
+
+        // Atributo 2: TexCoord + capa (3 floats, no intercalado, stride 0)
+        glVertexAttribPointer(2, 3, GL_FLOAT, false, 0, 0);
+        glEnableVertexAttribArray(2);
 
         // 3. EBO (Element Buffer Object)
-        java.nio.IntBuffer indexBuffer = null;
+        GLState.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+
+        // Desenlazar
+        GLState.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+
+        long vertexBytes = ((long) vertices.remaining() + texCoords.remaining()) * Float.BYTES;
+        return new Mesh(vao, indices.remaining(), posColorVboId, texVboId, eboId, vertexBytes, computeBounds(vertices));
+    }
+
+    /**
+     * Crea un objeto Mesh con todos los atributos intercalados en un único VBO según {@code layout}
+     * (por ejemplo, {@link VertexLayout#PACKED_VOXEL} para chunks).
+     * @return Una instancia de Mesh con la geometría cargada en la GPU.
+     */
+    public static Mesh create(MeshData data, VertexLayout layout) {
+        ByteBuffer vertexBuffer = null;
+        IntBuffer indexBuffer = null;
         try {
-            indexBuffer = MemoryUtil.memAllocInt(indices.length);
-            indexBuffer.put(indices).flip();
-            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
-            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
+            vertexBuffer = MemoryUtil.memAlloc(data.getVertexCount() * layout.getStride());
+            layout.write(data, vertexBuffer);
+            vertexBuffer.flip();
+            indexBuffer = MemoryUtil.memAllocInt(data.getIndices().length);
+            indexBuffer.put(data.getIndices()).flip();
+
+            return create(layout, vertexBuffer, indexBuffer, computeBounds(data.getVertices()));
         } finally {
+            if (vertexBuffer != null) MemoryUtil.memFree(vertexBuffer);
             if (indexBuffer != null) MemoryUtil.memFree(indexBuffer);
         }
+    }
 
-        // Desenlazar
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindVertexArray(0);
+    /**
+     * Crea un objeto Mesh a partir de vértices ya codificados con {@code layout} (desde la posición hasta el límite).
+     * Los buffers no se liberan: siguen perteneciendo al llamador.
+     * @param bounds Caja envolvente en espacio local (los vértices codificados no se vuelven a leer).
+     */
+    public static Mesh create(VertexLayout layout, ByteBuffer vertices, IntBuffer indices, AABBf bounds) {
+        if (vertices.remaining() % layout.getStride() != 0) {
+            throw new IllegalArgumentException("El tamaño de los vértices no es múltiplo del stride del formato " + layout.getName());
+        }
+        int vao = glGenVertexArrays();
+        GLState.bindVertexArray(vao);
+
+        int vboId = glGenBuffers();
+        int eboId = glGenBuffers();
+
+        GLState.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
+        layout.apply();
+
+        GLState.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
 
-        return new Mesh(vao, indices.length, posColorVboId, texVboId, eboId);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+
+        return new Mesh(vao, indices.remaining(), vboId, 0, eboId, vertices.remaining(), bounds);
+    }
+
+    /**
+     * Calcula la caja envolvente de las posiciones (3 primeros floats de cada vértice).
+     */
+    private static AABBf computeBounds(FloatBuffer vertices) {
+        AABBf box = new AABBf(); // Vacía: min = +inf, max = -inf
+        for (int i = vertices.position(); i + 2 < vertices.limit(); i += MeshData.FLOATS_PER_VERTEX) {
+            box.union(vertices.get(i), vertices.get(i + 1), vertices.get(i + 2));
+        }
+        return box;
+    }
+
+    private static AABBf computeBounds(float[] vertices) {
+        AABBf box = new AABBf();
+        for (int i = 0; i + 2 < vertices.length; i += MeshData.FLOATS_PER_VERTEX) {
+            box.union(vertices[i], vertices[i + 1], vertices[i + 2]);
+        }
+        return box;
     }
 
     /**
      * Dibuja la malla usando el VAO y los índices.
      */
     public void render() {
-        glBindVertexArray(vaoId);
+        // Sin desenlazar al terminar: GLState omite el bind si la siguiente malla es la misma
+        GLState.bindVertexArray(vaoId);
         glDrawElements(GL_TRIANGLES, vertexCount, GL_UNSIGNED_INT, 0);
-        glBindVertexArray(0);
+    }
+
+    /**
+     * @return Caja envolvente de la malla en espacio local (no debe modificarse).
+     */
+    public AABBf getBounds() {
+        return bounds;
+    }
+
+    /**
+     * @return Bytes de vértices que ocupa la malla en la GPU (sin índices ni datos por instancia).
+     */
+    public long getVertexBytes() {
+        return vertexBytes;
+    }
+
+    /**
+     * Activa el modo instanciado: crea un VBO con datos por instancia (locations 3 y 4, divisor 1).
+     * Cada instancia ocupa {@link #INSTANCE_FLOATS} floats: x, y, z, escala, qx, qy, qz, qw.
+     *
+     * @param maxInstances Número máximo de instancias que se podrán dibujar en una sola llamada.
+     */
+    public void enableInstancing(int maxInstances) {
+        if (instanceVboId != 0) {
+            throw new IllegalStateException("El modo instanciado ya está activado en esta malla.");
+        }
+        this.maxInstances = maxInstances;
+        this.instanceVboId = glGenBuffers();
+
+        GLState.bindVertexArray(vaoId);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, instanceVboId);
+        glBufferData(GL_ARRAY_BUFFER, (long) maxInstances * INSTANCE_FLOATS * Float.BYTES, GL_DYNAMIC_DRAW);
+
+        setInstanceAttributes(0);
+
+        GLState.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+    }
+
+    /**
+     * Sube los datos por instancia (desde la posición hasta el límite del buffer).
+     * El buffer se "huérfana" con glBufferData antes de escribir para no esperar a la GPU.
+     */
+    public void updateInstances(FloatBuffer instanceData) {
+        if (instanceVboId == 0) {
+            throw new IllegalStateException("El modo instanciado no está activado en esta malla.");
+        }
+        if (instanceData.remaining() > maxInstances * INSTANCE_FLOATS) {
+            throw new IllegalArgumentException("Demasiadas instancias: máximo " + maxInstances);
+        }
+        GLState.bindBuffer(GL_ARRAY_BUFFER, instanceVboId);
+        glBufferData(GL_ARRAY_BUFFER, (long) maxInstances * INSTANCE_FLOATS * Float.BYTES, GL_DYNAMIC_DRAW);
+        glBufferSubData(GL_ARRAY_BUFFER, 0, instanceData);
+    }
+
+    /**
+     * Apunta los atributos por instancia (locations 3 y 4, divisor 1) al VBO enlazado en GL_ARRAY_BUFFER,
+     * empezando en {@code offset} bytes. Modifica el VAO enlazado.
+     */
+    private static void setInstanceAttributes(long offset) {
+        int stride = INSTANCE_FLOATS * Float.BYTES;
+
+        // Atributo 3: Posición + escala de la instancia
+        glVertexAttribPointer(3, 4, GL_FLOAT, false, stride, offset);
+        glEnableVertexAttribArray(3);
+        glVertexAttribDivisor(3, 1);
+
+        // Atributo 4: Rotación de la instancia (cuaternión)
+        glVertexAttribPointer(4, 4, GL_FLOAT, false, stride, offset + 4L * Float.BYTES);
+        glEnableVertexAttribArray(4);
+        glVertexAttribDivisor(4, 1);
+    }
+
+    /**
+     * Dibuja {@code instanceCount} copias leyendo los datos por instancia de un {@link StreamBuffer}
+     * (mismo formato que {@link #enableInstancing(int)}), sin subir nada con glBufferData.
+     * Los atributos del VAO pasan a apuntar al buffer de streaming.
+     *
+     * @param offset Offset devuelto por {@link StreamBuffer#end()}.
+     */
+    public void renderInstanced(StreamBuffer stream, long offset, int instanceCount) {
+        GLState.bindVertexArray(vaoId);
+        GLState.bindBuffer(GL_ARRAY_BUFFER, stream.getBufferId());
+        setInstanceAttributes(offset);
+        glDrawElementsInstanced(GL_TRIANGLES, vertexCount, GL_UNSIGNED_INT, 0, instanceCount);
+    }
+
+    /**
+     * Dibuja {@code instanceCount} copias de la malla en una sola llamada (glDrawElementsInstanced).
+     */
+    public void renderInstanced(int instanceCount) {
+        GLState.bindVertexArray(vaoId);
+        glDrawElementsInstanced(GL_TRIANGLES, vertexCount, GL_UNSIGNED_INT, 0, instanceCount);
     }
 
     /**
      * Libera los recursos de OpenGL (VAO, VBO, EBO).
      */
     public void cleanup() {
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glDisableVertexAttribArray(2);
-
-        // Eliminar buffers VBO/EBO
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glDeleteBuffers(posColorVboId);
-        glDeleteBuffers(texVboId);
-        glDeleteBuffers(eboId);
+        // Eliminar buffers VBO/EBO (los atributos activados forman parte del VAO y se van con él)
+        GLState.deleteBuffer(posColorVboId);
+        if (texVboId != 0) {
+            GLState.deleteBuffer(texVboId);
+        }
+        GLState.deleteBuffer(eboId);
+        if (instanceVboId != 0) {
+            GLState.deleteBuffer(instanceVboId);
+        }
 
         // Eliminar VAO
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoId);
+        GLState.deleteVertexArray(vaoId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.cubeGl.graphics;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Geometría preparada en CPU (sin contexto de OpenGL) lista para subirse con {@link Mesh#create(MeshData)}.
+ * Usa el mismo formato que {@link #cube()}: posición + color intercalados (6 floats por vértice),
+ * coordenadas de textura en un array aparte (u, v y capa del array de texturas: 3 floats por vértice)
+ * e índices de triángulos. Opcionalmente guarda la normal de cada vértice como índice
+ * ({@link VertexLayout#NORMAL_POS_X}...), que usan los formatos compactos de {@link VertexLayout}.
+ */
+public class MeshData {
+    public static final int FLOATS_PER_VERTEX = 6;
+    public static final int TEX_FLOATS_PER_VERTEX = 3;
+
+    private final float[] vertices;
+    private final float[] texCoords;
+    private final int[] indices;
+    private final byte[] normals; // Puede ser null
+
+    public MeshData(float[] vertices, float[] texCoords, int[] indices) {
+        this(vertices, texCoords, indices, null);
+    }
+
+    public MeshData(float[] vertices, float[] texCoords, int[] indices, byte[] normals) {
+        if (vertices.length / FLOATS_PER_VERTEX != texCoords.length / TEX_FLOATS_PER_VERTEX) {
+            throw new IllegalArgumentException("El número de posiciones y de coordenadas de textura no coincide.");
+        }
+        if (normals != null && normals.length != vertices.length / FLOATS_PER_VERTEX) {
+            throw new IllegalArgumentException("El número de posiciones y de normales no coincide.");
+        }
+        this.vertices = vertices;
+        this.texCoords = texCoords;
+        this.indices = indices;
+        this.normals = normals;
+    }
+
+    /**
+     * Geometría de un cubo unitario centrado en el origen, con 4 vértices por cara para que cada una
+     * tenga sus propias coordenadas de textura (24 vértices y 36 índices).
+     */
+    public static MeshData cube() {
+        // --- 1. 24 VÉRTICES ÚNICOS (4 por cara * 6 caras) ---
+        float[] vertices = {
+                // Posiciones x,y,z         // Colores r,g,b (mantener 1,1,1 o el color base)
+                // Cara frontal (-Z)
+                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 0
+                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 1
+                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 2
+                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 3
+
+                // Cara trasera (+Z)
+                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 4
+                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 5
+                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 6
+                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 7
+
+                // Cara Izquierda (-X)
+                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 8 (coincide con 4)
+                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 9 (coincide con 0)
+                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 10 (coincide con 3)
+                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 11 (coincide con 7)
+
+                // Cara Derecha (+X)
+                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 12 (coincide con 1)
+                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 13 (coincide con 5)
+                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 14 (coincide con 6)
+                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 15 (coincide con 2)
+
+                // Cara Arriba (+Y)
+                -0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 16 (coincide con 3)
+                0.5f,  0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 17 (coincide con 2)
+                0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 18 (coincide con 6)
+                -0.5f,  0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 19 (coincide con 7)
+
+                // Cara Abajo (-Y)
+                -0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 20 (coincide con 0)
+                0.5f, -0.5f, -0.5f,    1.0f, 1.0f, 1.0f, // 21 (coincide con 1)
+                0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f, // 22 (coincide con 5)
+                -0.5f, -0.5f,  0.5f,    1.0f, 1.0f, 1.0f  // 23 (coincide con 4)
+        };
+
+        // --- 2. 24 COORDENADAS DE TEXTURA (4 por cara * 6 caras) ---
+        // Se repiten las mismas 4 coordenadas (0,0) a (1,1) para cada cara; la tercera es la capa
+        // del array de texturas (0: las texturas 2D normales la ignoran)
+        float[] texCoords = {
+                // Frontal (-Z)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f,
+                // Trasera (+Z)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f,
+                // Izquierda (-X)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f,
+                // Derecha (+X)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f,
+                // Arriba (+Y)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f,
+                // Abajo (-Y)
+                0.0f, 0.0f, 0.0f,  1.0f, 0.0f, 0.0f,  1.0f, 1.0f, 0.0f,  0.0f, 1.0f, 0.0f
+        };
+
+        // --- 3. 36 ÍNDICES (6 por cara * 6 caras) ---
+        int[] indices = {
+                // Frontal
+                0, 1, 2, 2, 3, 0,
+                // Trasera
+                4, 5, 6, 6, 7, 4,
+                // Izquierda
+                8, 9, 10, 10, 11, 8,
+                // Derecha
+                12, 13, 14, 14, 15, 12,
+                // Arriba
+                16, 17, 18, 18, 19, 16,
+                // Abajo
+                20, 21, 22, 22, 23, 20
+        };
+
+        // --- 4. NORMAL DE CADA VÉRTICE (para los formatos compactos) ---
+        byte[] normals = new byte[24];
+        int[] faceNormals = {
+                VertexLayout.NORMAL_NEG_Z, VertexLayout.NORMAL_POS_Z, VertexLayout.NORMAL_NEG_X,
+                VertexLayout.NORMAL_POS_X, VertexLayout.NORMAL_POS_Y, VertexLayout.NORMAL_NEG_Y
+        };
+        for (int i = 0; i < normals.length; i++) {
+            normals[i] = (byte) faceNormals[i / 4];
+        }
+
+        return new MeshData(vertices, texCoords, indices, normals);
+    }
+
+    /**
+     * Copia vértices, coordenadas de textura e índices a partir de la posición actual de cada buffer
+     * (sin OpenGL; {@link Mesh#create(MeshData)} los sube después).
+     */
+    public void writeTo(FloatBuffer vertexBuffer, FloatBuffer texCoordBuffer, IntBuffer indexBuffer) {
+        vertexBuffer.put(vertices);
+        texCoordBuffer.put(texCoords);
+        indexBuffer.put(indices);
+    }
+
+    public float[] getVertices() { return vertices; }
+    public float[] getTexCoords() { return texCoords; }
+    public int[] getIndices() { return indices; }
+    public byte[] getNormals() { return normals; }
+
+    public int getVertexCount() { return vertices.length / FLOATS_PER_VERTEX; }
+    public int getIndexCount() { return indices.length; }
+}
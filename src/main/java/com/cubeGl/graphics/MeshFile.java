@@ -0,0 +1,288 @@
+package com.cubeGl.graphics;
+
+import org.joml.primitives.AABBf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Formato binario de mallas precompiladas (.cgm), pensado para generarse sin conexión (ver
+ * {@link com.cubeGl.tools.ObjConverter}) y cargarse sin interpretar nada: el archivo se mapea en memoria con
+ * {@link FileChannel#map} y los bloques de vértices e índices se pasan tal cual a glBufferData, sin copias en
+ * el heap de Java.
+ * <p>
+ * Estructura (little-endian; los bloques de datos empiezan en múltiplos de 16 bytes):
+ * <pre>
+ *   Cabecera (48 bytes)
+ *     int    magic "CGM1"
+ *     int    versión (1)
+ *     int    stride del vértice
+ *     int    número de atributos
+ *     float  caja envolvente: minX, minY, minZ, maxX, maxY, maxZ
+ *     int    número de niveles de detalle
+ *     int    reservado (0)
+ *   Atributos (20 bytes cada uno): location, componentes, tipo de OpenGL, flags (1 = normalizado, 2 = entero), offset
+ *   Niveles (20 bytes cada uno, del más detallado al más simple):
+ *     float  tamaño mínimo en pantalla (ver {@link LodSelector}; se ignora en el último nivel)
+ *     int    offset y número de vértices
+ *     int    offset y número de índices (int sin signo)
+ *   Bloques de vértices (codificados con el formato descrito) e índices
+ * </pre>
+ * Al abrir solo se comprueba la estructura (tamaños y offsets), no el contenido de los bloques.
+ */
+public final class MeshFile {
+    public static final String EXTENSION = ".cgm";
+    public static final int MAGIC = 'C' | 'G' << 8 | 'M' << 16 | '1' << 24;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 48;
+    private static final int ATTRIBUTE_BYTES = 20;
+    private static final int LOD_BYTES = 20;
+    private static final int BLOCK_ALIGNMENT = 16;
+    private static final int FLAG_NORMALIZED = 1;
+    private static final int FLAG_INTEGER = 2;
+
+    private final ByteBuffer data;
+    private final VertexLayout layout;
+    private final AABBf bounds;
+    private final float[] thresholds; // Uno por nivel salvo el último
+    private final int[] vertexOffsets;
+    private final int[] vertexCounts;
+    private final int[] indexOffsets;
+    private final int[] indexCounts;
+
+    private MeshFile(ByteBuffer data, VertexLayout layout, AABBf bounds, float[] thresholds,
+                     int[] vertexOffsets, int[] vertexCounts, int[] indexOffsets, int[] indexCounts) {
+        this.data = data;
+        this.layout = layout;
+        this.bounds = bounds;
+        this.thresholds = thresholds;
+        this.vertexOffsets = vertexOffsets;
+        this.vertexCounts = vertexCounts;
+        this.indexOffsets = indexOffsets;
+        this.indexCounts = indexCounts;
+    }
+
+    /**
+     * Mapea el archivo en memoria (solo lectura). El mapeo se libera cuando el objeto deja de usarse.
+     */
+    public static MeshFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Malla demasiado grande para mapearla: " + path);
+            }
+            try {
+                return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malla no válida " + path + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Interpreta una malla ya en memoria (desde la posición 0 del buffer).
+     * @throws IllegalArgumentException Si la estructura no es válida.
+     */
+    public static MeshFile read(ByteBuffer buffer) {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IllegalStateException("Las mallas .cgm solo se pueden cargar sin copia en plataformas little-endian.");
+        }
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int size = data.capacity();
+        if (size < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("no es una malla .cgm");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("versión " + data.getInt(4) + " no soportada");
+        }
+        int stride = data.getInt(8);
+        int attributeCount = data.getInt(12);
+        AABBf bounds = new AABBf(data.getFloat(16), data.getFloat(20), data.getFloat(24),
+                data.getFloat(28), data.getFloat(32), data.getFloat(36));
+        int lodCount = data.getInt(40);
+        if (attributeCount <= 0 || lodCount <= 0
+                || HEADER_BYTES + (long) attributeCount * ATTRIBUTE_BYTES + (long) lodCount * LOD_BYTES > size) {
+            throw new IllegalArgumentException("cabecera truncada");
+        }
+
+        VertexLayout.Attribute[] attributes = new VertexLayout.Attribute[attributeCount];
+        int at = HEADER_BYTES;
+        for (int i = 0; i < attributeCount; i++, at += ATTRIBUTE_BYTES) {
+            int location = data.getInt(at);
+            int components = data.getInt(at + 4);
+            int type = data.getInt(at + 8);
+            int flags = data.getInt(at + 12);
+            int offset = data.getInt(at + 16);
+            attributes[i] = (flags & FLAG_INTEGER) != 0
+                    ? VertexLayout.Attribute.integer(location, components, type, offset)
+                    : VertexLayout.Attribute.of(location, components, type, (flags & FLAG_NORMALIZED) != 0, offset);
+        }
+        VertexLayout layout = findLayout(stride, attributes);
+
+        float[] thresholds = new float[lodCount - 1];
+        int[] vertexOffsets = new int[lodCount];
+        int[] vertexCounts = new int[lodCount];
+        int[] indexOffsets = new int[lodCount];
+        int[] indexCounts = new int[lodCount];
+        for (int lod = 0; lod < lodCount; lod++, at += LOD_BYTES) {
+            if (lod < lodCount - 1) {
+                thresholds[lod] = data.getFloat(at);
+            }
+            vertexOffsets[lod] = data.getInt(at + 4);
+            vertexCounts[lod] = data.getInt(at + 8);
+            indexOffsets[lod] = data.getInt(at + 12);
+            indexCounts[lod] = data.getInt(at + 16);
+            checkBlock(vertexOffsets[lod], (long) vertexCounts[lod] * stride, size, "vértices", lod);
+            checkBlock(indexOffsets[lod], (long) indexCounts[lod] * Integer.BYTES, size, "índices", lod);
+        }
+        return new MeshFile(data, layout, bounds, thresholds, vertexOffsets, vertexCounts, indexOffsets, indexCounts);
+    }
+
+    private static void checkBlock(int offset, long bytes, int size, String what, int lod) {
+        if (offset < 0 || offset % BLOCK_ALIGNMENT != 0 || bytes < 0 || offset + bytes > size) {
+            throw new IllegalArgumentException("bloque de " + what + " del nivel " + lod + " fuera del archivo");
+        }
+    }
+
+    /**
+     * Usa el formato predefinido si el descriptor coincide (así se comparten los shaders y conversores); si no,
+     * crea un formato sin conversor con los atributos del archivo.
+     */
+    private static VertexLayout findLayout(int stride, VertexLayout.Attribute[] attributes) {
+        for (VertexLayout known : new VertexLayout[]{VertexLayout.STANDARD, VertexLayout.PACKED_VOXEL}) {
+            if (sameLayout(known, stride, attributes)) {
+                return known;
+            }
+        }
+        return new VertexLayout("archivo", stride, null, attributes);
+    }
+
+    private static boolean sameLayout(VertexLayout layout, int stride, VertexLayout.Attribute[] attributes) {
+        if (layout.getStride() != stride || layout.getAttributeCount() != attributes.length) {
+            return false;
+        }
+        for (int i = 0; i < attributes.length; i++) {
+            VertexLayout.Attribute a = layout.getAttribute(i);
+            VertexLayout.Attribute b = attributes[i];
+            if (a.getLocation() != b.getLocation() || a.getSize() != b.getSize() || a.getType() != b.getType()
+                    || a.isNormalized() != b.isNormalized() || a.isInteger() != b.isInteger() || a.getOffset() != b.getOffset()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe una malla con uno o varios niveles de detalle.
+     *
+     * @param layout     Formato de los vértices (debe saber convertir un {@link MeshData}).
+     * @param lods       Geometría de cada nivel, del más detallado al más simple.
+     * @param thresholds Tamaño mínimo en pantalla de cada nivel salvo el último ({@code lods.length - 1} valores).
+     */
+    public static void write(Path path, VertexLayout layout, MeshData[] lods, float[] thresholds) throws IOException {
+        if (lods.length == 0 || thresholds.length != lods.length - 1) {
+            throw new IllegalArgumentException("Se necesitan " + (lods.length - 1) + " umbrales para " + lods.length + " niveles.");
+        }
+        int attributeCount = layout.getAttributeCount();
+        long size = align(HEADER_BYTES + (long) attributeCount * ATTRIBUTE_BYTES + (long) lods.length * LOD_BYTES);
+        long[] vertexOffsets = new long[lods.length];
+        long[] indexOffsets = new long[lods.length];
+        for (int lod = 0; lod < lods.length; lod++) {
+            vertexOffsets[lod] = size;
+            size = align(size + (long) lods[lod].getVertexCount() * layout.getStride());
+            indexOffsets[lod] = size;
+            size = align(size + (long) lods[lod].getIndexCount() * Integer.BYTES);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La malla ocupa más de 2 GB.");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        AABBf bounds = computeBounds(lods[0]);
+        out.putInt(MAGIC).putInt(VERSION).putInt(layout.getStride()).putInt(attributeCount);
+        out.putFloat(bounds.minX).putFloat(bounds.minY).putFloat(bounds.minZ);
+        out.putFloat(bounds.maxX).putFloat(bounds.maxY).putFloat(bounds.maxZ);
+        out.putInt(lods.length).putInt(0);
+        for (int i = 0; i < attributeCount; i++) {
+            VertexLayout.Attribute a = layout.getAttribute(i);
+            out.putInt(a.getLocation()).putInt(a.getSize()).putInt(a.getType())
+                    .putInt((a.isNormalized() ? FLAG_NORMALIZED : 0) | (a.isInteger() ? FLAG_INTEGER : 0))
+                    .putInt(a.getOffset());
+        }
+        for (int lod = 0; lod < lods.length; lod++) {
+            out.putFloat(lod < thresholds.length ? thresholds[lod] : 0.0f)
+                    .putInt((int) vertexOffsets[lod]).putInt(lods[lod].getVertexCount())
+                    .putInt((int) indexOffsets[lod]).putInt(lods[lod].getIndexCount());
+        }
+        for (int lod = 0; lod < lods.length; lod++) {
+            out.position((int) vertexOffsets[lod]);
+            layout.write(lods[lod], out);
+            out.position((int) indexOffsets[lod]);
+            out.asIntBuffer().put(lods[lod].getIndices());
+        }
+
+        out.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + BLOCK_ALIGNMENT - 1) & -BLOCK_ALIGNMENT;
+    }
+
+    private static AABBf computeBounds(MeshData data) {
+        AABBf box = new AABBf();
+        float[] vertices = data.getVertices();
+        for (int i = 0; i + 2 < vertices.length; i += MeshData.FLOATS_PER_VERTEX) {
+            box.union(vertices[i], vertices[i + 1], vertices[i + 2]);
+        }
+        return box;
+    }
+
+    // --- Acceso a los datos (vistas sobre el archivo mapeado, sin copias) ---
+
+    /** @return Vértices codificados del nivel, en orden nativo. */
+    public ByteBuffer getVertices(int lod) {
+        return data.slice(vertexOffsets[lod], vertexCounts[lod] * layout.getStride()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public IntBuffer getIndices(int lod) {
+        return data.slice(indexOffsets[lod], indexCounts[lod] * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Sube un nivel a la GPU directamente desde el archivo mapeado.
+     */
+    public Mesh createMesh(int lod) {
+        return Mesh.create(layout, getVertices(lod), getIndices(lod), new AABBf(bounds));
+    }
+
+    /**
+     * Sube todos los niveles y los agrupa con sus umbrales.
+     */
+    public LodMesh createLodMesh(float hysteresis) {
+        Mesh[] levels = new Mesh[getLodCount()];
+        for (int lod = 0; lod < levels.length; lod++) {
+            levels[lod] = createMesh(lod);
+        }
+        return new LodMesh(levels, new LodSelector(thresholds, hysteresis));
+    }
+
+    public VertexLayout getLayout() { return layout; }
+    public AABBf getBounds(AABBf dest) { return dest.set(bounds); }
+    public int getLodCount() { return vertexCounts.length; }
+    public int getVertexCount(int lod) { return vertexCounts[lod]; }
+    public int getIndexCount(int lod) { return indexCounts[lod]; }
+    public float getThreshold(int lod) { return thresholds[lod]; }
+    /** @return Tamaño del archivo en bytes. */
+    public int getByteSize() { return data.capacity(); }
+}
@@ -0,0 +1,90 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de buffers nativos (fuera del heap, reservados con {@link MemoryUtil}) agrupados por capacidad
+ * en potencias de dos. Reutilizar los buffers evita reservar y liberar memoria nativa continuamente
+ * cuando se generan y suben mallas en streaming. Es seguro entre hilos.
+ */
+public class NativeBufferPool {
+    private static final int MIN_SHIFT = 12; // 4 KiB
+    private static final int MAX_SHIFT = 30; // 1 GiB
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<ByteBuffer>[] buckets =
+            (ConcurrentLinkedQueue<ByteBuffer>[]) new ConcurrentLinkedQueue<?>[MAX_SHIFT + 1];
+    private final AtomicInteger[] bucketSizes = new AtomicInteger[MAX_SHIFT + 1];
+    private final int maxBuffersPerBucket;
+
+    // Métricas
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    public NativeBufferPool(int maxBuffersPerBucket) {
+        this.maxBuffersPerBucket = maxBuffersPerBucket;
+        for (int i = MIN_SHIFT; i <= MAX_SHIFT; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+            bucketSizes[i] = new AtomicInteger();
+        }
+    }
+
+    private static int bucketFor(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        if (shift > MAX_SHIFT) {
+            throw new IllegalArgumentException("Buffer demasiado grande para el pool: " + bytes + " bytes");
+        }
+        return Math.max(shift, MIN_SHIFT);
+    }
+
+    /**
+     * Obtiene un buffer con al menos {@code bytes} de capacidad, con posición 0 y límite {@code bytes}.
+     */
+    public ByteBuffer acquire(int bytes) {
+        int bucket = bucketFor(bytes);
+        ByteBuffer buffer = buckets[bucket].poll();
+        if (buffer != null) {
+            bucketSizes[bucket].decrementAndGet();
+            reuses.incrementAndGet();
+        } else {
+            buffer = MemoryUtil.memAlloc(1 << bucket);
+            allocations.incrementAndGet();
+        }
+        buffer.clear().limit(bytes);
+        return buffer;
+    }
+
+    /**
+     * Devuelve un buffer obtenido con {@link #acquire(int)}. Si su grupo está lleno, se libera.
+     */
+    public void release(ByteBuffer buffer) {
+        int bucket = bucketFor(buffer.capacity());
+        if (bucketSizes[bucket].incrementAndGet() <= maxBuffersPerBucket) {
+            buckets[bucket].offer(buffer);
+        } else {
+            bucketSizes[bucket].decrementAndGet();
+            MemoryUtil.memFree(buffer);
+        }
+    }
+
+    /**
+     * Libera toda la memoria nativa retenida por el pool.
+     */
+    public void cleanup() {
+        for (int i = MIN_SHIFT; i <= MAX_SHIFT; i++) {
+            ByteBuffer buffer;
+            while ((buffer = buckets[i].poll()) != null) {
+                bucketSizes[i].decrementAndGet();
+                MemoryUtil.memFree(buffer);
+            }
+        }
+    }
+
+    public long getAllocationCount() { return allocations.get(); }
+    public long getReuseCount() { return reuses.get(); }
+}
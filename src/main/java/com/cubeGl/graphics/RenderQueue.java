@@ -0,0 +1,261 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4fc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cola de dibujado ordenada por clave. Cada draw se describe con una clave de 64 bits:
+ * <pre>
+ *  63        56 55          44 43                24 23            0
+ * [ shader 8  ][ textura 12  ][     malla 20      ][ profundidad 24 ]
+ * </pre>
+ * Cada frame las claves se ordenan con radix sort (LSD, dígitos de 8 bits) y se envían en orden,
+ * de modo que los draws con el mismo shader, textura y malla quedan juntos (menos cambios de estado)
+ * y, dentro de cada grupo, de delante hacia atrás (aprovecha el early-z).
+ * <p>
+ * La parte de ordenación y agrupación no usa OpenGL; solo {@link #execute()} necesita contexto.
+ */
+public class RenderQueue {
+    public static final int SHADER_BITS = 8;
+    public static final int TEXTURE_BITS = 12;
+    public static final int MESH_BITS = 20;
+    public static final int DEPTH_BITS = 24;
+
+    private static final int DEPTH_SHIFT = 0;
+    private static final int MESH_SHIFT = DEPTH_BITS;
+    private static final int TEXTURE_SHIFT = MESH_SHIFT + MESH_BITS;
+    private static final int SHADER_SHIFT = TEXTURE_SHIFT + TEXTURE_BITS;
+    private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+
+    // Recursos registrados (el id es el índice en la lista)
+    private final List<ShaderProgram> shaders = new ArrayList<>();
+    private final List<Texture> textures = new ArrayList<>();
+    private final List<Mesh> meshes = new ArrayList<>();
+    private int[] modelUniforms = new int[4]; // Handle del uniform "model" de cada shader
+
+    // Draws del frame: clave e índice del draw (orden de envío), y su matriz del modelo
+    private long[] keys;
+    private int[] items;
+    private long[] scratchKeys;
+    private int[] scratchItems;
+    private float[] modelMatrices;
+    private int count;
+    private final int[] histograms = new int[8 * 256];
+
+    // Estadísticas del último execute()
+    private int shaderChanges;
+    private int textureChanges;
+    private int meshChanges;
+
+    public RenderQueue(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        keys = new long[capacity];
+        items = new int[capacity];
+        scratchKeys = new long[capacity];
+        scratchItems = new int[capacity];
+        modelMatrices = new float[capacity * 16];
+    }
+
+    // --- Registro de recursos ---
+
+    public int registerShader(ShaderProgram shader) {
+        int id = register(shaders, shader, SHADER_BITS);
+        if (id == modelUniforms.length) {
+            modelUniforms = Arrays.copyOf(modelUniforms, id * 2);
+        }
+        modelUniforms[id] = shader.getUniform("model");
+        return id;
+    }
+
+    public int registerTexture(Texture texture) {
+        return register(textures, texture, TEXTURE_BITS);
+    }
+
+    public int registerMesh(Mesh mesh) {
+        return register(meshes, mesh, MESH_BITS);
+    }
+
+    private static <T> int register(List<T> list, T resource, int bits) {
+        if (list.size() >= 1 << bits) {
+            throw new IllegalStateException("Demasiados recursos registrados (máximo " + (1 << bits) + ")");
+        }
+        list.add(resource);
+        return list.size() - 1;
+    }
+
+    // --- Claves ---
+
+    public static long packKey(int shaderId, int textureId, int meshId, int depthBits) {
+        return ((long) shaderId << SHADER_SHIFT)
+                | ((long) textureId << TEXTURE_SHIFT)
+                | ((long) meshId << MESH_SHIFT)
+                | ((long) depthBits << DEPTH_SHIFT);
+    }
+
+    /**
+     * Cuantiza una distancia a la cámara en [0, far] a {@link #DEPTH_BITS} bits (más cerca = menor).
+     */
+    public static int quantizeDepth(float distance, float far) {
+        float t = distance / far;
+        if (t <= 0.0f) return 0;
+        if (t >= 1.0f) return MAX_DEPTH;
+        return (int) (t * MAX_DEPTH);
+    }
+
+    public static int shaderOf(long key) { return (int) (key >>> SHADER_SHIFT) & ((1 << SHADER_BITS) - 1); }
+    public static int textureOf(long key) { return (int) (key >>> TEXTURE_SHIFT) & ((1 << TEXTURE_BITS) - 1); }
+    public static int meshOf(long key) { return (int) (key >>> MESH_SHIFT) & ((1 << MESH_BITS) - 1); }
+
+    // --- Envío de draws ---
+
+    /**
+     * Añade un draw con una clave ya empaquetada.
+     * @return Índice del draw (posición en el orden de envío).
+     */
+    public int add(long key) {
+        if (count == keys.length) {
+            grow(count * 2);
+        }
+        keys[count] = key;
+        items[count] = count;
+        return count++;
+    }
+
+    /**
+     * Añade un draw de la malla con el shader y la textura dados.
+     * @param distance Distancia a la cámara, para ordenar de delante hacia atrás.
+     * @param far      Distancia máxima (normalmente el plano lejano de la cámara).
+     */
+    public void submit(int shaderId, int textureId, int meshId, float distance, float far, Matrix4fc model) {
+        int item = add(packKey(shaderId, textureId, meshId, quantizeDepth(distance, far)));
+        model.get(modelMatrices, item * 16);
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        items = Arrays.copyOf(items, capacity);
+        scratchKeys = new long[capacity];
+        scratchItems = new int[capacity];
+        modelMatrices = Arrays.copyOf(modelMatrices, capacity * 16);
+    }
+
+    /** Vacía la cola (se llama al empezar cada frame). */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Ordena los draws por clave con radix sort LSD de 8 pasadas de 8 bits. Los histogramas de todos los
+     * dígitos se calculan en una única lectura y se omiten las pasadas cuyo byte es igual en todas las claves
+     * (habitual en los bits altos, con pocos shaders o texturas).
+     */
+    public void sort() {
+        int n = count;
+        if (n < 2) {
+            return;
+        }
+        Arrays.fill(histograms, 0);
+        for (int i = 0; i < n; i++) {
+            long key = keys[i];
+            for (int digit = 0; digit < 8; digit++) {
+                histograms[(digit << 8) | (int) ((key >>> (digit << 3)) & 0xFF)]++;
+            }
+        }
+
+        long[] srcKeys = keys, dstKeys = scratchKeys;
+        int[] srcItems = items, dstItems = scratchItems;
+        for (int digit = 0; digit < 8; digit++) {
+            int base = digit << 8;
+            int shift = digit << 3;
+            if (histograms[base | (int) ((srcKeys[0] >>> shift) & 0xFF)] == n) {
+                continue; // Todas las claves comparten este byte: la pasada no cambiaría nada
+            }
+            // Prefijos: posición inicial de cada valor del dígito
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                int c = histograms[base | b];
+                histograms[base | b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = srcKeys[i];
+                int pos = histograms[base | (int) ((key >>> shift) & 0xFF)]++;
+                dstKeys[pos] = key;
+                dstItems[pos] = srcItems[i];
+            }
+            long[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            int[] ti = srcItems; srcItems = dstItems; dstItems = ti;
+        }
+        // El resultado queda en srcKeys/srcItems: se intercambian los arrays en lugar de copiarlos
+        keys = srcKeys;
+        items = srcItems;
+        scratchKeys = dstKeys;
+        scratchItems = dstItems;
+    }
+
+    /**
+     * Cuenta los cambios de shader, textura y malla que costaría enviar la cola en su orden actual
+     * (sin OpenGL). Tras {@link #sort()} es el número de lotes de cada tipo.
+     */
+    public void countStateChanges() {
+        shaderChanges = 0;
+        textureChanges = 0;
+        meshChanges = 0;
+        int lastShader = -1, lastTexture = -1, lastMesh = -1;
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            int shader = shaderOf(key), texture = textureOf(key), mesh = meshOf(key);
+            if (shader != lastShader) { shaderChanges++; lastShader = shader; }
+            if (texture != lastTexture) { textureChanges++; lastTexture = texture; }
+            if (mesh != lastMesh) { meshChanges++; lastMesh = mesh; }
+        }
+    }
+
+    /**
+     * Envía los draws en el orden actual (normalmente tras {@link #sort()}), cambiando de shader,
+     * textura o malla solo cuando la clave cambia. Requiere el contexto de OpenGL.
+     */
+    public void execute() {
+        shaderChanges = 0;
+        textureChanges = 0;
+        meshChanges = 0;
+        int lastShader = -1, lastTexture = -1, lastMesh = -1;
+        ShaderProgram shader = null;
+        Mesh mesh = null;
+        int modelUniform = -1;
+
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            int shaderId = shaderOf(key), textureId = textureOf(key), meshId = meshOf(key);
+            if (shaderId != lastShader) {
+                shader = shaders.get(shaderId);
+                shader.use();
+                modelUniform = modelUniforms[shaderId];
+                lastShader = shaderId;
+                shaderChanges++;
+            }
+            if (textureId != lastTexture) {
+                textures.get(textureId).bind();
+                lastTexture = textureId;
+                textureChanges++;
+            }
+            if (meshId != lastMesh) {
+                mesh = meshes.get(meshId);
+                lastMesh = meshId;
+                meshChanges++;
+            }
+            shader.setUniformMat4f(modelUniform, modelMatrices, items[i] * 16);
+            mesh.render();
+        }
+    }
+
+    public int size() { return count; }
+    public long getKey(int index) { return keys[index]; }
+    public int getItem(int index) { return items[index]; }
+    public int getShaderChanges() { return shaderChanges; }
+    public int getTextureChanges() { return textureChanges; }
+    public int getMeshChanges() { return meshChanges; }
+}
@@ -0,0 +1,334 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.GL_RENDERER;
+import static org.lwjgl.opengl.GL11.GL_VENDOR;
+import static org.lwjgl.opengl.GL11.GL_VERSION;
+import static org.lwjgl.opengl.GL11.glGetInteger;
+import static org.lwjgl.opengl.GL11.glGetString;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.GL_NUM_PROGRAM_BINARY_FORMATS;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_LENGTH;
+import static org.lwjgl.opengl.GL41.glGetProgramBinary;
+import static org.lwjgl.opengl.GL41.glProgramBinary;
+
+/**
+ * Crea los {@link ShaderProgram} a partir de archivos GLSL y guarda en disco los programas enlazados
+ * (glGetProgramBinary), de modo que los arranques siguientes se saltan la compilación.
+ * <p>
+ * Cada programa se identifica por el SHA-256 de su código (con los includes resueltos) y del driver
+ * (fabricante, renderer y versión): cambiar un shader o actualizar el driver genera otra clave, así que
+ * un binario nunca se usa con un código distinto. Si el driver rechaza un binario (glProgramBinary deja el
+ * programa sin enlazar), se borra del disco y se compila de nuevo. Sin OpenGL 4.1 ni
+ * ARB_get_program_binary, o si el driver no ofrece ningún formato binario, siempre se compila.
+ * <p>
+ * Con la recarga en caliente activada, {@link #poll()} (una vez por frame) vigila la carpeta de los shaders y
+ * sustituye los programas cuyo código haya cambiado, sin reiniciar. Si el código nuevo no compila, se
+ * muestra el error y se mantiene el programa anterior.
+ * <p>
+ * Opciones: {@code -Dcubegl.shaders.dir} (carpeta, por defecto {@link ShaderSource#DEFAULT_DIRECTORY}),
+ * {@code -Dcubegl.shaders.cache} (carpeta de binarios, por defecto "build/shader-cache"; vacía la desactiva)
+ * y {@code -Dcubegl.shaders.reload=true} (recarga en caliente).
+ * <p>
+ * Solo puede usarse desde el hilo con el contexto de OpenGL.
+ */
+public class ShaderManager {
+    private static final int CACHE_MAGIC = 0x31505343; // "CSP1" en little endian
+    private static final int CACHE_HEADER_BYTES = 8;   // Magia + formato del binario
+    private static final String CACHE_EXTENSION = ".bin";
+
+    private final Path sourceDirectory;
+    private final Path cacheDirectory; // null si la caché está desactivada
+    private final String driver;       // Parte de la clave: un binario solo vale para el mismo driver
+    private WatchService watcher;      // null sin recarga en caliente
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private int compiledCount;
+    private int cacheHitCount;
+    private int rejectedCount;
+    private int reloadCount;
+
+    // Un programa creado por el gestor y los datos para reconstruirlo
+    private static class Entry {
+        final String vertexName;
+        final String fragmentName;
+        final ShaderProgram program;
+        String key;
+
+        Entry(String vertexName, String fragmentName, ShaderProgram program, String key) {
+            this.vertexName = vertexName;
+            this.fragmentName = fragmentName;
+            this.program = program;
+            this.key = key;
+        }
+    }
+
+    /**
+     * @param sourceDirectory Carpeta de los archivos GLSL.
+     * @param cacheDirectory  Carpeta de los binarios, o null para compilar siempre.
+     * @param hotReload       Vigila {@code sourceDirectory} y recarga los programas que cambien (ver {@link #poll()}).
+     */
+    public ShaderManager(Path sourceDirectory, Path cacheDirectory, boolean hotReload) {
+        this.sourceDirectory = sourceDirectory;
+        this.driver = glGetString(GL_VENDOR) + "\n" + glGetString(GL_RENDERER) + "\n" + glGetString(GL_VERSION);
+
+        GLCapabilities caps = GL.getCapabilities();
+        boolean binarySupported = (caps.OpenGL41 || caps.GL_ARB_get_program_binary)
+                && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+        if (cacheDirectory != null && !binarySupported) {
+            System.err.println("Advertencia: el driver no admite binarios de programa; los shaders se compilarán siempre.");
+        }
+        this.cacheDirectory = binarySupported ? cacheDirectory : null;
+
+        if (hotReload) {
+            try {
+                watcher = FileSystems.getDefault().newWatchService();
+                sourceDirectory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException e) {
+                System.err.println("Advertencia: no se puede vigilar " + sourceDirectory + " (" + e.getMessage()
+                        + "); recarga de shaders desactivada.");
+                closeWatcher();
+            }
+        }
+    }
+
+    /**
+     * Crea el gestor con las opciones {@code -Dcubegl.shaders.*}.
+     */
+    public static ShaderManager fromSystemProperties() {
+        String directory = System.getProperty("cubegl.shaders.dir");
+        String cache = System.getProperty("cubegl.shaders.cache", "build/shader-cache");
+        return new ShaderManager(
+                directory != null ? Path.of(directory) : ShaderSource.DEFAULT_DIRECTORY,
+                cache.isEmpty() ? null : Path.of(cache),
+                Boolean.getBoolean("cubegl.shaders.reload"));
+    }
+
+    /**
+     * Crea un programa con los shaders dados (nombres de archivo en la carpeta de los shaders), desde la
+     * caché si es posible. El programa pertenece al llamador, que debe liberarlo con {@link ShaderProgram#cleanup()}.
+     * @param uniforms Uniforms a registrar desde el principio (como en {@link ShaderProgram}).
+     */
+    public ShaderProgram load(String vertexName, String fragmentName, String... uniforms) {
+        String vertexSource = read(vertexName);
+        String fragmentSource = read(fragmentName);
+        String key = key(vertexSource, fragmentSource);
+        ShaderProgram program = new ShaderProgram(obtain(key, vertexSource, fragmentSource), uniforms);
+        entries.add(new Entry(vertexName, fragmentName, program, key));
+        return program;
+    }
+
+    private String read(String name) {
+        try {
+            return ShaderSource.load(sourceDirectory, name);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer el shader " + name, e);
+        }
+    }
+
+    /**
+     * @return Id de un programa enlazado: desde la caché si hay un binario válido, o compilado (y guardado).
+     */
+    private int obtain(String key, String vertexSource, String fragmentSource) {
+        if (cacheDirectory != null) {
+            int program = loadBinary(key);
+            if (program != 0) {
+                cacheHitCount++;
+                return program;
+            }
+        }
+        int program = ShaderProgram.link(vertexSource, fragmentSource, cacheDirectory != null);
+        compiledCount++;
+        if (cacheDirectory != null) {
+            saveBinary(key, program);
+        }
+        return program;
+    }
+
+    /**
+     * @return Programa creado desde el binario guardado, o 0 si no existe o el driver lo rechaza.
+     */
+    private int loadBinary(String key) {
+        Path path = cacheDirectory.resolve(key + CACHE_EXTENSION);
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        int format;
+        ByteBuffer binary;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (file.remaining() <= CACHE_HEADER_BYTES || file.getInt(0) != CACHE_MAGIC) {
+                return reject(path, "cabecera no válida");
+            }
+            format = file.getInt(4);
+            binary = file.position(CACHE_HEADER_BYTES).slice();
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo leer " + path + ": " + e.getMessage());
+            return 0;
+        }
+
+        int program = glCreateProgram();
+        glProgramBinary(program, format, binary);
+        if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
+            glDeleteProgram(program);
+            return reject(path, "el driver no lo acepta");
+        }
+        return program;
+    }
+
+    private int reject(Path path, String reason) {
+        rejectedCount++;
+        System.err.println("Advertencia: binario de shader descartado (" + reason + "), se recompila: " + path);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo borrar " + path + ": " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Guarda el binario del programa. Se escribe en un archivo temporal y se renombra, de modo que otro
+     * proceso nunca lee un binario a medias.
+     */
+    private void saveBinary(String key, int program) {
+        int length = glGetProgrami(program, GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer data = MemoryUtil.memAlloc(CACHE_HEADER_BYTES + length).order(ByteOrder.LITTLE_ENDIAN);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer written = stack.mallocInt(1);
+            IntBuffer format = stack.mallocInt(1);
+            glGetProgramBinary(program, written, format, data.position(CACHE_HEADER_BYTES).slice());
+            data.putInt(0, CACHE_MAGIC).putInt(4, format.get(0));
+            data.position(0).limit(CACHE_HEADER_BYTES + written.get(0));
+
+            Files.createDirectories(cacheDirectory);
+            Path path = cacheDirectory.resolve(key + CACHE_EXTENSION);
+            Path temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo guardar el binario del shader: " + e.getMessage());
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+    }
+
+    private String key(String vertexSource, String fragmentSource) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(driver.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(vertexSource.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fragmentSource.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Recarga los programas cuyo código haya cambiado en disco. No bloquea: si no hay cambios, no hace nada.
+     * Como el código se compara por su hash, los avisos de archivos que no afectan a un programa (o que se
+     * han guardado sin cambios) no provocan recompilaciones.
+     */
+    public void poll() {
+        if (watcher == null) {
+            return;
+        }
+        boolean changed = false;
+        WatchKey watchKey;
+        while ((watchKey = watcher.poll()) != null) {
+            changed |= !watchKey.pollEvents().isEmpty();
+            watchKey.reset();
+        }
+        if (!changed) {
+            return;
+        }
+
+        for (Entry entry : entries) {
+            try {
+                String vertexSource = ShaderSource.load(sourceDirectory, entry.vertexName);
+                String fragmentSource = ShaderSource.load(sourceDirectory, entry.fragmentName);
+                String key = key(vertexSource, fragmentSource);
+                if (key.equals(entry.key)) {
+                    continue;
+                }
+                entry.program.replaceProgram(obtain(key, vertexSource, fragmentSource));
+                entry.key = key;
+                reloadCount++;
+                System.out.println("Shader recargado: " + entry.vertexName + " + " + entry.fragmentName);
+            } catch (IOException | RuntimeException e) {
+                // El error de compilación ya se ha mostrado; el programa anterior sigue en uso
+                System.err.println("Error al recargar " + entry.vertexName + " + " + entry.fragmentName
+                        + ", se mantiene el programa anterior: " + e.getMessage());
+            }
+        }
+    }
+
+    public int getCompiledCount() { return compiledCount; }
+    public int getCacheHitCount() { return cacheHitCount; }
+    public int getRejectedCount() { return rejectedCount; }
+    public int getReloadCount() { return reloadCount; }
+
+    /**
+     * @return Resumen de compilaciones, aciertos de caché y recargas.
+     */
+    public String report() {
+        return String.format("Shaders: %d compilados, %d desde caché%s, %d binarios descartados, %d recargas",
+                compiledCount, cacheHitCount, cacheDirectory != null ? "" : " (caché desactivada)",
+                rejectedCount, reloadCount);
+    }
+
+    /**
+     * Deja de vigilar la carpeta. Los programas no se liberan: pertenecen a quien los ha cargado.
+     */
+    public void cleanup() {
+        closeWatcher();
+        entries.clear();
+    }
+
+    private void closeWatcher() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo cerrar el vigilante de shaders: " + e.getMessage());
+        }
+        watcher = null;
+    }
+}
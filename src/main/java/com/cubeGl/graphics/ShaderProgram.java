@@ -1,39 +1,118 @@
 package com.cubeGl.graphics;
 
-import org.joml.Matrix4f;
-import org.lwjgl.BufferUtils;
+import org.joml.Matrix4fc;
 
-import java.nio.FloatBuffer;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL31.GL_INVALID_INDEX;
+import static org.lwjgl.opengl.GL31.glGetUniformBlockIndex;
+import static org.lwjgl.opengl.GL31.glUniformBlockBinding;
+import static org.lwjgl.opengl.GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT;
+import static org.lwjgl.opengl.GL41.glProgramParameteri;
 
 /**
  * Gestiona la compilación, enlazado y uso de un par de shaders (Vertex y Fragment).
+ * El código GLSL se lee de {@code src/main/resources/shaders/} (ver {@link ShaderSource}).
+ * <p>
+ * Los uniforms se identifican por un "handle" entero obtenido una sola vez con {@link #getUniform(String)}.
+ * Cada programa guarda una copia (caché) del último valor subido a cada uniform y omite las llamadas
+ * glUniform* cuyo valor no ha cambiado (ver {@link UniformCache}). Los datos comunes del frame llegan por el
+ * UBO de {@link FrameUniforms}.
  */
 public class ShaderProgram {
-    private final int programId;
-    private final FloatBuffer fb;
-    private final Map<String, Integer> uniformLocations;
+    private int programId; // Cambia al recargar los shaders (ver ShaderManager)
+    private final UniformCache uniforms = new UniformCache(); // Handles, locations y último valor subido
+    private final float[] matrixScratch = new float[16];
 
     public ShaderProgram() {
-        this.uniformLocations = new HashMap<>();
-        this.programId = setupShaders();
-        this.fb = BufferUtils.createFloatBuffer(16);
+        this("default.vert", "texture.frag", "model", "uTexture");
+    }
+
+    /**
+     * Compila un programa con shaders de {@link ShaderSource#DEFAULT_DIRECTORY}, sin caché de binarios
+     * (para eso, ver {@link ShaderManager}).
+     */
+    private ShaderProgram(String vertexName, String fragmentName, String... uniforms) {
+        this(link(readSource(vertexName), readSource(fragmentName), false), uniforms);
+    }
+
+    /**
+     * Envuelve un programa ya enlazado (lo crea {@link ShaderManager}).
+     */
+    ShaderProgram(int programId, String... uniforms) {
+        this.programId = programId;
+        bindFrameBlock(programId);
 
         // Inicializar la ubicación de los uniforms esenciales
-        createUniform("mvp");
-        createUniform("uTexture");
+        for (String uniform : uniforms) {
+            createUniform(uniform);
+        }
+    }
+
+    /**
+     * Crea el programa para dibujado instanciado (ver {@link Mesh#renderInstanced(int)}).
+     * No tiene uniform "model": la transformación llega por instancia.
+     */
+    public static ShaderProgram createInstanced() {
+        return new ShaderProgram("instanced.vert", "texture.frag", "uTexture");
+    }
+
+    /**
+     * Crea el programa que muestrea un {@link TextureArray} (sampler2DArray) con la capa de cada vértice.
+     * Tiene los mismos uniforms que el programa por defecto ("model" y "uTexture").
+     */
+    public static ShaderProgram createTextureArray() {
+        return new ShaderProgram("default.vert", "texture_array.frag", "model", "uTexture");
+    }
+
+    /**
+     * Crea el programa para mallas en formato {@link VertexLayout#PACKED_VOXEL}, que muestrea un
+     * {@link TextureArray}. Tiene los mismos uniforms que el programa por defecto.
+     */
+    public static ShaderProgram createPacked() {
+        return new ShaderProgram("packed.vert", "texture_array.frag", "model", "uTexture");
+    }
+
+    /**
+     * Crea el programa para dibujar mallas {@link VertexLayout#PACKED_VOXEL} de un {@link MegaBuffer} con
+     * {@link IndirectBatch}. No tiene uniform "model": la posición de cada draw llega como atributo por instancia.
+     */
+    public static ShaderProgram createPackedIndirect() {
+        return new ShaderProgram("packed_indirect.vert", "texture_array.frag", "uTexture");
+    }
+
+    private static String readSource(String name) {
+        try {
+            return ShaderSource.load(ShaderSource.DEFAULT_DIRECTORY, name);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer el shader " + name, e);
+        }
+    }
+
+    // Conectar el bloque de datos del frame (si el shader lo usa) al punto de enlace del UBO
+    private static void bindFrameBlock(int programId) {
+        int frameBlock = glGetUniformBlockIndex(programId, FrameUniforms.BLOCK_NAME);
+        if (frameBlock != GL_INVALID_INDEX) {
+            glUniformBlockBinding(programId, frameBlock, FrameUniforms.BINDING);
+        }
     }
 
     // Método auxiliar para crear y guardar la ubicación de un uniform
-    private void createUniform(String uniformName) {
-        int location = glGetUniformLocation(programId, uniformName);
-        uniformLocations.put(uniformName, location);
+    private int createUniform(String uniformName) {
+        return uniforms.register(uniformName, glGetUniformLocation(programId, uniformName));
     }
 
-    private int compileShader(String source, int type) {
+    /**
+     * Devuelve el handle de un uniform para usarlo en los métodos set* sin búsquedas por nombre.
+     * Se recomienda obtenerlo una vez en la inicialización.
+     */
+    public int getUniform(String uniformName) {
+        int handle = uniforms.find(uniformName);
+        return handle >= 0 ? handle : createUniform(uniformName);
+    }
+
+    private static int compileShader(String source, int type) {
         int shaderId = glCreateShader(type);
         glShaderSource(shaderId, source);
         glCompileShader(shaderId);
@@ -41,89 +120,144 @@ public class ShaderProgram {
         // Comprobación de errores de compilación
         if (glGetShaderi(shaderId, GL_COMPILE_STATUS) == GL_FALSE) {
             System.err.println("Error al compilar shader: " + glGetShaderInfoLog(shaderId, 1024));
+            glDeleteShader(shaderId);
             throw new RuntimeException("Error de compilación de Shader.");
         }
         return shaderId;
     }
 
-    private int setupShaders() {
-        // Shaders embebidos, adaptados para la textura:
-        String vertexShaderSource = """
-                #version 330 core
-                layout(location = 0) in vec3 aPos;     // Usamos aPos para claridad
-                layout(location = 1) in vec3 aColor;
-                layout(location = 2) in vec2 aTexCoord; // NUEVO: Coordenadas de textura
-                
-                out vec2 vTexCoord;
-                out vec3 vColor;
-                
-                uniform mat4 mvp;
-                
-                void main() {
-                    vTexCoord = aTexCoord;
-                    vColor = aColor;
-                    gl_Position = mvp * vec4(aPos, 1.0f);
-                }""";
-
-        String fragmentShaderSource = """
-                #version 330 core
-                
-                uniform sampler2D uTexture; // NUEVO: Uniform para muestrear la textura
-                
-                in vec2 vTexCoord;
-                in vec3 vColor; // Mantenemos el color por si acaso
-                out vec4 fragColor;
-                
-                void main() {
-                    // Usamos la textura para obtener el color final
-                    fragColor = texture(uTexture, vTexCoord);
-                }""";
-
+    /**
+     * Compila y enlaza un par de shaders. Si falla, no deja objetos de OpenGL sin liberar.
+     * @param retrievable Pide al driver que permita leer el binario enlazado (glGetProgramBinary).
+     * @return Id del programa.
+     */
+    static int link(String vertexShaderSource, String fragmentShaderSource, boolean retrievable) {
         // 1. Compilar shaders
         int vertexShader = compileShader(vertexShaderSource, GL_VERTEX_SHADER);
-        int fragmentShader = compileShader(fragmentShaderSource, GL_FRAGMENT_SHADER);
+        int fragmentShader;
+        try {
+            fragmentShader = compileShader(fragmentShaderSource, GL_FRAGMENT_SHADER);
+        } catch (RuntimeException e) {
+            glDeleteShader(vertexShader);
+            throw e;
+        }
 
         // 2. Enlazar Programa
         int program = glCreateProgram();
+        if (retrievable) {
+            glProgramParameteri(program, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+        }
         glAttachShader(program, vertexShader);
         glAttachShader(program, fragmentShader);
         glLinkProgram(program);
 
+        // 3. Limpiar recursos intermedios (shaders individuales)
+        glDetachShader(program, vertexShader);
+        glDetachShader(program, fragmentShader);
+        glDeleteShader(vertexShader);
+        glDeleteShader(fragmentShader);
+
         // Comprobación de errores de enlazado (Linking)
         if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
             System.err.println("Error al enlazar programa: " + glGetProgramInfoLog(program, 1024));
+            glDeleteProgram(program);
             throw new RuntimeException("Error de enlazado de Shader.");
         }
+        return program;
+    }
 
-        // 3. Limpiar recursos intermedios (shaders individuales)
-        glDeleteShader(vertexShader);
-        glDeleteShader(fragmentShader);
+    /**
+     * Sustituye el programa de OpenGL por otro enlazado con los mismos uniforms (recarga en caliente).
+     * Vuelve a buscar las locations, restaura los últimos valores subidos y libera el programa anterior.
+     * Deja en uso el programa nuevo.
+     */
+    void replaceProgram(int newProgramId) {
+        int oldProgramId = programId;
+        programId = newProgramId;
+        bindFrameBlock(newProgramId);
+        GLState.useProgram(newProgramId);
+        for (int handle = 0; handle < uniforms.getCount(); handle++) {
+            int location = glGetUniformLocation(newProgramId, uniforms.getName(handle));
+            uniforms.setLocation(handle, location);
+            if (location == -1) {
+                continue;
+            }
+            if (uniforms.hasMatrix(handle)) {
+                uniforms.copyMatrix(handle, matrixScratch);
+                glUniformMatrix4fv(location, false, matrixScratch);
+            } else if (uniforms.hasInt(handle)) {
+                glUniform1i(location, uniforms.getInt(handle));
+            }
+        }
+        GLState.deleteProgram(oldProgramId);
+    }
 
-        return program;
+    public int getProgramId() {
+        return programId;
     }
 
     /**
      * Activa este programa de shaders para su uso en el renderizado.
      */
     public void use() {
-        glUseProgram(programId);
+        GLState.useProgram(programId);
     }
 
     /**
      * Desactiva este programa de shaders.
      */
     public void unuse() {
-        glUseProgram(0);
+        GLState.useProgram(0);
     }
 
     /**
      * Establece un valor de matriz 4x4 (uniform) en el shader.
      */
-    public void setUniformMat4f(String name, Matrix4f matrix) {
-        int location = uniformLocations.get(name);
-        if (location != -1) {
-            matrix.get(fb);
-            glUniformMatrix4fv(location, false, fb);
+    public void setUniformMat4f(String name, Matrix4fc matrix) {
+        setUniformMat4f(getUniform(name), matrix);
+    }
+
+    /**
+     * Establece un valor de matriz 4x4 usando el handle del uniform. No hace nada si el valor no ha cambiado.
+     * El programa debe estar en uso.
+     */
+    public void setUniformMat4f(int handle, Matrix4fc matrix) {
+        int location = uniforms.getLocation(handle);
+        if (location == -1) {
+            return;
+        }
+        matrix.get(matrixScratch);
+        if (uniforms.updateMatrix(handle, matrixScratch, 0)) {
+            glUniformMatrix4fv(location, false, matrixScratch);
+        }
+    }
+
+    /**
+     * Igual que {@link #setUniformMat4f(int, Matrix4fc)}, leyendo los 16 floats (por columnas) desde
+     * {@code values[offset]}. Útil cuando las matrices se guardan en arrays primitivos.
+     */
+    public void setUniformMat4f(int handle, float[] values, int offset) {
+        int location = uniforms.getLocation(handle);
+        if (location == -1) {
+            return;
+        }
+        if (uniforms.updateMatrix(handle, values, offset)) {
+            System.arraycopy(values, offset, matrixScratch, 0, 16);
+            glUniformMatrix4fv(location, false, matrixScratch);
+        }
+    }
+
+    /**
+     * Establece un valor entero usando el handle del uniform. No hace nada si el valor no ha cambiado.
+     * El programa debe estar en uso.
+     */
+    public void setUniform1i(int handle, int value) {
+        int location = uniforms.getLocation(handle);
+        if (location == -1) {
+            return;
+        }
+        if (uniforms.updateInt(handle, value)) {
+            glUniform1i(location, value);
         }
     }
 
@@ -131,18 +265,24 @@ public class ShaderProgram {
      * Establece el valor de la uniform de la textura (sampler2D) en el shader.
      */
     public void setUniformTexture(String uniformName, int unit) {
-        Integer location = uniformLocations.get(uniformName);
-        if (location == null || location == -1) {
+        int handle = getUniform(uniformName);
+        if (uniforms.getLocation(handle) == -1) {
             System.err.println("Advertencia: Uniform '" + uniformName + "' no se encontró o no se inicializó.");
             return;
         }
-        glUniform1i(location, unit);
+        setUniform1i(handle, unit);
     }
 
+    /** @return Llamadas glUniform* emitidas. */
+    public long getUploadCount() { return uniforms.getUploadCount(); }
+
+    /** @return Llamadas glUniform* omitidas porque el valor no había cambiado. */
+    public long getSkippedUploadCount() { return uniforms.getSkippedUploadCount(); }
+
     /**
      * Libera los recursos del programa de shaders.
      */
     public void cleanup() {
-        glDeleteProgram(programId);
+        GLState.deleteProgram(programId);
     }
 }
\ No newline at end of file
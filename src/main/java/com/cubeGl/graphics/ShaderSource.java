@@ -0,0 +1,76 @@
+package com.cubeGl.graphics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Lee el código GLSL de un shader desde disco y resuelve las directivas {@code #include "archivo"}.
+ * <p>
+ * Los includes se buscan primero en la misma carpeta; si no existen, se usan los generados desde Java
+ * ({@code frame_uniforms.glsl} con {@link FrameUniforms#GLSL_BLOCK} y {@code vertex_layout.glsl} con las
+ * escalas de {@link VertexLayout}), de modo que shaders y código no puedan desincronizarse.
+ */
+public final class ShaderSource {
+    /** Carpeta por defecto de los shaders (como las texturas, se leen de los recursos en disco). */
+    public static final Path DEFAULT_DIRECTORY = Path.of("src/main/resources/shaders/");
+
+    private static final int MAX_INCLUDE_DEPTH = 8;
+
+    private ShaderSource() {
+    }
+
+    /**
+     * @return Código del shader con los includes sustituidos.
+     */
+    public static String load(Path directory, String name) throws IOException {
+        StringBuilder out = new StringBuilder();
+        append(directory, name, out, 0);
+        return out.toString();
+    }
+
+    private static void append(Path directory, String name, StringBuilder out, int depth) throws IOException {
+        if (depth > MAX_INCLUDE_DEPTH) {
+            throw new IOException("Demasiados #include anidados en " + name + " (¿inclusión circular?)");
+        }
+        Path path = directory.resolve(name);
+        String text;
+        if (Files.isRegularFile(path)) {
+            text = Files.readString(path);
+        } else {
+            text = builtin(name);
+            if (text == null) {
+                throw new NoSuchFileException(path.toString());
+            }
+        }
+
+        int lineNumber = 0;
+        for (String line : text.split("\r?\n", -1)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.startsWith("#include")) {
+                int open = trimmed.indexOf('"');
+                int close = trimmed.lastIndexOf('"');
+                if (open < 0 || close <= open) {
+                    throw new IOException(path + ":" + lineNumber + ": #include mal formado");
+                }
+                append(directory, trimmed.substring(open + 1, close), out, depth + 1);
+            } else {
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    /**
+     * @return Contenido de un include generado desde Java, o null si el nombre no corresponde a ninguno.
+     */
+    private static String builtin(String name) {
+        return switch (name) {
+            case "frame_uniforms.glsl" -> FrameUniforms.GLSL_BLOCK;
+            case "vertex_layout.glsl" -> "const float POSITION_SCALE = " + VertexLayout.POSITION_SCALE + ".0;\n"
+                    + "const float UV_SCALE = " + VertexLayout.UV_SCALE + ".0;\n";
+            default -> null;
+        };
+    }
+}
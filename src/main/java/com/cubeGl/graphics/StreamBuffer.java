@@ -0,0 +1,238 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.opengl.GL;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44.glBufferStorage;
+
+/**
+ * Buffer de streaming para datos dinámicos que cambian cada frame (instancias, partículas, líneas de depuración).
+ * <p>
+ * El buffer se divide en {@link #REGIONS} regiones (triple buffering): cada frame se escribe en una región
+ * mientras la GPU todavía lee las de los frames anteriores. Al terminar el frame se coloca una fence
+ * (glFenceSync) y solo se espera por ella cuando el anillo da la vuelta, normalmente cuando la GPU ya ha acabado.
+ * <p>
+ * Con OpenGL 4.4 el buffer se mapea una sola vez de forma persistente y coherente (glBufferStorage), y
+ * {@link #begin(int)} devuelve una vista directa de la memoria mapeada: se escribe sin copias ni llamadas a OpenGL.
+ * Sin 4.4 cada escritura se mapea con GL_MAP_UNSYNCHRONIZED_BIT, también sin esperar a la GPU,
+ * porque las fences ya garantizan que la región está libre.
+ * <p>
+ * Uso por frame: {@link #beginFrame()}, pares {@link #begin(int)} / {@link #end()}, dibujar con el offset
+ * devuelto por {@link #end()} y {@link #endFrame()} tras enviar los draws que leen el buffer.
+ */
+public class StreamBuffer {
+    public static final int REGIONS = 3;
+    private static final int DEFAULT_ALIGNMENT = 64;
+    private static final long FENCE_TIMEOUT_NANOS = 1_000_000L; // Espera máxima por llamada a glClientWaitSync
+
+    private final int target;
+    private final int bufferId;
+    private final int regionSize;
+    private final boolean persistent;
+    private final ByteBuffer mapped; // Todo el buffer, solo en modo persistente
+
+    private final long[] fences = new long[REGIONS];
+    private int region = REGIONS - 1; // beginFrame() avanza a la región 0 en el primer frame
+    private int writeOffset;          // Bytes usados en la región actual
+    private int pendingOffset = -1;   // Inicio de la escritura abierta por begin(), -1 si no hay ninguna
+    private boolean inFrame;
+
+    // Contadores
+    private long bytesThisFrame;
+    private long bytesLastFrame;
+    private long totalBytes;
+    private long frames;
+    private long fenceWaits;
+    private long fenceWaitNanos;
+
+    /**
+     * @param target     Target con el que se enlaza el buffer (GL_ARRAY_BUFFER, GL_UNIFORM_BUFFER...).
+     * @param regionSize Bytes disponibles por frame.
+     */
+    public StreamBuffer(int target, int regionSize) {
+        this.target = target;
+        this.regionSize = regionSize;
+        this.persistent = GL.getCapabilities().OpenGL44;
+        long totalSize = (long) regionSize * REGIONS;
+
+        bufferId = glGenBuffers();
+        GLState.bindBuffer(target, bufferId);
+        if (persistent) {
+            int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            glBufferStorage(target, totalSize, flags);
+            mapped = glMapBufferRange(target, 0, totalSize, flags);
+            if (mapped == null) {
+                throw new RuntimeException("No se pudo mapear el buffer de streaming.");
+            }
+        } else {
+            System.err.println("Advertencia: OpenGL 4.4 no disponible; el buffer de streaming usará mapeos no sincronizados.");
+            glBufferData(target, totalSize, GL_STREAM_DRAW);
+            mapped = null;
+        }
+    }
+
+    /**
+     * Pasa a la siguiente región del anillo, esperando (solo si hace falta) a que la GPU termine de leerla.
+     */
+    public void beginFrame() {
+        if (inFrame) {
+            throw new IllegalStateException("beginFrame() llamado dos veces sin endFrame().");
+        }
+        region = (region + 1) % REGIONS;
+        waitForFence(region);
+        writeOffset = 0;
+        bytesThisFrame = 0;
+        inFrame = true;
+    }
+
+    private void waitForFence(int index) {
+        long fence = fences[index];
+        if (fence == 0) {
+            return;
+        }
+        int status = glClientWaitSync(fence, 0, 0);
+        if (status != GL_ALREADY_SIGNALED && status != GL_CONDITION_SATISFIED) {
+            // La GPU va más de REGIONS - 1 frames por detrás: hay que esperar
+            fenceWaits++;
+            long start = System.nanoTime();
+            do {
+                status = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT_NANOS);
+            } while (status == GL_TIMEOUT_EXPIRED);
+            fenceWaitNanos += System.nanoTime() - start;
+            if (status == GL_WAIT_FAILED) {
+                System.err.println("Advertencia: glClientWaitSync falló en el buffer de streaming.");
+            }
+        }
+        glDeleteSync(fence);
+        fences[index] = 0;
+    }
+
+    /** Igual que {@link #begin(int, int)} con una alineación de 64 bytes. */
+    public ByteBuffer begin(int bytes) {
+        return begin(bytes, DEFAULT_ALIGNMENT);
+    }
+
+    /**
+     * Reserva {@code bytes} en la región del frame y devuelve una vista para escribirlos
+     * (posición 0, límite {@code bytes}, orden nativo). La vista deja de ser válida tras {@link #end()}.
+     *
+     * @param alignment Alineación del inicio de los datos (por ejemplo, el stride de un vértice o
+     *                  GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT).
+     */
+    public ByteBuffer begin(int bytes, int alignment) {
+        if (!inFrame) {
+            throw new IllegalStateException("Hay que llamar a beginFrame() antes de escribir en el buffer de streaming.");
+        }
+        if (pendingOffset >= 0) {
+            throw new IllegalStateException("Ya hay una escritura abierta en el buffer de streaming.");
+        }
+        int start = (writeOffset + alignment - 1) / alignment * alignment;
+        if (start + bytes > regionSize) {
+            throw new IllegalStateException("El buffer de streaming se ha quedado sin espacio este frame: "
+                    + (start + bytes) + " de " + regionSize + " bytes.");
+        }
+        pendingOffset = start;
+        writeOffset = start + bytes;
+        bytesThisFrame += bytes;
+
+        long absolute = (long) region * regionSize + start;
+        if (persistent) {
+            return mapped.slice((int) absolute, bytes).order(ByteOrder.nativeOrder()); // slice() vuelve a big-endian
+        }
+        GLState.bindBuffer(target, bufferId);
+        ByteBuffer view = glMapBufferRange(target, absolute, bytes,
+                GL_MAP_WRITE_BIT | GL_MAP_UNSYNCHRONIZED_BIT | GL_MAP_INVALIDATE_RANGE_BIT);
+        if (view == null) {
+            throw new RuntimeException("No se pudo mapear el buffer de streaming.");
+        }
+        return view.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Cierra la escritura abierta con {@link #begin(int)}.
+     * @return Offset en bytes de los datos dentro del buffer, para glVertexAttribPointer, glBindBufferRange, etc.
+     */
+    public long end() {
+        if (pendingOffset < 0) {
+            throw new IllegalStateException("No hay ninguna escritura abierta en el buffer de streaming.");
+        }
+        if (!persistent) {
+            GLState.bindBuffer(target, bufferId);
+            glUnmapBuffer(target);
+        }
+        long absolute = (long) region * regionSize + pendingOffset;
+        pendingOffset = -1;
+        return absolute;
+    }
+
+    /**
+     * Marca el final de los draws que leen la región actual: la fence se señalará cuando la GPU termine.
+     */
+    public void endFrame() {
+        if (!inFrame) {
+            throw new IllegalStateException("endFrame() llamado sin beginFrame().");
+        }
+        if (pendingOffset >= 0) {
+            end();
+        }
+        fences[region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        bytesLastFrame = bytesThisFrame;
+        totalBytes += bytesThisFrame;
+        frames++;
+        inFrame = false;
+    }
+
+    public int getBufferId() { return bufferId; }
+    public int getRegionSize() { return regionSize; }
+    public boolean isPersistent() { return persistent; }
+
+    /** @return Bytes escritos en el último frame completo. */
+    public long getBytesLastFrame() { return bytesLastFrame; }
+
+    /** @return Media de MB escritos por frame desde el último {@link #resetCounters()}. */
+    public double getAverageMegabytesPerFrame() {
+        return frames == 0 ? 0.0 : totalBytes / (1024.0 * 1024.0) / frames;
+    }
+
+    /** @return Veces que {@link #beginFrame()} tuvo que esperar a la GPU. */
+    public long getFenceWaits() { return fenceWaits; }
+
+    public double getFenceWaitMillis() { return fenceWaitNanos / 1e6; }
+
+    public void resetCounters() {
+        totalBytes = 0;
+        frames = 0;
+        fenceWaits = 0;
+        fenceWaitNanos = 0;
+    }
+
+    public String report() {
+        return String.format("StreamBuffer (%s): %.2f MB/frame, %d esperas de fence (%.3f ms)",
+                persistent ? "persistente" : "no sincronizado",
+                getAverageMegabytesPerFrame(), fenceWaits, getFenceWaitMillis());
+    }
+
+    /**
+     * Libera las fences, desmapea el buffer y lo borra.
+     */
+    public void cleanup() {
+        for (int i = 0; i < REGIONS; i++) {
+            if (fences[i] != 0) {
+                glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        if (persistent) {
+            GLState.bindBuffer(target, bufferId);
+            glUnmapBuffer(target);
+        }
+        GLState.deleteBuffer(bufferId);
+    }
+}
@@ -6,8 +6,6 @@ import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryStack;
 
 import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
-import static org.lwjgl.opengl.GL13.glActiveTexture;
 import static org.lwjgl.opengl.GL30C.glGenerateMipmap;
 
 /**
@@ -46,7 +44,7 @@ public class Texture {
         }
 
         // Enlazar (Bind) la textura y configurar sus parámetros
-        glBindTexture(GL_TEXTURE_2D, textureID);
+        GLState.bindTexture(0, GL_TEXTURE_2D, textureID);
 
         // Voltear la textura verticalmente (OpenGL espera que el origen Y esté abajo)
         glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
@@ -71,14 +69,13 @@ public class Texture {
         STBImage.stbi_image_free(image);
     }
 
-    /** Activa y enlaza la textura para su uso en el shader. */
+    /** Activa y enlaza la textura para su uso en el shader (unidad 0; se omite si ya está enlazada). */
     public void bind() {
-        glActiveTexture(GL_TEXTURE0); // Activa la unidad de textura 0
-        glBindTexture(GL_TEXTURE_2D, textureID);
+        GLState.bindTexture(0, GL_TEXTURE_2D, textureID);
     }
 
     /** Limpia la textura de la GPU. */
     public void cleanup() {
-        glDeleteTextures(textureID);
+        GLState.deleteTexture(textureID);
     }
 }
\ No newline at end of file
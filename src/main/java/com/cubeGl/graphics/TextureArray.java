@@ -0,0 +1,252 @@
+package com.cubeGl.graphics;
+
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.glTexImage3D;
+import static org.lwjgl.opengl.GL12.glTexSubImage3D;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+import static org.lwjgl.opengl.GL30.glGenerateMipmap;
+
+/**
+ * Array de texturas (GL_TEXTURE_2D_ARRAY) con una capa por imagen, pensado para las texturas de bloques.
+ * Todas las capas comparten una única textura de OpenGL, así que cambiar de material no obliga a
+ * cambiar de textura: la capa viaja como tercera coordenada de textura de cada vértice.
+ * <p>
+ * Las imágenes se decodifican en paralelo en un pool de hilos ({@code stbi_load_from_memory} sobre el
+ * archivo mapeado en memoria) y el hilo de OpenGL las sube poco a poco con {@link #uploadPending(long)},
+ * respetando un presupuesto de tiempo por frame. La capa de cada imagen se conoce desde {@link #load(String)},
+ * antes de que termine la carga.
+ * <p>
+ * Opciones: {@code -Dcubegl.textures.dir} (carpeta de las imágenes, por defecto {@link #DEFAULT_DIRECTORY}).
+ */
+public class TextureArray {
+    public static final Path DEFAULT_DIRECTORY = Path.of("src/main/resources/");
+
+    // Espera máxima entre comprobaciones de finishLoading()
+    private static final long MAX_WAIT_NANOS = 1_000_000L;
+
+    private static final class Decoded {
+        private final String name;
+        private final int layer;
+        private final ByteBuffer pixels; // RGBA8 de STBImage, o null si falló la decodificación
+        private final int width;
+        private final int height;
+
+        private Decoded(String name, int layer, ByteBuffer pixels, int width, int height) {
+            this.name = name;
+            this.layer = layer;
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final int textureID;
+    private final Path directory;
+    private final int layerWidth;
+    private final int layerHeight;
+    private final int maxLayers;
+
+    private final ForkJoinPool decoders;
+    private final ConcurrentLinkedQueue<Decoded> decoded = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingDecodes = new AtomicInteger();
+    private final Map<String, Integer> layers = new HashMap<>();
+    private int pendingUploads;  // Imágenes pedidas y aún no subidas (solo hilo de OpenGL)
+    private boolean mipmapsDirty;
+
+    /**
+     * @param directory      Carpeta de las imágenes.
+     * @param layerWidth     Ancho de cada capa en píxeles; todas las imágenes deben medir lo mismo.
+     * @param layerHeight    Alto de cada capa en píxeles.
+     * @param maxLayers      Número de capas reservadas en la GPU.
+     * @param decoderThreads Hilos de decodificación.
+     */
+    public TextureArray(Path directory, int layerWidth, int layerHeight, int maxLayers, int decoderThreads) {
+        this.directory = directory;
+        this.layerWidth = layerWidth;
+        this.layerHeight = layerHeight;
+        this.maxLayers = maxLayers;
+        this.decoders = new ForkJoinPool(decoderThreads);
+
+        textureID = glGenTextures();
+        GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, textureID);
+
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_NEAREST_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_NEAREST); // Píxeles cuadrados
+
+        // Reserva todas las capas de una vez; el contenido llega después con glTexSubImage3D
+        glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, layerWidth, layerHeight, maxLayers,
+                0, GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+    }
+
+    /** Array con la carpeta de {@code -Dcubegl.textures.dir} y un hilo de decodificación por núcleo libre. */
+    public TextureArray(int layerWidth, int layerHeight, int maxLayers) {
+        this(Path.of(System.getProperty("cubegl.textures.dir", DEFAULT_DIRECTORY.toString())),
+                layerWidth, layerHeight, maxLayers,
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Pide la carga de una imagen y devuelve su capa. La decodificación empieza enseguida en segundo
+     * plano; si la imagen ya se había pedido, devuelve la misma capa.
+     */
+    public int load(String filename) {
+        Integer existing = layers.get(filename);
+        if (existing != null) {
+            return existing;
+        }
+        if (layers.size() >= maxLayers) {
+            throw new IllegalStateException("El array de texturas está lleno (" + maxLayers + " capas)");
+        }
+        int layer = layers.size();
+        layers.put(filename, layer);
+        pendingUploads++;
+        pendingDecodes.incrementAndGet();
+
+        Path path = directory.resolve(filename);
+        decoders.execute(() -> {
+            Decoded image;
+            try {
+                image = decode(filename, layer, path);
+            } catch (Throwable e) {
+                // La capa se encola igualmente (vacía): si no, pendingUploads no llegaría a 0 y
+                // finishLoading() no terminaría nunca
+                System.err.println("Error al decodificar la textura " + filename + ": " + e);
+                image = new Decoded(filename, layer, null, 0, 0);
+            }
+            decoded.offer(image);
+            pendingDecodes.decrementAndGet();
+        });
+        return layer;
+    }
+
+    // Se ejecuta en un hilo de decodificación
+    private static Decoded decode(String name, int layer, Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             MemoryStack stack = MemoryStack.stackPush()) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer c = stack.mallocInt(1);
+
+            // Siempre 4 canales, para que todas las capas tengan el mismo formato
+            ByteBuffer pixels = STBImage.stbi_load_from_memory(file, w, h, c, 4);
+            if (pixels == null) {
+                System.err.println("Error al decodificar la textura " + name + ": " + STBImage.stbi_failure_reason());
+                return new Decoded(name, layer, null, 0, 0);
+            }
+            return new Decoded(name, layer, pixels, w.get(0), h.get(0));
+        } catch (IOException e) {
+            System.err.println("Error al leer la textura " + name + ": " + e.getMessage());
+            return new Decoded(name, layer, null, 0, 0);
+        }
+    }
+
+    /**
+     * Sube las imágenes ya decodificadas hasta agotar el presupuesto de tiempo (siempre al menos una, si hay).
+     * Cuando no queda ninguna pendiente regenera los mipmaps. Debe llamarse desde el hilo de OpenGL.
+     *
+     * @return Número de capas subidas en esta llamada.
+     */
+    public int uploadPending(long budgetNanos) {
+        long start = System.nanoTime();
+        int uploaded = 0;
+        Decoded image;
+        while ((uploaded == 0 || System.nanoTime() - start < budgetNanos) && (image = decoded.poll()) != null) {
+            pendingUploads--;
+            uploaded++;
+            if (image.pixels == null) {
+                continue;
+            }
+            if (image.width != layerWidth || image.height != layerHeight) {
+                System.err.println("La textura " + image.name + " mide " + image.width + "x" + image.height
+                        + " y el array espera " + layerWidth + "x" + layerHeight + "; se ignora");
+            } else {
+                GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, textureID);
+                glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+                glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, image.layer, layerWidth, layerHeight, 1,
+                        GL_RGBA, GL_UNSIGNED_BYTE, image.pixels);
+                mipmapsDirty = true;
+            }
+            STBImage.stbi_image_free(image.pixels);
+        }
+
+        if (pendingUploads == 0 && mipmapsDirty) {
+            GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, textureID);
+            glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+            mipmapsDirty = false;
+        }
+        return uploaded;
+    }
+
+    /** @return true mientras queden imágenes por decodificar o por subir. */
+    public boolean isLoading() {
+        return pendingUploads > 0;
+    }
+
+    /**
+     * Espera a que terminen todas las cargas pedidas y las sube (por ejemplo, al arrancar). Mientras no
+     * llega ninguna imagen, el hilo duerme con esperas crecientes (hasta 1 ms) en vez de girar.
+     */
+    public void finishLoading() {
+        long wait = 10_000L;
+        while (isLoading()) {
+            if (uploadPending(Long.MAX_VALUE) > 0) {
+                wait = 10_000L;
+            } else {
+                LockSupport.parkNanos(wait);
+                wait = Math.min(wait * 2, MAX_WAIT_NANOS);
+            }
+        }
+    }
+
+    /** @return Capa de la imagen, o -1 si no se ha pedido su carga. */
+    public int getLayer(String filename) {
+        return layers.getOrDefault(filename, -1);
+    }
+
+    public int getLayerCount() { return layers.size(); }
+    public int getMaxLayers() { return maxLayers; }
+    public int getPendingDecodes() { return pendingDecodes.get(); }
+
+    /** Enlaza el array en la unidad indicada (se omite si ya está enlazado). */
+    public void bind(int unit) {
+        GLState.bindTexture(unit, GL_TEXTURE_2D_ARRAY, textureID);
+    }
+
+    /** Detiene los hilos de decodificación y libera la textura y las imágenes no subidas. */
+    public void cleanup() {
+        decoders.shutdownNow();
+        try {
+            decoders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Decoded image;
+        while ((image = decoded.poll()) != null) {
+            if (image.pixels != null) {
+                STBImage.stbi_image_free(image.pixels);
+            }
+        }
+        GLState.deleteTexture(textureID);
+    }
+}
@@ -1,18 +1,73 @@
 package com.cubeGl.graphics;
 
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
 
 /**
- * Representa la matriz de transformación del modelo (Model Matrix).
+ * Nodo de transformación (posición, rotación y escala) dentro de una {@link TransformHierarchy}.
+ * Los datos viven en los arrays de la jerarquía; esta clase solo guarda el índice del nodo.
+ * La matriz del modelo es la matriz de mundo del nodo (incluye las de todos sus padres).
  */
 public class Transform {
-    private final Matrix4f modelMatrix;
+    private final TransformHierarchy hierarchy;
+    private final int node;
 
+    /**
+     * Crea un nodo raíz independiente, en su propia jerarquía de un solo nodo.
+     */
     public Transform() {
-        this.modelMatrix = new Matrix4f(); // Matriz identidad por defecto
+        this.hierarchy = new TransformHierarchy(1);
+        this.node = hierarchy.createNode(-1);
     }
 
-    public Matrix4f getModelMatrix() {
-        return modelMatrix;
+    Transform(TransformHierarchy hierarchy, int node) {
+        this.hierarchy = hierarchy;
+        this.node = node;
     }
+
+    public Transform setPosition(float x, float y, float z) {
+        hierarchy.setPosition(node, x, y, z);
+        return this;
+    }
+
+    public Transform setRotation(Quaternionfc rotation) {
+        hierarchy.setRotation(node, rotation.x(), rotation.y(), rotation.z(), rotation.w());
+        return this;
+    }
+
+    public Transform setScale(float x, float y, float z) {
+        hierarchy.setScale(node, x, y, z);
+        return this;
+    }
+
+    public Vector3f getPosition(Vector3f dest) {
+        return dest.set(hierarchy.getPositionX(node), hierarchy.getPositionY(node), hierarchy.getPositionZ(node));
+    }
+
+    public Quaternionf getRotation(Quaternionf dest) {
+        return dest.set(hierarchy.getRotationX(node), hierarchy.getRotationY(node),
+                hierarchy.getRotationZ(node), hierarchy.getRotationW(node));
+    }
+
+    /**
+     * Copia la matriz del modelo (de mundo) en {@code dest} sin reservar memoria.
+     * Si la jerarquía tiene cambios pendientes, se actualiza antes.
+     */
+    public Matrix4f getModelMatrix(Matrix4f dest) {
+        hierarchy.update();
+        return dest.set(hierarchy.getWorldMatrices(), node * 16);
+    }
+
+    /**
+     * Calcula ViewProjection * Model en {@code dest} sin reservar memoria.
+     */
+    public Matrix4f getMvp(Matrix4fc viewProjection, Matrix4f dest) {
+        return viewProjection.mul(getModelMatrix(dest), dest);
+    }
+
+    public TransformHierarchy getHierarchy() { return hierarchy; }
+    public int getNode() { return node; }
 }
@@ -0,0 +1,321 @@
+package com.cubeGl.graphics;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Grafo de escena de transformaciones padre/hijo almacenado como estructura de arrays (SoA).
+ * <p>
+ * Cada nodo se identifica por un índice entero y guarda posición, rotación (cuaternión) y escala
+ * en arrays {@code float[]} separados; sus matrices local y de mundo ocupan 16 floats consecutivos
+ * (orden por columnas, como JOML y OpenGL). Un padre siempre se crea antes que sus hijos, así que
+ * tiene un índice menor. Cada nodo enlaza con su primer hijo y con su siguiente hermano.
+ * <p>
+ * Las matrices de mundo se recalculan de forma perezosa en {@link #update()}: la jerarquía guarda la
+ * lista de nodos modificados y recorre solo sus subárboles, así que el coste es proporcional a los nodos
+ * recalculados (más ordenar la lista), no al total de nodos.
+ */
+public class TransformHierarchy {
+    private static final int MATRIX_FLOATS = 16;
+    private static final int PARALLEL_BLOCK = 4096; // Nodos por tarea en updateParallel()
+
+    private int count;
+    private int[] parent;
+    private int[] depth;
+    private int[] firstChild;  // -1 si no tiene hijos
+    private int[] nextSibling; // -1 si es el último hermano
+
+    // Transformación local en SoA
+    private float[] posX, posY, posZ;
+    private float[] rotX, rotY, rotZ, rotW;
+    private float[] scaleX, scaleY, scaleZ;
+
+    private float[] localMatrices;
+    private float[] worldMatrices;
+
+    // Estado de actualización
+    private boolean[] localDirty;
+    private int[] dirtyNodes;        // Nodos con localDirty, sin repetir
+    private int dirtyCount;
+    private int[] changedGeneration; // Generación de update() en la que se recalculó (o encoló) el nodo
+    private int generation;
+
+    // Pila del recorrido de update() y fronteras por nivel de updateParallel()
+    private int[] frontier;
+    private int[] nextFrontier;
+    private long[] depthKeys;
+
+    public TransformHierarchy(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        parent = grow(parent, capacity);
+        depth = grow(depth, capacity);
+        firstChild = grow(firstChild, capacity);
+        nextSibling = grow(nextSibling, capacity);
+        posX = grow(posX, capacity); posY = grow(posY, capacity); posZ = grow(posZ, capacity);
+        rotX = grow(rotX, capacity); rotY = grow(rotY, capacity); rotZ = grow(rotZ, capacity); rotW = grow(rotW, capacity);
+        scaleX = grow(scaleX, capacity); scaleY = grow(scaleY, capacity); scaleZ = grow(scaleZ, capacity);
+        localMatrices = grow(localMatrices, capacity * MATRIX_FLOATS);
+        worldMatrices = grow(worldMatrices, capacity * MATRIX_FLOATS);
+        localDirty = localDirty == null ? new boolean[capacity] : Arrays.copyOf(localDirty, capacity);
+        dirtyNodes = grow(dirtyNodes, capacity);
+        changedGeneration = grow(changedGeneration, capacity);
+        frontier = grow(frontier, capacity);
+        nextFrontier = grow(nextFrontier, capacity);
+        depthKeys = depthKeys == null ? new long[capacity] : Arrays.copyOf(depthKeys, capacity);
+    }
+
+    private static float[] grow(float[] array, int length) {
+        return array == null ? new float[length] : Arrays.copyOf(array, length);
+    }
+
+    private static int[] grow(int[] array, int length) {
+        return array == null ? new int[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Crea un nodo con transformación identidad.
+     *
+     * @param parentNode Índice del padre, o -1 para un nodo raíz.
+     * @return Índice del nuevo nodo.
+     */
+    public int createNode(int parentNode) {
+        if (parentNode < -1 || parentNode >= count) {
+            throw new IllegalArgumentException("Nodo padre inexistente: " + parentNode);
+        }
+        if (count == parent.length) {
+            allocate(count * 2);
+        }
+        int node = count++;
+        parent[node] = parentNode;
+        firstChild[node] = -1;
+        if (parentNode < 0) {
+            depth[node] = 0;
+            nextSibling[node] = -1;
+        } else {
+            depth[node] = depth[parentNode] + 1;
+            nextSibling[node] = firstChild[parentNode];
+            firstChild[parentNode] = node;
+        }
+        rotW[node] = 1.0f;
+        scaleX[node] = 1.0f; scaleY[node] = 1.0f; scaleZ[node] = 1.0f;
+        markDirty(node);
+        return node;
+    }
+
+    /**
+     * Crea un {@link Transform} (nodo) hijo de {@code parentTransform}, o raíz si es {@code null}.
+     */
+    public Transform createTransform(Transform parentTransform) {
+        if (parentTransform != null && parentTransform.getHierarchy() != this) {
+            throw new IllegalArgumentException("El padre pertenece a otra jerarquía.");
+        }
+        return new Transform(this, createNode(parentTransform == null ? -1 : parentTransform.getNode()));
+    }
+
+    private void markDirty(int node) {
+        if (!localDirty[node]) {
+            localDirty[node] = true;
+            dirtyNodes[dirtyCount++] = node;
+        }
+    }
+
+    public void setPosition(int node, float x, float y, float z) {
+        posX[node] = x; posY[node] = y; posZ[node] = z;
+        markDirty(node);
+    }
+
+    /** Establece la rotación como cuaternión unitario (x, y, z, w). */
+    public void setRotation(int node, float x, float y, float z, float w) {
+        rotX[node] = x; rotY[node] = y; rotZ[node] = z; rotW[node] = w;
+        markDirty(node);
+    }
+
+    public void setScale(int node, float x, float y, float z) {
+        scaleX[node] = x; scaleY[node] = y; scaleZ[node] = z;
+        markDirty(node);
+    }
+
+    public float getPositionX(int node) { return posX[node]; }
+    public float getPositionY(int node) { return posY[node]; }
+    public float getPositionZ(int node) { return posZ[node]; }
+    public float getRotationX(int node) { return rotX[node]; }
+    public float getRotationY(int node) { return rotY[node]; }
+    public float getRotationZ(int node) { return rotZ[node]; }
+    public float getRotationW(int node) { return rotW[node]; }
+    public float getScaleX(int node) { return scaleX[node]; }
+    public float getScaleY(int node) { return scaleY[node]; }
+    public float getScaleZ(int node) { return scaleZ[node]; }
+
+    public int getParent(int node) { return parent[node]; }
+    public int getNodeCount() { return count; }
+
+    /** @return Verdadero si hay nodos con cambios pendientes de {@link #update()}. */
+    public boolean isDirty() { return dirtyCount > 0; }
+
+    /**
+     * Matrices de mundo de todos los nodos (16 floats por nodo desde {@code node * 16}).
+     * Solo son válidas tras {@link #update()}; no deben modificarse.
+     */
+    public float[] getWorldMatrices() { return worldMatrices; }
+
+    /**
+     * Recalcula las matrices de mundo de los nodos modificados y de sus descendientes (un solo hilo).
+     * <p>
+     * Los nodos modificados se recorren por índice creciente, así que un antecesor siempre va antes que
+     * sus descendientes: si un nodo ya se recalculó dentro del subárbol de otro, no se vuelve a recorrer.
+     */
+    public void update() {
+        if (!isDirty()) {
+            return;
+        }
+        int gen = ++generation;
+        Arrays.sort(dirtyNodes, 0, dirtyCount);
+        int[] stack = frontier;
+        for (int i = 0; i < dirtyCount; i++) {
+            int root = dirtyNodes[i];
+            if (changedGeneration[root] == gen) {
+                continue;
+            }
+            changedGeneration[root] = gen;
+            int size = 0;
+            stack[size++] = root;
+            while (size > 0) {
+                int node = stack[--size];
+                updateWorld(node);
+                for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                    changedGeneration[child] = gen;
+                    stack[size++] = child;
+                }
+            }
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Igual que {@link #update()}, pero avanza nivel a nivel por los subárboles modificados y reparte
+     * entre los hilos del ForkJoinPool común los niveles de más de {@value #PARALLEL_BLOCK} nodos. Los nodos
+     * de un mismo nivel son independientes entre sí. Reunir los hijos de cada nivel es secuencial.
+     */
+    public void updateParallel() {
+        if (!isDirty()) {
+            return;
+        }
+        int gen = ++generation;
+        // Nodos modificados por profundidad creciente
+        for (int i = 0; i < dirtyCount; i++) {
+            depthKeys[i] = (long) depth[dirtyNodes[i]] << 32 | dirtyNodes[i];
+        }
+        Arrays.sort(depthKeys, 0, dirtyCount);
+
+        int next = 0;
+        int size = 0;
+        int level = 0;
+        while (size > 0 || next < dirtyCount) {
+            if (size == 0) {
+                level = (int) (depthKeys[next] >>> 32);
+            }
+            // Se unen a la frontera los nodos modificados de este nivel que no cuelguen de otro ya recalculado
+            while (next < dirtyCount && (int) (depthKeys[next] >>> 32) == level) {
+                int node = (int) depthKeys[next++];
+                if (changedGeneration[node] != gen) {
+                    changedGeneration[node] = gen;
+                    frontier[size++] = node;
+                }
+            }
+            updateLevel(frontier, size);
+
+            int nextSize = 0;
+            for (int i = 0; i < size; i++) {
+                for (int child = firstChild[frontier[i]]; child >= 0; child = nextSibling[child]) {
+                    changedGeneration[child] = gen;
+                    nextFrontier[nextSize++] = child;
+                }
+            }
+            int[] swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+            size = nextSize;
+            level++;
+        }
+        dirtyCount = 0;
+    }
+
+    private void updateLevel(int[] nodes, int size) {
+        if (size <= PARALLEL_BLOCK) {
+            for (int i = 0; i < size; i++) {
+                updateWorld(nodes[i]);
+            }
+            return;
+        }
+        int blocks = (size + PARALLEL_BLOCK - 1) / PARALLEL_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int blockEnd = Math.min(size, (block + 1) * PARALLEL_BLOCK);
+            for (int i = block * PARALLEL_BLOCK; i < blockEnd; i++) {
+                updateWorld(nodes[i]);
+            }
+        });
+    }
+
+    // El padre ya debe tener su matriz de mundo al día
+    private void updateWorld(int node) {
+        if (localDirty[node]) {
+            composeLocal(node);
+            localDirty[node] = false;
+        }
+        int p = parent[node];
+        int w = node * MATRIX_FLOATS;
+        if (p < 0) {
+            System.arraycopy(localMatrices, w, worldMatrices, w, MATRIX_FLOATS);
+        } else {
+            mulAffine(worldMatrices, p * MATRIX_FLOATS, localMatrices, w, worldMatrices, w);
+        }
+    }
+
+    /**
+     * Matriz local = Traslación * Rotación * Escala (equivalente a Matrix4f.translationRotateScale).
+     */
+    private void composeLocal(int node) {
+        float qx = rotX[node], qy = rotY[node], qz = rotZ[node], qw = rotW[node];
+        float sx = scaleX[node], sy = scaleY[node], sz = scaleZ[node];
+        float xx = qx * qx, yy = qy * qy, zz = qz * qz;
+        float xy = qx * qy, xz = qx * qz, yz = qy * qz;
+        float xw = qx * qw, yw = qy * qw, zw = qz * qw;
+
+        float[] m = localMatrices;
+        int o = node * MATRIX_FLOATS;
+        m[o]      = (1.0f - 2.0f * (yy + zz)) * sx;
+        m[o + 1]  = 2.0f * (xy + zw) * sx;
+        m[o + 2]  = 2.0f * (xz - yw) * sx;
+        m[o + 3]  = 0.0f;
+        m[o + 4]  = 2.0f * (xy - zw) * sy;
+        m[o + 5]  = (1.0f - 2.0f * (xx + zz)) * sy;
+        m[o + 6]  = 2.0f * (yz + xw) * sy;
+        m[o + 7]  = 0.0f;
+        m[o + 8]  = 2.0f * (xz + yw) * sz;
+        m[o + 9]  = 2.0f * (yz - xw) * sz;
+        m[o + 10] = (1.0f - 2.0f * (xx + yy)) * sz;
+        m[o + 11] = 0.0f;
+        m[o + 12] = posX[node];
+        m[o + 13] = posY[node];
+        m[o + 14] = posZ[node];
+        m[o + 15] = 1.0f;
+    }
+
+    /**
+     * dest = a * b para matrices afines (última fila 0, 0, 0, 1) en orden por columnas.
+     * {@code dest} no puede solaparse con {@code a}.
+     */
+    private static void mulAffine(float[] a, int ao, float[] b, int bo, float[] dest, int d) {
+        for (int col = 0; col < 4; col++) {
+            float b0 = b[bo + col * 4], b1 = b[bo + col * 4 + 1], b2 = b[bo + col * 4 + 2];
+            float t = col == 3 ? 1.0f : 0.0f;
+            dest[d + col * 4]     = a[ao] * b0 + a[ao + 4] * b1 + a[ao + 8] * b2 + a[ao + 12] * t;
+            dest[d + col * 4 + 1] = a[ao + 1] * b0 + a[ao + 5] * b1 + a[ao + 9] * b2 + a[ao + 13] * t;
+            dest[d + col * 4 + 2] = a[ao + 2] * b0 + a[ao + 6] * b1 + a[ao + 10] * b2 + a[ao + 14] * t;
+            dest[d + col * 4 + 3] = t;
+        }
+    }
+}
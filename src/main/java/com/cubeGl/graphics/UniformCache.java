@@ -0,0 +1,115 @@
+package com.cubeGl.graphics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parte de {@link ShaderProgram} que no necesita OpenGL: asigna un "handle" entero a cada uniform,
+ * guarda su location y una copia del último valor subido, y decide si una subida es redundante.
+ * Separada del programa para poder medirla sin contexto (ver los benchmarks JMH).
+ * <p>
+ * Los valores guardados permiten restaurar los uniforms al sustituir el programa por otro con los mismos
+ * nombres (recarga en caliente, ver {@link ShaderManager}).
+ */
+public class UniformCache {
+    private static final byte NONE = 0;
+    private static final byte MATRIX = 1;
+    private static final byte INT = 2;
+
+    private final Map<String, Integer> handles = new HashMap<>();
+
+    // Indexados por handle
+    private String[] names = new String[4];
+    private int[] locations = new int[4];
+    private float[] matrices = new float[4 * 16];
+    private int[] ints = new int[4];
+    private byte[] kinds = new byte[4]; // Tipo del último valor subido (NONE si aún no hay)
+    private int count;
+
+    private long uploadCount;
+    private long skippedUploadCount;
+
+    /**
+     * Registra un uniform con la location obtenida de OpenGL (-1 si el programa no lo usa).
+     * @return Handle del uniform.
+     */
+    public int register(String name, int location) {
+        if (count == locations.length) {
+            int capacity = count * 2;
+            names = Arrays.copyOf(names, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            matrices = Arrays.copyOf(matrices, capacity * 16);
+            ints = Arrays.copyOf(ints, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+        int handle = count++;
+        names[handle] = name;
+        locations[handle] = location;
+        handles.put(name, handle);
+        return handle;
+    }
+
+    /** @return Handle del uniform, o -1 si no se ha registrado. */
+    public int find(String name) {
+        Integer handle = handles.get(name);
+        return handle != null ? handle : -1;
+    }
+
+    public int getLocation(int handle) {
+        return locations[handle];
+    }
+
+    /**
+     * Cambia la location de un uniform (al sustituir el programa). El último valor se conserva.
+     */
+    public void setLocation(int handle, int location) {
+        locations[handle] = location;
+    }
+
+    public int getCount() { return count; }
+    public String getName(int handle) { return names[handle]; }
+    public boolean hasMatrix(int handle) { return kinds[handle] == MATRIX; }
+    public boolean hasInt(int handle) { return kinds[handle] == INT; }
+    public int getInt(int handle) { return ints[handle]; }
+
+    /** Copia en {@code dest} el último valor de matriz subido (16 floats). */
+    public void copyMatrix(int handle, float[] dest) {
+        System.arraycopy(matrices, handle * 16, dest, 0, 16);
+    }
+
+    /**
+     * Compara la matriz (16 floats desde {@code values[offset]}) con la última subida y, si es distinta,
+     * la guarda como nuevo valor.
+     * @return true si hay que subirla a la GPU.
+     */
+    public boolean updateMatrix(int handle, float[] values, int offset) {
+        int cached = handle * 16;
+        if (kinds[handle] == MATRIX && Arrays.equals(values, offset, offset + 16, matrices, cached, cached + 16)) {
+            skippedUploadCount++;
+            return false;
+        }
+        System.arraycopy(values, offset, matrices, cached, 16);
+        kinds[handle] = MATRIX;
+        uploadCount++;
+        return true;
+    }
+
+    /**
+     * Igual que {@link #updateMatrix(int, float[], int)} para un valor entero.
+     * @return true si hay que subirlo a la GPU.
+     */
+    public boolean updateInt(int handle, int value) {
+        if (kinds[handle] == INT && ints[handle] == value) {
+            skippedUploadCount++;
+            return false;
+        }
+        ints[handle] = value;
+        kinds[handle] = INT;
+        uploadCount++;
+        return true;
+    }
+
+    public long getUploadCount() { return uploadCount; }
+    public long getSkippedUploadCount() { return skippedUploadCount; }
+}
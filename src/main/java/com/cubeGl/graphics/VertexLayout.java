@@ -0,0 +1,233 @@
+package com.cubeGl.graphics;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glVertexAttribIPointer;
+import static org.lwjgl.opengl.GL33.GL_INT_2_10_10_10_REV;
+
+/**
+ * Describe un formato de vértice intercalado: un único VBO con todos los atributos de cada vértice
+ * seguidos, {@link #getStride()} bytes por vértice. Cada atributo indica su location, número de
+ * componentes, tipo de OpenGL y offset dentro del vértice.
+ * <p>
+ * Hay dos formatos predefinidos:
+ * <ul>
+ *   <li>{@link #STANDARD}: posición, color y coordenadas de textura (u, v, capa) en floats, 36 bytes.</li>
+ *   <li>{@link #PACKED_VOXEL}: formato compacto para chunks, 12 bytes (ver {@link #putPackedVoxel}).</li>
+ * </ul>
+ * Los formatos con {@link VertexWriter} saben convertir un {@link MeshData}; cada vértice escrito debe
+ * ocupar exactamente {@code stride} bytes.
+ */
+public final class VertexLayout {
+
+    /**
+     * Escribe el vértice {@code vertex} de {@code data} en la posición actual de {@code dest}
+     * (el buffer debe estar en orden nativo, como los de MemoryUtil).
+     */
+    public interface VertexWriter {
+        void write(MeshData data, int vertex, ByteBuffer dest);
+    }
+
+    /**
+     * Un atributo del vértice. Los atributos "enteros" se leen en el shader como int/uint
+     * (glVertexAttribIPointer); el resto se convierten a float (normalizados o no).
+     */
+    public static final class Attribute {
+        private final int location;
+        private final int size;
+        private final int type;
+        private final boolean normalized;
+        private final boolean integer;
+        private final int offset;
+
+        private Attribute(int location, int size, int type, boolean normalized, boolean integer, int offset) {
+            this.location = location;
+            this.size = size;
+            this.type = type;
+            this.normalized = normalized;
+            this.integer = integer;
+            this.offset = offset;
+        }
+
+        public static Attribute floats(int location, int size, int offset) {
+            return new Attribute(location, size, GL_FLOAT, false, false, offset);
+        }
+
+        public static Attribute of(int location, int size, int type, boolean normalized, int offset) {
+            return new Attribute(location, size, type, normalized, false, offset);
+        }
+
+        public static Attribute integer(int location, int size, int type, int offset) {
+            return new Attribute(location, size, type, false, true, offset);
+        }
+
+        /** @return Bytes que ocupa el atributo dentro del vértice. */
+        public int getByteSize() {
+            return switch (type) {
+                case GL_BYTE, GL_UNSIGNED_BYTE -> size;
+                case GL_SHORT, GL_UNSIGNED_SHORT -> size * 2;
+                case GL_INT_2_10_10_10_REV -> 4; // Las 4 componentes caben en un único int
+                default -> size * 4;             // GL_FLOAT, GL_INT, GL_UNSIGNED_INT
+            };
+        }
+
+        public int getLocation() { return location; }
+        public int getSize() { return size; }
+        public int getType() { return type; }
+        public int getOffset() { return offset; }
+        public boolean isNormalized() { return normalized; }
+        public boolean isInteger() { return integer; }
+    }
+
+    // --- Formato compacto para vóxeles ---
+
+    /** Unidades de posición por bloque en {@link #PACKED_VOXEL} (precisión de 1/16 de bloque). */
+    public static final int POSITION_SCALE = 16;
+    /** Unidades de coordenada de textura por repetición en {@link #PACKED_VOXEL}. */
+    public static final int UV_SCALE = 256;
+
+    // Índices de normal (eje * 2, +1 si mira hacia el lado negativo)
+    public static final int NORMAL_POS_X = 0;
+    public static final int NORMAL_NEG_X = 1;
+    public static final int NORMAL_POS_Y = 2;
+    public static final int NORMAL_NEG_Y = 3;
+    public static final int NORMAL_POS_Z = 4;
+    public static final int NORMAL_NEG_Z = 5;
+
+    private static final float MIN_POSITION = -512f / POSITION_SCALE;
+    private static final float MAX_POSITION = 511f / POSITION_SCALE;
+    private static final float MAX_UV = 65535f / UV_SCALE;
+
+    /** Posición + color + (u, v, capa), todo en floats e intercalado: 36 bytes por vértice. */
+    public static final VertexLayout STANDARD = new VertexLayout("STANDARD", 36, VertexLayout::writeStandard,
+            Attribute.floats(0, 3, 0),
+            Attribute.floats(1, 3, 12),
+            Attribute.floats(2, 3, 24));
+
+    /**
+     * Formato compacto para chunks: 12 bytes por vértice.
+     * <ul>
+     *   <li>location 0, offset 0: posición en 10-10-10-2 con signo, en 1/{@link #POSITION_SCALE} de bloque.</li>
+     *   <li>location 2, offset 4: (u, v) en unsigned short, en 1/{@link #UV_SCALE} de repetición.</li>
+     *   <li>location 1, offset 8 (entero): capa del array de texturas y un byte con la normal (bits 0-2)
+     *       y la oclusión ambiental (bits 3-4).</li>
+     * </ul>
+     */
+    public static final VertexLayout PACKED_VOXEL = new VertexLayout("PACKED_VOXEL", 12, VertexLayout::writePackedVoxel,
+            Attribute.of(0, 4, GL_INT_2_10_10_10_REV, false, 0),
+            Attribute.of(2, 2, GL_UNSIGNED_SHORT, false, 4),
+            Attribute.integer(1, 2, GL_UNSIGNED_SHORT, 8));
+
+    private final String name;
+    private final int stride;
+    private final Attribute[] attributes;
+    private final VertexWriter writer;
+
+    /**
+     * @param stride     Bytes por vértice (múltiplo de 4).
+     * @param writer     Conversión desde {@link MeshData}, o null si los vértices se escriben a mano.
+     * @param attributes Atributos del vértice; ninguno puede salirse de {@code stride}.
+     */
+    public VertexLayout(String name, int stride, VertexWriter writer, Attribute... attributes) {
+        if (stride <= 0 || stride % 4 != 0) {
+            throw new IllegalArgumentException("El stride del formato " + name + " debe ser múltiplo de 4: " + stride);
+        }
+        for (Attribute attribute : attributes) {
+            if (attribute.offset < 0 || attribute.offset + attribute.getByteSize() > stride) {
+                throw new IllegalArgumentException("El atributo " + attribute.location + " se sale del vértice en el formato " + name);
+            }
+        }
+        this.name = name;
+        this.stride = stride;
+        this.writer = writer;
+        this.attributes = attributes.clone();
+    }
+
+    /**
+     * Configura los punteros de atributos para el VBO enlazado en GL_ARRAY_BUFFER (y el VAO activo).
+     */
+    public void apply() {
+        for (Attribute a : attributes) {
+            if (a.integer) {
+                glVertexAttribIPointer(a.location, a.size, a.type, stride, a.offset);
+            } else {
+                glVertexAttribPointer(a.location, a.size, a.type, a.normalized, stride, a.offset);
+            }
+            glEnableVertexAttribArray(a.location);
+        }
+    }
+
+    /**
+     * Escribe todos los vértices de {@code data} a partir de la posición actual de {@code dest}.
+     */
+    public void write(MeshData data, ByteBuffer dest) {
+        if (writer == null) {
+            throw new IllegalStateException("El formato " + name + " no sabe convertir un MeshData.");
+        }
+        int count = data.getVertexCount();
+        for (int i = 0; i < count; i++) {
+            writer.write(data, i, dest);
+        }
+    }
+
+    public String getName() { return name; }
+    public int getStride() { return stride; }
+    public int getAttributeCount() { return attributes.length; }
+    public Attribute getAttribute(int index) { return attributes[index]; }
+
+    // --- Conversores ---
+
+    private static void writeStandard(MeshData data, int vertex, ByteBuffer dest) {
+        float[] vertices = data.getVertices();
+        float[] texCoords = data.getTexCoords();
+        int vi = vertex * MeshData.FLOATS_PER_VERTEX;
+        for (int k = 0; k < MeshData.FLOATS_PER_VERTEX; k++) {
+            dest.putFloat(vertices[vi + k]);
+        }
+        int ti = vertex * MeshData.TEX_FLOATS_PER_VERTEX;
+        for (int k = 0; k < MeshData.TEX_FLOATS_PER_VERTEX; k++) {
+            dest.putFloat(texCoords[ti + k]);
+        }
+    }
+
+    private static void writePackedVoxel(MeshData data, int vertex, ByteBuffer dest) {
+        float[] vertices = data.getVertices();
+        float[] texCoords = data.getTexCoords();
+        byte[] normals = data.getNormals();
+        int vi = vertex * MeshData.FLOATS_PER_VERTEX;
+        int ti = vertex * MeshData.TEX_FLOATS_PER_VERTEX;
+        putPackedVoxel(dest, vertices[vi], vertices[vi + 1], vertices[vi + 2],
+                texCoords[ti], texCoords[ti + 1], (int) texCoords[ti + 2],
+                normals != null ? normals[vertex] : 0, 0);
+    }
+
+    /**
+     * Escribe un vértice en formato {@link #PACKED_VOXEL} en la posición actual de {@code dest}.
+     * La posición debe estar en [-32, 31.9375] y las coordenadas de textura en [0, 255.99].
+     *
+     * @param layer  Capa del array de texturas (0..65535).
+     * @param normal Índice de normal (NORMAL_*).
+     * @param ao     Oclusión ambiental (0 = nada, 3 = máxima).
+     */
+    public static void putPackedVoxel(ByteBuffer dest, float x, float y, float z, float u, float v,
+                                      int layer, int normal, int ao) {
+        if (x < MIN_POSITION || x > MAX_POSITION || y < MIN_POSITION || y > MAX_POSITION
+                || z < MIN_POSITION || z > MAX_POSITION) {
+            throw new IllegalArgumentException("Posición fuera del rango del formato compacto: " + x + ", " + y + ", " + z);
+        }
+        if (u < 0 || u > MAX_UV || v < 0 || v > MAX_UV) {
+            throw new IllegalArgumentException("Coordenada de textura fuera del rango del formato compacto: " + u + ", " + v);
+        }
+        int px = Math.round(x * POSITION_SCALE) & 0x3FF;
+        int py = Math.round(y * POSITION_SCALE) & 0x3FF;
+        int pz = Math.round(z * POSITION_SCALE) & 0x3FF;
+        dest.putInt(px | (py << 10) | (pz << 20));
+        dest.putShort((short) Math.round(u * UV_SCALE));
+        dest.putShort((short) Math.round(v * UV_SCALE));
+        dest.putShort((short) layer);
+        dest.putShort((short) ((normal & 0x7) | ((ao & 0x3) << 3)));
+    }
+}
@@ -13,11 +13,22 @@ public class Window {
     private final int width;
     private final int height;
     private final String title;
+    private final boolean headless;
 
     public Window(int width, int height, String title) {
+        this(width, height, title, false);
+    }
+
+    /**
+     * @param headless Si es verdadero, la ventana no se muestra y el V-Sync queda desactivado: solo sirve
+     *                 para tener un contexto de OpenGL (se dibuja en un {@link Framebuffer}). Con
+     *                 {@code -Dcubegl.egl=true} el contexto se crea con EGL (útil con Mesa sin servidor X).
+     */
+    public Window(int width, int height, String title, boolean headless) {
         this.width = width;
         this.height = height;
         this.title = title;
+        this.headless = headless;
     }
 
     /**
@@ -29,6 +40,9 @@ public class Window {
         }
 
         GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
+        if (headless && Boolean.getBoolean("cubegl.egl")) {
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_CREATION_API, GLFW.GLFW_EGL_CONTEXT_API);
+        }
 
         // Crear la ventana y ASIGNAR el handle al campo de la clase
         this.windowHandle = GLFW.glfwCreateWindow(width, height, title, 0, 0);
@@ -39,13 +53,18 @@ public class Window {
         }
 
         GLFW.glfwMakeContextCurrent(this.windowHandle);
-        GLFW.glfwSwapInterval(1); // Habilitar V-Sync
-        GLFW.glfwShowWindow(this.windowHandle);
+        if (headless) {
+            GLFW.glfwSwapInterval(0); // Sin V-Sync: el ritmo lo marca solo el trabajo de cada frame
+        } else {
+            GLFW.glfwSwapInterval(1); // Habilitar V-Sync
+            GLFW.glfwShowWindow(this.windowHandle);
+        }
 
         // Crear las capacidades de OpenGL
         GL.createCapabilities();
 
-        glEnable(GL_DEPTH_TEST);
+        GLState.invalidate(); // Contexto nuevo: no se conoce ningún estado previo
+        GLState.setDepthTest(true);
         glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
     }
 
@@ -78,6 +97,10 @@ public class Window {
         return GLFW.glfwWindowShouldClose(windowHandle);
     }
 
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public boolean isHeadless() { return headless; }
+
     public long getWindowHandle() {
         return windowHandle;
     }
@@ -0,0 +1,228 @@
+package com.cubeGl.scene;
+
+import org.joml.FrustumIntersection;
+
+/**
+ * Jerarquía de volúmenes envolventes (BVH) sobre cajas alineadas a los ejes (AABB) para descartar
+ * rápidamente los objetos fuera del frustum de la cámara.
+ * <p>
+ * Todo se almacena en arrays primitivos: las cajas de los objetos se reciben empaquetadas en un
+ * {@code float[]} (minX, minY, minZ, maxX, maxY, maxZ por objeto) y los nodos se guardan en arrays
+ * paralelos. Cada subárbol cubre un rango contiguo de {@link #getObjectIndices()}, así que un nodo
+ * completamente dentro del frustum se acepta con una sola copia, sin bajar a sus hojas.
+ * <p>
+ * No es seguro entre hilos: {@link #cull} usa una pila interna.
+ */
+public class Bvh {
+    public static final int FLOATS_PER_BOX = 6;
+    private static final int LEAF_SIZE = 4;
+
+    private final float[] objectBounds;
+    private final int objectCount;
+    private final int[] objectIndices;   // Permutación de los objetos ordenada por subárbol
+
+    // Nodos (arrays paralelos). Los hijos de un nodo interno están en left y left + 1.
+    private final float[] nodeBounds;
+    private final int[] nodeLeft;        // -1 en las hojas
+    private final int[] nodeFirst;       // Primer objeto del subárbol en objectIndices
+    private final int[] nodeSpan;        // Número de objetos del subárbol
+    private int nodeCount;
+
+    private final int[] stack = new int[64];
+
+    /**
+     * Construye la jerarquía dividiendo por la mediana de los centros en el eje más largo.
+     *
+     * @param objectBounds Cajas de los objetos, {@link #FLOATS_PER_BOX} floats por objeto. Se guarda la referencia:
+     *                     si los objetos se mueven basta con actualizar el array y llamar a {@link #refit()}.
+     * @param objectCount  Número de objetos.
+     */
+    public Bvh(float[] objectBounds, int objectCount) {
+        this.objectBounds = objectBounds;
+        this.objectCount = objectCount;
+        this.objectIndices = new int[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            objectIndices[i] = i;
+        }
+
+        int maxNodes = Math.max(1, 2 * objectCount);
+        this.nodeBounds = new float[maxNodes * FLOATS_PER_BOX];
+        this.nodeLeft = new int[maxNodes];
+        this.nodeFirst = new int[maxNodes];
+        this.nodeSpan = new int[maxNodes];
+
+        nodeCount = 1;
+        subdivide(0, 0, objectCount);
+    }
+
+    private void subdivide(int node, int first, int count) {
+        nodeFirst[node] = first;
+        nodeSpan[node] = count;
+        nodeLeft[node] = -1;
+        computeNodeBounds(node, first, count);
+        if (count <= LEAF_SIZE) {
+            return;
+        }
+
+        // Eje más largo de la caja de los centros
+        float minCx = Float.POSITIVE_INFINITY, minCy = Float.POSITIVE_INFINITY, minCz = Float.POSITIVE_INFINITY;
+        float maxCx = Float.NEGATIVE_INFINITY, maxCy = Float.NEGATIVE_INFINITY, maxCz = Float.NEGATIVE_INFINITY;
+        for (int i = first; i < first + count; i++) {
+            int b = objectIndices[i] * FLOATS_PER_BOX;
+            float cx = objectBounds[b] + objectBounds[b + 3];
+            float cy = objectBounds[b + 1] + objectBounds[b + 4];
+            float cz = objectBounds[b + 2] + objectBounds[b + 5];
+            minCx = Math.min(minCx, cx); maxCx = Math.max(maxCx, cx);
+            minCy = Math.min(minCy, cy); maxCy = Math.max(maxCy, cy);
+            minCz = Math.min(minCz, cz); maxCz = Math.max(maxCz, cz);
+        }
+        float ex = maxCx - minCx, ey = maxCy - minCy, ez = maxCz - minCz;
+        int axis = ex >= ey && ex >= ez ? 0 : (ey >= ez ? 1 : 2);
+        if (Math.max(ex, Math.max(ey, ez)) <= 0.0f) {
+            return; // Todos los centros coinciden: no se puede separar, se queda como hoja
+        }
+
+        int mid = first + count / 2;
+        select(first, first + count - 1, mid, axis);
+
+        int left = nodeCount;
+        nodeCount += 2;
+        nodeLeft[node] = left;
+        subdivide(left, first, mid - first);
+        subdivide(left + 1, mid, first + count - mid);
+    }
+
+    private void computeNodeBounds(int node, int first, int count) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = first; i < first + count; i++) {
+            int b = objectIndices[i] * FLOATS_PER_BOX;
+            minX = Math.min(minX, objectBounds[b]);
+            minY = Math.min(minY, objectBounds[b + 1]);
+            minZ = Math.min(minZ, objectBounds[b + 2]);
+            maxX = Math.max(maxX, objectBounds[b + 3]);
+            maxY = Math.max(maxY, objectBounds[b + 4]);
+            maxZ = Math.max(maxZ, objectBounds[b + 5]);
+        }
+        int n = node * FLOATS_PER_BOX;
+        nodeBounds[n] = minX; nodeBounds[n + 1] = minY; nodeBounds[n + 2] = minZ;
+        nodeBounds[n + 3] = maxX; nodeBounds[n + 4] = maxY; nodeBounds[n + 5] = maxZ;
+    }
+
+    private float centroid(int object, int axis) {
+        int b = object * FLOATS_PER_BOX + axis;
+        return objectBounds[b] + objectBounds[b + 3];
+    }
+
+    /**
+     * Quickselect: deja en {@code k} el objeto cuyo centro es la mediana del rango [lo, hi] en el eje dado,
+     * con los menores a su izquierda y los mayores a su derecha.
+     */
+    private void select(int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            float pivot = centroid(objectIndices[(lo + hi) >>> 1], axis);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (centroid(objectIndices[i], axis) < pivot) i++;
+                while (centroid(objectIndices[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int tmp = objectIndices[i];
+                    objectIndices[i] = objectIndices[j];
+                    objectIndices[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    /**
+     * Recalcula las cajas de todos los nodos (de abajo arriba) tras mover objetos, sin reconstruir la jerarquía.
+     * Los hijos siempre tienen índice mayor que su padre, así que basta recorrer los nodos al revés.
+     */
+    public void refit() {
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int left = nodeLeft[node];
+            if (left < 0) {
+                computeNodeBounds(node, nodeFirst[node], nodeSpan[node]);
+                continue;
+            }
+            int n = node * FLOATS_PER_BOX, l = left * FLOATS_PER_BOX, r = (left + 1) * FLOATS_PER_BOX;
+            for (int k = 0; k < 3; k++) {
+                nodeBounds[n + k] = Math.min(nodeBounds[l + k], nodeBounds[r + k]);
+                nodeBounds[n + 3 + k] = Math.max(nodeBounds[l + 3 + k], nodeBounds[r + 3 + k]);
+            }
+        }
+    }
+
+    /**
+     * Escribe en {@code visible} los índices de los objetos cuya caja intersecta el frustum.
+     *
+     * @param visible Array de salida con capacidad para {@link #getObjectCount()} índices.
+     * @return Número de objetos visibles.
+     */
+    public int cull(FrustumIntersection frustum, int[] visible) {
+        if (objectCount == 0) {
+            return 0;
+        }
+        int visibleCount = 0;
+        int sp = 0;
+        stack[sp++] = 0;
+
+        while (sp > 0) {
+            int node = stack[--sp];
+            int n = node * FLOATS_PER_BOX;
+            int result = frustum.intersectAab(
+                    nodeBounds[n], nodeBounds[n + 1], nodeBounds[n + 2],
+                    nodeBounds[n + 3], nodeBounds[n + 4], nodeBounds[n + 5]);
+
+            if (result == FrustumIntersection.INSIDE) {
+                // Subárbol completo dentro: se aceptan todos sus objetos sin más pruebas
+                System.arraycopy(objectIndices, nodeFirst[node], visible, visibleCount, nodeSpan[node]);
+                visibleCount += nodeSpan[node];
+            } else if (result == FrustumIntersection.INTERSECT) {
+                int left = nodeLeft[node];
+                if (left >= 0) {
+                    stack[sp++] = left;
+                    stack[sp++] = left + 1;
+                } else {
+                    int end = nodeFirst[node] + nodeSpan[node];
+                    for (int i = nodeFirst[node]; i < end; i++) {
+                        int object = objectIndices[i];
+                        if (testObject(frustum, objectBounds, object)) {
+                            visible[visibleCount++] = object;
+                        }
+                    }
+                }
+            }
+            // Cualquier otro resultado: el nodo está fuera y se descarta con todo su subárbol
+        }
+        return visibleCount;
+    }
+
+    /**
+     * Recorrido lineal de referencia (sin jerarquía): prueba cada caja contra el frustum.
+     * @return Número de objetos visibles escritos en {@code visible}.
+     */
+    public static int cullLinear(FrustumIntersection frustum, float[] objectBounds, int objectCount, int[] visible) {
+        int visibleCount = 0;
+        for (int object = 0; object < objectCount; object++) {
+            if (testObject(frustum, objectBounds, object)) {
+                visible[visibleCount++] = object;
+            }
+        }
+        return visibleCount;
+    }
+
+    private static boolean testObject(FrustumIntersection frustum, float[] bounds, int object) {
+        int b = object * FLOATS_PER_BOX;
+        return frustum.testAab(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5]);
+    }
+
+    public int getObjectCount() { return objectCount; }
+    public int getNodeCount() { return nodeCount; }
+    public int[] getObjectIndices() { return objectIndices; }
+}
@@ -0,0 +1,288 @@
+package com.cubeGl.scene;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+
+/**
+ * Culling por oclusión con un rasterizador de profundidad por software a baja resolución (sin OpenGL).
+ * <p>
+ * Cada frame: {@link #begin(Matrix4fc)} limpia el buffer, {@link #addOccluder} rasteriza cajas sólidas
+ * (orientadas: caja local + matriz del modelo) y {@link #isVisible} comprueba la caja de cada objeto contra
+ * una pirámide Hi-Z (cada nivel guarda la profundidad máxima de 2×2 texels del anterior), de modo que cualquier
+ * caja se prueba leyendo como mucho 4×4 texels.
+ * <p>
+ * Los oclusores se rasterizan por el centro de cada texel (como la GPU, así que cajas contiguas no dejan grietas)
+ * con la profundidad de su esquina más lejana, y un objeto solo se descarta si su esquina más cercana queda detrás
+ * de todo lo que cubre su rectángulo. El único error posible es ocultar algo que asoma menos de medio texel por el
+ * borde de un oclusor. Las cajas que cruzan el plano cercano no ocluyen y siempre son visibles. Una caja no se
+ * ocluye a sí misma, así que los mismos objetos pueden usarse como oclusores y como candidatos.
+ * <p>
+ * No reserva memoria por frame y no es seguro entre hilos.
+ */
+public class OcclusionCuller {
+    private static final int MAX_TEST_TEXELS = 4; // Texels por eje al comprobar una caja
+
+    private final int width;
+    private final int height;
+    private final float[][] levels;  // [nivel][y * ancho + x], profundidad en [0, 1] (1 = plano lejano)
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+    private boolean pyramidDirty;
+
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final Matrix4f mvp = new Matrix4f();
+    private final float[] m = new float[16];
+
+    // Esquinas proyectadas (en texels y profundidad) y envolvente convexa
+    private final float[] sx = new float[8];
+    private final float[] sy = new float[8];
+    private final float[] sz = new float[8];
+    private final int[] order = new int[8];
+    private final int[] hull = new int[16];
+
+    // Contadores del frame en curso y acumulados
+    private int occluderCount;
+    private int visibleCount;
+    private int culledCount;
+    private long frames; // Llamadas a begin()
+    private long totalVisible;
+    private long totalCulled;
+
+    public OcclusionCuller(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int count = 1;
+        while ((width >> (count - 1)) > 1 || (height >> (count - 1)) > 1) {
+            count++;
+        }
+        this.levels = new float[count][];
+        this.levelWidths = new int[count];
+        this.levelHeights = new int[count];
+        for (int level = 0; level < count; level++) {
+            // Redondeando hacia arriba, el texel x >> level de cualquier nivel existe
+            levelWidths[level] = (width + (1 << level) - 1) >> level;
+            levelHeights[level] = (height + (1 << level) - 1) >> level;
+            levels[level] = new float[levelWidths[level] * levelHeights[level]];
+        }
+    }
+
+    /**
+     * Empieza un frame con la cámara dada: vacía el buffer de profundidad y reinicia los contadores.
+     */
+    public void begin(Matrix4fc viewProjection) {
+        totalVisible += visibleCount;
+        totalCulled += culledCount;
+        frames++;
+        this.viewProjection.set(viewProjection);
+        Arrays.fill(levels[0], 1.0f);
+        pyramidDirty = true;
+        occluderCount = 0;
+        visibleCount = 0;
+        culledCount = 0;
+    }
+
+    /**
+     * Rasteriza una caja sólida (coordenadas locales transformadas por {@code model}) como oclusor.
+     * @return false si no se ha podido usar (cruza el plano cercano o no cubre ningún texel).
+     */
+    public boolean addOccluder(Matrix4fc model, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!project(model, minX, minY, minZ, maxX, maxY, maxZ)) {
+            return false;
+        }
+        int hullSize = convexHull();
+        if (hullSize < 3) {
+            return false;
+        }
+
+        float depth = 0.0f;
+        float boxMinX = Float.MAX_VALUE, boxMinY = Float.MAX_VALUE, boxMaxX = -Float.MAX_VALUE, boxMaxY = -Float.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            depth = Math.max(depth, sz[i]);
+            boxMinX = Math.min(boxMinX, sx[i]);
+            boxMinY = Math.min(boxMinY, sy[i]);
+            boxMaxX = Math.max(boxMaxX, sx[i]);
+            boxMaxY = Math.max(boxMaxY, sy[i]);
+        }
+        // Texels cuyo centro cae dentro de la envolvente
+        int x0 = Math.max(0, (int) Math.ceil(boxMinX - 0.5f));
+        int y0 = Math.max(0, (int) Math.ceil(boxMinY - 0.5f));
+        int x1 = Math.min(width - 1, (int) Math.floor(boxMaxX - 0.5f));
+        int y1 = Math.min(height - 1, (int) Math.floor(boxMaxY - 0.5f));
+
+        float[] depths = levels[0];
+        boolean written = false;
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (inside(hullSize, x + 0.5f, y + 0.5f)) {
+                    int i = y * width + x;
+                    if (depth < depths[i]) {
+                        depths[i] = depth;
+                    }
+                    written = true;
+                }
+            }
+        }
+        if (written) {
+            occluderCount++;
+            pyramidDirty = true;
+        }
+        return written;
+    }
+
+    /**
+     * Comprueba si una caja (coordenadas locales transformadas por {@code model}) puede verse.
+     * Las cajas fuera de la pantalla se consideran visibles: eso lo decide el culling por frustum.
+     */
+    public boolean isVisible(Matrix4fc model, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!project(model, minX, minY, minZ, maxX, maxY, maxZ)) {
+            visibleCount++;
+            return true;
+        }
+        float nearest = 1.0f;
+        float boxMinX = Float.MAX_VALUE, boxMinY = Float.MAX_VALUE, boxMaxX = -Float.MAX_VALUE, boxMaxY = -Float.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            nearest = Math.min(nearest, sz[i]);
+            boxMinX = Math.min(boxMinX, sx[i]);
+            boxMinY = Math.min(boxMinY, sy[i]);
+            boxMaxX = Math.max(boxMaxX, sx[i]);
+            boxMaxY = Math.max(boxMaxY, sy[i]);
+        }
+        int x0 = Math.max(0, (int) Math.floor(boxMinX));
+        int y0 = Math.max(0, (int) Math.floor(boxMinY));
+        int x1 = Math.min(width - 1, (int) Math.floor(boxMaxX));
+        int y1 = Math.min(height - 1, (int) Math.floor(boxMaxY));
+        if (x0 > x1 || y0 > y1) {
+            visibleCount++;
+            return true;
+        }
+
+        if (pyramidDirty) {
+            buildPyramid();
+        }
+        int level = 0;
+        while (level < levels.length - 1
+                && ((x1 >> level) - (x0 >> level) >= MAX_TEST_TEXELS || (y1 >> level) - (y0 >> level) >= MAX_TEST_TEXELS)) {
+            level++;
+        }
+        float[] depths = levels[level];
+        int levelWidth = levelWidths[level];
+        for (int y = y0 >> level; y <= y1 >> level; y++) {
+            for (int x = x0 >> level; x <= x1 >> level; x++) {
+                if (depths[y * levelWidth + x] >= nearest) {
+                    visibleCount++;
+                    return true;
+                }
+            }
+        }
+        culledCount++;
+        return false;
+    }
+
+    /**
+     * Proyecta las 8 esquinas a texels y profundidad en [0, 1].
+     * @return false si alguna esquina queda delante del plano cercano.
+     */
+    private boolean project(Matrix4fc model, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        viewProjection.mul(model, mvp).get(m);
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) == 0 ? minX : maxX;
+            float y = (i & 2) == 0 ? minY : maxY;
+            float z = (i & 4) == 0 ? minZ : maxZ;
+            float cx = m[0] * x + m[4] * y + m[8] * z + m[12];
+            float cy = m[1] * x + m[5] * y + m[9] * z + m[13];
+            float cz = m[2] * x + m[6] * y + m[10] * z + m[14];
+            float cw = m[3] * x + m[7] * y + m[11] * z + m[15];
+            if (cw <= 0.0f || cz < -cw) {
+                return false;
+            }
+            float invW = 1.0f / cw;
+            sx[i] = (cx * invW * 0.5f + 0.5f) * width;
+            sy[i] = (cy * invW * 0.5f + 0.5f) * height;
+            sz[i] = Math.min(1.0f, cz * invW * 0.5f + 0.5f);
+        }
+        return true;
+    }
+
+    /**
+     * Envolvente convexa de las esquinas proyectadas (cadena monótona), en sentido antihorario en {@link #hull}.
+     * @return Número de vértices de la envolvente.
+     */
+    private int convexHull() {
+        for (int i = 0; i < 8; i++) {
+            int current = i;
+            int j = i - 1;
+            while (j >= 0 && (sx[order[j]] > sx[current] || (sx[order[j]] == sx[current] && sy[order[j]] > sy[current]))) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+        int k = 0;
+        for (int i = 0; i < 8; i++) {
+            while (k >= 2 && cross(hull[k - 2], hull[k - 1], order[i]) <= 0) k--;
+            hull[k++] = order[i];
+        }
+        for (int i = 6, lower = k + 1; i >= 0; i--) {
+            while (k >= lower && cross(hull[k - 2], hull[k - 1], order[i]) <= 0) k--;
+            hull[k++] = order[i];
+        }
+        return k - 1; // El último repite el primero
+    }
+
+    private float cross(int o, int a, int b) {
+        return (sx[a] - sx[o]) * (sy[b] - sy[o]) - (sy[a] - sy[o]) * (sx[b] - sx[o]);
+    }
+
+    private boolean inside(int hullSize, float px, float py) {
+        for (int i = 0; i < hullSize; i++) {
+            int a = hull[i];
+            int b = hull[i + 1];
+            if ((sx[b] - sx[a]) * (py - sy[a]) - (sy[b] - sy[a]) * (px - sx[a]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void buildPyramid() {
+        for (int level = 1; level < levels.length; level++) {
+            float[] source = levels[level - 1];
+            float[] dest = levels[level];
+            int sourceWidth = levelWidths[level - 1];
+            int sourceHeight = levelHeights[level - 1];
+            int destWidth = levelWidths[level];
+            for (int y = 0; y < levelHeights[level]; y++) {
+                int y0 = Math.min(2 * y, sourceHeight - 1) * sourceWidth;
+                int y1 = Math.min(2 * y + 1, sourceHeight - 1) * sourceWidth;
+                for (int x = 0; x < destWidth; x++) {
+                    int x0 = Math.min(2 * x, sourceWidth - 1);
+                    int x1 = Math.min(2 * x + 1, sourceWidth - 1);
+                    dest[y * destWidth + x] = Math.max(Math.max(source[y0 + x0], source[y0 + x1]),
+                            Math.max(source[y1 + x0], source[y1 + x1]));
+                }
+            }
+        }
+        pyramidDirty = false;
+    }
+
+    /** Profundidad del nivel 0 en un texel (para depurar o comparar con el render). */
+    public float getDepth(int x, int y) { return levels[0][y * width + x]; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    // Contadores del frame en curso
+    public int getOccluderCount() { return occluderCount; }
+    public int getVisibleCount() { return visibleCount; }
+    public int getCulledCount() { return culledCount; }
+
+    /**
+     * @return Medias por frame de objetos visibles y descartados por oclusión.
+     */
+    public String report() {
+        long n = Math.max(1, frames);
+        return String.format("Oclusión: %.1f visibles/frame, %.1f ocultos/frame (%d frames)",
+                (double) (totalVisible + visibleCount) / n, (double) (totalCulled + culledCount) / n, frames);
+    }
+}
@@ -0,0 +1,188 @@
+package com.cubeGl.sim;
+
+import com.cubeGl.graphics.Camera;
+import com.cubeGl.util.Profiler;
+import com.cubeGl.util.TripleBuffer;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulación a paso fijo (movimiento de la cámara y animación del cubo) en su propio hilo.
+ * <p>
+ * Cada tick avanza exactamente {@code 1 / ticksPerSecond} segundos a partir de la última entrada recibida, así
+ * que el resultado depende solo de la secuencia de entradas y no de la velocidad del render:
+ * {@link #step(int)} se puede llamar también sin hilo para reproducir una partida tick a tick.
+ * <p>
+ * Tras cada tick se publica una {@link SimulationState} en un {@link TripleBuffer}. El hilo de render recoge
+ * la última con {@link #latest()} e interpola entre el tick anterior y el actual. GLFW solo se puede consultar
+ * desde el hilo principal, así que el render lee el teclado y lo pasa con {@link #setInput(int)}.
+ */
+public class Simulation implements Runnable {
+    // Bits de entrada para setInput
+    public static final int INPUT_FORWARD = 1;
+    public static final int INPUT_BACK = 1 << 1;
+    public static final int INPUT_LEFT = 1 << 2;
+    public static final int INPUT_RIGHT = 1 << 3;
+    public static final int INPUT_UP = 1 << 4;
+    public static final int INPUT_DOWN = 1 << 5;
+    public static final int INPUT_TURN_LEFT = 1 << 6;
+    public static final int INPUT_TURN_RIGHT = 1 << 7;
+
+    private static final float MOVE_SPEED = 5.0f;  // Unidades por segundo
+    private static final float TURN_SPEED = 80.0f; // Grados por segundo
+    private static final int MAX_CATCH_UP_TICKS = 5; // Si se acumula más retraso, se descarta
+
+    private final long tickNanos;
+    private final float tickSeconds;
+    private final TripleBuffer<SimulationState> snapshots = new TripleBuffer<>(SimulationState::new);
+
+    // Estado de la simulación (solo lo toca el hilo de simulación)
+    private final Camera camera; // Solo se usan su posición y orientación, no sus matrices
+    private final Quaternionf cubeRotation = new Quaternionf();
+    private final Vector3f previousPosition = new Vector3f();
+    private final Quaternionf previousRotation = new Quaternionf();
+    private float previousYaw;
+    private float previousPitch;
+    private long tick;
+
+    private volatile int input;
+    private volatile boolean running;
+    private Thread thread;
+
+    private final Profiler profiler;
+    private final int simScope;
+    private long droppedTicks;
+
+    /**
+     * @param profiler Perfilador donde registrar el ámbito "sim" (puede ser null).
+     */
+    public Simulation(int ticksPerSecond, Camera initialCamera, Profiler profiler) {
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.tickSeconds = 1.0f / ticksPerSecond;
+        this.camera = new Camera(1.0f, 1.0f, 0.1f, 1.0f);
+        this.camera.setPose(initialCamera.getPosition().x, initialCamera.getPosition().y, initialCamera.getPosition().z,
+                initialCamera.getYaw(), initialCamera.getPitch());
+        this.profiler = profiler;
+        this.simScope = profiler != null ? profiler.addSeries("sim") : -1;
+    }
+
+    /**
+     * Avanza un tick con la entrada dada (combinación de bits INPUT_*).
+     */
+    public void step(int input) {
+        camera.getPosition(previousPosition);
+        previousYaw = camera.getYaw();
+        previousPitch = camera.getPitch();
+        previousRotation.set(cubeRotation);
+
+        float move = MOVE_SPEED * tickSeconds;
+        float turn = TURN_SPEED * tickSeconds;
+        if ((input & INPUT_FORWARD) != 0) camera.movePosition(0, 0, move);
+        if ((input & INPUT_BACK) != 0) camera.movePosition(0, 0, -move);
+        if ((input & INPUT_LEFT) != 0) camera.movePosition(-move, 0, 0);
+        if ((input & INPUT_RIGHT) != 0) camera.movePosition(move, 0, 0);
+        if ((input & INPUT_UP) != 0) camera.movePosition(0, move, 0);
+        if ((input & INPUT_DOWN) != 0) camera.movePosition(0, -move, 0);
+        if ((input & INPUT_TURN_LEFT) != 0) camera.processMouseMovement(-turn, 0, true);
+        if ((input & INPUT_TURN_RIGHT) != 0) camera.processMouseMovement(turn, 0, true);
+
+        tick++;
+        float time = tick * tickSeconds;
+        cubeRotation.identity()
+                .rotateY(time * 0.5f)
+                .rotateX(time * 0.5f);
+    }
+
+    /**
+     * Escribe el estado del último tick en el buffer trasero y lo publica.
+     */
+    public void publish() {
+        snapshots.getWriteBuffer().set(tick, System.nanoTime(),
+                previousPosition, previousYaw, previousPitch, previousRotation,
+                camera.getPosition(), camera.getYaw(), camera.getPitch(), cubeRotation);
+        snapshots.publish();
+    }
+
+    /**
+     * Publica el estado inicial y arranca el hilo de simulación.
+     */
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException("La simulación ya está en marcha.");
+        }
+        camera.getPosition(previousPosition);
+        previousYaw = camera.getYaw();
+        previousPitch = camera.getPitch();
+        previousRotation.set(cubeRotation);
+        publish(); // El render tiene estado válido desde el primer frame
+
+        running = true;
+        thread = new Thread(this, "cubegl-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime() + tickNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            step(input);
+            publish();
+            if (profiler != null) {
+                profiler.record(simScope, now);
+            }
+            next += tickNanos;
+
+            // Tras una pausa larga (depurador, GC...) no se intenta recuperar todo el tiempo perdido
+            long behind = System.nanoTime() - next;
+            if (behind > MAX_CATCH_UP_TICKS * tickNanos) {
+                droppedTicks += behind / tickNanos;
+                next = System.nanoTime() + tickNanos;
+            }
+        }
+    }
+
+    /**
+     * Detiene el hilo y espera a que termine.
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /** Entrada que se usará en los próximos ticks (desde el hilo de render). */
+    public void setInput(int input) {
+        this.input = input;
+    }
+
+    /**
+     * @return Último estado publicado (solo desde el hilo de render; válido hasta la siguiente llamada).
+     */
+    public SimulationState latest() {
+        snapshots.update();
+        return snapshots.getReadBuffer();
+    }
+
+    public long getTickNanos() { return tickNanos; }
+    public float getTickSeconds() { return tickSeconds; }
+    /** Solo es exacto con el hilo detenido. */
+    public long getTick() { return tick; }
+    public long getDroppedTicks() { return droppedTicks; }
+}
@@ -0,0 +1,73 @@
+package com.cubeGl.sim;
+
+import com.cubeGl.graphics.Camera;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Instantánea de la simulación tras un tick: la pose de la cámara y la rotación del cubo en ese tick y en el
+ * anterior, para que el render pueda interpolar entre los dos.
+ * <p>
+ * La escribe entera el hilo de simulación y, una vez publicada en el {@link com.cubeGl.util.TripleBuffer},
+ * el hilo de render solo la lee. Los objetos se reutilizan: no se reserva memoria por tick.
+ */
+public class SimulationState {
+    private long tick;
+    private long publishNanos; // System.nanoTime() al publicar
+
+    private final Vector3f previousCameraPosition = new Vector3f();
+    private final Vector3f cameraPosition = new Vector3f();
+    private float previousYaw, yaw;
+    private float previousPitch, pitch;
+    private final Quaternionf previousCubeRotation = new Quaternionf();
+    private final Quaternionf cubeRotation = new Quaternionf();
+
+    void set(long tick, long publishNanos,
+             Vector3f previousCameraPosition, float previousYaw, float previousPitch, Quaternionf previousCubeRotation,
+             Vector3f cameraPosition, float yaw, float pitch, Quaternionf cubeRotation) {
+        this.tick = tick;
+        this.publishNanos = publishNanos;
+        this.previousCameraPosition.set(previousCameraPosition);
+        this.previousYaw = previousYaw;
+        this.previousPitch = previousPitch;
+        this.previousCubeRotation.set(previousCubeRotation);
+        this.cameraPosition.set(cameraPosition);
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.cubeRotation.set(cubeRotation);
+    }
+
+    public long getTick() { return tick; }
+    public long getPublishNanos() { return publishNanos; }
+
+    /**
+     * Fracción del tick transcurrida desde la publicación (entre 0 y 1). Con 0 se dibuja el tick anterior y
+     * con 1 el actual: el render va un tick por detrás de la simulación, a cambio de moverse sin saltos.
+     */
+    public float alpha(long nowNanos, long tickNanos) {
+        float alpha = (float) (nowNanos - publishNanos) / tickNanos;
+        return Math.max(0.0f, Math.min(1.0f, alpha));
+    }
+
+    /**
+     * @return Tiempo de simulación (segundos) interpolado entre el tick anterior y el actual.
+     */
+    public float getTime(float alpha, float tickSeconds) {
+        return (tick - 1 + alpha) * tickSeconds;
+    }
+
+    /**
+     * Coloca la cámara de render en la pose interpolada.
+     */
+    public void interpolateCamera(float alpha, Camera dest, Vector3f scratch) {
+        previousCameraPosition.lerp(cameraPosition, alpha, scratch);
+        dest.setPose(scratch.x, scratch.y, scratch.z,
+                previousYaw + (yaw - previousYaw) * alpha,
+                previousPitch + (pitch - previousPitch) * alpha);
+    }
+
+    public Quaternionf interpolateCubeRotation(float alpha, Quaternionf dest) {
+        return previousCubeRotation.slerp(cubeRotation, alpha, dest);
+    }
+}
@@ -0,0 +1,172 @@
+package com.cubeGl.tools;
+
+import com.cubeGl.graphics.MeshData;
+import com.cubeGl.graphics.MeshFile;
+import com.cubeGl.graphics.VertexLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convierte modelos Wavefront OBJ al formato binario {@link MeshFile} (.cgm), sin OpenGL.
+ * <p>
+ * Uso: {@code ObjConverter [--layout standard|packed] [--thresholds t1,t2,...] salida.cgm nivel0.obj [nivel1.obj ...]}
+ * <p>
+ * Cada OBJ es un nivel de detalle, del más detallado al más simple. Sin {@code --thresholds}, el nivel
+ * {@code i} se usa por encima de 0.25 / 2ⁱ de la altura de la pantalla. Se leen posiciones ({@code v}),
+ * coordenadas de textura ({@code vt}) y caras ({@code f}, trianguladas en abanico); normales, materiales y
+ * grupos se ignoran.
+ */
+public class ObjConverter {
+    private static final float DEFAULT_FIRST_THRESHOLD = 0.25f;
+
+    /**
+     * Lee un OBJ. Los vértices que repiten posición y coordenada de textura se comparten.
+     */
+    public static MeshData parse(Path path) throws IOException {
+        List<float[]> positions = new ArrayList<>();
+        List<float[]> uvs = new ArrayList<>();
+        Map<Long, Integer> shared = new HashMap<>(); // (posición, uv) -> índice del vértice
+        float[] vertices = new float[1024 * MeshData.FLOATS_PER_VERTEX];
+        float[] texCoords = new float[1024 * MeshData.TEX_FLOATS_PER_VERTEX];
+        int[] indices = new int[1024];
+        int vertexCount = 0;
+        int indexCount = 0;
+        int[] face = new int[16];
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.trim().split("\\s+");
+                switch (parts[0]) {
+                    case "v" -> positions.add(new float[]{
+                            Float.parseFloat(parts[1]), Float.parseFloat(parts[2]), Float.parseFloat(parts[3])});
+                    case "vt" -> uvs.add(new float[]{
+                            Float.parseFloat(parts[1]), parts.length > 2 ? Float.parseFloat(parts[2]) : 0.0f});
+                    case "f" -> {
+                        int corners = parts.length - 1;
+                        if (corners < 3) {
+                            throw new IOException(path + ":" + lineNumber + ": cara con menos de 3 vértices");
+                        }
+                        if (corners > face.length) {
+                            face = new int[corners];
+                        }
+                        for (int c = 0; c < corners; c++) {
+                            String[] refs = parts[c + 1].split("/");
+                            int p = resolve(refs[0], positions.size(), path, lineNumber);
+                            int t = refs.length > 1 && !refs[1].isEmpty() ? resolve(refs[1], uvs.size(), path, lineNumber) : -1;
+                            long key = ((long) p << 32) | (t + 1L);
+                            Integer index = shared.get(key);
+                            if (index == null) {
+                                index = vertexCount++;
+                                shared.put(key, index);
+                                if (vertexCount * MeshData.FLOATS_PER_VERTEX > vertices.length) {
+                                    vertices = Arrays.copyOf(vertices, vertices.length * 2);
+                                    texCoords = Arrays.copyOf(texCoords, texCoords.length * 2);
+                                }
+                                float[] position = positions.get(p);
+                                int vi = index * MeshData.FLOATS_PER_VERTEX;
+                                vertices[vi] = position[0];
+                                vertices[vi + 1] = position[1];
+                                vertices[vi + 2] = position[2];
+                                vertices[vi + 3] = 1.0f; // Color blanco: la textura manda
+                                vertices[vi + 4] = 1.0f;
+                                vertices[vi + 5] = 1.0f;
+                                if (t >= 0) {
+                                    int ti = index * MeshData.TEX_FLOATS_PER_VERTEX;
+                                    texCoords[ti] = uvs.get(t)[0];
+                                    texCoords[ti + 1] = uvs.get(t)[1];
+                                }
+                            }
+                            face[c] = index;
+                        }
+                        // Abanico: (0, i, i + 1)
+                        for (int c = 1; c < corners - 1; c++) {
+                            if (indexCount + 3 > indices.length) {
+                                indices = Arrays.copyOf(indices, indices.length * 2);
+                            }
+                            indices[indexCount++] = face[0];
+                            indices[indexCount++] = face[c];
+                            indices[indexCount++] = face[c + 1];
+                        }
+                    }
+                    default -> { } // Comentarios, normales, materiales, grupos...
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException(path + ": línea mal formada (" + e.getMessage() + ")", e);
+        }
+        return new MeshData(
+                Arrays.copyOf(vertices, vertexCount * MeshData.FLOATS_PER_VERTEX),
+                Arrays.copyOf(texCoords, vertexCount * MeshData.TEX_FLOATS_PER_VERTEX),
+                Arrays.copyOf(indices, indexCount));
+    }
+
+    /**
+     * Convierte una referencia de OBJ (desde 1, o negativa desde el final) en un índice desde 0.
+     */
+    private static int resolve(String ref, int count, Path path, int lineNumber) throws IOException {
+        int value = Integer.parseInt(ref);
+        int index = value > 0 ? value - 1 : count + value;
+        if (index < 0 || index >= count) {
+            throw new IOException(path + ":" + lineNumber + ": referencia fuera de rango " + ref);
+        }
+        return index;
+    }
+
+    public static void main(String[] args) throws IOException {
+        VertexLayout layout = VertexLayout.STANDARD;
+        float[] thresholds = null;
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--layout" -> layout = switch (args[++i]) {
+                    case "standard" -> VertexLayout.STANDARD;
+                    case "packed" -> VertexLayout.PACKED_VOXEL;
+                    default -> throw new IllegalArgumentException("Formato desconocido: " + args[i]);
+                };
+                case "--thresholds" -> {
+                    String[] values = args[++i].split(",");
+                    thresholds = new float[values.length];
+                    for (int k = 0; k < values.length; k++) {
+                        thresholds[k] = Float.parseFloat(values[k]);
+                    }
+                }
+                default -> paths.add(args[i]);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Uso: ObjConverter [--layout standard|packed] [--thresholds t1,t2,...] salida.cgm nivel0.obj [nivel1.obj ...]");
+            System.exit(2);
+        }
+
+        Path output = Path.of(paths.get(0));
+        MeshData[] lods = new MeshData[paths.size() - 1];
+        for (int i = 0; i < lods.length; i++) {
+            lods[i] = parse(Path.of(paths.get(i + 1)));
+        }
+        if (thresholds == null) {
+            thresholds = new float[lods.length - 1];
+            for (int i = 0; i < thresholds.length; i++) {
+                thresholds[i] = DEFAULT_FIRST_THRESHOLD / (1 << i);
+            }
+        }
+
+        long start = System.nanoTime();
+        MeshFile.write(output, layout, lods, thresholds);
+        for (int i = 0; i < lods.length; i++) {
+            System.out.printf("Nivel %d: %d vértices, %d triángulos%n", i, lods[i].getVertexCount(), lods[i].getIndexCount() / 3);
+        }
+        System.out.printf("%s: %d bytes (%s), escrita en %.1f ms%n",
+                output, Files.size(output), layout.getName(), (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,59 @@
+package com.cubeGl.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mide los bytes reservados en el heap por el hilo actual en cada frame
+ * (contadores de asignación de la JVM, los mismos que usa JFR).
+ * Tras unos frames de calentamiento, un bucle sin basura debe reservar 0 bytes por frame.
+ */
+public class AllocationMonitor {
+    private final com.sun.management.ThreadMXBean threads;
+    private final int warmupFrames;
+
+    private long frames;
+    private long lastAllocatedBytes;
+    private long steadyStateBytes; // Bytes reservados tras el calentamiento
+    private long maxFrameBytes;
+
+    /**
+     * Debe crearse en el hilo que se quiere medir (el hilo de render).
+     */
+    public AllocationMonitor(int warmupFrames) {
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        this.warmupFrames = warmupFrames;
+        this.lastAllocatedBytes = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Se llama una vez al final de cada frame, desde el mismo hilo.
+     */
+    public void endFrame() {
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        if (frames >= warmupFrames) {
+            long frameBytes = allocated - lastAllocatedBytes;
+            steadyStateBytes += frameBytes;
+            maxFrameBytes = Math.max(maxFrameBytes, frameBytes);
+        }
+        lastAllocatedBytes = allocated;
+        frames++;
+    }
+
+    public long getMeasuredFrames() { return Math.max(0, frames - warmupFrames); }
+    public long getSteadyStateBytes() { return steadyStateBytes; }
+    public long getMaxFrameBytes() { return maxFrameBytes; }
+
+    /**
+     * @return Verdadero si ningún frame medido (tras el calentamiento) ha reservado memoria.
+     */
+    public boolean isAllocationFree() {
+        return steadyStateBytes == 0;
+    }
+
+    public String report() {
+        long measured = getMeasuredFrames();
+        return String.format("Asignaciones: %d frames medidos, %d bytes en total, %.1f bytes/frame (máx. %d)",
+                measured, steadyStateBytes, measured == 0 ? 0.0 : (double) steadyStateBytes / measured, maxFrameBytes);
+    }
+}
@@ -0,0 +1,161 @@
+package com.cubeGl.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de {@code long} a {@code long} sin objetos por entrada ni por consulta (un {@code HashMap<Long, Long>}
+ * crea un {@code Long} en cada búsqueda con una clave fuera de la caché de {@code Long.valueOf}). Pensado para
+ * claves como {@link com.cubeGl.world.ChunkKey} en código que se ejecuta cada frame.
+ * <p>
+ * Direccionamiento abierto con sondeo lineal en arrays paralelos; al borrar, las entradas siguientes del mismo
+ * grupo retroceden (sin marcas de borrado), así que las búsquedas no se degradan con el uso. Cualquier
+ * {@code long} vale como clave. Las entradas se recorren por hueco, sin iteradores:
+ * <pre>
+ * for (int slot = map.nextSlot(-1); slot >= 0; slot = map.nextSlot(slot)) { map.keyAt(slot) ... }
+ * </pre>
+ * No es seguro entre hilos.
+ */
+public final class LongLongMap {
+    private static final float MAX_LOAD = 0.5f;
+
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize Entradas que se esperan (se crece si hay más).
+     * @param missingValue Valor que devuelven {@link #get}, {@link #put} y {@link #remove} si la clave no está.
+     */
+    public LongLongMap(int expectedSize, long missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Tamaño esperado no válido: " + expectedSize);
+        }
+        this.missingValue = missingValue;
+        allocate(Integer.highestOneBit(Math.max(8, (int) (expectedSize / MAX_LOAD)) - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33; // Mezcla final de MurmurHash3: las claves de chunk difieren en pocos bits
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // Hueco de la clave, o el hueco libre donde iría (en negativo, -hueco - 1)
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    public long get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return Valor anterior, o el valor de ausencia si la clave no estaba.
+     */
+    public long put(long key, long value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            long previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        if (size + 1 > (mask + 1) * MAX_LOAD) {
+            grow();
+            slot = find(key);
+        }
+        slot = -slot - 1;
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return missingValue;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = -find(oldKeys[i]) - 1;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @return Valor que tenía la clave, o el valor de ausencia si no estaba.
+     */
+    public long remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        long previous = values[slot];
+        // Retrocede las entradas siguientes del grupo que ya no se encontrarían con el hueco vacío
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * @return Siguiente hueco ocupado después de {@code slot} ({@code -1} para empezar), o {@code -1} si no hay
+     * más. Las entradas no deben añadirse ni quitarse durante el recorrido.
+     */
+    public int nextSlot(int slot) {
+        for (int i = slot + 1; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long keyAt(int slot) { return keys[slot]; }
+    public long valueAt(int slot) { return values[slot]; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public long getMissingValue() { return missingValue; }
+}
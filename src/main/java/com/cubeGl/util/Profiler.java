@@ -0,0 +1,215 @@
+package com.cubeGl.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Perfilador de frames siempre activo: tiempo de frame y tiempos de ámbitos con nombre ("input", "update"...).
+ * <p>
+ * Los ámbitos de CPU se registran con {@link #record(int, long)} en un anillo sin bloqueos de arrays
+ * primitivos (cualquier hilo puede escribir: cada evento reserva su hueco con un contador atómico).
+ * {@link #endFrame()}, en el hilo de render, vacía el anillo, suma la duración de cada ámbito en el frame y la
+ * guarda en el historial de esa serie. Otras fuentes (por ejemplo, los timer queries de la GPU, que llegan con
+ * varios frames de retraso) añaden muestras directamente con {@link #addSample(int, long)}.
+ * <p>
+ * El historial guarda las últimas {@code historyFrames} muestras de cada serie; de ahí salen los percentiles
+ * p50/p95/p99 de {@link #writeReport(Path)}. Registrar muestras no reserva memoria.
+ */
+public class Profiler {
+    private static final int EVENT_CAPACITY = 1 << 14; // Potencia de dos
+    private static final int EVENT_MASK = EVENT_CAPACITY - 1;
+
+    private final int historyFrames;
+    private final List<String> names = new ArrayList<>();
+    private long[][] history = new long[0][];
+    private long[] sampleCounts = new long[0];
+    private long[] frameTotals = new long[0];   // Suma de cada ámbito en el frame en curso
+    private boolean[] touched = new boolean[0]; // Series con eventos en el frame en curso
+    private final long[] scratch;               // Para ordenar al calcular percentiles
+
+    // Anillo de eventos: serie y duración, publicados con la secuencia + 1 de cada hueco
+    private final int[] eventSeries = new int[EVENT_CAPACITY];
+    private final long[] eventNanos = new long[EVENT_CAPACITY];
+    private final AtomicLongArray published = new AtomicLongArray(EVENT_CAPACITY);
+    private final AtomicLong claimed = new AtomicLong();
+    private long consumed;
+    private long droppedEvents;
+
+    private final int frameSeries;
+    private long frameStart;
+
+    public Profiler(int historyFrames) {
+        this.historyFrames = historyFrames;
+        this.scratch = new long[historyFrames];
+        this.frameSeries = addSeries("frame");
+    }
+
+    /**
+     * Registra una serie (un ámbito de CPU, un timer de GPU...). Debe hacerse en la inicialización,
+     * antes de registrar muestras.
+     * @return Id de la serie para {@link #record(int, long)} y {@link #addSample(int, long)}.
+     */
+    public int addSeries(String name) {
+        int id = names.size();
+        names.add(name);
+        history = Arrays.copyOf(history, id + 1);
+        history[id] = new long[historyFrames];
+        sampleCounts = Arrays.copyOf(sampleCounts, id + 1);
+        frameTotals = Arrays.copyOf(frameTotals, id + 1);
+        touched = Arrays.copyOf(touched, id + 1);
+        return id;
+    }
+
+    /**
+     * Registra un ámbito que empezó en {@code startNanos} (System.nanoTime()) y termina ahora.
+     * Se puede llamar desde cualquier hilo.
+     *
+     * @return El instante actual, para encadenar ámbitos: {@code t = profiler.record(INPUT, t);}
+     */
+    public long record(int series, long startNanos) {
+        long now = System.nanoTime();
+        long sequence = claimed.getAndIncrement();
+        int slot = (int) (sequence & EVENT_MASK);
+        eventSeries[slot] = series;
+        eventNanos[slot] = now - startNanos;
+        published.lazySet(slot, sequence + 1);
+        return now;
+    }
+
+    /**
+     * Añade una muestra al historial de la serie. Solo desde el hilo de render.
+     */
+    public void addSample(int series, long nanos) {
+        history[series][(int) (sampleCounts[series] % historyFrames)] = nanos;
+        sampleCounts[series]++;
+    }
+
+    /**
+     * Cierra el frame: mide el tiempo desde el anterior y pasa los ámbitos registrados al historial.
+     * Se llama una vez por frame desde el hilo de render.
+     */
+    public void endFrame() {
+        long now = System.nanoTime();
+        drainEvents();
+        for (int series = 0; series < touched.length; series++) {
+            if (touched[series]) {
+                addSample(series, frameTotals[series]);
+                frameTotals[series] = 0;
+                touched[series] = false;
+            }
+        }
+        if (frameStart != 0) {
+            addSample(frameSeries, now - frameStart);
+        }
+        frameStart = now;
+    }
+
+    private void drainEvents() {
+        long end = claimed.get();
+        long sequence = consumed;
+        for (; sequence < end; sequence++) {
+            int slot = (int) (sequence & EVENT_MASK);
+            long expected = sequence + 1;
+            long version = published.get(slot);
+            if (version < expected) {
+                break; // Aún se está escribiendo: se recoge en el siguiente frame
+            }
+            int series = eventSeries[slot];
+            long nanos = eventNanos[slot];
+            if (version > expected || published.get(slot) != expected) {
+                droppedEvents++; // El anillo dio la vuelta antes de leer este evento
+                continue;
+            }
+            frameTotals[series] += nanos;
+            touched[series] = true;
+        }
+        consumed = sequence;
+    }
+
+    // --- Consultas ---
+
+    public int getSeriesCount() { return names.size(); }
+    public String getSeriesName(int series) { return names.get(series); }
+    public int getFrameSeries() { return frameSeries; }
+    public long getDroppedEvents() { return droppedEvents; }
+
+    /** @return Muestras disponibles en el historial de la serie. */
+    public int getSampleCount(int series) {
+        return (int) Math.min(sampleCounts[series], historyFrames);
+    }
+
+    /**
+     * Percentil {@code p} (entre 0 y 1) de las muestras del historial, en nanosegundos (0 si no hay muestras).
+     */
+    public long percentile(int series, double p) {
+        int n = sortHistory(series);
+        return n == 0 ? 0 : percentileOfSorted(n, p);
+    }
+
+    private int sortHistory(int series) {
+        int n = getSampleCount(series);
+        System.arraycopy(history[series], 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        return n;
+    }
+
+    private long percentileOfSorted(int n, double p) {
+        int index = (int) Math.ceil(p * n) - 1;
+        return scratch[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    /**
+     * Resumen de una línea con el tiempo de frame (p50/p95/p99 en milisegundos).
+     */
+    public String summary() {
+        int n = sortHistory(frameSeries);
+        if (n == 0) {
+            return "Profiler: sin frames medidos";
+        }
+        return String.format(Locale.ROOT, "Profiler: %d frames, frame p50 %.3f ms, p95 %.3f ms, p99 %.3f ms",
+                n, percentileOfSorted(n, 0.50) / 1e6, percentileOfSorted(n, 0.95) / 1e6, percentileOfSorted(n, 0.99) / 1e6);
+    }
+
+    /**
+     * Escribe las estadísticas de cada serie (muestras, media, p50, p95, p99 y máximo, en milisegundos).
+     * Si el archivo termina en ".json" se escribe en JSON; si no, en CSV.
+     */
+    public void writeReport(Path path) throws IOException {
+        boolean json = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+        try (Writer out = Files.newBufferedWriter(path)) {
+            out.write(json ? "{\n  \"series\": [\n" : "series,samples,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+            for (int series = 0; series < names.size(); series++) {
+                int n = sortHistory(series);
+                long sum = 0;
+                for (int i = 0; i < n; i++) {
+                    sum += scratch[i];
+                }
+                double mean = n == 0 ? 0.0 : sum / 1e6 / n;
+                double p50 = n == 0 ? 0.0 : percentileOfSorted(n, 0.50) / 1e6;
+                double p95 = n == 0 ? 0.0 : percentileOfSorted(n, 0.95) / 1e6;
+                double p99 = n == 0 ? 0.0 : percentileOfSorted(n, 0.99) / 1e6;
+                double max = n == 0 ? 0.0 : scratch[n - 1] / 1e6;
+                if (json) {
+                    out.write(String.format(Locale.ROOT,
+                            "    {\"name\": \"%s\", \"samples\": %d, \"mean_ms\": %.4f, \"p50_ms\": %.4f, "
+                                    + "\"p95_ms\": %.4f, \"p99_ms\": %.4f, \"max_ms\": %.4f}%s\n",
+                            names.get(series), n, mean, p50, p95, p99, max, series < names.size() - 1 ? "," : ""));
+                } else {
+                    out.write(String.format(Locale.ROOT, "%s,%d,%.4f,%.4f,%.4f,%.4f,%.4f\n",
+                            names.get(series), n, mean, p50, p95, p99, max));
+                }
+            }
+            if (json) {
+                out.write("  ],\n  \"droppedEvents\": " + droppedEvents + "\n}\n");
+            }
+        }
+    }
+}
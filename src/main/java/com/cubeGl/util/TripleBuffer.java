@@ -0,0 +1,61 @@
+package com.cubeGl.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Intercambio sin bloqueos entre un hilo escritor y un hilo lector mediante tres objetos preasignados.
+ * <p>
+ * El escritor rellena siempre el buffer "trasero" y lo publica con {@link #publish()}; el lector trabaja sobre
+ * el "delantero" y recoge el último publicado con {@link #update()}. El tercero queda en medio y se intercambia
+ * con un solo {@code getAndSet} atómico, así que ninguno de los dos hilos espera al otro ni ve un objeto a
+ * medio escribir. Si el escritor publica varias veces antes de que el lector lea, solo llega la última.
+ * <p>
+ * Como el escritor puede recibir un buffer antiguo tras publicar, debe escribirlo completo cada vez.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b011;
+    private static final int NEW_DATA = 0b100; // El buffer del medio tiene datos que el lector no ha visto
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;  // Solo lo toca el escritor
+    private int front = 2; // Solo lo toca el lector
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /** @return Buffer en el que escribe el escritor (solo desde el hilo escritor). */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publica el buffer trasero y toma el del medio como nuevo buffer de escritura.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | NEW_DATA) & INDEX_MASK;
+    }
+
+    /**
+     * Si hay un buffer publicado que el lector no ha visto, lo pasa a ser el delantero (solo desde el hilo lector).
+     * @return true si había datos nuevos.
+     */
+    public boolean update() {
+        if ((middle.get() & NEW_DATA) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /** @return Último buffer recogido por {@link #update()} (solo desde el hilo lector). */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,291 @@
+package com.cubeGl.world;
+
+import java.util.Arrays;
+
+/**
+ * Bloques de un {@link Chunk} comprimidos con paleta: cada chunk guarda la lista de identificadores distintos
+ * que contiene y, por bloque, solo el índice en esa lista, empaquetado en {@code bits} bits (de
+ * {@link #MIN_BITS} a {@link #MAX_BITS}). Un chunk de terreno con pocos tipos de bloque ocupa 2 KB en lugar
+ * de los 8 KB de un {@code short[]}.
+ * <p>
+ * Los índices se empaquetan seguidos en palabras de 64 bits (un índice puede quedar repartido entre dos
+ * palabras), así que {@code bits} bits por bloque ocupan exactamente {@code bits * 64} palabras. Cuando la
+ * paleta se llena, primero se descartan las entradas que ya no usa ningún bloque y, si no basta, se
+ * reempaqueta con un bit más. El índice 0 es siempre {@link Chunk#AIR}: palabras a cero son un chunk vacío.
+ * <p>
+ * Las palabras se guardan en el heap ({@link HeapBlockStorage}) o en memoria nativa
+ * ({@link OffHeapBlockStorage}), que hay que liberar con {@link #free()}. La paleta siempre está en el heap.
+ * No es segura entre hilos.
+ */
+public abstract class BlockStorage {
+    public static final int MIN_BITS = 4;
+    public static final int MAX_BITS = 16;
+    public static final int VOLUME = Chunk.VOLUME;
+
+    private static final int LINEAR_LOOKUP_LIMIT = 16; // Hasta este tamaño, la paleta se busca recorriéndola
+
+    private short[] palette;
+    private int paletteSize;
+    private int[] lookup; // Tabla hash (índice de paleta + 1, 0 = vacío); null mientras la paleta es pequeña
+    private int bits;
+    private int mask;
+
+    protected BlockStorage() {
+        palette = new short[1 << MIN_BITS];
+        paletteSize = 1; // palette[0] = AIR
+        setBits(MIN_BITS);
+    }
+
+    private void setBits(int bits) {
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+    }
+
+    /** Palabras de 64 bits necesarias para {@code bits} bits por bloque. */
+    protected static int wordCount(int bits) {
+        return VOLUME * bits / Long.SIZE;
+    }
+
+    // Almacenamiento de las palabras (heap o memoria nativa)
+    protected abstract long getWord(int index);
+    protected abstract void setWord(int index, long value);
+    /** Sustituye las palabras por {@code count} palabras a cero. */
+    protected abstract void replaceWords(int count);
+
+    /** @return Copia independiente con el mismo tipo de almacenamiento. */
+    public abstract BlockStorage copy();
+
+    /** Libera la memoria nativa, si la hay. El almacenamiento no debe usarse después. */
+    public abstract void free();
+
+    /** @return Bytes de las palabras fuera del heap (0 si están en el heap). */
+    public abstract long getNativeBytes();
+
+    /** @return Bytes aproximados en el heap: paleta, tabla hash y, si están en el heap, las palabras. */
+    public abstract long getHeapBytes();
+
+    protected long getPaletteBytes() {
+        return palette.length * (long) Short.BYTES + (lookup != null ? lookup.length * (long) Integer.BYTES : 0);
+    }
+
+    // Copia la paleta de otro almacenamiento (para copy())
+    protected void copyPaletteFrom(BlockStorage source) {
+        palette = source.palette.clone();
+        paletteSize = source.paletteSize;
+        lookup = source.lookup != null ? source.lookup.clone() : null;
+        setBits(source.bits);
+    }
+
+    public short get(int index) {
+        return palette[readIndex(index)];
+    }
+
+    /**
+     * Asigna un bloque.
+     * @return Bloque que había antes.
+     */
+    public short set(int index, short block) {
+        int id = paletteIndex(block);
+        if (id < 0) {
+            id = addToPalette(block);
+        }
+        return palette[writeIndex(index, id)];
+    }
+
+    /**
+     * Asigna el mismo bloque a los índices [from, to), buscándolo una sola vez en la paleta.
+     * @return Cuántos de esos bloques eran {@link Chunk#AIR}.
+     */
+    public int fill(int from, int to, short block) {
+        int id = paletteIndex(block);
+        if (id < 0) {
+            id = addToPalette(block);
+        }
+        int replacedAir = 0;
+        for (int i = from; i < to; i++) {
+            if (writeIndex(i, id) == 0) {
+                replacedAir++;
+            }
+        }
+        return replacedAir;
+    }
+
+    private int readIndex(int index) {
+        int bit = index * bits;
+        int word = bit >>> 6;
+        int shift = bit & 63;
+        long value = getWord(word) >>> shift;
+        if (shift + bits > Long.SIZE) {
+            value |= getWord(word + 1) << (Long.SIZE - shift);
+        }
+        return (int) value & mask;
+    }
+
+    // Escribe un índice de paleta y devuelve el anterior
+    private int writeIndex(int index, int id) {
+        int bit = index * bits;
+        int word = bit >>> 6;
+        int shift = bit & 63;
+        long low = getWord(word);
+        int previous = (int) (low >>> shift);
+        setWord(word, low & ~((long) mask << shift) | (long) id << shift);
+        int spill = shift + bits - Long.SIZE;
+        if (spill > 0) {
+            long high = getWord(word + 1);
+            int highBits = bits - spill;
+            previous |= (int) high << highBits;
+            setWord(word + 1, high & ~((1L << spill) - 1) | (long) id >>> highBits);
+        }
+        return previous & mask;
+    }
+
+    /**
+     * Copia todos los bloques en orden lineal (ver {@link Chunk#index(int, int, int)}), recorriendo las
+     * palabras una sola vez: mucho más rápido que {@link #get(int)} bloque a bloque.
+     */
+    public void copyTo(short[] dest) {
+        long current = getWord(0);
+        int word = 0;
+        int shift = 0;
+        for (int i = 0; i < VOLUME; i++) {
+            int value;
+            if (shift + bits <= Long.SIZE) {
+                value = (int) (current >>> shift) & mask;
+                shift += bits;
+                if (shift == Long.SIZE && i + 1 < VOLUME) {
+                    current = getWord(++word);
+                    shift = 0;
+                }
+            } else {
+                long next = getWord(++word);
+                value = (int) (current >>> shift | next << (Long.SIZE - shift)) & mask;
+                current = next;
+                shift += bits - Long.SIZE;
+            }
+            dest[i] = palette[value];
+        }
+    }
+
+    // Índices de paleta de todos los bloques (para reempaquetar)
+    private int[] readAllIndices() {
+        int[] indices = new int[VOLUME];
+        for (int i = 0; i < VOLUME; i++) {
+            indices[i] = readIndex(i);
+        }
+        return indices;
+    }
+
+    private int paletteIndex(short block) {
+        if (lookup == null) {
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == block) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int slotMask = lookup.length - 1;
+        for (int slot = hash(block) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int entry = lookup[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (palette[entry - 1] == block) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static int hash(short block) {
+        int h = block * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int addToPalette(short block) {
+        if (paletteSize == 1 << bits) {
+            grow();
+        }
+        int id = paletteSize++;
+        palette[id] = block;
+        if (lookup != null) {
+            insertLookup(id);
+        } else if (paletteSize > LINEAR_LOOKUP_LIMIT) {
+            rebuildLookup();
+        }
+        return id;
+    }
+
+    private void insertLookup(int id) {
+        int slotMask = lookup.length - 1;
+        int slot = hash(palette[id]) & slotMask;
+        while (lookup[slot] != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        lookup[slot] = id + 1;
+    }
+
+    private void rebuildLookup() {
+        if (paletteSize <= LINEAR_LOOKUP_LIMIT) {
+            lookup = null;
+            return;
+        }
+        lookup = new int[Integer.highestOneBit(palette.length) * 2]; // Ocupación máxima del 50 %
+        for (int id = 0; id < paletteSize; id++) {
+            insertLookup(id);
+        }
+    }
+
+    /**
+     * Hace sitio para una entrada más en la paleta: quita las entradas sin usar y, si sigue llena,
+     * reempaqueta los índices con un bit más.
+     */
+    private void grow() {
+        int[] indices = readAllIndices();
+        boolean[] used = new boolean[paletteSize];
+        used[0] = true; // El aire se queda en el índice 0
+        int usedCount = 1;
+        for (int id : indices) {
+            if (!used[id]) {
+                used[id] = true;
+                usedCount++;
+            }
+        }
+
+        int[] remap = null;
+        if (usedCount < paletteSize) {
+            remap = new int[paletteSize];
+            int next = 0;
+            for (int id = 0; id < paletteSize; id++) {
+                if (used[id]) {
+                    palette[next] = palette[id];
+                    remap[id] = next++;
+                }
+            }
+            paletteSize = next;
+        }
+
+        int newBits = bits;
+        if (paletteSize == 1 << bits) {
+            newBits = bits + 1;
+            if (newBits > MAX_BITS) {
+                throw new IllegalStateException("La paleta del chunk está llena.");
+            }
+            palette = Arrays.copyOf(palette, 1 << newBits);
+        }
+        if (remap == null && newBits == bits) {
+            return;
+        }
+        setBits(newBits);
+        replaceWords(wordCount(newBits));
+        for (int i = 0; i < VOLUME; i++) {
+            int id = remap != null ? remap[indices[i]] : indices[i];
+            if (id != 0) {
+                writeIndex(i, id);
+            }
+        }
+        rebuildLookup();
+    }
+
+    public int getBitsPerBlock() { return bits; }
+    public int getPaletteSize() { return paletteSize; }
+}
@@ -0,0 +1,132 @@
+package com.cubeGl.world;
+
+/**
+ * Sección cúbica de {@link #SIZE}³ bloques del mundo voxel.
+ * Los bloques son identificadores {@code short} comprimidos con paleta en un {@link BlockStorage};
+ * el identificador {@link #AIR} (0) representa un hueco vacío.
+ * <p>
+ * Con {@code -Dcubegl.chunk.offHeap=true}, los chunks creados con {@link #Chunk()} guardan sus bloques en
+ * memoria nativa: quien los crea (o recibe su propiedad) debe llamar a {@link #free()} al descartarlos.
+ */
+public class Chunk {
+    public static final int SIZE = 16;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+    public static final short AIR = 0;
+    public static final boolean OFF_HEAP_DEFAULT = Boolean.getBoolean("cubegl.chunk.offHeap");
+
+    private final BlockStorage blocks;
+    private int solidCount; // Número de bloques distintos de aire (permite saltar chunks vacíos)
+
+    public Chunk() {
+        this(OFF_HEAP_DEFAULT);
+    }
+
+    /**
+     * @param offHeap Si los bloques se guardan en memoria nativa (ver {@link OffHeapBlockStorage}).
+     */
+    public Chunk(boolean offHeap) {
+        this(offHeap ? new OffHeapBlockStorage() : new HeapBlockStorage(), 0);
+    }
+
+    private Chunk(BlockStorage blocks, int solidCount) {
+        this.blocks = blocks;
+        this.solidCount = solidCount;
+    }
+
+    /**
+     * Índice lineal del bloque: X varía más rápido, luego Z y por último Y.
+     */
+    public static int index(int x, int y, int z) {
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    public static boolean inBounds(int x, int y, int z) {
+        return x >= 0 && x < SIZE && y >= 0 && y < SIZE && z >= 0 && z < SIZE;
+    }
+
+    public short getBlock(int x, int y, int z) {
+        return blocks.get(index(x, y, z));
+    }
+
+    public void setBlock(int x, int y, int z, short block) {
+        setBlock(index(x, y, z), block);
+    }
+
+    /**
+     * Bloque por índice lineal (ver {@link #index(int, int, int)}).
+     */
+    public short getBlock(int index) {
+        return blocks.get(index);
+    }
+
+    /**
+     * Asigna un bloque por índice lineal (ver {@link #index(int, int, int)}).
+     */
+    public void setBlock(int index, short block) {
+        short previous = blocks.set(index, block);
+        if (previous == AIR && block != AIR) solidCount++;
+        else if (previous != AIR && block == AIR) solidCount--;
+    }
+
+    /**
+     * Copia todos los bloques en orden lineal a {@code dest} (al menos {@link #VOLUME} elementos). Es la
+     * forma rápida de recorrer el chunk entero, por ejemplo para mallarlo.
+     */
+    public void copyBlocks(short[] dest) {
+        blocks.copyTo(dest);
+    }
+
+    /**
+     * Asigna el mismo identificador a los índices lineales [from, to) (ver {@link ChunkCodec}).
+     */
+    void fillIndices(int from, int to, short block) {
+        int replacedAir = blocks.fill(from, to, block);
+        if (block != AIR) solidCount += replacedAir;
+        else solidCount -= (to - from) - replacedAir;
+    }
+
+    /**
+     * Rellena un rango de bloques [min, max) con el mismo identificador.
+     */
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short block) {
+        for (int y = minY; y < maxY; y++) {
+            for (int z = minZ; z < maxZ; z++) {
+                for (int x = minX; x < maxX; x++) {
+                    setBlock(x, y, z, block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crea una copia independiente del chunk (por ejemplo, para mallarlo en otro hilo sin carreras de datos),
+     * con el mismo tipo de almacenamiento: si es nativo, la copia también hay que liberarla.
+     */
+    public Chunk copy() {
+        return new Chunk(blocks.copy(), solidCount);
+    }
+
+    /**
+     * Libera la memoria nativa de los bloques (no hace nada si están en el heap). El chunk no debe usarse después.
+     */
+    public void free() {
+        blocks.free();
+    }
+
+    public boolean isOffHeap() {
+        return blocks instanceof OffHeapBlockStorage;
+    }
+
+    /** @return Almacenamiento de los bloques (para consultar su tamaño y su paleta). */
+    public BlockStorage getStorage() {
+        return blocks;
+    }
+
+    public boolean isEmpty() {
+        return solidCount == 0;
+    }
+
+    public int getSolidCount() {
+        return solidCount;
+    }
+}
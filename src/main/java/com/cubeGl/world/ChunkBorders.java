@@ -0,0 +1,72 @@
+package com.cubeGl.world;
+
+import java.util.Arrays;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Capas de bloques de los seis chunks vecinos que tocan a un chunk. Con ellas, {@link ChunkMesher} no emite
+ * las caras del borde que tapa un bloque sólido del vecino (sin ellas, todo lo que hay fuera del chunk cuenta
+ * como aire). Se copian en el hilo dueño de los chunks y se mallan en otro, como el chunk.
+ * <p>
+ * Cara {@code d * 2} = vecino en el lado negativo del eje {@code d} (0 = X, 1 = Y, 2 = Z); {@code d * 2 + 1} =
+ * lado positivo. Dentro de cada cara, los bloques se indexan con los otros dos ejes en el mismo orden que el
+ * mesher ({@code u = (d + 1) % 3}, {@code v = (d + 2) % 3}).
+ */
+public final class ChunkBorders {
+    public static final int FACES = 6;
+    private static final int FACE_AREA = SIZE * SIZE;
+
+    private final short[] blocks = new short[FACES * FACE_AREA];
+    private final int[] position = new int[3];
+
+    /** Deja todas las caras en aire (sin vecinos). */
+    public void clear() {
+        Arrays.fill(blocks, AIR);
+    }
+
+    /**
+     * Copia la capa del vecino que toca la cara {@code face}; con {@code neighbor} null, la cara queda en aire.
+     */
+    public void set(int face, Chunk neighbor) {
+        int base = face * FACE_AREA;
+        if (neighbor == null) {
+            Arrays.fill(blocks, base, base + FACE_AREA, AIR);
+            return;
+        }
+        int d = face >> 1;
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        position[d] = (face & 1) == 0 ? SIZE - 1 : 0; // Capa del vecino pegada a este chunk
+        for (position[v] = 0; position[v] < SIZE; position[v]++) {
+            for (position[u] = 0; position[u] < SIZE; position[u]++) {
+                blocks[base + position[v] * SIZE + position[u]] = neighbor.getBlock(position[0], position[1], position[2]);
+            }
+        }
+    }
+
+    /**
+     * Bloque del vecino de la cara {@code face} en la posición (u, v) de la cara.
+     */
+    public short get(int face, int u, int v) {
+        return blocks[face * FACE_AREA + v * SIZE + u];
+    }
+
+    public ChunkBorders copy() {
+        ChunkBorders copy = new ChunkBorders();
+        System.arraycopy(blocks, 0, copy.blocks, 0, blocks.length);
+        return copy;
+    }
+
+    /**
+     * Clave del vecino de la cara {@code face} del chunk {@code key} (ver {@link ChunkKey}).
+     */
+    public static long neighborKey(long key, int face) {
+        int d = face >> 1;
+        int step = (face & 1) == 0 ? -1 : 1;
+        return ChunkKey.of(ChunkKey.x(key) + (d == 0 ? step : 0),
+                ChunkKey.y(key) + (d == 1 ? step : 0),
+                ChunkKey.z(key) + (d == 2 ? step : 0));
+    }
+}
@@ -0,0 +1,92 @@
+package com.cubeGl.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché LRU acotada de chunks ya descomprimidos, por clave {@link ChunkKey}. Al superar la capacidad se
+ * descarta (y se libera, ver {@link Chunk#free()}) el chunk usado hace más tiempo, así que solo debe contener
+ * chunks que ya estén guardados en disco (o que se puedan volver a generar). La caché es dueña de sus chunks.
+ * <p>
+ * Evita releer y descomprimir los chunks al moverse de un lado a otro por el borde del radio de carga.
+ * No es segura entre hilos (ver {@link WorldStreamer}).
+ */
+public class ChunkCache {
+    private final int capacity;
+    private final LinkedHashMap<Long, Chunk> chunks;
+
+    // Contadores
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ChunkCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("La capacidad de la caché no puede ser negativa: " + capacity);
+        }
+        this.capacity = capacity;
+        this.chunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() > ChunkCache.this.capacity) {
+                    eldest.getValue().free();
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Saca un chunk de la caché: a partir de ahora pertenece al llamador, que lo devolverá con
+     * {@link #put(long, Chunk)} cuando deje de usarlo.
+     * @return null si no está.
+     */
+    public Chunk take(long key) {
+        Chunk chunk = chunks.remove(key);
+        if (chunk != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return chunk;
+    }
+
+    public void put(long key, Chunk chunk) {
+        if (capacity == 0) {
+            chunk.free();
+            return;
+        }
+        Chunk previous = chunks.put(key, chunk);
+        if (previous != null && previous != chunk) {
+            previous.free();
+        }
+    }
+
+    public void remove(long key) {
+        Chunk chunk = chunks.remove(key);
+        if (chunk != null) {
+            chunk.free();
+        }
+    }
+
+    /** Vacía la caché liberando sus chunks. */
+    public void clear() {
+        for (Chunk chunk : chunks.values()) {
+            chunk.free();
+        }
+        chunks.clear();
+    }
+
+    public int size() { return chunks.size(); }
+    public int getCapacity() { return capacity; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
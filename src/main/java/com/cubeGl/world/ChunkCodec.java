@@ -0,0 +1,112 @@
+package com.cubeGl.world;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compresión de los bloques de un {@link Chunk} para guardarlos en disco (ver {@link RegionFile}).
+ * <p>
+ * Los bloques se recorren en orden lineal ({@link Chunk#index(int, int, int)}: X, Z e Y) y se agrupan en
+ * tramos de bloques iguales (RLE). Cada tramo se escribe como dos enteros de longitud variable (7 bits por
+ * byte): la diferencia con el identificador del tramo anterior (en zigzag, para que las diferencias
+ * negativas también ocupen poco) y la longitud menos uno. El terreno tiene capas horizontales largas, así
+ * que un chunk del terreno ocupa de media unos 250 bytes en lugar de 8 KB: unos cientos los que cortan la
+ * superficie y unos pocos los macizos; uno vacío ocupa 4.
+ * <p>
+ * Formato: un byte de versión ({@link #FORMAT}) seguido de los tramos hasta completar {@link Chunk#VOLUME}
+ * bloques.
+ */
+public final class ChunkCodec {
+    public static final int FORMAT = 1;
+
+    /**
+     * Tamaño máximo de un chunk codificado: un tramo por bloque, con la diferencia en 3 bytes (zigzag de
+     * 17 bits) y la longitud en 1.
+     */
+    public static final int MAX_ENCODED_BYTES = 1 + Chunk.VOLUME * 4;
+
+    private ChunkCodec() {
+    }
+
+    /**
+     * Codifica el chunk a partir de la posición actual de {@code out}, que debe tener al menos
+     * {@link #MAX_ENCODED_BYTES} bytes libres.
+     * @return Bytes escritos.
+     */
+    public static int encode(Chunk chunk, ByteBuffer out) {
+        int start = out.position();
+        out.put((byte) FORMAT);
+        int previous = 0;
+        int i = 0;
+        while (i < Chunk.VOLUME) {
+            short block = chunk.getBlock(i);
+            int end = i + 1;
+            while (end < Chunk.VOLUME && chunk.getBlock(end) == block) {
+                end++;
+            }
+            int delta = block - previous;
+            putVarInt(out, (delta << 1) ^ (delta >> 31));
+            putVarInt(out, end - i - 1);
+            previous = block;
+            i = end;
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Decodifica un chunk (con el almacenamiento por defecto, ver {@link Chunk#Chunk()}) a partir de la
+     * posición actual de {@code in}, que avanza hasta el final de los datos.
+     * @throws IllegalArgumentException Si los datos están truncados o no son válidos.
+     */
+    public static Chunk decode(ByteBuffer in) {
+        Chunk chunk = new Chunk();
+        try {
+            int format = in.get();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Formato de chunk no soportado: " + format);
+            }
+            int previous = 0;
+            int i = 0;
+            while (i < Chunk.VOLUME) {
+                int zigzag = getVarInt(in);
+                int block = previous + ((zigzag >>> 1) ^ -(zigzag & 1));
+                int end = i + getVarInt(in) + 1;
+                if (end > Chunk.VOLUME || end <= i || block != (short) block) {
+                    throw new IllegalArgumentException("Datos de chunk corruptos en el bloque " + i);
+                }
+                if (block != Chunk.AIR) {
+                    chunk.fillIndices(i, end, (short) block);
+                }
+                previous = block;
+                i = end;
+            }
+        } catch (BufferUnderflowException e) {
+            chunk.free();
+            throw new IllegalArgumentException("Datos de chunk truncados.", e);
+        } catch (IllegalArgumentException e) {
+            chunk.free();
+            throw e;
+        }
+        return chunk;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Entero de longitud variable demasiado largo.");
+    }
+}
@@ -0,0 +1,110 @@
+package com.cubeGl.world;
+
+import java.util.Arrays;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Índice de chunks cargados por coordenadas, sin objetos por consulta (a diferencia de un
+ * {@code Map<Long, Chunk>}, que crea un {@code Long} en cada búsqueda). Lo usan los rayos
+ * ({@link VoxelRaycast}), que consultan miles de bloques por frame.
+ * <p>
+ * Es una rejilla circular: el chunk (cx, cy, cz) va a la celda {@code (cx mod sizeX, cy mod sizeY, cz mod sizeZ)}
+ * (tamaños redondeados a potencias de dos) y la celda guarda también su clave, así que la ventana de chunks
+ * puede moverse con la cámara sin recolocar nada. Debe cubrir toda la zona cargada: dos chunks cargados no
+ * pueden compartir celda.
+ * <p>
+ * Se modifica desde un solo hilo; se puede leer desde varios mientras no se modifique (ver {@link RaycastBatch}).
+ */
+public class ChunkGrid {
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(SIZE);
+    private static final int LOCAL_MASK = SIZE - 1;
+
+    private final int maskX;
+    private final int maskY;
+    private final int maskZ;
+    private final int shiftY; // Bits de X
+    private final int shiftZ; // Bits de X + Y
+    private final long[] keys;
+    private final Chunk[] chunks;
+    private int count;
+
+    /**
+     * @param sizeX Chunks de la ventana en X (se redondea a la siguiente potencia de dos); igual en Y y Z.
+     */
+    public ChunkGrid(int sizeX, int sizeY, int sizeZ) {
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0) {
+            throw new IllegalArgumentException("Tamaño de rejilla no válido: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        int bitsX = bits(sizeX);
+        int bitsY = bits(sizeY);
+        int bitsZ = bits(sizeZ);
+        if (bitsX + bitsY + bitsZ > 24) {
+            throw new IllegalArgumentException("Rejilla de chunks demasiado grande: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        maskX = (1 << bitsX) - 1;
+        maskY = (1 << bitsY) - 1;
+        maskZ = (1 << bitsZ) - 1;
+        shiftY = bitsX;
+        shiftZ = bitsX + bitsY;
+        keys = new long[1 << (bitsX + bitsY + bitsZ)];
+        chunks = new Chunk[keys.length];
+    }
+
+    private static int bits(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private int slot(int cx, int cy, int cz) {
+        return (cx & maskX) | (cy & maskY) << shiftY | (cz & maskZ) << shiftZ;
+    }
+
+    /**
+     * Añade (o sustituye) el chunk con clave {@code key} ({@link ChunkKey}). La rejilla no es dueña del chunk.
+     * @throws IllegalStateException Si su celda ya la ocupa otro chunk (la rejilla es pequeña para la zona cargada).
+     */
+    public void put(long key, Chunk chunk) {
+        int slot = slot(ChunkKey.x(key), ChunkKey.y(key), ChunkKey.z(key));
+        if (chunks[slot] != null && keys[slot] != key) {
+            throw new IllegalStateException("La rejilla de chunks es pequeña: " + ChunkKey.toString(key)
+                    + " y " + ChunkKey.toString(keys[slot]) + " comparten celda.");
+        }
+        if (chunks[slot] == null) {
+            count++;
+        }
+        keys[slot] = key;
+        chunks[slot] = chunk;
+    }
+
+    public void remove(long key) {
+        int slot = slot(ChunkKey.x(key), ChunkKey.y(key), ChunkKey.z(key));
+        if (chunks[slot] != null && keys[slot] == key) {
+            chunks[slot] = null;
+            count--;
+        }
+    }
+
+    /** @return El chunk de esas coordenadas de chunk, o null si no está. */
+    public Chunk getChunk(int cx, int cy, int cz) {
+        int slot = slot(cx, cy, cz);
+        Chunk chunk = chunks[slot];
+        return chunk != null && keys[slot] == ChunkKey.of(cx, cy, cz) ? chunk : null;
+    }
+
+    /** @return Bloque en coordenadas del mundo, o {@link Chunk#AIR} si su chunk no está. */
+    public short getBlock(int x, int y, int z) {
+        Chunk chunk = getChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT, z >> CHUNK_SHIFT);
+        return chunk != null ? chunk.getBlock(x & LOCAL_MASK, y & LOCAL_MASK, z & LOCAL_MASK) : AIR;
+    }
+
+    public void clear() {
+        Arrays.fill(chunks, null);
+        count = 0;
+    }
+
+    public int size() { return count; }
+    public int getSizeX() { return maskX + 1; }
+    public int getSizeY() { return maskY + 1; }
+    public int getSizeZ() { return maskZ + 1; }
+}
@@ -0,0 +1,41 @@
+package com.cubeGl.world;
+
+/**
+ * Coordenadas de un chunk (en chunks, no en bloques) empaquetadas en un {@code long}: 21 bits con signo por
+ * eje, suficiente para ±1 048 576 chunks (±16 millones de bloques). Sirve de clave en mapas sin crear un
+ * objeto por chunk.
+ */
+public final class ChunkKey {
+    private static final int BITS = 21;
+    private static final long MASK = (1L << BITS) - 1;
+
+    private ChunkKey() {
+    }
+
+    public static long of(int cx, int cy, int cz) {
+        return (cx & MASK) << (2 * BITS) | (cy & MASK) << BITS | (cz & MASK);
+    }
+
+    public static int x(long key) {
+        return (int) (key << (64 - 3 * BITS) >> (64 - BITS));
+    }
+
+    public static int y(long key) {
+        return (int) (key << (64 - 2 * BITS) >> (64 - BITS));
+    }
+
+    public static int z(long key) {
+        return (int) (key << (64 - BITS) >> (64 - BITS));
+    }
+
+    /**
+     * Coordenada de chunk que contiene la coordenada de mundo {@code world} (también para valores negativos).
+     */
+    public static int toChunk(float world) {
+        return Math.floorDiv((int) Math.floor(world), Chunk.SIZE);
+    }
+
+    public static String toString(long key) {
+        return "(" + x(key) + ", " + y(key) + ", " + z(key) + ")";
+    }
+}
@@ -0,0 +1,105 @@
+package com.cubeGl.world;
+
+import com.cubeGl.graphics.MeshData;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Niveles de detalle de un chunk: el nivel {@code n} agrupa los bloques en celdas de 2ⁿ×2ⁿ×2ⁿ
+ * ({@link #LEVELS} niveles: 1×, 2×, 4× y 8×) y malla el chunk reducido con celdas de ese tamaño.
+ * <p>
+ * Una celda es sólida si lo es al menos la mitad de sus bloques, y toma el tipo de bloque más frecuente.
+ * Todo se hace en CPU, así que el número de triángulos de cada nivel se puede comprobar sin OpenGL
+ * con {@link #triangleCounts(ChunkMesher, Chunk)}.
+ */
+public final class ChunkLod {
+    public static final int LEVELS = 4;
+
+    private ChunkLod() {
+    }
+
+    /** @return Tamaño en bloques de una celda del nivel. */
+    public static int factor(int level) {
+        return 1 << level;
+    }
+
+    /**
+     * Reduce el chunk al nivel dado. El resultado es un chunk normal cuyas primeras {@code SIZE / factor}
+     * celdas de cada eje contienen los bloques reducidos (el resto es aire); se malla con
+     * {@link ChunkMesher#build(Chunk, int)} usando {@link #factor(int)} como escala. En el nivel 0 es una
+     * copia del chunk; en los demás, un chunk en el heap.
+     */
+    public static Chunk downsample(Chunk chunk, int level) {
+        if (level < 0 || level >= LEVELS) {
+            throw new IllegalArgumentException("Nivel de detalle fuera de rango: " + level);
+        }
+        int factor = factor(level);
+        if (factor == 1) {
+            return chunk.copy();
+        }
+        int cells = SIZE / factor;
+        int samples = factor * factor * factor;
+        short[] ids = new short[samples];  // Tipos distintos encontrados en la celda
+        int[] counts = new int[samples];
+
+        Chunk reduced = new Chunk(false); // Temporal (solo para mallarlo): en el heap aunque el original no lo esté
+        if (chunk.isEmpty()) {
+            return reduced;
+        }
+        for (int cy = 0; cy < cells; cy++) {
+            for (int cz = 0; cz < cells; cz++) {
+                for (int cx = 0; cx < cells; cx++) {
+                    int distinct = 0;
+                    int solid = 0;
+                    for (int y = cy * factor; y < (cy + 1) * factor; y++) {
+                        for (int z = cz * factor; z < (cz + 1) * factor; z++) {
+                            for (int x = cx * factor; x < (cx + 1) * factor; x++) {
+                                short block = chunk.getBlock(x, y, z);
+                                if (block == AIR) {
+                                    continue;
+                                }
+                                solid++;
+                                int k = 0;
+                                while (k < distinct && ids[k] != block) k++;
+                                if (k == distinct) {
+                                    ids[distinct] = block;
+                                    counts[distinct++] = 0;
+                                }
+                                counts[k]++;
+                            }
+                        }
+                    }
+                    if (solid * 2 < samples) {
+                        continue;
+                    }
+                    int best = 0;
+                    for (int k = 1; k < distinct; k++) {
+                        if (counts[k] > counts[best]) best = k;
+                    }
+                    reduced.setBlock(cx, cy, cz, ids[best]);
+                }
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * Malla el chunk en el nivel dado. La geometría ocupa el mismo espacio que la del nivel 0.
+     */
+    public static MeshData mesh(ChunkMesher mesher, Chunk chunk, int level) {
+        return mesher.mesh(level == 0 ? chunk : downsample(chunk, level), factor(level));
+    }
+
+    /**
+     * @return Triángulos de cada nivel, del más detallado al más simple.
+     */
+    public static int[] triangleCounts(ChunkMesher mesher, Chunk chunk) {
+        int[] triangles = new int[LEVELS];
+        for (int level = 0; level < LEVELS; level++) {
+            Chunk source = level == 0 ? chunk : downsample(chunk, level);
+            triangles[level] = mesher.build(source, factor(level)) * 2;
+        }
+        return triangles;
+    }
+}
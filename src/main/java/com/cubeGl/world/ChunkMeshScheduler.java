@@ -0,0 +1,318 @@
+package com.cubeGl.world;
+
+import com.cubeGl.graphics.NativeBufferPool;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera las mallas de los chunks en un pool de hilos de trabajo y las entrega al hilo de render.
+ * <p>
+ * Los hilos de trabajo mallan una copia del chunk y escriben vértices e índices en buffers nativos
+ * obtenidos de un {@link NativeBufferPool}. Los resultados se publican en una cola sin bloqueos
+ * ({@link ConcurrentLinkedQueue}) y el hilo de OpenGL los consume con {@link #drainUploads(long, Uploader)}
+ * respetando un presupuesto de tiempo por frame, de modo que la subida nunca provoque tirones. Si el mallado
+ * de un chunk falla, sus buffers vuelven al pool y el hilo de render recibe el error en lugar de la malla
+ * (ver {@link Uploader#failed}), así que el chunk no se queda esperando una subida que nunca llega.
+ * <p>
+ * En modo compacto ({@code packed}), los vértices se codifican en {@link com.cubeGl.graphics.VertexLayout#PACKED_VOXEL}
+ * y se recogen con {@link #drainUploads(long, PackedUploader)} (por ejemplo, para un
+ * {@link com.cubeGl.graphics.MegaBuffer}).
+ *
+ * @param <K> Tipo de la clave que identifica cada chunk (por ejemplo, sus coordenadas).
+ */
+public class ChunkMeshScheduler<K> {
+
+    /**
+     * Recibe en el hilo de OpenGL la geometría de un chunk ya mallado (por ejemplo, para llamar a
+     * {@link com.cubeGl.graphics.Mesh#create(FloatBuffer, FloatBuffer, IntBuffer)}).
+     * Los buffers vuelven al pool al terminar la llamada: no deben guardarse.
+     */
+    public interface Uploader<K> {
+        void upload(K key, FloatBuffer vertices, FloatBuffer texCoords, IntBuffer indices);
+
+        /**
+         * Recibe en el hilo de OpenGL, en lugar de la malla, el error con que falló el mallado del chunk.
+         */
+        default void failed(K key, RuntimeException error) {
+            warnFailed(key, error);
+        }
+    }
+
+    /**
+     * Como {@link Uploader}, con los vértices codificados en {@link com.cubeGl.graphics.VertexLayout#PACKED_VOXEL}.
+     */
+    public interface PackedUploader<K> {
+        void upload(K key, ByteBuffer vertices, IntBuffer indices);
+
+        /** Como {@link Uploader#failed}. */
+        default void failed(K key, RuntimeException error) {
+            warnFailed(key, error);
+        }
+    }
+
+    private static void warnFailed(Object key, RuntimeException error) {
+        System.err.println("Advertencia: no se pudo mallar el chunk " + key + ": " + error);
+    }
+
+    private static final class Result<K> {
+        private final K key;
+        private final long submitNanos;
+        private final ByteBuffer vertexBytes;
+        private final ByteBuffer texCoordBytes; // null en modo compacto
+        private final ByteBuffer indexBytes;
+        private final RuntimeException error;   // Si el mallado falló (sin buffers)
+
+        private Result(K key, long submitNanos, ByteBuffer vertexBytes, ByteBuffer texCoordBytes, ByteBuffer indexBytes) {
+            this.key = key;
+            this.submitNanos = submitNanos;
+            this.vertexBytes = vertexBytes;
+            this.texCoordBytes = texCoordBytes;
+            this.indexBytes = indexBytes;
+            this.error = null;
+        }
+
+        private Result(K key, long submitNanos, RuntimeException error) {
+            this.key = key;
+            this.submitNanos = submitNanos;
+            this.vertexBytes = null;
+            this.texCoordBytes = null;
+            this.indexBytes = null;
+            this.error = error;
+        }
+    }
+
+    private final ForkJoinPool workers;
+    private final boolean packed;
+    private final ThreadLocal<ChunkMesher> meshers = ThreadLocal.withInitial(ChunkMesher::new);
+    private final ConcurrentLinkedQueue<Result<K>> completed = new ConcurrentLinkedQueue<>();
+    private final NativeBufferPool bufferPool = new NativeBufferPool(64);
+    private volatile int[] blockLayers; // Se aplica al mesher de cada hilo (ver ChunkMesher#setBlockLayers)
+    private volatile boolean closed;    // Tras cleanup(), las tareas en cola solo liberan su copia
+
+    // Métricas (los contadores de latencia solo se escriben desde el hilo de render)
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private long uploadedCount;
+    private long failedCount;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    public ChunkMeshScheduler(int workerThreads) {
+        this(workerThreads, false);
+    }
+
+    /**
+     * @param packed Si los vértices se codifican en {@link com.cubeGl.graphics.VertexLayout#PACKED_VOXEL}.
+     */
+    public ChunkMeshScheduler(int workerThreads, boolean packed) {
+        this.workers = new ForkJoinPool(workerThreads);
+        this.packed = packed;
+    }
+
+    /**
+     * Tabla de capas de textura por tipo de bloque para los chunks que se encolen a partir de ahora.
+     */
+    public void setBlockLayers(int[] blockLayers) {
+        this.blockLayers = blockLayers;
+    }
+
+    /**
+     * Encola el mallado de un chunk. Se malla una copia, así que el chunk puede seguir modificándose.
+     */
+    public void submit(K key, Chunk chunk) {
+        submit(key, chunk, 0);
+    }
+
+    /**
+     * Encola el mallado de un chunk con el nivel de detalle {@code lod} (0 = completo, ver {@link ChunkLod}).
+     * Se copia el chunk y la reducción se hace en el hilo de trabajo. Sin vecinos: se emiten todas las caras
+     * del borde.
+     */
+    public void submit(K key, Chunk chunk, int lod) {
+        if (lod < 0 || lod >= ChunkLod.LEVELS) {
+            throw new IllegalArgumentException("Nivel de detalle fuera de rango: " + lod);
+        }
+        submit(key, chunk.copy(), lod, null);
+    }
+
+    /**
+     * Encola el mallado completo de un chunk teniendo en cuenta sus vecinos (ver {@link ChunkBorders}).
+     * Se copian el chunk y los bordes.
+     */
+    public void submit(K key, Chunk chunk, ChunkBorders borders) {
+        submit(key, chunk.copy(), 0, borders.copy());
+    }
+
+    private void submit(K key, Chunk snapshot, int lod, ChunkBorders borders) {
+        long submitNanos = System.nanoTime();
+        pendingJobs.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                if (closed) {
+                    return;
+                }
+                Result<K> result;
+                try {
+                    result = build(key, snapshot, lod, borders, submitNanos);
+                } catch (RuntimeException e) {
+                    result = new Result<>(key, submitNanos, e); // El hilo de render debe enterarse igualmente
+                }
+                completed.offer(result);
+                queueDepth.incrementAndGet();
+            } finally {
+                snapshot.free(); // Solo hace algo si el chunk está fuera del heap
+                pendingJobs.decrementAndGet();
+            }
+        });
+    }
+
+    // Se ejecuta en un hilo de trabajo. Si algo falla, devuelve al pool los buffers ya obtenidos
+    private Result<K> build(K key, Chunk chunk, int lod, ChunkBorders borders, long submitNanos) {
+        ChunkMesher mesher = meshers.get();
+        mesher.setBlockLayers(blockLayers);
+        mesher.build(lod == 0 ? chunk : ChunkLod.downsample(chunk, lod), ChunkLod.factor(lod), borders);
+
+        ByteBuffer vertexBytes = null;
+        ByteBuffer texCoordBytes = null;
+        ByteBuffer indexBytes = null;
+        try {
+            if (packed) {
+                vertexBytes = bufferPool.acquire(mesher.getPackedVertexByteCount());
+                indexBytes = bufferPool.acquire(mesher.getIndexCount() * Integer.BYTES);
+                mesher.copyPackedTo(vertexBytes, indexBytes.asIntBuffer());
+                vertexBytes.flip();
+            } else {
+                vertexBytes = bufferPool.acquire(mesher.getVertexFloatCount() * Float.BYTES);
+                texCoordBytes = bufferPool.acquire(mesher.getTexCoordFloatCount() * Float.BYTES);
+                indexBytes = bufferPool.acquire(mesher.getIndexCount() * Integer.BYTES);
+                mesher.copyTo(vertexBytes.asFloatBuffer(), texCoordBytes.asFloatBuffer(), indexBytes.asIntBuffer());
+            }
+        } catch (RuntimeException e) {
+            releaseIfAcquired(vertexBytes);
+            releaseIfAcquired(texCoordBytes);
+            releaseIfAcquired(indexBytes);
+            throw e;
+        }
+        return new Result<>(key, submitNanos, vertexBytes, texCoordBytes, indexBytes);
+    }
+
+    /**
+     * Sube las mallas terminadas hasta agotar el presupuesto de tiempo (siempre al menos una, si hay).
+     * Debe llamarse desde el hilo que posee el contexto de OpenGL.
+     *
+     * @return Número de mallas subidas en esta llamada.
+     */
+    public int drainUploads(long budgetNanos, Uploader<K> uploader) {
+        if (packed) {
+            throw new IllegalStateException("El planificador está en modo compacto: usa drainUploads(long, PackedUploader).");
+        }
+        return drain(budgetNanos, uploader, null);
+    }
+
+    /**
+     * Como {@link #drainUploads(long, Uploader)}, para el modo compacto.
+     */
+    public int drainUploads(long budgetNanos, PackedUploader<K> uploader) {
+        if (!packed) {
+            throw new IllegalStateException("El planificador no está en modo compacto: usa drainUploads(long, Uploader).");
+        }
+        return drain(budgetNanos, null, uploader);
+    }
+
+    private int drain(long budgetNanos, Uploader<K> uploader, PackedUploader<K> packedUploader) {
+        long start = System.nanoTime();
+        int uploaded = 0;
+        Result<K> result;
+        while ((uploaded == 0 || System.nanoTime() - start < budgetNanos) && (result = completed.poll()) != null) {
+            queueDepth.decrementAndGet();
+            if (result.error != null) {
+                failedCount++;
+                if (packedUploader != null) {
+                    packedUploader.failed(result.key, result.error);
+                } else {
+                    uploader.failed(result.key, result.error);
+                }
+                continue;
+            }
+            try {
+                if (packedUploader != null) {
+                    packedUploader.upload(result.key, result.vertexBytes, result.indexBytes.asIntBuffer());
+                } else {
+                    uploader.upload(result.key,
+                            result.vertexBytes.asFloatBuffer(),
+                            result.texCoordBytes.asFloatBuffer(),
+                            result.indexBytes.asIntBuffer());
+                }
+            } finally {
+                release(result);
+            }
+
+            long latency = System.nanoTime() - result.submitNanos;
+            totalLatencyNanos += latency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            uploadedCount++;
+            uploaded++;
+        }
+        return uploaded;
+    }
+
+    private void release(Result<K> result) {
+        releaseIfAcquired(result.vertexBytes);
+        releaseIfAcquired(result.texCoordBytes);
+        releaseIfAcquired(result.indexBytes);
+    }
+
+    private void releaseIfAcquired(ByteBuffer buffer) {
+        if (buffer != null) {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /** @return Chunks encolados o en proceso de mallado. */
+    public int getPendingJobs() { return pendingJobs.get(); }
+
+    /** @return Mallas terminadas que esperan a ser subidas a la GPU. */
+    public int getQueueDepth() { return queueDepth.get(); }
+
+    public long getUploadedCount() { return uploadedCount; }
+
+    /** @return Chunks cuyo mallado falló (entregados con {@link Uploader#failed}). */
+    public long getFailedCount() { return failedCount; }
+
+    /** @return Latencia media entre {@link #submit} y la subida a la GPU, en milisegundos. */
+    public double getAverageUploadLatencyMillis() {
+        return uploadedCount == 0 ? 0.0 : totalLatencyNanos / 1e6 / uploadedCount;
+    }
+
+    public double getMaxUploadLatencyMillis() { return maxLatencyNanos / 1e6; }
+
+    public NativeBufferPool getBufferPool() { return bufferPool; }
+
+    /**
+     * Detiene los hilos de trabajo y libera la memoria nativa pendiente. Las tareas aún en cola no se mallan,
+     * pero se ejecutan para liberar su copia del chunk (con {@code shutdownNow()} se descartarían sin liberarla).
+     */
+    public void cleanup() {
+        closed = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Advertencia: el mallado de chunks no terminó a tiempo; "
+                        + pendingJobs.get() + " tareas sin liberar.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Result<K> result;
+        while ((result = completed.poll()) != null) {
+            release(result);
+        }
+        bufferPool.cleanup();
+    }
+}
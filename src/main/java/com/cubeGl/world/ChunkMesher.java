@@ -0,0 +1,264 @@
+package com.cubeGl.world;
+
+import com.cubeGl.graphics.MeshData;
+import com.cubeGl.graphics.VertexLayout;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Genera la geometría de un {@link Chunk} en CPU (sin OpenGL).
+ * Solo se emiten las caras visibles (entre un bloque sólido y aire) y las caras coplanares
+ * contiguas del mismo bloque se fusionan en rectángulos mayores mediante "greedy meshing".
+ * <p>
+ * Una instancia reutiliza sus buffers internos entre llamadas, por lo que no es segura
+ * entre hilos: cada hilo de mallado debe usar su propio mesher.
+ */
+public class ChunkMesher {
+    private static final int INITIAL_QUADS = 1024;
+
+    // Máscara de caras de una capa: >0 cara hacia +d, <0 cara hacia -d, 0 sin cara
+    private final int[] mask = new int[SIZE * SIZE];
+    private final int[] x = new int[3];
+    private final int[] q = new int[3];
+    private final float[] position = new float[3];
+    private final short[] blocks = new short[Chunk.VOLUME]; // Bloques del chunk en curso, desempaquetados
+    private ChunkBorders borders; // Vecinos del chunk en curso (null: fuera del chunk todo es aire)
+    private int scale = 1; // Tamaño de cada celda en bloques (>1 al mallar un chunk reducido de ChunkLod)
+
+    // Capa del array de texturas de cada tipo de bloque (índice: id del bloque)
+    private int[] blockLayers;
+
+    private float[] vertices = new float[INITIAL_QUADS * 4 * MeshData.FLOATS_PER_VERTEX];
+    private float[] texCoords = new float[INITIAL_QUADS * 4 * MeshData.TEX_FLOATS_PER_VERTEX];
+    private int[] indices = new int[INITIAL_QUADS * 6];
+    private byte[] quadNormals = new byte[INITIAL_QUADS]; // Índice de normal de cada quad (VertexLayout.NORMAL_*)
+    private int quadCount;
+
+    /**
+     * Asigna la capa del {@link com.cubeGl.graphics.TextureArray} de cada tipo de bloque.
+     * Sin tabla (o para ids fuera de ella), el bloque {@code id} usa la capa {@code id - 1}.
+     */
+    public void setBlockLayers(int[] blockLayers) {
+        this.blockLayers = blockLayers;
+    }
+
+    private int textureLayer(int block) {
+        return blockLayers != null && block < blockLayers.length ? blockLayers[block] : block - 1;
+    }
+
+    /**
+     * Malla el chunk. Los bloques fuera del chunk se consideran aire.
+     * @return Geometría en coordenadas locales del chunk (de 0 a {@link Chunk#SIZE}).
+     */
+    public MeshData mesh(Chunk chunk) {
+        return mesh(chunk, 1);
+    }
+
+    /**
+     * Como {@link #mesh(Chunk)}, pero cada celda del chunk mide {@code scale} bloques (ver {@link ChunkLod}).
+     */
+    public MeshData mesh(Chunk chunk, int scale) {
+        build(chunk, scale);
+        byte[] normals = new byte[quadCount * 4];
+        for (int i = 0; i < normals.length; i++) {
+            normals[i] = quadNormals[i >> 2];
+        }
+        return new MeshData(
+                Arrays.copyOf(vertices, getVertexFloatCount()),
+                Arrays.copyOf(texCoords, getTexCoordFloatCount()),
+                Arrays.copyOf(indices, getIndexCount()),
+                normals);
+    }
+
+    /**
+     * Malla el chunk dejando el resultado en los buffers internos del mesher,
+     * para copiarlo después con {@link #copyTo(FloatBuffer, FloatBuffer, IntBuffer)} sin arrays intermedios.
+     * @return Número de rectángulos (quads) generados.
+     */
+    public int build(Chunk chunk) {
+        return build(chunk, 1);
+    }
+
+    /**
+     * Como {@link #build(Chunk)}, con celdas de {@code scale} bloques: posiciones y UVs se multiplican por
+     * la escala, así que la malla ocupa lo mismo y la textura se sigue repitiendo una vez por bloque.
+     */
+    public int build(Chunk chunk, int scale) {
+        return build(chunk, scale, null);
+    }
+
+    /**
+     * Como {@link #build(Chunk, int)}, sin emitir las caras del borde que tapan los bloques sólidos de los
+     * vecinos. Los bordes solo tienen sentido con {@code scale} 1 (el chunk completo).
+     */
+    public int build(Chunk chunk, int scale, ChunkBorders borders) {
+        this.scale = scale;
+        this.borders = borders;
+        quadCount = 0;
+        if (!chunk.isEmpty()) {
+            chunk.copyBlocks(blocks); // Una sola pasada por la paleta; el mallado lee el array
+            for (int d = 0; d < 3; d++) {
+                meshAxis(d);
+            }
+        }
+        return quadCount;
+    }
+
+    /**
+     * Copia el resultado del último {@link #build(Chunk)} a partir de la posición actual de cada buffer.
+     */
+    public void copyTo(FloatBuffer vertexBuffer, FloatBuffer texCoordBuffer, IntBuffer indexBuffer) {
+        vertexBuffer.put(vertices, 0, getVertexFloatCount());
+        texCoordBuffer.put(texCoords, 0, getTexCoordFloatCount());
+        indexBuffer.put(indices, 0, getIndexCount());
+    }
+
+    /**
+     * Copia el resultado del último {@link #build(Chunk)} codificado en {@link VertexLayout#PACKED_VOXEL}
+     * ({@link #getPackedVertexByteCount()} bytes de vértices), a partir de la posición actual de cada buffer.
+     */
+    public void copyPackedTo(ByteBuffer vertexBuffer, IntBuffer indexBuffer) {
+        for (int vertex = 0; vertex < quadCount * 4; vertex++) {
+            int vi = vertex * MeshData.FLOATS_PER_VERTEX;
+            int ti = vertex * MeshData.TEX_FLOATS_PER_VERTEX;
+            VertexLayout.putPackedVoxel(vertexBuffer, vertices[vi], vertices[vi + 1], vertices[vi + 2],
+                    texCoords[ti], texCoords[ti + 1], (int) texCoords[ti + 2], quadNormals[vertex >> 2], 0);
+        }
+        indexBuffer.put(indices, 0, getIndexCount());
+    }
+
+    public int getPackedVertexByteCount() { return quadCount * 4 * VertexLayout.PACKED_VOXEL.getStride(); }
+    public int getVertexFloatCount() { return quadCount * 4 * MeshData.FLOATS_PER_VERTEX; }
+    public int getTexCoordFloatCount() { return quadCount * 4 * MeshData.TEX_FLOATS_PER_VERTEX; }
+    public int getIndexCount() { return quadCount * 6; }
+
+    /**
+     * Recorre las capas perpendiculares al eje {@code d}, construye la máscara de caras visibles
+     * y la fusiona en rectángulos.
+     */
+    private void meshAxis(int d) {
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        q[0] = 0; q[1] = 0; q[2] = 0;
+        q[d] = 1;
+
+        for (x[d] = -1; x[d] < SIZE; ) {
+            // 1. Máscara de la frontera entre la capa x[d] y x[d] + 1
+            int n = 0;
+            for (x[v] = 0; x[v] < SIZE; x[v]++) {
+                for (x[u] = 0; x[u] < SIZE; x[u]++) {
+                    int a = x[d] >= 0 ? blocks[Chunk.index(x[0], x[1], x[2])] & 0xFFFF : border(d * 2, u, v);
+                    int b = x[d] < SIZE - 1 ? blocks[Chunk.index(x[0] + q[0], x[1] + q[1], x[2] + q[2])] & 0xFFFF : border(d * 2 + 1, u, v);
+                    if ((a != AIR) == (b != AIR)) {
+                        mask[n++] = 0;     // Ambos sólidos (cara oculta) o ambos aire
+                    } else if (a != AIR) {
+                        mask[n++] = x[d] >= 0 ? a : 0;        // Cara de 'a' mirando hacia +d (si 'a' es del vecino, la malla él)
+                    } else {
+                        mask[n++] = x[d] < SIZE - 1 ? -b : 0; // Cara de 'b' mirando hacia -d
+                    }
+                }
+            }
+            x[d]++;
+
+            // 2. Fusión voraz: extender cada cara primero a lo ancho (u) y luego a lo alto (v)
+            n = 0;
+            for (int j = 0; j < SIZE; j++) {
+                for (int i = 0; i < SIZE; ) {
+                    int c = mask[n];
+                    if (c == 0) {
+                        i++;
+                        n++;
+                        continue;
+                    }
+
+                    int w = 1;
+                    while (i + w < SIZE && mask[n + w] == c) w++;
+
+                    int h = 1;
+                    grow:
+                    while (j + h < SIZE) {
+                        for (int k = 0; k < w; k++) {
+                            if (mask[n + k + h * SIZE] != c) break grow;
+                        }
+                        h++;
+                    }
+
+                    emitQuad(d, u, v, x[d], i, j, w, h, c > 0, textureLayer(Math.abs(c)));
+
+                    for (int l = 0; l < h; l++) {
+                        for (int k = 0; k < w; k++) {
+                            mask[n + k + l * SIZE] = 0;
+                        }
+                    }
+                    i += w;
+                    n += w;
+                }
+            }
+        }
+    }
+
+    // Bloque del vecino de la cara 'face' en la posición actual (aire si no hay bordes)
+    private int border(int face, int u, int v) {
+        return borders != null ? borders.get(face, x[u], x[v]) & 0xFFFF : AIR;
+    }
+
+    /**
+     * Emite un rectángulo de w×h bloques en el plano {@code d = slice}, con origen (i, j) en los ejes (u, v).
+     * El orden de los índices deja la cara en sentido antihorario vista desde fuera.
+     */
+    private void emitQuad(int d, int u, int v, int slice, int i, int j, int w, int h, boolean positive, int layer) {
+        ensureCapacity();
+        int base = quadCount * 4;
+
+        for (int corner = 0; corner < 4; corner++) {
+            int du = (corner == 1 || corner == 2) ? w : 0;
+            int dv = (corner == 2 || corner == 3) ? h : 0;
+            position[d] = slice * scale;
+            position[u] = (i + du) * scale;
+            position[v] = (j + dv) * scale;
+
+            int vi = (base + corner) * MeshData.FLOATS_PER_VERTEX;
+            vertices[vi] = position[0];
+            vertices[vi + 1] = position[1];
+            vertices[vi + 2] = position[2];
+            vertices[vi + 3] = 1.0f;
+            vertices[vi + 4] = 1.0f;
+            vertices[vi + 5] = 1.0f;
+
+            // UV en unidades de bloque: la textura se repite (GL_REPEAT) una vez por bloque
+            int ti = (base + corner) * MeshData.TEX_FLOATS_PER_VERTEX;
+            texCoords[ti] = du * scale;
+            texCoords[ti + 1] = dv * scale;
+            texCoords[ti + 2] = layer;
+        }
+
+        // Normal de la cara: d * 2 (+X, +Y, +Z), +1 si mira hacia el lado negativo
+        quadNormals[quadCount] = (byte) (d * 2 + (positive ? 0 : 1));
+
+        int ii = quadCount * 6;
+        if (positive) {
+            indices[ii] = base;     indices[ii + 1] = base + 1; indices[ii + 2] = base + 2;
+            indices[ii + 3] = base + 2; indices[ii + 4] = base + 3; indices[ii + 5] = base;
+        } else {
+            indices[ii] = base;     indices[ii + 1] = base + 3; indices[ii + 2] = base + 2;
+            indices[ii + 3] = base + 2; indices[ii + 4] = base + 1; indices[ii + 5] = base;
+        }
+        quadCount++;
+    }
+
+    private void ensureCapacity() {
+        if ((quadCount + 1) * 6 > indices.length) {
+            int quads = indices.length / 6 * 2;
+            vertices = Arrays.copyOf(vertices, quads * 4 * MeshData.FLOATS_PER_VERTEX);
+            texCoords = Arrays.copyOf(texCoords, quads * 4 * MeshData.TEX_FLOATS_PER_VERTEX);
+            indices = Arrays.copyOf(indices, quads * 6);
+            quadNormals = Arrays.copyOf(quadNormals, quads);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cubeGl.world;
+
+/**
+ * {@link BlockStorage} con las palabras en un {@code long[]} del heap (el almacenamiento por defecto).
+ */
+public final class HeapBlockStorage extends BlockStorage {
+    private long[] words = new long[wordCount(MIN_BITS)];
+
+    @Override
+    protected long getWord(int index) {
+        return words[index];
+    }
+
+    @Override
+    protected void setWord(int index, long value) {
+        words[index] = value;
+    }
+
+    @Override
+    protected void replaceWords(int count) {
+        words = new long[count];
+    }
+
+    @Override
+    public BlockStorage copy() {
+        HeapBlockStorage copy = new HeapBlockStorage();
+        copy.copyPaletteFrom(this);
+        copy.words = words.clone();
+        return copy;
+    }
+
+    @Override
+    public void free() {
+        // Lo libera el GC
+    }
+
+    @Override
+    public long getNativeBytes() {
+        return 0;
+    }
+
+    @Override
+    public long getHeapBytes() {
+        return words.length * (long) Long.BYTES + getPaletteBytes();
+    }
+}
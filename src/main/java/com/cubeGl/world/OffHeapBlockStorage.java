@@ -0,0 +1,68 @@
+package com.cubeGl.world;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * {@link BlockStorage} con las palabras en memoria nativa ({@link MemoryUtil}): en un mundo grande, el grueso
+ * de los bloques no cuenta para el tamaño del heap ni lo recorre el GC. La memoria se libera con
+ * {@link #free()}; el dueño del chunk debe llamarlo (ver {@link Chunk#free()}).
+ */
+public final class OffHeapBlockStorage extends BlockStorage {
+    private long address;
+    private int wordCount;
+
+    public OffHeapBlockStorage() {
+        allocate(wordCount(MIN_BITS));
+    }
+
+    private void allocate(int count) {
+        address = MemoryUtil.nmemCallocChecked(count, Long.BYTES);
+        wordCount = count;
+    }
+
+    @Override
+    protected long getWord(int index) {
+        return MemoryUtil.memGetLong(address + (long) index * Long.BYTES);
+    }
+
+    @Override
+    protected void setWord(int index, long value) {
+        MemoryUtil.memPutLong(address + (long) index * Long.BYTES, value);
+    }
+
+    @Override
+    protected void replaceWords(int count) {
+        MemoryUtil.nmemFree(address);
+        allocate(count);
+    }
+
+    @Override
+    public BlockStorage copy() {
+        OffHeapBlockStorage copy = new OffHeapBlockStorage();
+        copy.copyPaletteFrom(this);
+        if (copy.wordCount != wordCount) {
+            copy.replaceWords(wordCount);
+        }
+        MemoryUtil.memCopy(address, copy.address, (long) wordCount * Long.BYTES);
+        return copy;
+    }
+
+    @Override
+    public void free() {
+        if (address != 0) {
+            MemoryUtil.nmemFree(address);
+            address = 0;
+            wordCount = 0;
+        }
+    }
+
+    @Override
+    public long getNativeBytes() {
+        return (long) wordCount * Long.BYTES;
+    }
+
+    @Override
+    public long getHeapBytes() {
+        return getPaletteBytes();
+    }
+}
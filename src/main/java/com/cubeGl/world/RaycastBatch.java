@@ -0,0 +1,148 @@
+package com.cubeGl.world;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lotes de miles de rayos ({@link VoxelRaycast}) repartidos entre los hilos de un {@link ForkJoinPool}: líneas
+ * de visión de la IA, sondas de luz (muchas direcciones desde un punto), etc.
+ * <p>
+ * Los rayos van en arrays planos (x, y, z seguidos por rayo) y los resultados se escriben en arrays del
+ * llamador, así que un lote no crea objetos por rayo: el lote se divide por mitades hasta tramos de
+ * {@link #LEAF_RAYS} rayos y cada hilo reutiliza su propio {@link VoxelRaycast}. Los lotes pequeños se lanzan
+ * en el hilo que llama.
+ * <p>
+ * Mientras se ejecuta un lote, nadie debe modificar la rejilla ni sus chunks (el llamador espera a que
+ * termine).
+ */
+public class RaycastBatch {
+    /** Distancia de impacto de los rayos que no chocan con nada. */
+    public static final float MISS = Float.POSITIVE_INFINITY;
+    /** Rayos por tarea: por debajo, repartir cuesta más de lo que se gana. */
+    public static final int LEAF_RAYS = 256;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<VoxelRaycast> raycasts;
+
+    // Tramo [from, to) de un lote
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    @SuppressWarnings("serial") // Nunca se serializa
+    private static final class Split extends RecursiveAction {
+        private final Range range;
+        private final int from;
+        private final int to;
+
+        private Split(Range range, int from, int to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_RAYS) {
+                range.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Split(range, from, middle), new Split(range, middle, to));
+        }
+    }
+
+    /** Con el pool común de la JVM. */
+    public RaycastBatch(ChunkGrid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    public RaycastBatch(ChunkGrid grid, ForkJoinPool pool) {
+        this.pool = pool;
+        this.raycasts = ThreadLocal.withInitial(() -> new VoxelRaycast(grid));
+    }
+
+    /**
+     * Lanza {@code count} rayos.
+     * @param origins      Origen de cada rayo (3 floats por rayo).
+     * @param directions   Dirección de cada rayo (3 floats por rayo, sin normalizar).
+     * @param maxDistances Distancia máxima de cada rayo.
+     * @param hitDistances Salida: distancia hasta el primer bloque sólido, o {@link #MISS}.
+     * @return Rayos que han chocado.
+     */
+    public int cast(float[] origins, float[] directions, float[] maxDistances, float[] hitDistances, int count) {
+        checkLength(origins, count * 3);
+        checkLength(directions, count * 3);
+        checkLength(maxDistances, count);
+        checkLength(hitDistances, count);
+        run(count, (from, to) -> {
+            VoxelRaycast raycast = raycasts.get();
+            for (int i = from; i < to; i++) {
+                int o = i * 3;
+                hitDistances[i] = raycast.cast(origins[o], origins[o + 1], origins[o + 2],
+                        directions[o], directions[o + 1], directions[o + 2], maxDistances[i])
+                        ? raycast.getDistance() : MISS;
+            }
+        });
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (hitDistances[i] != MISS) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Comprueba si hay línea de visión entre {@code count} pares de puntos: ningún bloque sólido se cruza en
+     * el segmento, sin contar el bloque que contiene el destino (así se puede apuntar a un bloque).
+     * @param from    Puntos de origen (3 floats por par).
+     * @param to      Puntos de destino (3 floats por par).
+     * @param visible Salida: true si hay línea de visión.
+     * @return Pares con línea de visión.
+     */
+    public int lineOfSight(float[] from, float[] to, boolean[] visible, int count) {
+        checkLength(from, count * 3);
+        checkLength(to, count * 3);
+        if (visible.length < count) {
+            throw new IllegalArgumentException("El array de salida tiene " + visible.length + " elementos; se necesitan " + count);
+        }
+        run(count, (start, end) -> {
+            VoxelRaycast raycast = raycasts.get();
+            for (int i = start; i < end; i++) {
+                int o = i * 3;
+                float dx = to[o] - from[o];
+                float dy = to[o + 1] - from[o + 1];
+                float dz = to[o + 2] - from[o + 2];
+                float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+                visible[i] = !raycast.cast(from[o], from[o + 1], from[o + 2], dx, dy, dz, length)
+                        || (raycast.getBlockX() == (int) Math.floor(to[o])
+                        && raycast.getBlockY() == (int) Math.floor(to[o + 1])
+                        && raycast.getBlockZ() == (int) Math.floor(to[o + 2]));
+            }
+        });
+        int visibleCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (visible[i]) {
+                visibleCount++;
+            }
+        }
+        return visibleCount;
+    }
+
+    private void run(int count, Range range) {
+        if (count <= LEAF_RAYS) {
+            range.run(0, count);
+        } else {
+            pool.invoke(new Split(range, 0, count));
+        }
+    }
+
+    private static void checkLength(float[] array, int length) {
+        if (array.length < length) {
+            throw new IllegalArgumentException("El array tiene " + array.length + " elementos; se necesitan " + length);
+        }
+    }
+
+    public ForkJoinPool getPool() { return pool; }
+}
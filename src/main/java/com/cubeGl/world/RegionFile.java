@@ -0,0 +1,265 @@
+package com.cubeGl.world;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Archivo con los chunks de una región de {@link #SIZE}³ chunks, ya comprimidos (ver {@link ChunkCodec}).
+ * <p>
+ * El archivo se divide en sectores de {@link #SECTOR_BYTES} bytes. Los primeros contienen la cabecera:
+ * número mágico, versión y una tabla con el sector inicial y la longitud en bytes de cada chunk (0 si no está
+ * guardado), en little-endian. Los datos de cada chunk ocupan sectores consecutivos.
+ * <p>
+ * Las lecturas no copian: devuelven una vista del archivo proyectado en memoria ({@link MappedByteBuffer}),
+ * que se vuelve a proyectar cuando el archivo crece (de forma geométrica, con sectores libres al final).
+ * Las escrituras van por el {@link FileChannel}: un chunk se sobrescribe en su sitio si cabe en sus sectores;
+ * si no, se mueve al primer hueco libre con sitio. Al moverlo, los datos se escriben antes que la entrada de
+ * la tabla, así que un corte a mitad de escritura deja la versión anterior. Al sobrescribir en su sitio no
+ * hay esa garantía: un corte puede dejar el chunk con datos de las dos versiones, que
+ * {@link ChunkCodec#decode(ByteBuffer)} rechaza si no son válidos.
+ * <p>
+ * No es seguro entre hilos: lo usa un único hilo de entrada/salida (ver {@link RegionStorage}).
+ */
+public class RegionFile implements Closeable {
+    public static final int SIZE = 8;
+    public static final int CHUNKS = SIZE * SIZE * SIZE;
+    public static final int SECTOR_BYTES = 256;
+
+    private static final int MAGIC = 0x31475243; // "CRG1"
+    private static final int VERSION = 1;
+    private static final int TABLE_OFFSET = 2 * Integer.BYTES;
+    private static final int HEADER_BYTES = TABLE_OFFSET + CHUNKS * 2 * Integer.BYTES;
+    private static final int HEADER_SECTORS = sectorsFor(HEADER_BYTES);
+    private static final int MIN_GROW_SECTORS = 64;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    // Copia en memoria de la tabla: sector inicial y longitud de cada chunk
+    private final int[] sectorOffsets = new int[CHUNKS];
+    private final int[] byteLengths = new int[CHUNKS];
+    private final BitSet usedSectors = new BitSet();
+    private int sectorCount;
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    private RegionFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Abre un archivo de región, creándolo vacío si no existe.
+     * @throws IOException Si no se puede abrir o la cabecera no es válida.
+     */
+    public static RegionFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        RegionFile region = new RegionFile(path, channel);
+        try {
+            if (channel.size() == 0) {
+                region.writeEmptyHeader();
+            } else {
+                region.readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return region;
+    }
+
+    private void writeEmptyHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).clear();
+        writeFully(header, 0);
+        sectorCount = HEADER_SECTORS;
+        usedSectors.set(0, HEADER_SECTORS);
+        remap();
+    }
+
+    private void readHeader() throws IOException {
+        if (channel.size() < (long) HEADER_SECTORS * SECTOR_BYTES) {
+            throw new IOException("Archivo de región truncado: " + path);
+        }
+        sectorCount = (int) Math.min(Integer.MAX_VALUE, channel.size() / SECTOR_BYTES);
+        remap();
+        ByteBuffer header = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("No es un archivo de región: " + path);
+        }
+        if (header.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Versión de región no soportada en " + path + ": " + header.getInt(Integer.BYTES));
+        }
+        usedSectors.set(0, HEADER_SECTORS);
+        IntBuffer table = header.position(TABLE_OFFSET).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        for (int i = 0; i < CHUNKS; i++) {
+            int sector = table.get(2 * i);
+            int length = table.get(2 * i + 1);
+            if (length == 0) {
+                continue;
+            }
+            int sectors = sectorsFor(length);
+            if (sector < HEADER_SECTORS || length < 0 || sector + sectors > sectorCount) {
+                // Entrada inválida (escritura interrumpida o archivo dañado): el chunk se descarta
+                System.err.println("Advertencia: entrada " + i + " no válida en " + path + "; se ignora.");
+                continue;
+            }
+            sectorOffsets[i] = sector;
+            byteLengths[i] = length;
+            usedSectors.set(sector, sector + sectors);
+        }
+    }
+
+    // Proyecta el archivo completo en memoria (solo lectura)
+    private void remap() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) sectorCount * SECTOR_BYTES);
+    }
+
+    /**
+     * Índice de un chunk dentro de su región a partir de sus coordenadas de chunk (de mundo).
+     */
+    public static int indexOf(int cx, int cy, int cz) {
+        return (Math.floorMod(cy, SIZE) * SIZE + Math.floorMod(cz, SIZE)) * SIZE + Math.floorMod(cx, SIZE);
+    }
+
+    public boolean contains(int index) {
+        return byteLengths[index] != 0;
+    }
+
+    /**
+     * Datos comprimidos de un chunk, como vista de solo lectura del archivo proyectado (sin copias).
+     * La vista deja de ser válida tras la siguiente escritura que haga crecer el archivo.
+     * @return null si el chunk no está guardado.
+     */
+    public ByteBuffer read(int index) {
+        int length = byteLengths[index];
+        if (length == 0) {
+            return null;
+        }
+        int offset = sectorOffsets[index] * SECTOR_BYTES;
+        return mapped.slice(offset, length);
+    }
+
+    /**
+     * Guarda los datos comprimidos de un chunk (desde la posición hasta el límite de {@code data}).
+     */
+    public void write(int index, ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        if (length == 0) {
+            throw new IllegalArgumentException("Los datos del chunk están vacíos.");
+        }
+        int sectors = sectorsFor(length);
+        int oldSector = sectorOffsets[index];
+        int oldSectors = byteLengths[index] == 0 ? 0 : sectorsFor(byteLengths[index]);
+
+        int sector;
+        if (oldSectors != 0 && sectors <= oldSectors) {
+            sector = oldSector; // Cabe en su sitio
+            usedSectors.clear(oldSector + sectors, oldSector + oldSectors);
+        } else {
+            sector = findFreeSectors(sectors);
+        }
+
+        if (sector + sectors > sectorCount) {
+            grow(sector + sectors);
+        }
+        writeFully(data, (long) sector * SECTOR_BYTES);
+        writeEntry(index, sector, length);
+
+        if (sector != oldSector && oldSectors != 0) {
+            usedSectors.clear(oldSector, oldSector + oldSectors);
+        }
+        usedSectors.set(sector, sector + sectors);
+        sectorOffsets[index] = sector;
+        byteLengths[index] = length;
+    }
+
+    /**
+     * Borra un chunk de la tabla; sus sectores quedan libres para otros.
+     */
+    public void delete(int index) throws IOException {
+        if (byteLengths[index] == 0) {
+            return;
+        }
+        writeEntry(index, 0, 0);
+        usedSectors.clear(sectorOffsets[index], sectorOffsets[index] + sectorsFor(byteLengths[index]));
+        sectorOffsets[index] = 0;
+        byteLengths[index] = 0;
+    }
+
+    // Amplía el archivo con sectores libres (al menos la mitad de su tamaño, para no reproyectarlo en cada
+    // chunk nuevo) y lo vuelve a proyectar
+    private void grow(int minSectors) throws IOException {
+        int newCount = Math.max(minSectors, sectorCount + Math.max(sectorCount / 2, MIN_GROW_SECTORS));
+        writeFully(ByteBuffer.allocate(1), (long) newCount * SECTOR_BYTES - 1);
+        sectorCount = newCount;
+        remap();
+    }
+
+    // Primer hueco de sectores consecutivos libres (el final del archivo siempre lo es)
+    private int findFreeSectors(int sectors) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (start < sectorCount) {
+            int end = usedSectors.nextSetBit(start);
+            if (end < 0 || end - start >= sectors) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(end);
+        }
+        return start;
+    }
+
+    private void writeEntry(int index, int sector, int length) throws IOException {
+        entryBuffer.clear();
+        entryBuffer.putInt(sector).putInt(length).flip();
+        writeFully(entryBuffer, TABLE_OFFSET + (long) index * 2 * Integer.BYTES);
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private static int sectorsFor(int bytes) {
+        return (bytes + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    }
+
+    /**
+     * Fuerza la escritura en disco de los datos y la tabla.
+     */
+    public void flush() throws IOException {
+        channel.force(false);
+    }
+
+    public Path getPath() { return path; }
+
+    public int getChunkCount() {
+        int count = 0;
+        for (int length : byteLengths) {
+            if (length != 0) count++;
+        }
+        return count;
+    }
+
+    /** @return Tamaño del archivo en sectores (incluidos los libres del final). */
+    public int getSectorCount() { return sectorCount; }
+
+    /** @return Sectores ocupados por la cabecera y los chunks; el resto son huecos reutilizables. */
+    public int getUsedSectorCount() { return usedSectors.cardinality(); }
+
+    @Override
+    public void close() throws IOException {
+        mapped = null; // La proyección se libera cuando la recoge el GC
+        channel.close();
+    }
+}
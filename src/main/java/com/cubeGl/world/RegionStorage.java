@@ -0,0 +1,158 @@
+package com.cubeGl.world;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Guarda y carga chunks en un directorio de archivos de región ({@link RegionFile}), comprimidos con
+ * {@link ChunkCodec}. Cada región se llama {@code r.<x>.<y>.<z>.cgr} según sus coordenadas de región.
+ * <p>
+ * Mantiene abiertas como mucho {@code maxOpenRegions} regiones (las usadas más recientemente); al abrir otra
+ * se cierra la más antigua. No es seguro entre hilos: lo usa un único hilo de entrada/salida
+ * (ver {@link WorldStreamer}).
+ */
+public class RegionStorage implements Closeable {
+    public static final String EXTENSION = ".cgr";
+
+    private final Path directory;
+    private final int maxOpenRegions;
+    private final Map<Long, RegionFile> regions = new LinkedHashMap<>(16, 0.75f, true); // Orden de acceso (LRU)
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES);
+
+    // Contadores
+    private long loadCount;
+    private long saveCount;
+    private long bytesRead;
+    private long bytesWritten;
+    private long loadNanos;
+    private long saveNanos;
+
+    /**
+     * @param directory      Directorio de las regiones (se crea si no existe).
+     * @param maxOpenRegions Regiones abiertas a la vez como máximo.
+     */
+    public RegionStorage(Path directory, int maxOpenRegions) throws IOException {
+        this.directory = directory;
+        this.maxOpenRegions = maxOpenRegions;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Carga un chunk guardado.
+     * @return null si el chunk no se había guardado nunca.
+     * @throws IOException Si falla la lectura o los datos están dañados.
+     */
+    public Chunk load(int cx, int cy, int cz) throws IOException {
+        long start = System.nanoTime();
+        RegionFile region = region(cx, cy, cz, false);
+        if (region == null) {
+            return null;
+        }
+        ByteBuffer data = region.read(RegionFile.indexOf(cx, cy, cz));
+        if (data == null) {
+            return null;
+        }
+        int length = data.remaining();
+        Chunk chunk;
+        try {
+            chunk = ChunkCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Chunk " + ChunkKey.toString(ChunkKey.of(cx, cy, cz)) + " dañado en " + region.getPath(), e);
+        }
+        loadCount++;
+        bytesRead += length;
+        loadNanos += System.nanoTime() - start;
+        return chunk;
+    }
+
+    /**
+     * Comprime y guarda un chunk, sustituyendo la versión anterior si la había.
+     */
+    public void save(int cx, int cy, int cz, Chunk chunk) throws IOException {
+        long start = System.nanoTime();
+        RegionFile region = region(cx, cy, cz, true);
+        encodeBuffer.clear();
+        ChunkCodec.encode(chunk, encodeBuffer);
+        encodeBuffer.flip();
+        bytesWritten += encodeBuffer.remaining();
+        region.write(RegionFile.indexOf(cx, cy, cz), encodeBuffer);
+        saveCount++;
+        saveNanos += System.nanoTime() - start;
+    }
+
+    // Región que contiene el chunk; si no existe y no se va a escribir, no se crea el archivo
+    private RegionFile region(int cx, int cy, int cz, boolean create) throws IOException {
+        int rx = Math.floorDiv(cx, RegionFile.SIZE);
+        int ry = Math.floorDiv(cy, RegionFile.SIZE);
+        int rz = Math.floorDiv(cz, RegionFile.SIZE);
+        long key = ChunkKey.of(rx, ry, rz);
+        RegionFile region = regions.get(key);
+        if (region != null) {
+            return region;
+        }
+        Path path = directory.resolve("r." + rx + "." + ry + "." + rz + EXTENSION);
+        if (!create && !Files.exists(path)) {
+            return null;
+        }
+        if (regions.size() >= maxOpenRegions) {
+            Iterator<RegionFile> eldest = regions.values().iterator();
+            eldest.next().close();
+            eldest.remove();
+        }
+        region = RegionFile.open(path);
+        regions.put(key, region);
+        return region;
+    }
+
+    /**
+     * Fuerza la escritura en disco de las regiones abiertas.
+     */
+    public void flush() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.flush();
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+    public int getOpenRegionCount() { return regions.size(); }
+    public long getLoadCount() { return loadCount; }
+    public long getSaveCount() { return saveCount; }
+    public long getBytesRead() { return bytesRead; }
+    public long getBytesWritten() { return bytesWritten; }
+
+    public String report() {
+        return String.format("RegionStorage: %d cargas (%.3f ms de media, %.1f bytes/chunk), "
+                        + "%d guardados (%.3f ms de media, %.1f bytes/chunk), %d regiones abiertas",
+                loadCount, loadCount == 0 ? 0.0 : loadNanos / 1e6 / loadCount,
+                loadCount == 0 ? 0.0 : (double) bytesRead / loadCount,
+                saveCount, saveCount == 0 ? 0.0 : saveNanos / 1e6 / saveCount,
+                saveCount == 0 ? 0.0 : (double) bytesWritten / saveCount,
+                regions.size());
+    }
+
+    /**
+     * Cierra todas las regiones abiertas (escribiendo antes sus datos en disco).
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RegionFile region : regions.values()) {
+            try {
+                region.flush();
+                region.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        regions.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.cubeGl.world;
+
+import com.cubeGl.util.LongLongMap;
+
+import java.util.function.LongConsumer;
+
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Chunks que hay que volver a mallar, por clave {@link ChunkKey}. Al editar un bloque solo se marca su chunk
+ * y, si el bloque está en un borde, el vecino que lo toca (sus caras del borde dependen de ese bloque, ver
+ * {@link ChunkBorders}).
+ * <p>
+ * Las marcas se agrupan: un chunk marcado muchas veces antes de mallarse se malla una sola vez. Cada frame,
+ * {@link #drain} entrega como mucho {@code maxChunks} chunks, los más cercanos a la cámara primero. Un chunk
+ * que ya se está mallando no se vuelve a entregar hasta que se suba su malla ({@link #uploaded}): las
+ * ediciones que llegan mientras tanto esperan y se mallan juntas después, así que editar muy deprisa nunca
+ * encola más de un trabajo por chunk.
+ * <p>
+ * Mide la latencia desde la primera edición de un chunk hasta que su malla nueva está en la GPU. No es segura
+ * entre hilos (solo desde el hilo de render).
+ */
+public class RemeshQueue {
+    private static final long NOT_EDITED = 0; // Marca sin edición (carga o descarga de un vecino): no se mide
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final LongLongMap dirty = new LongLongMap(256, ABSENT);    // Clave -> instante de la primera edición
+    private final LongLongMap inFlight = new LongLongMap(256, ABSENT); // Clave -> instante de la edición que se malla
+
+    // Selección de los más cercanos (ordenados por distancia), reutilizada entre frames
+    private long[] selectedKeys = new long[16];
+    private float[] selectedDistances = new float[16];
+
+    // Contadores
+    private long marks;
+    private long coalesced;
+    private long remeshes;
+    private long latencyCount;
+    private long latencyTotalNanos;
+    private long latencyMaxNanos;
+
+    /**
+     * Marca el chunk del bloque editado (coordenadas del mundo) y los vecinos con los que comparte cara.
+     */
+    public void markBlockChanged(int x, int y, int z) {
+        long now = System.nanoTime();
+        int cx = Math.floorDiv(x, SIZE);
+        int cy = Math.floorDiv(y, SIZE);
+        int cz = Math.floorDiv(z, SIZE);
+        mark(ChunkKey.of(cx, cy, cz), now);
+        int lx = Math.floorMod(x, SIZE);
+        int ly = Math.floorMod(y, SIZE);
+        int lz = Math.floorMod(z, SIZE);
+        if (lx == 0) mark(ChunkKey.of(cx - 1, cy, cz), now);
+        if (lx == SIZE - 1) mark(ChunkKey.of(cx + 1, cy, cz), now);
+        if (ly == 0) mark(ChunkKey.of(cx, cy - 1, cz), now);
+        if (ly == SIZE - 1) mark(ChunkKey.of(cx, cy + 1, cz), now);
+        if (lz == 0) mark(ChunkKey.of(cx, cy, cz - 1), now);
+        if (lz == SIZE - 1) mark(ChunkKey.of(cx, cy, cz + 1), now);
+    }
+
+    /**
+     * Marca un chunk sin que cuente como edición (por ejemplo, al cargarse él o un vecino).
+     */
+    public void markDirty(long key) {
+        mark(key, NOT_EDITED);
+    }
+
+    private void mark(long key, long editNanos) {
+        marks++;
+        long previous = dirty.get(key);
+        if (previous == ABSENT) {
+            dirty.put(key, editNanos);
+            return;
+        }
+        coalesced++;
+        if (previous == NOT_EDITED && editNanos != NOT_EDITED) {
+            dirty.put(key, editNanos); // Se mide desde la primera edición
+        }
+    }
+
+    /**
+     * Entrega a {@code consumer} como mucho {@code maxChunks} chunks marcados que no se estén mallando ya,
+     * del más cercano al más lejano a la posición dada (coordenadas del mundo), y los pasa a "en curso" hasta
+     * que se llame a {@link #uploaded} (o {@link #remove}).
+     * @return Chunks entregados.
+     */
+    public int drain(float camX, float camY, float camZ, int maxChunks, LongConsumer consumer) {
+        if (maxChunks <= 0 || dirty.isEmpty()) {
+            return 0;
+        }
+        if (selectedKeys.length < maxChunks) {
+            selectedKeys = new long[maxChunks];
+            selectedDistances = new float[maxChunks];
+        }
+        int count = 0;
+        for (int slot = dirty.nextSlot(-1); slot >= 0; slot = dirty.nextSlot(slot)) {
+            long key = dirty.keyAt(slot);
+            if (inFlight.containsKey(key)) {
+                continue;
+            }
+            float dx = (ChunkKey.x(key) + 0.5f) * SIZE - camX;
+            float dy = (ChunkKey.y(key) + 0.5f) * SIZE - camY;
+            float dz = (ChunkKey.z(key) + 0.5f) * SIZE - camZ;
+            float distance = dx * dx + dy * dy + dz * dz;
+            if (count == maxChunks && distance >= selectedDistances[count - 1]) {
+                continue;
+            }
+            // Inserción ordenada: maxChunks es pequeño
+            int i = count < maxChunks ? count++ : count - 1;
+            while (i > 0 && selectedDistances[i - 1] > distance) {
+                selectedKeys[i] = selectedKeys[i - 1];
+                selectedDistances[i] = selectedDistances[i - 1];
+                i--;
+            }
+            selectedKeys[i] = key;
+            selectedDistances[i] = distance;
+        }
+
+        // Primero se actualiza el estado, por si el consumidor vuelve a marcar chunks
+        for (int i = 0; i < count; i++) {
+            long key = selectedKeys[i];
+            inFlight.put(key, dirty.remove(key));
+        }
+        for (int i = 0; i < count; i++) {
+            consumer.accept(selectedKeys[i]);
+        }
+        remeshes += count;
+        return count;
+    }
+
+    /**
+     * La malla nueva del chunk ya está en la GPU (o se ha descartado por estar vacío): puede volver a
+     * entregarse y, si venía de una edición, se anota la latencia.
+     */
+    public void uploaded(long key) {
+        long editNanos = inFlight.remove(key);
+        if (editNanos == ABSENT || editNanos == NOT_EDITED) {
+            return;
+        }
+        long latency = System.nanoTime() - editNanos;
+        latencyCount++;
+        latencyTotalNanos += latency;
+        latencyMaxNanos = Math.max(latencyMaxNanos, latency);
+    }
+
+    /** Olvida un chunk (al descargarlo): se quitan sus marcas y deja de estar en curso. */
+    public void remove(long key) {
+        dirty.remove(key);
+        inFlight.remove(key);
+    }
+
+    public boolean isInFlight(long key) { return inFlight.containsKey(key); }
+    public int getDirtyCount() { return dirty.size(); }
+    public int getInFlightCount() { return inFlight.size(); }
+    public long getRemeshCount() { return remeshes; }
+    /** @return Marcas que se han agrupado con otra anterior del mismo chunk. */
+    public long getCoalescedCount() { return coalesced; }
+
+    /** @return Latencia media de edición a malla visible, en nanosegundos. */
+    public double getAverageLatencyNanos() {
+        return latencyCount == 0 ? 0.0 : (double) latencyTotalNanos / latencyCount;
+    }
+
+    public long getMaxLatencyNanos() { return latencyMaxNanos; }
+
+    public String report() {
+        return String.format("Remallado: %d chunks mallados, %d marcas (%d agrupadas), %d pendientes, %d en curso"
+                        + " | edición a visible (%d): media %.2f ms, máx %.2f ms",
+                remeshes, marks, coalesced, dirty.size(), inFlight.size(),
+                latencyCount, getAverageLatencyNanos() / 1e6, latencyMaxNanos / 1e6);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cubeGl.world;
+
+/**
+ * Genera el terreno de los chunks que todavía no se han guardado: una altura por columna a partir de ruido
+ * de valor (dos octavas interpoladas sobre una rejilla) que depende solo de la semilla y de la posición, así
+ * que cada chunk se puede generar por separado y en cualquier hilo.
+ * <p>
+ * Bloques: {@link #STONE} en profundidad, {@link #DIRT} bajo la superficie y {@link #GRASS} en la superficie.
+ */
+public class TerrainGenerator {
+    public static final short GRASS = 1;
+    public static final short DIRT = 2;
+    public static final short STONE = 3;
+
+    private static final int DIRT_DEPTH = 3;
+
+    private final long seed;
+    private final int baseHeight;
+    private final int amplitude;
+
+    /**
+     * @param baseHeight Altura media de la superficie, en bloques.
+     * @param amplitude  Variación máxima de la altura respecto a la media.
+     */
+    public TerrainGenerator(long seed, int baseHeight, int amplitude) {
+        this.seed = seed;
+        this.baseHeight = baseHeight;
+        this.amplitude = amplitude;
+    }
+
+    /**
+     * Genera el chunk en las coordenadas de chunk dadas (puede quedar vacío, por encima de la superficie).
+     */
+    public Chunk generate(int cx, int cy, int cz) {
+        Chunk chunk = new Chunk();
+        int minY = cy * Chunk.SIZE;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int height = heightAt(cx * Chunk.SIZE + x, cz * Chunk.SIZE + z);
+                int top = Math.min(height - minY, Chunk.SIZE);
+                for (int y = 0; y < top; y++) {
+                    int depth = height - 1 - (minY + y);
+                    chunk.setBlock(x, y, z, depth == 0 ? GRASS : depth <= DIRT_DEPTH ? DIRT : STONE);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Altura de la superficie (primer bloque de aire) en la columna de mundo (x, z).
+     */
+    public int heightAt(int x, int z) {
+        float noise = 0.65f * valueNoise(x, z, 32) + 0.35f * valueNoise(x, z, 8);
+        return baseHeight + Math.round((noise * 2.0f - 1.0f) * amplitude);
+    }
+
+    // Ruido en [0, 1]: valores aleatorios en una rejilla de lado 'cell', interpolados con smoothstep
+    private float valueNoise(int x, int z, int cell) {
+        int gx = Math.floorDiv(x, cell);
+        int gz = Math.floorDiv(z, cell);
+        float fx = smooth((float) Math.floorMod(x, cell) / cell);
+        float fz = smooth((float) Math.floorMod(z, cell) / cell);
+        float a = lerp(hash(gx, gz, cell), hash(gx + 1, gz, cell), fx);
+        float b = lerp(hash(gx, gz + 1, cell), hash(gx + 1, gz + 1, cell), fx);
+        return lerp(a, b, fz);
+    }
+
+    private float hash(int x, int z, int salt) {
+        long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (z * 0xC2B2AE3D27D4EB4FL) ^ (salt * 0x165667B19E3779F9L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (h >>> 40) / (float) (1L << 24);
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3.0f - 2.0f * t);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
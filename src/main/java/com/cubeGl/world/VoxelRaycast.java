@@ -0,0 +1,160 @@
+package com.cubeGl.world;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Rayos contra los bloques de un {@link ChunkGrid}: recorre, en orden, todas las celdas que atraviesa el rayo
+ * (algoritmo de Amanatides y Woo) hasta dar con un bloque sólido o superar la distancia máxima. Sirve para
+ * saber a qué bloque se apunta (y por qué cara, para poner otro al lado) y para consultas de visibilidad
+ * (ver {@link RaycastBatch}).
+ * <p>
+ * Cada celda cuesta unas pocas sumas y comparaciones: el rayo avanza por el eje cuyo siguiente plano está
+ * más cerca ({@code tMax}) y cada eje cruza un plano cada {@code tDelta} unidades. El chunk actual se guarda y
+ * solo se busca en la rejilla al cruzar a otro; los chunks vacíos o sin cargar cuentan como aire sin leer
+ * sus bloques.
+ * <p>
+ * El resultado del último rayo queda en el objeto (sin crear objetos por rayo), así que cada hilo debe usar
+ * su propia instancia.
+ */
+public final class VoxelRaycast {
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(SIZE);
+    private static final int LOCAL_MASK = SIZE - 1;
+    private static final int NO_CHUNK = Integer.MIN_VALUE; // Ninguna coordenada de chunk válida
+
+    private final ChunkGrid grid;
+
+    // Chunk de la celda actual (null: vacío o sin cargar)
+    private int chunkX;
+    private int chunkY;
+    private int chunkZ;
+    private Chunk chunk;
+
+    // Resultado del último rayo
+    private boolean hit;
+    private short block;
+    private int blockX;
+    private int blockY;
+    private int blockZ;
+    private int normalX;
+    private int normalY;
+    private int normalZ;
+    private float distance;
+    private int steps;
+
+    public VoxelRaycast(ChunkGrid grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Lanza un rayo desde el origen (coordenadas del mundo; el bloque (x, y, z) ocupa [x, x + 1)) en la
+     * dirección dada (no hace falta normalizarla). Si el origen está dentro de un bloque sólido, lo da como
+     * impacto a distancia 0 y sin normal.
+     * @param maxDistance Distancia máxima, en bloques (finita): solo cuentan los bloques en los que el rayo entra antes.
+     * @return true si ha chocado con un bloque sólido (ver los getters). Con dirección nula, false.
+     */
+    public boolean cast(float originX, float originY, float originZ,
+                        float directionX, float directionY, float directionZ, float maxDistance) {
+        if (!(maxDistance >= 0.0f) || maxDistance == Float.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Distancia máxima no válida: " + maxDistance);
+        }
+        hit = false;
+        block = AIR;
+        normalX = normalY = normalZ = 0;
+        distance = maxDistance;
+        steps = 0;
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+        if (length == 0.0f) {
+            return false;
+        }
+        float dx = directionX / length;
+        float dy = directionY / length;
+        float dz = directionZ / length;
+
+        int x = (int) Math.floor(originX);
+        int y = (int) Math.floor(originY);
+        int z = (int) Math.floor(originZ);
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+        // Distancia entre dos planos consecutivos de cada eje, y hasta el primero
+        float deltaX = stepX != 0 ? Math.abs(1.0f / dx) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? Math.abs(1.0f / dy) : Float.POSITIVE_INFINITY;
+        float deltaZ = stepZ != 0 ? Math.abs(1.0f / dz) : Float.POSITIVE_INFINITY;
+        float maxX = stepX > 0 ? (x + 1 - originX) * deltaX : stepX < 0 ? (originX - x) * deltaX : Float.POSITIVE_INFINITY;
+        float maxY = stepY > 0 ? (y + 1 - originY) * deltaY : stepY < 0 ? (originY - y) * deltaY : Float.POSITIVE_INFINITY;
+        float maxZ = stepZ > 0 ? (z + 1 - originZ) * deltaZ : stepZ < 0 ? (originZ - z) * deltaZ : Float.POSITIVE_INFINITY;
+
+        chunkX = NO_CHUNK;
+        float t = 0.0f;
+        while (true) {
+            short current = blockAt(x, y, z);
+            if (current != AIR) {
+                hit = true;
+                block = current;
+                blockX = x;
+                blockY = y;
+                blockZ = z;
+                distance = t;
+                return true;
+            }
+            // Avanza por el eje cuyo plano está más cerca; la normal es la cara por la que entra en la celda
+            if (maxX < maxY && maxX < maxZ) {
+                t = maxX;
+                if (t > maxDistance) break;
+                x += stepX;
+                maxX += deltaX;
+                normalX = -stepX;
+                normalY = normalZ = 0;
+            } else if (maxY < maxZ) {
+                t = maxY;
+                if (t > maxDistance) break;
+                y += stepY;
+                maxY += deltaY;
+                normalY = -stepY;
+                normalX = normalZ = 0;
+            } else {
+                t = maxZ;
+                if (t > maxDistance) break;
+                z += stepZ;
+                maxZ += deltaZ;
+                normalZ = -stepZ;
+                normalX = normalY = 0;
+            }
+            steps++;
+        }
+        normalX = normalY = normalZ = 0;
+        return false;
+    }
+
+    private short blockAt(int x, int y, int z) {
+        int cx = x >> CHUNK_SHIFT;
+        int cy = y >> CHUNK_SHIFT;
+        int cz = z >> CHUNK_SHIFT;
+        if (cx != chunkX || cy != chunkY || cz != chunkZ) {
+            chunkX = cx;
+            chunkY = cy;
+            chunkZ = cz;
+            chunk = grid.getChunk(cx, cy, cz);
+            if (chunk != null && chunk.isEmpty()) {
+                chunk = null;
+            }
+        }
+        return chunk != null ? chunk.getBlock(x & LOCAL_MASK, y & LOCAL_MASK, z & LOCAL_MASK) : AIR;
+    }
+
+    public boolean isHit() { return hit; }
+    /** @return Bloque alcanzado ({@link Chunk#AIR} si no hay impacto). */
+    public short getBlock() { return block; }
+    public int getBlockX() { return blockX; }
+    public int getBlockY() { return blockY; }
+    public int getBlockZ() { return blockZ; }
+    /** @return Normal de la cara por la que entra el rayo (-1, 0 o 1 por eje): el bloque adyacente es la posición más la normal. */
+    public int getNormalX() { return normalX; }
+    public int getNormalY() { return normalY; }
+    public int getNormalZ() { return normalZ; }
+    /** @return Distancia hasta el impacto, o la distancia máxima si no lo hay. */
+    public float getDistance() { return distance; }
+    /** @return Celdas recorridas por el último rayo. */
+    public int getSteps() { return steps; }
+}
@@ -0,0 +1,362 @@
+package com.cubeGl.world;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.cubeGl.world.Chunk.AIR;
+import static com.cubeGl.world.Chunk.SIZE;
+
+/**
+ * Mundo infinito por chunks: mantiene cargados los chunks a menos de {@code radius} chunks (en horizontal)
+ * de la cámara, entre las alturas de chunk {@code minChunkY} (incluida) y {@code maxChunkY} (excluida), y
+ * descarga los que se alejan.
+ * <p>
+ * Todo el acceso a disco ocurre en un hilo de entrada/salida propio, así que el hilo de render nunca espera:
+ * <ul>
+ *     <li>Carga: el chunk sale de la {@link ChunkCache} (LRU de chunks descomprimidos), si no del
+ *     {@link RegionStorage} y, si nunca se guardó, del {@link TerrainGenerator}. Los chunks terminados se
+ *     publican en una cola sin bloqueos y el hilo de render los recoge en {@link #update} con un presupuesto
+ *     de tiempo, empezando por los más cercanos.</li>
+ *     <li>Descarga: el chunk vuelve al hilo de entrada/salida, que lo guarda si se generó o se modificó
+ *     ({@link #markModified(long)}) y lo deja en la caché por si la cámara vuelve.</li>
+ * </ul>
+ * Sin {@link RegionStorage} no se guarda nada: un chunk que sale de la caché se vuelve a generar y pierde
+ * sus cambios.
+ * Cada chunk pertenece a un solo hilo a la vez (se cede al cargarlo y al descargarlo), así que no se copian
+ * ni se sincronizan. Para evitar cargas y descargas continuas en el borde, un chunk se descarga cuando se
+ * aleja más de {@code radius + 1} chunks.
+ */
+public class WorldStreamer {
+
+    /**
+     * Recibe en el hilo de render los cambios del conjunto de chunks cargados.
+     */
+    public interface Listener {
+        void chunkLoaded(long key, Chunk chunk);
+        void chunkUnloaded(long key);
+    }
+
+    private static final class Loaded {
+        private final long key;
+        private final Chunk chunk;
+        private final boolean generated;
+
+        private Loaded(long key, Chunk chunk, boolean generated) {
+            this.key = key;
+            this.chunk = chunk;
+            this.generated = generated;
+        }
+    }
+
+    private final RegionStorage storage;
+    private final TerrainGenerator generator;
+    private final int radius;
+    private final int minChunkY;
+    private final int maxChunkY;
+    private final int[] columnOffsets; // Pares (dx, dz) dentro del radio, ordenados por distancia
+
+    // Estado del hilo de render
+    private final Map<Long, Chunk> loaded = new HashMap<>();
+    private final Set<Long> requested = new HashSet<>();
+    private final Set<Long> modified = new HashSet<>();
+    private int centerX;
+    private int centerZ;
+    private boolean started;
+
+    // Estado del hilo de entrada/salida
+    private final ChunkCache cache;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cubegl-world-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<Loaded> completed = new ConcurrentLinkedQueue<>();
+
+    // Contadores (se escriben en el hilo de entrada/salida)
+    private final AtomicLong cacheLoads = new AtomicLong();
+    private final AtomicLong diskLoads = new AtomicLong();
+    private final AtomicLong generatedLoads = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+    private final AtomicLong ioNanos = new AtomicLong();
+
+    /**
+     * @param storage       Archivos de región donde se guardan los chunks, o null para no usar el disco.
+     * @param radius        Radio de carga en chunks, medido en horizontal desde el chunk de la cámara.
+     * @param cacheCapacity Chunks descargados que se conservan descomprimidos en memoria.
+     */
+    public WorldStreamer(RegionStorage storage, TerrainGenerator generator, int radius,
+                         int minChunkY, int maxChunkY, int cacheCapacity) {
+        if (radius < 0 || minChunkY >= maxChunkY) {
+            throw new IllegalArgumentException("Radio o rango vertical de carga no válido.");
+        }
+        this.storage = storage;
+        this.generator = generator;
+        this.radius = radius;
+        this.minChunkY = minChunkY;
+        this.maxChunkY = maxChunkY;
+        this.cache = new ChunkCache(cacheCapacity);
+        this.columnOffsets = columnOffsets(radius);
+    }
+
+    private static int[] columnOffsets(int radius) {
+        Integer[] columns = new Integer[(2 * radius + 1) * (2 * radius + 1)];
+        int count = 0;
+        for (int dz = -radius; dz <= radius; dz++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                if (dx * dx + dz * dz <= radius * radius) {
+                    columns[count++] = (dz + radius) * (2 * radius + 1) + (dx + radius);
+                }
+            }
+        }
+        int side = 2 * radius + 1;
+        Arrays.sort(columns, 0, count, (a, b) -> Integer.compare(distanceSquared(a, side, radius), distanceSquared(b, side, radius)));
+        int[] offsets = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            offsets[2 * i] = columns[i] % side - radius;
+            offsets[2 * i + 1] = columns[i] / side - radius;
+        }
+        return offsets;
+    }
+
+    private static int distanceSquared(int column, int side, int radius) {
+        int dx = column % side - radius;
+        int dz = column / side - radius;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Actualiza el conjunto de chunks con la posición de la cámara y entrega al listener los chunks cargados
+     * hasta agotar el presupuesto de tiempo (siempre al menos uno, si hay). Llamar una vez por frame desde el
+     * hilo de render; si la cámara no cambia de chunk y no hay cargas pendientes, no hace nada.
+     * @return Chunks entregados en esta llamada.
+     */
+    public int update(float x, float z, long budgetNanos, Listener listener) {
+        int cx = ChunkKey.toChunk(x);
+        int cz = ChunkKey.toChunk(z);
+        if (!started || cx != centerX || cz != centerZ) {
+            started = true;
+            centerX = cx;
+            centerZ = cz;
+            unloadFar(listener);
+            requestNear();
+        }
+        return deliver(budgetNanos, listener);
+    }
+
+    private boolean inRange(long key, int margin) {
+        int dx = ChunkKey.x(key) - centerX;
+        int dz = ChunkKey.z(key) - centerZ;
+        int limit = radius + margin;
+        return dx * dx + dz * dz <= limit * limit;
+    }
+
+    private void unloadFar(Listener listener) {
+        Iterator<Map.Entry<Long, Chunk>> it = loaded.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Chunk> entry = it.next();
+            long key = entry.getKey();
+            if (!inRange(key, 1)) {
+                it.remove();
+                listener.chunkUnloaded(key);
+                unload(key, entry.getValue(), modified.remove(key));
+            }
+        }
+    }
+
+    private void requestNear() {
+        for (int i = 0; i < columnOffsets.length; i += 2) {
+            int cx = centerX + columnOffsets[i];
+            int cz = centerZ + columnOffsets[i + 1];
+            for (int cy = minChunkY; cy < maxChunkY; cy++) {
+                long key = ChunkKey.of(cx, cy, cz);
+                if (!loaded.containsKey(key) && requested.add(key)) {
+                    io.execute(() -> load(key));
+                }
+            }
+        }
+    }
+
+    private int deliver(long budgetNanos, Listener listener) {
+        long start = System.nanoTime();
+        int delivered = 0;
+        Loaded result;
+        while ((delivered == 0 || System.nanoTime() - start < budgetNanos) && (result = completed.poll()) != null) {
+            requested.remove(result.key);
+            if (!inRange(result.key, 1)) {
+                // La cámara se alejó mientras se cargaba
+                unload(result.key, result.chunk, result.generated);
+                continue;
+            }
+            loaded.put(result.key, result.chunk);
+            if (result.generated) {
+                modified.add(result.key); // Se guarda al descargarlo
+            }
+            listener.chunkLoaded(result.key, result.chunk);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    private void unload(long key, Chunk chunk, boolean dirty) {
+        io.execute(() -> store(key, chunk, dirty));
+    }
+
+    // Se ejecuta en el hilo de entrada/salida
+    private void load(long key) {
+        long start = System.nanoTime();
+        int cx = ChunkKey.x(key);
+        int cy = ChunkKey.y(key);
+        int cz = ChunkKey.z(key);
+        boolean generated = false;
+        Chunk chunk = cache.take(key);
+        if (chunk != null) {
+            cacheLoads.incrementAndGet();
+        } else {
+            if (storage != null) {
+                try {
+                    chunk = storage.load(cx, cy, cz);
+                } catch (IOException e) {
+                    System.err.println("Advertencia: no se pudo cargar el chunk " + ChunkKey.toString(key)
+                            + "; se vuelve a generar: " + e.getMessage());
+                }
+            }
+            if (chunk != null) {
+                diskLoads.incrementAndGet();
+            } else {
+                chunk = generator.generate(cx, cy, cz);
+                generated = true;
+                generatedLoads.incrementAndGet();
+            }
+        }
+        ioNanos.addAndGet(System.nanoTime() - start);
+        completed.offer(new Loaded(key, chunk, generated));
+    }
+
+    // Se ejecuta en el hilo de entrada/salida (o al cerrar, cuando ya ha terminado)
+    private void store(long key, Chunk chunk, boolean dirty) {
+        long start = System.nanoTime();
+        if (dirty && storage != null) {
+            try {
+                storage.save(ChunkKey.x(key), ChunkKey.y(key), ChunkKey.z(key), chunk);
+                saves.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Advertencia: no se pudo guardar el chunk " + ChunkKey.toString(key) + ": " + e.getMessage());
+            }
+        }
+        cache.put(key, chunk);
+        ioNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Chunk cargado con esa clave ({@link ChunkKey}), o null si no está cargado. Solo desde el hilo de render.
+     */
+    public Chunk getChunk(long key) {
+        return loaded.get(key);
+    }
+
+    /**
+     * Marca un chunk cargado como modificado: se guardará en disco al descargarlo.
+     */
+    public void markModified(long key) {
+        if (loaded.containsKey(key)) {
+            modified.add(key);
+        }
+    }
+
+    /**
+     * Bloque en coordenadas del mundo, o {@link Chunk#AIR} si su chunk no está cargado.
+     */
+    public short getBlock(int x, int y, int z) {
+        Chunk chunk = loaded.get(ChunkKey.of(Math.floorDiv(x, SIZE), Math.floorDiv(y, SIZE), Math.floorDiv(z, SIZE)));
+        return chunk != null ? chunk.getBlock(Math.floorMod(x, SIZE), Math.floorMod(y, SIZE), Math.floorMod(z, SIZE)) : AIR;
+    }
+
+    /**
+     * Cambia un bloque en coordenadas del mundo y marca su chunk como modificado. Volver a mallar el chunk
+     * (y sus vecinos, si el bloque está en el borde) es cosa del llamador (ver {@link RemeshQueue}).
+     * @return false si el chunk no está cargado.
+     */
+    public boolean setBlock(int x, int y, int z, short block) {
+        long key = ChunkKey.of(Math.floorDiv(x, SIZE), Math.floorDiv(y, SIZE), Math.floorDiv(z, SIZE));
+        Chunk chunk = loaded.get(key);
+        if (chunk == null) {
+            return false;
+        }
+        chunk.setBlock(Math.floorMod(x, SIZE), Math.floorMod(y, SIZE), Math.floorMod(z, SIZE), block);
+        modified.add(key);
+        return true;
+    }
+
+    public int getRadius() { return radius; }
+    public int getLoadedCount() { return loaded.size(); }
+    /** @return Chunks pedidos al hilo de entrada/salida que todavía no se han entregado. */
+    public int getPendingCount() { return requested.size(); }
+    /** @return Archivos de región del mundo, o null si no se guarda en disco. */
+    public RegionStorage getStorage() { return storage; }
+
+    public String report() {
+        long loads = cacheLoads.get() + diskLoads.get() + generatedLoads.get();
+        // Memoria de los bloques cargados (sin la caché, que es del hilo de entrada/salida)
+        long heapBytes = 0;
+        long nativeBytes = 0;
+        for (Chunk chunk : loaded.values()) {
+            heapBytes += chunk.getStorage().getHeapBytes();
+            nativeBytes += chunk.getStorage().getNativeBytes();
+        }
+        return String.format("Mundo: %d chunks cargados (bloques: %.1f KB en heap, %.1f KB nativos), %d pendientes"
+                        + " | cargas: %d de caché, %d de disco, %d generadas | %d guardados | E/S %.3f ms por operación",
+                loaded.size(), heapBytes / 1024.0, nativeBytes / 1024.0, requested.size(),
+                cacheLoads.get(), diskLoads.get(), generatedLoads.get(), saves.get(),
+                ioNanos.get() / 1e6 / Math.max(1, loads + saves.get()));
+    }
+
+    /**
+     * Guarda los chunks cargados que lo necesiten, espera a que termine el hilo de entrada/salida y cierra
+     * las regiones.
+     */
+    public void cleanup() {
+        for (Map.Entry<Long, Chunk> entry : loaded.entrySet()) {
+            long key = entry.getKey();
+            unload(key, entry.getValue(), modified.remove(key));
+        }
+        loaded.clear();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Advertencia: el guardado del mundo no terminó a tiempo.");
+                io.shutdownNow();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Chunks generados que llegaron después del último update: el hilo de E/S ya terminó
+        Loaded result;
+        while ((result = completed.poll()) != null) {
+            if (result.generated) {
+                store(result.key, result.chunk, true);
+            }
+        }
+        requested.clear();
+        cache.clear();
+        if (storage == null) {
+            return;
+        }
+        try {
+            storage.close();
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudieron cerrar las regiones del mundo: " + e.getMessage());
+        }
+    }
+}
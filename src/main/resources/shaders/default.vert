@@ -0,0 +1,17 @@
+#version 330 core
+#include "frame_uniforms.glsl"
+
+layout(location = 0) in vec3 aPos;     // Usamos aPos para claridad
+layout(location = 1) in vec3 aColor;
+layout(location = 2) in vec3 aTexCoord; // Coordenadas de textura (u, v) + capa del array
+
+out vec3 vTexCoord;
+out vec3 vColor;
+
+uniform mat4 model;
+
+void main() {
+    vTexCoord = aTexCoord;
+    vColor = aColor;
+    gl_Position = viewProjection * model * vec4(aPos, 1.0f);
+}
@@ -0,0 +1,24 @@
+#version 330 core
+#include "frame_uniforms.glsl"
+
+// Variante instanciada: la matriz del modelo se reconstruye a partir de los atributos por instancia
+layout(location = 0) in vec3 aPos;
+layout(location = 1) in vec3 aColor;
+layout(location = 2) in vec3 aTexCoord;
+layout(location = 3) in vec4 iPosScale; // Por instancia: posición (xyz) + escala (w)
+layout(location = 4) in vec4 iRotation; // Por instancia: rotación como cuaternión
+
+out vec3 vTexCoord;
+out vec3 vColor;
+
+// Rota el vector v con el cuaternión unitario q
+vec3 rotate(vec4 q, vec3 v) {
+    return v + 2.0 * cross(q.xyz, cross(q.xyz, v) + q.w * v);
+}
+
+void main() {
+    vTexCoord = aTexCoord;
+    vColor = aColor;
+    vec3 worldPos = rotate(iRotation, aPos * iPosScale.w) + iPosScale.xyz;
+    gl_Position = viewProjection * vec4(worldPos, 1.0f);
+}
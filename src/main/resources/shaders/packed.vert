@@ -0,0 +1,25 @@
+#version 330 core
+#include "frame_uniforms.glsl"
+#include "vertex_layout.glsl"
+
+// Variante para VertexLayout.PACKED_VOXEL: decodifica la posición en punto fijo, las UV y la capa;
+// la normal da un sombreado fijo por cara y la oclusión ambiental oscurece el vértice
+layout(location = 0) in vec4 aPos;        // 10-10-10-2 con signo, en 1/POSITION_SCALE de bloque
+layout(location = 1) in uvec2 aLayerInfo; // x: capa, y: normal (bits 0-2) + oclusión (bits 3-4)
+layout(location = 2) in vec2 aTexCoord;   // En 1/UV_SCALE de repetición
+
+out vec3 vTexCoord;
+out vec3 vColor;
+
+uniform mat4 model;
+
+// +X, -X, +Y, -Y, +Z, -Z
+const float FACE_SHADE[6] = float[6](0.8, 0.8, 1.0, 0.5, 0.9, 0.9);
+
+void main() {
+    uint normal = aLayerInfo.y & 7u;
+    uint ao = (aLayerInfo.y >> 3) & 3u;
+    vTexCoord = vec3(aTexCoord / UV_SCALE, float(aLayerInfo.x));
+    vColor = vec3(FACE_SHADE[min(normal, 5u)] * (1.0 - 0.2 * float(ao)));
+    gl_Position = viewProjection * model * vec4(aPos.xyz / POSITION_SCALE, 1.0f);
+}
@@ -0,0 +1,12 @@
+#version 330 core
+
+uniform sampler2D uTexture; // Uniform para muestrear la textura
+
+in vec3 vTexCoord;
+in vec3 vColor; // Mantenemos el color por si acaso
+out vec4 fragColor;
+
+void main() {
+    // Usamos la textura para obtener el color final
+    fragColor = texture(uTexture, vTexCoord.xy);
+}
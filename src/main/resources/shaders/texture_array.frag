@@ -0,0 +1,13 @@
+#version 330 core
+
+// Variante con array de texturas: la tercera coordenada elige la capa, sin cambiar de textura entre draws.
+// Se multiplica por el color del vértice (blanco salvo en el formato compacto, que lo usa para sombrear)
+uniform sampler2DArray uTexture;
+
+in vec3 vTexCoord;
+in vec3 vColor;
+out vec4 fragColor;
+
+void main() {
+    fragColor = texture(uTexture, vTexCoord) * vec4(vColor, 1.0);
+}
@@ -0,0 +1,187 @@
+package com.cubeGl.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferAllocatorTest {
+
+    @Test
+    void bestFitPrefersTheSmallestHole() {
+        BufferAllocator allocator = new BufferAllocator(100);
+        int a = allocator.allocate(10); // [0, 10)
+        allocator.allocate(5);
+        allocator.allocate(10);
+        int d = allocator.allocate(4);  // [25, 29)
+        allocator.allocate(20);
+        allocator.free(a);
+        allocator.free(d);
+        // Huecos: [0, 10), [25, 29) y [49, 100)
+        assertEquals(3, allocator.getFreeBlockCount());
+        assertEquals(25, allocator.allocate(4));  // Encaje exacto aunque haya huecos antes
+        assertEquals(0, allocator.allocate(8));   // El menor en que cabe
+        assertEquals(49, allocator.allocate(30));
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertEquals(21, allocator.getLargestFreeBlock());
+    }
+
+    @Test
+    void freeMergesWithBothNeighbors() {
+        BufferAllocator allocator = new BufferAllocator(30);
+        int a = allocator.allocate(10);
+        int b = allocator.allocate(10);
+        int c = allocator.allocate(10);
+        assertEquals(0, allocator.getFreeBlockCount());
+        allocator.free(a);
+        allocator.free(c);
+        assertEquals(2, allocator.getFreeBlockCount());
+        allocator.free(b); // Une [0, 10), [10, 20) y [20, 30)
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(30, allocator.getLargestFreeBlock());
+        assertEquals(0, allocator.allocate(30));
+    }
+
+    @Test
+    void freeRejectsUnknownOffsets() {
+        BufferAllocator allocator = new BufferAllocator(16);
+        int a = allocator.allocate(4);
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(a + 1));
+        allocator.free(a);
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(a));
+    }
+
+    @Test
+    void growJoinsTheTrailingHole() {
+        BufferAllocator allocator = new BufferAllocator(20);
+        allocator.allocate(15);
+        allocator.grow(40);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(25, allocator.getLargestFreeBlock());
+        assertEquals(15, allocator.allocate(25));
+
+        allocator.grow(50); // Lleno: el espacio nuevo es un hueco propio
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(40, allocator.allocate(10));
+        assertThrows(IllegalArgumentException.class, () -> allocator.grow(10));
+    }
+
+    @Test
+    void compactMovesAllocationsDownInOffsetOrder() {
+        BufferAllocator allocator = new BufferAllocator(100);
+        int[] offsets = new int[5];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = allocator.allocate(10 + i);
+        }
+        allocator.free(offsets[0]);
+        allocator.free(offsets[2]);
+        assertEquals(3, allocator.getFreeBlockCount()); // [0, 10), [21, 33) y [60, 100)
+
+        List<int[]> moves = new ArrayList<>();
+        assertEquals(3, allocator.compact((from, to, size) -> moves.add(new int[]{from, to, size})));
+        assertEquals(3, moves.size());
+        int previousFrom = -1;
+        int next = 0;
+        for (int[] move : moves) {
+            assertTrue(move[0] > previousFrom, "orden creciente de offset");
+            assertTrue(move[1] <= move[0], "nunca hacia delante");
+            assertEquals(next, move[1]);
+            previousFrom = move[0];
+            next += move[2];
+        }
+        assertEquals(11, moves.get(0)[2]);
+        assertEquals(13, moves.get(1)[2]);
+        assertEquals(14, moves.get(2)[2]);
+
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(100 - 38, allocator.getLargestFreeBlock());
+        assertEquals(11, allocator.sizeOf(0));
+        assertEquals(13, allocator.sizeOf(11));
+        assertEquals(14, allocator.sizeOf(24));
+        assertEquals(-1, allocator.sizeOf(offsets[1]));
+        assertEquals(0.0f, allocator.getFragmentation());
+    }
+
+    @Test
+    void allocateFailsWhenFreeSpaceIsFragmented() {
+        BufferAllocator allocator = new BufferAllocator(40);
+        int[] offsets = new int[4];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = allocator.allocate(10);
+        }
+        allocator.free(offsets[0]);
+        allocator.free(offsets[2]);
+        assertEquals(20, allocator.getFree());
+        assertEquals(0.5f, allocator.getFragmentation());
+        assertEquals(-1, allocator.allocate(15)); // Hay 20 unidades libres, pero en dos huecos de 10
+
+        allocator.compact((from, to, size) -> { });
+        assertEquals(20, allocator.allocate(15));
+    }
+
+    @Test
+    void matchesALinearBestFitUnderRandomOperations() {
+        // Modelo de referencia: una casilla por unidad y búsqueda lineal de huecos
+        int capacity = 512;
+        BufferAllocator allocator = new BufferAllocator(capacity);
+        boolean[] taken = new boolean[capacity];
+        List<Integer> offsets = new ArrayList<>();
+        Random random = new Random(3);
+        for (int step = 0; step < 20_000; step++) {
+            if (!offsets.isEmpty() && random.nextInt(2) == 0) {
+                int offset = offsets.remove(random.nextInt(offsets.size()));
+                Arrays.fill(taken, offset, offset + allocator.sizeOf(offset), false);
+                allocator.free(offset);
+            } else {
+                int size = 1 + random.nextInt(24);
+                int expected = linearBestFit(taken, size);
+                assertEquals(expected, allocator.allocate(size), "paso " + step);
+                if (expected >= 0) {
+                    Arrays.fill(taken, expected, expected + size, true);
+                    offsets.add(expected);
+                }
+            }
+            int holes = 0;
+            int largest = 0;
+            for (int start = 0; start < capacity; ) {
+                int end = holeEnd(taken, start);
+                if (end > start) {
+                    holes++;
+                    largest = Math.max(largest, end - start);
+                }
+                start = Math.max(end, start + 1);
+            }
+            assertEquals(holes, allocator.getFreeBlockCount(), "paso " + step);
+            assertEquals(largest, allocator.getLargestFreeBlock(), "paso " + step);
+        }
+    }
+
+    // Fin del hueco que empieza en start (start si la unidad está ocupada)
+    private static int holeEnd(boolean[] taken, int start) {
+        int end = start;
+        while (end < taken.length && !taken[end]) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int linearBestFit(boolean[] taken, int size) {
+        int bestOffset = -1;
+        int bestSize = Integer.MAX_VALUE;
+        for (int start = 0; start < taken.length; ) {
+            int end = holeEnd(taken, start);
+            if (end - start >= size && end - start < bestSize) {
+                bestOffset = start;
+                bestSize = end - start;
+            }
+            start = Math.max(end, start + 1);
+        }
+        return bestOffset;
+    }
+}
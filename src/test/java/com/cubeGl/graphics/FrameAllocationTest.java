@@ -0,0 +1,108 @@
+package com.cubeGl.graphics;
+
+import com.cubeGl.util.AllocationMonitor;
+import com.cubeGl.util.Profiler;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La parte de CPU del bucle de render (cámara, transformaciones, culling, cola de dibujado, copia de los
+ * uniforms a memoria nativa y perfilador) no debe reservar memoria en estado estable: tras el calentamiento,
+ * el contador de asignación del hilo ({@link AllocationMonitor}) no puede moverse.
+ */
+class FrameAllocationTest {
+    private static final int WARMUP_FRAMES = 10_000; // Hasta que el JIT deja de recompilar el bucle
+    private static final int MEASURED_FRAMES = 2_000;
+    private static final int MAX_WINDOWS = 3;
+    private static final int DRAWS = 512;
+    private static final float FAR_PLANE = 100.0f;
+
+    private final Camera camera = new Camera((float) Math.toRadians(45.0), 16.0f / 9.0f, 0.1f, FAR_PLANE);
+    private final Transform transform = new Transform();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Matrix4f model = new Matrix4f();
+    private final Matrix4f drawModel = new Matrix4f();
+    private final Vector3f worldMin = new Vector3f();
+    private final Vector3f worldMax = new Vector3f();
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final RenderQueue renderQueue = new RenderQueue(DRAWS);
+    private final UniformCache uniforms = new UniformCache();
+    private final int modelUniform = uniforms.register("model", 0);
+    private final float[] matrix = new float[16];
+    private final ByteBuffer frameData = ByteBuffer.allocateDirect(FrameUniforms.SIZE).order(ByteOrder.nativeOrder());
+    private final Profiler profiler = new Profiler(256);
+    private final int cullScope = profiler.addSeries("cull");
+    private final int submitScope = profiler.addSeries("submit");
+
+    @Test
+    void steadyStateFrameDoesNotAllocate() {
+        int frame = 0;
+        for (; frame < WARMUP_FRAMES; frame++) {
+            renderFrame(frame);
+        }
+        // Una recompilación o desoptimización del JIT (por perfiles de otros tests) puede reservar unos bytes
+        // una sola vez en mitad de la medida; una asignación del bucle se repite en todas las ventanas
+        AllocationMonitor monitor = null;
+        for (int window = 0; window < MAX_WINDOWS; window++) {
+            monitor = new AllocationMonitor(0);
+            for (int i = 0; i < MEASURED_FRAMES; i++, frame++) {
+                renderFrame(frame);
+                monitor.endFrame();
+            }
+            if (monitor.isAllocationFree()) {
+                break;
+            }
+        }
+        assertEquals(MEASURED_FRAMES, monitor.getMeasuredFrames());
+        assertTrue(monitor.isAllocationFree(), monitor.report());
+    }
+
+    @Test
+    void frameQueuesAndSortsDraws() {
+        renderFrame(0);
+        assertTrue(renderQueue.size() > 0, "ningún draw ha pasado el culling");
+        for (int i = 1; i < renderQueue.size(); i++) {
+            assertTrue(Long.compareUnsigned(renderQueue.getKey(i - 1), renderQueue.getKey(i)) <= 0, "draw " + i);
+        }
+        assertTrue(renderQueue.getMeshChanges() <= renderQueue.size());
+    }
+
+    // Lo mismo que hace Main en cada frame, sin las llamadas a OpenGL
+    private void renderFrame(int frame) {
+        long t = System.nanoTime();
+        float time = frame / 60.0f;
+        camera.setPose((float) Math.sin(time), 1.0f, 3.0f + (float) Math.cos(time), -90.0f + frame % 30, 0.0f);
+        camera.updateViewMatrix();
+        transform.setRotation(rotation.rotationY(time));
+        transform.getModelMatrix(model);
+        FrameUniforms.write(camera, time, frameData);
+
+        frustum.set(camera.getViewProjection());
+        renderQueue.clear();
+        for (int i = 0; i < DRAWS; i++) {
+            drawModel.translation(i % 16 - 8, (i / 16) % 4 - 2, -(i / 64) * 2.0f).mul(model);
+            drawModel.transformAab(-0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f, worldMin, worldMax);
+            if (frustum.testAab(worldMin, worldMax)) {
+                float distance = camera.getPosition().distance(drawModel.m30(), drawModel.m31(), drawModel.m32());
+                renderQueue.submit(i % 3, i % 5, i % 40, distance, FAR_PLANE, drawModel);
+            }
+        }
+        t = profiler.record(cullScope, t);
+
+        renderQueue.sort();
+        renderQueue.countStateChanges();
+        model.get(matrix);
+        uniforms.updateMatrix(modelUniform, matrix, 0);
+        profiler.record(submitScope, t);
+        profiler.endFrame();
+    }
+}
@@ -0,0 +1,51 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LodSelectorTest {
+    private final LodSelector selector = new LodSelector(new float[]{0.5f, 0.25f, 0.125f}, 0.1f);
+
+    @Test
+    void levelForIgnoresHysteresis() {
+        assertEquals(0, selector.levelFor(Float.POSITIVE_INFINITY));
+        assertEquals(0, selector.levelFor(0.51f));
+        assertEquals(1, selector.levelFor(0.49f));
+        assertEquals(2, selector.levelFor(0.2f));
+        assertEquals(3, selector.levelFor(0.1f));
+        assertEquals(0, selector.getSwitchCount());
+    }
+
+    @Test
+    void switchingNeedsToCrossTheMargin() {
+        // Umbral 0.5 con un 10 % de margen: se baja por debajo de 0.45 y se sube por encima de 0.55
+        assertEquals(0, selector.select(0, 0.46f));
+        assertEquals(1, selector.select(0, 0.44f));
+        assertEquals(1, selector.select(1, 0.54f));
+        assertEquals(0, selector.select(1, 0.56f));
+        assertEquals(2, selector.getSwitchCount());
+    }
+
+    @Test
+    void selectCanSkipSeveralLevels() {
+        assertEquals(3, selector.select(0, 0.01f));
+        assertEquals(0, selector.select(3, 10.0f));
+        assertEquals(3, selector.select(7, 0.01f)); // Un nivel fuera de rango se ajusta
+    }
+
+    @Test
+    void screenSizeShrinksWithDistance() {
+        Matrix4f projection = new Matrix4f().setPerspective((float) Math.toRadians(90.0), 1.0f, 0.1f, 100.0f);
+        assertEquals(0.5f, LodSelector.screenSize(1.0f, 2.0f, projection), 1e-5f);
+        assertEquals(0.25f, LodSelector.screenSize(1.0f, 4.0f, projection), 1e-5f);
+        assertEquals(Float.POSITIVE_INFINITY, LodSelector.screenSize(1.0f, 0.5f, projection));
+    }
+
+    @Test
+    void thresholdsMustDecrease() {
+        assertThrows(IllegalArgumentException.class, () -> new LodSelector(new float[]{0.2f, 0.4f}, 0.1f));
+    }
+}
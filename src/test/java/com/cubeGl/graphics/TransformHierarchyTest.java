@@ -0,0 +1,129 @@
+package com.cubeGl.graphics;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransformHierarchyTest {
+    // Más que PARALLEL_BLOCK nodos por nivel, para que updateParallel() reparta trabajo entre hilos
+    private static final int NODES = 30_000;
+
+    // Árbol aleatorio ancho: cada nodo cuelga de uno anterior (o es raíz)
+    private static TransformHierarchy randomTree(Random random) {
+        TransformHierarchy hierarchy = new TransformHierarchy(16);
+        for (int i = 0; i < NODES; i++) {
+            int parent = i == 0 || random.nextInt(50) == 0 ? -1 : random.nextInt(i);
+            int node = hierarchy.createNode(parent);
+            randomize(hierarchy, node, random);
+        }
+        return hierarchy;
+    }
+
+    private static void randomize(TransformHierarchy hierarchy, int node, Random random) {
+        hierarchy.setPosition(node, random.nextFloat() * 2.0f - 1.0f, random.nextFloat() * 2.0f - 1.0f,
+                random.nextFloat() * 2.0f - 1.0f);
+        Quaternionf rotation = new Quaternionf().rotateXYZ(random.nextFloat() * 6.0f, random.nextFloat() * 6.0f,
+                random.nextFloat() * 6.0f);
+        hierarchy.setRotation(node, rotation.x, rotation.y, rotation.z, rotation.w);
+        hierarchy.setScale(node, 0.8f + random.nextFloat() * 0.4f, 0.8f + random.nextFloat() * 0.4f,
+                0.8f + random.nextFloat() * 0.4f);
+    }
+
+    // Referencia: translationRotateScale de JOML encadenado desde la raíz
+    private static void assertMatchesJoml(TransformHierarchy hierarchy, String message) {
+        int count = hierarchy.getNodeCount();
+        Matrix4f[] expected = new Matrix4f[count];
+        float[] world = hierarchy.getWorldMatrices();
+        for (int node = 0; node < count; node++) {
+            Matrix4f local = new Matrix4f().translationRotateScale(
+                    hierarchy.getPositionX(node), hierarchy.getPositionY(node), hierarchy.getPositionZ(node),
+                    hierarchy.getRotationX(node), hierarchy.getRotationY(node), hierarchy.getRotationZ(node),
+                    hierarchy.getRotationW(node),
+                    hierarchy.getScaleX(node), hierarchy.getScaleY(node), hierarchy.getScaleZ(node));
+            int parent = hierarchy.getParent(node);
+            expected[node] = parent < 0 ? local : new Matrix4f(expected[parent]).mul(local);
+            float[] values = expected[node].get(new float[16]);
+            for (int k = 0; k < 16; k++) {
+                float actual = world[node * 16 + k];
+                assertEquals(values[k], actual, 1e-4f * Math.max(1.0f, Math.abs(values[k])),
+                        message + ", nodo " + node + ", elemento " + k);
+            }
+        }
+    }
+
+    private static void editMiddleNodes(Consumer<TransformHierarchy> update, long seed) {
+        Random random = new Random(seed);
+        TransformHierarchy hierarchy = randomTree(random);
+        update.accept(hierarchy);
+        assertFalse(hierarchy.isDirty());
+        assertMatchesJoml(hierarchy, "inicial");
+
+        // Un nodo intermedio, y después varios a la vez (algunos descendientes de otros)
+        randomize(hierarchy, NODES / 2, random);
+        assertTrue(hierarchy.isDirty());
+        update.accept(hierarchy);
+        assertMatchesJoml(hierarchy, "un nodo");
+
+        for (int i = 0; i < 200; i++) {
+            int node = random.nextInt(NODES);
+            randomize(hierarchy, node, random);
+            randomize(hierarchy, node, random); // Dos cambios al mismo nodo cuentan una vez
+        }
+        randomize(hierarchy, 0, random);
+        update.accept(hierarchy);
+        assertFalse(hierarchy.isDirty());
+        assertMatchesJoml(hierarchy, "varios nodos");
+
+        // Nodos nuevos bajo nodos ya actualizados
+        for (int i = 0; i < 100; i++) {
+            randomize(hierarchy, hierarchy.createNode(random.nextInt(hierarchy.getNodeCount())), random);
+        }
+        update.accept(hierarchy);
+        assertMatchesJoml(hierarchy, "nodos nuevos");
+    }
+
+    @Test
+    void updateMatchesJoml() {
+        editMiddleNodes(TransformHierarchy::update, 1);
+    }
+
+    @Test
+    void updateParallelMatchesJoml() {
+        editMiddleNodes(TransformHierarchy::updateParallel, 2);
+    }
+
+    @Test
+    void bothUpdatesCanBeMixed() {
+        Random random = new Random(3);
+        TransformHierarchy hierarchy = randomTree(random);
+        for (int round = 0; round < 6; round++) {
+            for (int i = 0; i < 50; i++) {
+                randomize(hierarchy, random.nextInt(NODES), random);
+            }
+            if (round % 2 == 0) {
+                hierarchy.update();
+            } else {
+                hierarchy.updateParallel();
+            }
+            assertMatchesJoml(hierarchy, "ronda " + round);
+        }
+    }
+
+    @Test
+    void createNodeRejectsMissingParents() {
+        TransformHierarchy hierarchy = new TransformHierarchy(4);
+        int root = hierarchy.createNode(-1);
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.createNode(-2));
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.createNode(root + 1));
+        assertEquals(1, hierarchy.getNodeCount());
+        assertEquals(root, hierarchy.getParent(hierarchy.createNode(root)));
+    }
+}
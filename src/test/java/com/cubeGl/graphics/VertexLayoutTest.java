@@ -0,0 +1,132 @@
+package com.cubeGl.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+
+class VertexLayoutTest {
+
+    private static ByteBuffer buffer(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    // Dos vértices: uno en el origen y otro con coordenadas negativas y fraccionarias
+    private static MeshData sample() {
+        float[] vertices = {
+                0.0f, 0.0f, 0.0f, 1.0f, 0.5f, 0.25f,
+                -3.5f, 12.0625f, 31.9375f, 0.0f, 1.0f, 0.0f};
+        float[] texCoords = {
+                0.0f, 0.0f, 0.0f,
+                2.5f, 16.0f, 7.0f};
+        byte[] normals = {VertexLayout.NORMAL_POS_X, VertexLayout.NORMAL_NEG_Z};
+        return new MeshData(vertices, texCoords, new int[0], normals);
+    }
+
+    // Componente de 10 bits con signo de la posición empaquetada, en bloques
+    private static float unpackPosition(int packed, int component) {
+        int bits = (packed >> (component * 10)) & 0x3FF;
+        return ((bits << 22) >> 22) / (float) VertexLayout.POSITION_SCALE;
+    }
+
+    @Test
+    void predefinedStrides() {
+        assertEquals(36, VertexLayout.STANDARD.getStride());
+        assertEquals(12, VertexLayout.PACKED_VOXEL.getStride());
+        for (VertexLayout layout : new VertexLayout[]{VertexLayout.STANDARD, VertexLayout.PACKED_VOXEL}) {
+            int bytes = 0;
+            for (int i = 0; i < layout.getAttributeCount(); i++) {
+                bytes += layout.getAttribute(i).getByteSize();
+            }
+            assertEquals(layout.getStride(), bytes, layout.getName());
+        }
+    }
+
+    @Test
+    void writersFillExactlyOneStridePerVertex() {
+        MeshData data = sample();
+        for (VertexLayout layout : new VertexLayout[]{VertexLayout.STANDARD, VertexLayout.PACKED_VOXEL}) {
+            ByteBuffer dest = buffer(layout.getStride() * 4);
+            layout.write(data, dest);
+            assertEquals(layout.getStride() * data.getVertexCount(), dest.position(), layout.getName());
+        }
+    }
+
+    @Test
+    void standardRoundTrip() {
+        MeshData data = sample();
+        ByteBuffer dest = buffer(VertexLayout.STANDARD.getStride() * 2);
+        VertexLayout.STANDARD.write(data, dest);
+        dest.flip();
+        for (int vertex = 0; vertex < 2; vertex++) {
+            for (int k = 0; k < MeshData.FLOATS_PER_VERTEX; k++) {
+                assertEquals(data.getVertices()[vertex * MeshData.FLOATS_PER_VERTEX + k], dest.getFloat(), 0.0f);
+            }
+            for (int k = 0; k < MeshData.TEX_FLOATS_PER_VERTEX; k++) {
+                assertEquals(data.getTexCoords()[vertex * MeshData.TEX_FLOATS_PER_VERTEX + k], dest.getFloat(), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    void packedVoxelRoundTrip() {
+        ByteBuffer dest = buffer(VertexLayout.PACKED_VOXEL.getStride());
+        VertexLayout.putPackedVoxel(dest, -3.5f, 12.0625f, 31.9375f, 2.5f, 255.5f, 1234, VertexLayout.NORMAL_NEG_Y, 2);
+        assertEquals(VertexLayout.PACKED_VOXEL.getStride(), dest.position());
+        dest.flip();
+
+        int position = dest.getInt();
+        assertEquals(-3.5f, unpackPosition(position, 0), 0.0f);
+        assertEquals(12.0625f, unpackPosition(position, 1), 0.0f);
+        assertEquals(31.9375f, unpackPosition(position, 2), 0.0f);
+        assertEquals(2.5f, Short.toUnsignedInt(dest.getShort()) / (float) VertexLayout.UV_SCALE, 0.0f);
+        assertEquals(255.5f, Short.toUnsignedInt(dest.getShort()) / (float) VertexLayout.UV_SCALE, 0.0f);
+        assertEquals(1234, Short.toUnsignedInt(dest.getShort()));
+        int normalAndAo = Short.toUnsignedInt(dest.getShort());
+        assertEquals(VertexLayout.NORMAL_NEG_Y, normalAndAo & 0x7);
+        assertEquals(2, normalAndAo >> 3);
+    }
+
+    @Test
+    void packedVoxelWriterUsesMeshNormals() {
+        MeshData data = sample();
+        ByteBuffer dest = buffer(VertexLayout.PACKED_VOXEL.getStride() * 2);
+        VertexLayout.PACKED_VOXEL.write(data, dest);
+        dest.flip();
+        dest.position(VertexLayout.PACKED_VOXEL.getStride());
+        int position = dest.getInt();
+        assertEquals(-3.5f, unpackPosition(position, 0), 0.0f);
+        assertEquals(2.5f, Short.toUnsignedInt(dest.getShort()) / (float) VertexLayout.UV_SCALE, 0.0f);
+        assertEquals(16.0f, Short.toUnsignedInt(dest.getShort()) / (float) VertexLayout.UV_SCALE, 0.0f);
+        assertEquals(7, dest.getShort());
+        assertEquals(VertexLayout.NORMAL_NEG_Z, dest.getShort() & 0x7);
+    }
+
+    @Test
+    void packedVoxelRejectsOutOfRangeValues() {
+        ByteBuffer dest = buffer(VertexLayout.PACKED_VOXEL.getStride());
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.putPackedVoxel(dest, 32.0f, 0, 0, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.putPackedVoxel(dest, 0, -32.5f, 0, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.putPackedVoxel(dest, 0, 0, 0, -0.5f, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.putPackedVoxel(dest, 0, 0, 0, 0, 256.0f, 0, 0, 0));
+        assertEquals(0, dest.position());
+    }
+
+    @Test
+    void constructorRejectsInvalidLayouts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new VertexLayout("impar", 10, null, VertexLayout.Attribute.floats(0, 2, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new VertexLayout("desbordado", 12, null, VertexLayout.Attribute.floats(0, 3, 4)));
+        assertEquals(GL_FLOAT, new VertexLayout("ok", 12, null, VertexLayout.Attribute.floats(0, 3, 0))
+                .getAttribute(0).getType());
+    }
+}
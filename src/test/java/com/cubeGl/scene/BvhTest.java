@@ -0,0 +1,128 @@
+package com.cubeGl.scene;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BvhTest {
+    private static final int SCENES = 200;
+    private static final int FRUSTA_PER_SCENE = 8;
+
+    private final FrustumIntersection frustum = new FrustumIntersection();
+
+    // Cajas aleatorias en un cubo de 200 de lado; una de cada 10 repite otra y una de cada 10 es un punto
+    private static float[] randomBoxes(Random random, int count) {
+        float[] bounds = new float[count * Bvh.FLOATS_PER_BOX];
+        for (int i = 0; i < count; i++) {
+            int b = i * Bvh.FLOATS_PER_BOX;
+            int kind = random.nextInt(10);
+            if (kind == 0 && i > 0) {
+                System.arraycopy(bounds, random.nextInt(i) * Bvh.FLOATS_PER_BOX, bounds, b, Bvh.FLOATS_PER_BOX);
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                float min = random.nextFloat() * 200.0f - 100.0f;
+                bounds[b + k] = min;
+                bounds[b + 3 + k] = kind == 1 ? min : min + random.nextFloat() * 8.0f;
+            }
+        }
+        return bounds;
+    }
+
+    private void randomFrustum(Random random) {
+        Matrix4f viewProjection = new Matrix4f()
+                .perspective((float) Math.toRadians(30.0 + random.nextInt(60)), 0.5f + random.nextFloat() * 1.5f,
+                        0.1f, 20.0f + random.nextFloat() * 200.0f)
+                .lookAt(random.nextFloat() * 200.0f - 100.0f, random.nextFloat() * 200.0f - 100.0f,
+                        random.nextFloat() * 200.0f - 100.0f,
+                        random.nextFloat() * 200.0f - 100.0f, random.nextFloat() * 200.0f - 100.0f,
+                        random.nextFloat() * 200.0f - 100.0f,
+                        0.0f, 1.0f, 0.0f);
+        frustum.set(viewProjection);
+    }
+
+    private int assertSameVisibleSet(Bvh bvh, float[] bounds, int count, String message) {
+        int[] fromBvh = new int[count];
+        int[] fromLinear = new int[count];
+        int bvhCount = bvh.cull(frustum, fromBvh);
+        int linearCount = Bvh.cullLinear(frustum, bounds, count, fromLinear);
+        int[] expected = Arrays.copyOf(fromLinear, linearCount); // Ya está ordenado
+        int[] actual = Arrays.copyOf(fromBvh, bvhCount);
+        Arrays.sort(actual);
+        assertArrayEquals(expected, actual, message);
+        return linearCount;
+    }
+
+    @Test
+    void cullMatchesTheLinearScan() {
+        Random random = new Random(11);
+        long visible = 0;
+        long total = 0;
+        for (int scene = 0; scene < SCENES; scene++) {
+            int count = random.nextInt(300);
+            float[] bounds = randomBoxes(random, count);
+            Bvh bvh = new Bvh(bounds, count);
+            for (int f = 0; f < FRUSTA_PER_SCENE; f++) {
+                randomFrustum(random);
+                visible += assertSameVisibleSet(bvh, bounds, count, "escena " + scene + ", frustum " + f);
+                total += count;
+            }
+        }
+        // Los frustums no son triviales: ni lo ven todo ni nada
+        assertTrue(visible > total / 50 && visible < total / 2, visible + " de " + total);
+    }
+
+    @Test
+    void cullMatchesTheLinearScanAfterRefit() {
+        Random random = new Random(12);
+        for (int scene = 0; scene < SCENES / 4; scene++) {
+            int count = 1 + random.nextInt(300);
+            float[] bounds = randomBoxes(random, count);
+            Bvh bvh = new Bvh(bounds, count);
+            // Se mueve un tercio de los objetos (algunos muy lejos de su sitio) y se reajustan las cajas
+            for (int i = 0; i < count; i += 3) {
+                float dx = random.nextFloat() * 60.0f - 30.0f;
+                float dy = random.nextFloat() * 60.0f - 30.0f;
+                float dz = random.nextFloat() * 60.0f - 30.0f;
+                int b = i * Bvh.FLOATS_PER_BOX;
+                bounds[b] += dx; bounds[b + 3] += dx;
+                bounds[b + 1] += dy; bounds[b + 4] += dy;
+                bounds[b + 2] += dz; bounds[b + 5] += dz;
+            }
+            bvh.refit();
+            for (int f = 0; f < FRUSTA_PER_SCENE; f++) {
+                randomFrustum(random);
+                assertSameVisibleSet(bvh, bounds, count, "escena " + scene + ", frustum " + f);
+            }
+        }
+    }
+
+    @Test
+    void identicalBoxesStayInOneLeaf() {
+        int count = 50;
+        float[] bounds = new float[count * Bvh.FLOATS_PER_BOX];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(new float[]{-1, -1, -6, 1, 1, -4}, 0, bounds, i * Bvh.FLOATS_PER_BOX, Bvh.FLOATS_PER_BOX);
+        }
+        Bvh bvh = new Bvh(bounds, count);
+        assertEquals(1, bvh.getNodeCount()); // No se pueden separar
+        frustum.set(new Matrix4f().perspective((float) Math.toRadians(60.0), 1.0f, 0.1f, 100.0f));
+        assertEquals(count, bvh.cull(frustum, new int[count]));
+        frustum.set(new Matrix4f().perspective((float) Math.toRadians(60.0), 1.0f, 0.1f, 100.0f).rotateY((float) Math.PI));
+        assertEquals(0, bvh.cull(frustum, new int[count]));
+    }
+
+    @Test
+    void emptyHierarchy() {
+        Bvh bvh = new Bvh(new float[0], 0);
+        frustum.set(new Matrix4f().perspective(1.0f, 1.0f, 0.1f, 100.0f));
+        assertEquals(0, bvh.cull(frustum, new int[0]));
+    }
+}
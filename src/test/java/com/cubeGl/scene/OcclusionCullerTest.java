@@ -0,0 +1,96 @@
+package com.cubeGl.scene;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Con una proyección ortográfica de {@code [0, ancho] × [0, alto]}, una unidad del mundo es un texel y la
+ * profundidad crece con la distancia a lo largo de -Z.
+ */
+class OcclusionCullerTest {
+    private static final Matrix4fc IDENTITY = new Matrix4f();
+
+    private static OcclusionCuller culler(int width, int height) {
+        OcclusionCuller culler = new OcclusionCuller(width, height);
+        culler.begin(new Matrix4f().setOrtho(0, width, 0, height, 0.1f, 100.0f));
+        return culler;
+    }
+
+    @Test
+    void boxBehindAWallIsCulled() {
+        OcclusionCuller culler = culler(64, 48);
+        assertTrue(culler.addOccluder(IDENTITY, 0, 0, -10, 64, 48, -9));
+        assertFalse(culler.isVisible(IDENTITY, 20, 20, -30, 30, 30, -20));
+        assertTrue(culler.isVisible(IDENTITY, 20, 20, -8, 30, 30, -5)); // Delante del muro
+        assertEquals(1, culler.getOccluderCount());
+        assertEquals(1, culler.getCulledCount());
+        assertEquals(1, culler.getVisibleCount());
+    }
+
+    @Test
+    void boxStickingOutPastTheEdgeIsVisible() {
+        OcclusionCuller culler = culler(64, 48);
+        culler.addOccluder(IDENTITY, 0, 0, -10, 32, 48, -9); // Mitad izquierda
+        assertFalse(culler.isVisible(IDENTITY, 10, 10, -30, 30, 30, -20));
+        assertTrue(culler.isVisible(IDENTITY, 28, 10, -30, 36, 30, -20));
+        assertTrue(culler.isVisible(IDENTITY, 40, 10, -30, 50, 30, -20));
+    }
+
+    @Test
+    void boxDoesNotOccludeItself() {
+        OcclusionCuller culler = culler(64, 48);
+        culler.addOccluder(IDENTITY, 8, 8, -20, 40, 40, -10);
+        assertTrue(culler.isVisible(IDENTITY, 8, 8, -20, 40, 40, -10));
+        assertFalse(culler.isVisible(IDENTITY, 16, 16, -40, 31, 31, -21)); // Justo detrás
+    }
+
+    @Test
+    void boxCrossingTheNearPlaneIsVisible() {
+        OcclusionCuller culler = culler(64, 48);
+        assertFalse(culler.addOccluder(IDENTITY, 0, 0, -10, 64, 48, 1)); // Cruza el plano cercano: no ocluye
+        assertEquals(0, culler.getOccluderCount());
+        culler.addOccluder(IDENTITY, 0, 0, -10, 64, 48, -9);
+        assertTrue(culler.isVisible(IDENTITY, 20, 20, -30, 30, 30, 1));
+    }
+
+    @Test
+    void pyramidCoversOddSizes() {
+        int[][] sizes = {{100, 75}, {33, 17}, {7, 5}, {64, 48}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            String name = width + "×" + height;
+
+            // Muro en toda la pantalla: una caja de toda la pantalla detrás se prueba en los niveles altos
+            OcclusionCuller full = culler(width, height);
+            full.addOccluder(IDENTITY, 0, 0, -10, width, height, -9);
+            assertFalse(full.isVisible(IDENTITY, 0, 0, -30, width, height, -20), name);
+            assertFalse(full.isVisible(IDENTITY, width - 3, height - 3, -30, width, height, -20), name + ", esquina");
+
+            // Sin la última columna (o la última fila), la caja asoma por ese borde
+            OcclusionCuller column = culler(width, height);
+            column.addOccluder(IDENTITY, 0, 0, -10, width - 1, height, -9);
+            assertEquals(1.0f, column.getDepth(width - 1, height / 2), name);
+            assertTrue(column.isVisible(IDENTITY, 0, 0, -30, width, height, -20), name + ", columna");
+
+            OcclusionCuller row = culler(width, height);
+            row.addOccluder(IDENTITY, 0, 0, -10, width, height - 1, -9);
+            assertTrue(row.isVisible(IDENTITY, 0, 0, -30, width, height, -20), name + ", fila");
+        }
+    }
+
+    @Test
+    void beginClearsTheDepthBuffer() {
+        OcclusionCuller culler = culler(32, 32);
+        culler.addOccluder(IDENTITY, 0, 0, -10, 32, 32, -9);
+        assertFalse(culler.isVisible(IDENTITY, 4, 4, -30, 28, 28, -20));
+        culler.begin(new Matrix4f().setOrtho(0, 32, 0, 32, 0.1f, 100.0f));
+        assertTrue(culler.isVisible(IDENTITY, 4, 4, -30, 28, 28, -20));
+        assertTrue(culler.report().contains("2 frames"), culler.report());
+    }
+}
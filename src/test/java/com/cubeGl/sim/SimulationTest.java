@@ -0,0 +1,85 @@
+package com.cubeGl.sim;
+
+import com.cubeGl.graphics.Camera;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SimulationTest {
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int TICKS = 5_000;
+
+    private static Simulation simulation() {
+        Camera initial = new Camera(1.0f, 1.0f, 0.1f, 100.0f);
+        initial.setPose(1.0f, 2.0f, 3.0f, -60.0f, 10.0f);
+        return new Simulation(TICKS_PER_SECOND, initial, null);
+    }
+
+    // Entradas de un jugador: cada combinación de teclas se mantiene unos cuantos ticks
+    private static int[] inputs(long seed) {
+        Random random = new Random(seed);
+        int[] inputs = new int[TICKS];
+        for (int tick = 0; tick < TICKS; ) {
+            int keys = random.nextInt(256);
+            for (int hold = 1 + random.nextInt(30); hold > 0 && tick < TICKS; hold--) {
+                inputs[tick++] = keys;
+            }
+        }
+        return inputs;
+    }
+
+    // Pose de la cámara (posición, yaw, pitch) y rotación del cubo tras el último tick
+    private static float[] replay(Simulation simulation, int[] inputs) {
+        for (int input : inputs) {
+            simulation.step(input);
+        }
+        simulation.publish();
+        SimulationState state = simulation.latest();
+        Camera camera = new Camera(1.0f, 1.0f, 0.1f, 100.0f);
+        state.interpolateCamera(1.0f, camera, new Vector3f());
+        Quaternionf rotation = state.interpolateCubeRotation(1.0f, new Quaternionf());
+        Vector3f position = camera.getPosition();
+        return new float[]{position.x, position.y, position.z, camera.getYaw(), camera.getPitch(),
+                rotation.x, rotation.y, rotation.z, rotation.w};
+    }
+
+    @Test
+    void sameInputsGiveTheSameState() {
+        int[] inputs = inputs(5);
+        Simulation first = simulation();
+        Simulation second = simulation();
+        float[] a = replay(first, inputs);
+        float[] b = replay(second, inputs);
+        for (int i = 0; i < a.length; i++) {
+            // Bit a bit, no con tolerancia
+            assertEquals(Float.floatToRawIntBits(a[i]), Float.floatToRawIntBits(b[i]), "componente " + i);
+        }
+        assertEquals(TICKS, first.getTick());
+        assertEquals(TICKS, second.latest().getTick());
+    }
+
+    @Test
+    void differentInputsGiveADifferentState() {
+        float[] a = replay(simulation(), inputs(5));
+        float[] b = replay(simulation(), inputs(6));
+        assertNotEquals(a[0], b[0]);
+    }
+
+    @Test
+    void ticksAdvanceAFixedStep() {
+        Simulation simulation = simulation();
+        int[] forward = new int[TICKS_PER_SECOND];
+        Arrays.fill(forward, Simulation.INPUT_UP);
+        float[] state = replay(simulation, forward);
+        assertEquals(2.0f + 5.0f, state[1], 1e-4f); // Un segundo a 5 unidades por segundo
+        assertEquals(1.0f, state[0], 0.0f);
+        assertEquals(-60.0f, state[3], 0.0f);
+        assertEquals(1.0f / TICKS_PER_SECOND, simulation.getTickSeconds(), 0.0f);
+    }
+}
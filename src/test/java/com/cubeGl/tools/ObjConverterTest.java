@@ -0,0 +1,170 @@
+package com.cubeGl.tools;
+
+import com.cubeGl.graphics.MeshData;
+import com.cubeGl.graphics.MeshFile;
+import com.cubeGl.graphics.VertexLayout;
+import org.joml.primitives.AABBf;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjConverterTest {
+    // Cubo de lado 2 con las seis caras como cuadriláteros y las mismas cuatro uv en cada cara
+    private static final String CUBE = """
+            # cubo
+            v -1 -1 -1
+            v 1 -1 -1
+            v 1 1 -1
+            v -1 1 -1
+            v -1 -1 1
+            v 1 -1 1
+            v 1 1 1
+            v -1 1 1
+            vt 0 0
+            vt 1 0
+            vt 1 1
+            vt 0 1
+            vn 0 0 1
+            g caras
+            f 1/1 4/2 3/3 2/4
+            f 5/1 6/2 7/3 8/4
+            f 1/1 2/2 6/3 5/4
+            f 4/1 8/2 7/3 3/4
+            f 1/1 5/2 8/3 4/4
+            f 2/1 3/2 7/3 6/4
+            """;
+
+    // Nivel simple: un tetraedro con referencias negativas y sin uv
+    private static final String TETRAHEDRON = """
+            v -1 -1 -1
+            v 1 -1 -1
+            v 0 1 -1
+            v 0 0 1
+            f -4 -2 -3
+            f -4 -3 -1
+            f -3 -2 -1
+            f -2 -4 -1
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path obj(String name, String contents) throws IOException {
+        return Files.writeString(dir.resolve(name), contents);
+    }
+
+    @Test
+    void parseSharesVerticesAndTriangulatesFaces() throws IOException {
+        MeshData cube = ObjConverter.parse(obj("cubo.obj", CUBE));
+        assertEquals(20, cube.getVertexCount()); // 24 esquinas de cara; 4 repiten posición y uv
+        assertEquals(12 * 3, cube.getIndexCount());
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3}, Arrays.copyOf(cube.getIndices(), 6));
+
+        MeshData tetrahedron = ObjConverter.parse(obj("tetraedro.obj", TETRAHEDRON));
+        assertEquals(4, tetrahedron.getVertexCount());
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 2, 1, 3, 1, 0, 3}, tetrahedron.getIndices());
+        // El vértice 1 es la posición -2 (tercera): los índices siguen el orden de aparición en las caras
+        assertEquals(0.0f, tetrahedron.getVertices()[MeshData.FLOATS_PER_VERTEX]);
+        assertEquals(1.0f, tetrahedron.getVertices()[MeshData.FLOATS_PER_VERTEX + 1]);
+    }
+
+    @Test
+    void standardRoundTrip() throws IOException {
+        roundTrip(VertexLayout.STANDARD);
+    }
+
+    @Test
+    void packedVoxelRoundTrip() throws IOException {
+        roundTrip(VertexLayout.PACKED_VOXEL);
+    }
+
+    private void roundTrip(VertexLayout layout) throws IOException {
+        MeshData[] lods = {
+                ObjConverter.parse(obj("cubo.obj", CUBE)),
+                ObjConverter.parse(obj("tetraedro.obj", TETRAHEDRON))};
+        Path path = dir.resolve("malla" + MeshFile.EXTENSION);
+        MeshFile.write(path, layout, lods, new float[]{0.3f});
+
+        MeshFile file = MeshFile.open(path);
+        assertSame(layout, file.getLayout());
+        assertEquals(2, file.getLodCount());
+        assertEquals(0.3f, file.getThreshold(0));
+        AABBf bounds = file.getBounds(new AABBf());
+        assertEquals(new AABBf(-1, -1, -1, 1, 1, 1), bounds);
+
+        for (int lod = 0; lod < lods.length; lod++) {
+            MeshData source = lods[lod];
+            assertEquals(source.getVertexCount(), file.getVertexCount(lod));
+            assertEquals(source.getIndexCount(), file.getIndexCount(lod));
+
+            ByteBuffer expected = ByteBuffer.allocate(source.getVertexCount() * layout.getStride())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            layout.write(source, expected);
+            expected.flip();
+            assertEquals(expected, file.getVertices(lod), layout.getName() + ", nivel " + lod);
+
+            IntBuffer indices = file.getIndices(lod);
+            int[] read = new int[indices.remaining()];
+            indices.get(read);
+            assertArrayEquals(source.getIndices(), read, "nivel " + lod);
+        }
+    }
+
+    @Test
+    void mainWritesTheDefaultThresholds() throws IOException {
+        Path path = dir.resolve("cli" + MeshFile.EXTENSION);
+        ObjConverter.main(new String[]{"--layout", "packed", path.toString(),
+                obj("a.obj", CUBE).toString(), obj("b.obj", TETRAHEDRON).toString(), obj("c.obj", TETRAHEDRON).toString()});
+
+        MeshFile file = MeshFile.open(path);
+        assertSame(VertexLayout.PACKED_VOXEL, file.getLayout());
+        assertEquals(3, file.getLodCount());
+        assertEquals(0.25f, file.getThreshold(0));
+        assertEquals(0.125f, file.getThreshold(1));
+    }
+
+    @Test
+    void malformedObjFails() throws IOException {
+        assertThrows(IOException.class, () -> ObjConverter.parse(obj("dos.obj", "v 0 0 0\nv 1 0 0\nf 1 2\n")));
+        assertThrows(IOException.class, () -> ObjConverter.parse(obj("rango.obj", "v 0 0 0\nv 1 0 0\nf 1 2 3\n")));
+        assertThrows(IOException.class, () -> ObjConverter.parse(obj("uv.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1/1 2/1 3/1\n")));
+        assertThrows(IOException.class, () -> ObjConverter.parse(obj("numero.obj", "v 0 cero 0\n")));
+        assertThrows(IOException.class, () -> ObjConverter.parse(obj("corta.obj", "v 0 0\n")));
+    }
+
+    @Test
+    void malformedMeshFileFails() throws IOException {
+        MeshData[] lods = {ObjConverter.parse(obj("cubo.obj", CUBE))};
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshFile.write(dir.resolve("umbrales.cgm"), VertexLayout.STANDARD, lods, new float[]{0.5f}));
+
+        Path path = dir.resolve("cubo" + MeshFile.EXTENSION);
+        MeshFile.write(path, VertexLayout.STANDARD, lods, new float[0]);
+        byte[] bytes = Files.readAllBytes(path);
+
+        Path truncated = Files.write(dir.resolve("truncada.cgm"), Arrays.copyOf(bytes, bytes.length - 16));
+        IOException e = assertThrows(IOException.class, () -> MeshFile.open(truncated));
+        assertTrue(e.getMessage().contains("fuera del archivo"), e.getMessage());
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 'X';
+        Path notMesh = Files.write(dir.resolve("magia.cgm"), badMagic);
+        assertThrows(IOException.class, () -> MeshFile.open(notMesh));
+
+        Path header = Files.write(dir.resolve("cabecera.cgm"), Arrays.copyOf(bytes, 40));
+        assertThrows(IOException.class, () -> MeshFile.open(header));
+    }
+}
@@ -0,0 +1,87 @@
+package com.cubeGl.util;
+
+import com.cubeGl.world.ChunkKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongMapTest {
+    private static final long MISSING = -1;
+
+    @Test
+    void putGetRemove() {
+        LongLongMap map = new LongLongMap(4, MISSING);
+        assertTrue(map.isEmpty());
+        assertEquals(MISSING, map.get(0));
+        assertEquals(MISSING, map.put(0, 10));
+        assertEquals(MISSING, map.put(Long.MIN_VALUE, 20));
+        assertEquals(10, map.put(0, 11));
+        assertEquals(2, map.size());
+        assertEquals(11, map.get(0));
+        assertEquals(20, map.get(Long.MIN_VALUE));
+        assertEquals(11, map.remove(0));
+        assertEquals(MISSING, map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.containsKey(Long.MIN_VALUE));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        // Claves de chunk de una zona pequeña: muchas colisiones y borrados en mitad de los grupos
+        LongLongMap map = new LongLongMap(0, MISSING);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long key = ChunkKey.of(random.nextInt(24) - 12, random.nextInt(4) - 2, random.nextInt(24) - 12);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, MISSING), map.remove(key));
+                expected.remove(key);
+            } else {
+                long value = random.nextInt(1000);
+                assertEquals(expected.getOrDefault(key, MISSING), map.put(key, value));
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().longValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void slotsVisitEveryEntryOnce() {
+        LongLongMap map = new LongLongMap(16, MISSING);
+        for (int i = 0; i < 100; i++) {
+            map.put(ChunkKey.of(i, -i, i * 3), i);
+        }
+        map.remove(ChunkKey.of(50, -50, 150));
+        Set<Long> seen = new HashSet<>();
+        for (int slot = map.nextSlot(-1); slot >= 0; slot = map.nextSlot(slot)) {
+            long key = map.keyAt(slot);
+            assertTrue(seen.add(key));
+            assertEquals(ChunkKey.x(key), map.valueAt(slot));
+        }
+        assertEquals(99, seen.size());
+        assertFalse(seen.contains(ChunkKey.of(50, -50, 150)));
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongLongMap map = new LongLongMap(8, MISSING);
+        map.put(1, 1);
+        map.put(2, 2);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.nextSlot(-1));
+        assertEquals(MISSING, map.get(1));
+    }
+}
@@ -0,0 +1,85 @@
+package com.cubeGl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+    // Valor y su copia: si el lector viera un objeto a medio escribir, no coincidirían
+    private static final class Sample {
+        long value;
+        long check;
+    }
+
+    private static void write(TripleBuffer<Sample> buffer, long value) {
+        Sample sample = buffer.getWriteBuffer();
+        sample.value = value;
+        sample.check = ~value;
+        buffer.publish();
+    }
+
+    @Test
+    void readerGetsTheLatestPublishedBuffer() {
+        TripleBuffer<Sample> buffer = new TripleBuffer<>(Sample::new);
+        assertFalse(buffer.update());
+
+        write(buffer, 1);
+        assertTrue(buffer.update());
+        assertEquals(1, buffer.getReadBuffer().value);
+        assertFalse(buffer.update()); // Nada nuevo: se queda con el mismo
+        assertEquals(1, buffer.getReadBuffer().value);
+
+        write(buffer, 2);
+        write(buffer, 3);
+        write(buffer, 4); // Varias publicaciones seguidas: solo llega la última
+        assertTrue(buffer.update());
+        assertEquals(4, buffer.getReadBuffer().value);
+        assertFalse(buffer.update());
+    }
+
+    @Test
+    void readerNeverHoldsTheWriteBuffer() {
+        TripleBuffer<Sample> buffer = new TripleBuffer<>(Sample::new);
+        for (int i = 0; i < 100; i++) {
+            write(buffer, i);
+            if (i % 3 == 0) {
+                buffer.update();
+            }
+            assertNotSame(buffer.getReadBuffer(), buffer.getWriteBuffer(), "publicación " + i);
+        }
+    }
+
+    @Test
+    void concurrentReaderSeesIncreasingCompleteValues() throws InterruptedException {
+        TripleBuffer<Sample> buffer = new TripleBuffer<>(Sample::new);
+        long last = 200_000;
+        Thread writer = new Thread(() -> {
+            for (long value = 1; value <= last; value++) {
+                write(buffer, value);
+            }
+        });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        writer.setUncaughtExceptionHandler((thread, error) -> failure.set(error));
+        writer.start();
+
+        long seen = 0;
+        while (seen < last) {
+            if (buffer.update()) {
+                Sample sample = buffer.getReadBuffer();
+                assertEquals(~sample.value, sample.check, "objeto a medio escribir");
+                assertTrue(sample.value > seen, sample.value + " después de " + seen);
+                seen = sample.value;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,235 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockStorageTest {
+    private static final int VOLUME = BlockStorage.VOLUME;
+    // Bloques reservados para los identificadores nuevos (múltiplos de 6); el resto recibe escrituras aleatorias
+    private static final int RESERVED_STRIDE = 6;
+    private static final int DISTINCT_IDS = 600;
+
+    private static void assertSameBlocks(short[] expected, BlockStorage storage, String message) {
+        for (int i = 0; i < VOLUME; i++) {
+            if (expected[i] != storage.get(i)) {
+                assertEquals(expected[i], storage.get(i), message + ", bloque " + i);
+            }
+        }
+        short[] copied = new short[VOLUME];
+        storage.copyTo(copied);
+        assertArrayEquals(expected, copied, message + ", copyTo");
+    }
+
+    // Identificador distinto de todos los anteriores, incluidos los extremos del rango de short
+    private static short newId(int i) {
+        return switch (i) {
+            case 0 -> Short.MIN_VALUE;
+            case 1 -> Short.MAX_VALUE;
+            default -> (short) (i * 97 - 20_000);
+        };
+    }
+
+    private static void paletteGrowthMatchesAShortArray(Supplier<BlockStorage> factory, long seed) {
+        Random random = new Random(seed);
+        BlockStorage storage = factory.get();
+        short[] expected = new short[VOLUME];
+        short[] ids = new short[DISTINCT_IDS];
+        TreeSet<Integer> bitsSeen = new TreeSet<>();
+        bitsSeen.add(storage.getBitsPerBlock());
+
+        for (int i = 0; i < DISTINCT_IDS; i++) {
+            ids[i] = newId(i);
+            int index = i * RESERVED_STRIDE;
+            assertEquals(expected[index], storage.set(index, ids[i]), "identificador " + i);
+            expected[index] = ids[i];
+            // Escrituras con identificadores ya vistos (y aire) fuera de los bloques reservados
+            for (int k = 0; k < 20; k++) {
+                int other = random.nextInt(VOLUME);
+                if (other % RESERVED_STRIDE == 0) {
+                    continue;
+                }
+                short block = random.nextInt(8) == 0 ? Chunk.AIR : ids[random.nextInt(i + 1)];
+                assertEquals(expected[other], storage.set(other, block));
+                expected[other] = block;
+            }
+            if (bitsSeen.add(storage.getBitsPerBlock())) {
+                // Al reempaquetar con más bits no se pierde nada
+                assertSameBlocks(expected, storage, storage.getBitsPerBlock() + " bits");
+            }
+        }
+        assertSameBlocks(expected, storage, "final");
+        // Anchos impares (5 y 7): hay índices repartidos entre dos palabras de 64 bits
+        assertEquals(new TreeSet<>(Arrays.asList(4, 5, 6, 7, 8, 9, 10)), bitsSeen);
+        assertTrue(storage.getPaletteSize() > 512);
+        storage.free();
+    }
+
+    @Test
+    void heapPaletteGrowthMatchesAShortArray() {
+        paletteGrowthMatchesAShortArray(HeapBlockStorage::new, 1);
+    }
+
+    @Test
+    void offHeapPaletteGrowthMatchesAShortArray() {
+        paletteGrowthMatchesAShortArray(OffHeapBlockStorage::new, 2);
+    }
+
+    private static void fillAndCopy(Supplier<BlockStorage> factory, long seed) {
+        Random random = new Random(seed);
+        BlockStorage storage = factory.get();
+        short[] expected = new short[VOLUME];
+        for (int step = 0; step < 300; step++) {
+            int from = random.nextInt(VOLUME);
+            int to = Math.min(VOLUME, from + random.nextInt(200));
+            short block = random.nextInt(4) == 0 ? Chunk.AIR : (short) random.nextInt(70);
+            int air = 0;
+            for (int i = from; i < to; i++) {
+                air += expected[i] == Chunk.AIR ? 1 : 0;
+            }
+            assertEquals(air, storage.fill(from, to, block), "paso " + step);
+            Arrays.fill(expected, from, to, block);
+        }
+        assertSameBlocks(expected, storage, "fill");
+
+        // La copia es independiente del original, en los dos sentidos
+        BlockStorage copy = storage.copy();
+        assertEquals(storage.getClass(), copy.getClass());
+        assertEquals(storage.getBitsPerBlock(), copy.getBitsPerBlock());
+        assertEquals(storage.getNativeBytes(), copy.getNativeBytes());
+        short[] copyExpected = expected.clone();
+        for (int k = 0; k < 500; k++) {
+            int i = random.nextInt(VOLUME);
+            expected[i] = (short) (1000 + random.nextInt(100)); // Obliga al original a crecer
+            storage.set(i, expected[i]);
+            int j = random.nextInt(VOLUME);
+            copyExpected[j] = (short) -random.nextInt(50);
+            copy.set(j, copyExpected[j]);
+        }
+        assertNotEquals(storage.getBitsPerBlock(), copy.getBitsPerBlock());
+        assertSameBlocks(expected, storage, "original");
+        assertSameBlocks(copyExpected, copy, "copia");
+
+        // Copia de un almacenamiento con más bits que el inicial
+        BlockStorage grown = storage.copy();
+        storage.free();
+        assertSameBlocks(expected, grown, "copia tras crecer");
+        grown.free();
+        copy.free();
+    }
+
+    @Test
+    void heapFillAndCopy() {
+        fillAndCopy(HeapBlockStorage::new, 3);
+    }
+
+    @Test
+    void offHeapFillAndCopy() {
+        fillAndCopy(OffHeapBlockStorage::new, 4);
+    }
+
+    @Test
+    void offHeapCopyKeepsNativeWords() {
+        BlockStorage storage = new OffHeapBlockStorage();
+        BlockStorage empty = storage.copy();
+        assertInstanceOf(OffHeapBlockStorage.class, empty);
+        assertEquals(BlockStorage.wordCount(BlockStorage.MIN_BITS) * (long) Long.BYTES, empty.getNativeBytes());
+        for (int i = 0; i < 40; i++) {
+            storage.set(i * 100, (short) (i + 1));
+        }
+        BlockStorage copy = storage.copy();
+        assertEquals(6, copy.getBitsPerBlock());
+        assertEquals(storage.getNativeBytes(), copy.getNativeBytes());
+        storage.free();
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i + 1, copy.get(i * 100));
+        }
+        assertEquals(Chunk.AIR, copy.get(1));
+        assertEquals(Chunk.AIR, empty.get(0));
+        copy.free();
+        empty.free();
+        assertEquals(0, copy.getNativeBytes());
+    }
+
+    @Test
+    void paletteDropsUnusedEntriesBeforeGrowing() {
+        BlockStorage storage = new HeapBlockStorage();
+        // Cada identificador sustituye al anterior en el mismo bloque: la paleta solo usa dos entradas
+        for (int i = 1; i <= 100; i++) {
+            storage.set(7, (short) i);
+        }
+        assertEquals(BlockStorage.MIN_BITS, storage.getBitsPerBlock());
+        assertTrue(storage.getPaletteSize() <= 1 << BlockStorage.MIN_BITS);
+        assertEquals(100, storage.get(7));
+        assertEquals(Chunk.AIR, storage.get(6));
+    }
+
+    private static void solidCountMatches(boolean offHeap, long seed) {
+        Random random = new Random(seed);
+        Chunk chunk = new Chunk(offHeap);
+        short[] expected = new short[VOLUME];
+        for (int step = 0; step < 2_000; step++) {
+            short block = random.nextInt(3) == 0 ? Chunk.AIR : (short) (1 + random.nextInt(30));
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int x = random.nextInt(Chunk.SIZE), y = random.nextInt(Chunk.SIZE), z = random.nextInt(Chunk.SIZE);
+                    chunk.setBlock(x, y, z, block);
+                    expected[Chunk.index(x, y, z)] = block;
+                }
+                case 1 -> {
+                    int x = random.nextInt(Chunk.SIZE), y = random.nextInt(Chunk.SIZE), z = random.nextInt(Chunk.SIZE);
+                    int maxX = x + random.nextInt(Chunk.SIZE - x + 1);
+                    int maxY = y + random.nextInt(Chunk.SIZE - y + 1);
+                    int maxZ = z + random.nextInt(Chunk.SIZE - z + 1);
+                    chunk.fill(x, y, z, maxX, maxY, maxZ, block);
+                    for (int by = y; by < maxY; by++) {
+                        for (int bz = z; bz < maxZ; bz++) {
+                            for (int bx = x; bx < maxX; bx++) {
+                                expected[Chunk.index(bx, by, bz)] = block;
+                            }
+                        }
+                    }
+                }
+                default -> {
+                    int from = random.nextInt(VOLUME);
+                    int to = Math.min(VOLUME, from + random.nextInt(300));
+                    chunk.fillIndices(from, to, block);
+                    Arrays.fill(expected, from, to, block);
+                }
+            }
+            int solid = 0;
+            for (short b : expected) {
+                solid += b != Chunk.AIR ? 1 : 0;
+            }
+            assertEquals(solid, chunk.getSolidCount(), "paso " + step);
+            assertEquals(solid == 0, chunk.isEmpty());
+        }
+        Chunk copy = chunk.copy();
+        assertEquals(chunk.getSolidCount(), copy.getSolidCount());
+        assertEquals(offHeap, copy.isOffHeap());
+        short[] copied = new short[VOLUME];
+        copy.copyBlocks(copied);
+        assertArrayEquals(expected, copied);
+        chunk.free();
+        copy.free();
+    }
+
+    @Test
+    void heapChunkSolidCount() {
+        solidCountMatches(false, 5);
+    }
+
+    @Test
+    void offHeapChunkSolidCount() {
+        solidCountMatches(true, 6);
+    }
+}
@@ -0,0 +1,117 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkCodecTest {
+
+    private static short[] blocks(Chunk chunk) {
+        short[] blocks = new short[Chunk.VOLUME];
+        chunk.copyBlocks(blocks);
+        return blocks;
+    }
+
+    // Codifica, decodifica y comprueba que los bloques coinciden; devuelve los bytes escritos
+    private static int roundTrip(Chunk chunk) {
+        ByteBuffer buffer = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES + 8);
+        buffer.position(3); // No tiene por qué empezar en 0
+        int written = ChunkCodec.encode(chunk, buffer);
+        assertEquals(3 + written, buffer.position());
+        assertTrue(written <= ChunkCodec.MAX_ENCODED_BYTES, written + " bytes");
+
+        buffer.put((byte) 0x55).flip().position(3); // Un byte más tras los datos, que no se lee
+        Chunk decoded = ChunkCodec.decode(buffer);
+        assertEquals(1, buffer.remaining());
+        assertArrayEquals(blocks(chunk), blocks(decoded));
+        assertEquals(chunk.getSolidCount(), decoded.getSolidCount());
+        decoded.free();
+        return written;
+    }
+
+    @Test
+    void emptyChunk() {
+        assertEquals(4, roundTrip(new Chunk(false)));
+    }
+
+    @Test
+    void terrainLayers() {
+        Chunk chunk = new Chunk(false);
+        chunk.fill(0, 0, 0, Chunk.SIZE, 6, Chunk.SIZE, TerrainGenerator.STONE);
+        chunk.fill(0, 6, 0, Chunk.SIZE, 9, Chunk.SIZE, TerrainGenerator.DIRT);
+        chunk.fill(0, 9, 0, Chunk.SIZE, 10, Chunk.SIZE, TerrainGenerator.GRASS);
+        assertTrue(roundTrip(chunk) < 20);
+    }
+
+    @Test
+    void randomBlocks() {
+        Random random = new Random(8);
+        for (int round = 0; round < 20; round++) {
+            Chunk chunk = new Chunk(round % 2 == 0);
+            int range = 1 + random.nextInt(round < 10 ? 8 : 65536);
+            for (int i = 0; i < Chunk.VOLUME; i += 1 + random.nextInt(20)) {
+                chunk.setBlock(i, (short) (random.nextInt(range) - range / 2));
+            }
+            roundTrip(chunk);
+            chunk.free();
+        }
+    }
+
+    @Test
+    void worstCaseFillsMaxEncodedBytes() {
+        // Cada bloque es un tramo y la diferencia con el anterior (±65535) ocupa 3 bytes en zigzag
+        Chunk chunk = new Chunk(false);
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            chunk.setBlock(i, i % 2 == 0 ? Short.MIN_VALUE : Short.MAX_VALUE);
+        }
+        assertEquals(ChunkCodec.MAX_ENCODED_BYTES, roundTrip(chunk));
+
+        ByteBuffer exact = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES);
+        ChunkCodec.encode(chunk, exact);
+        assertEquals(0, exact.remaining());
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        Chunk chunk = new Chunk(false);
+        chunk.fill(0, 0, 0, Chunk.SIZE, 3, Chunk.SIZE, TerrainGenerator.STONE);
+        chunk.setBlock(5, 7, 9, (short) 300);
+        ByteBuffer buffer = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES);
+        int written = ChunkCodec.encode(chunk, buffer);
+        for (int length = 0; length < written; length++) {
+            ByteBuffer truncated = buffer.duplicate().position(0).limit(length);
+            assertThrows(IllegalArgumentException.class, () -> ChunkCodec.decode(truncated), length + " bytes");
+        }
+    }
+
+    @Test
+    void corruptDataIsRejected() {
+        // Versión desconocida
+        assertCorrupt(2, 0x00, 0xFF, 0x1F);
+        // Un tramo más largo que el chunk
+        assertCorrupt(ChunkCodec.FORMAT, 0x00, 0x80, 0x20);
+        // Dos tramos que se pasan del final
+        assertCorrupt(ChunkCodec.FORMAT, 0x02, 0xFF, 0x0F, 0x02, 0x81, 0x10);
+        // Longitud negativa (0xFFFFFFFF): el tramo acaba antes de empezar
+        assertCorrupt(ChunkCodec.FORMAT, 0x00, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+        // Entero de longitud variable con más de 5 bytes
+        assertCorrupt(ChunkCodec.FORMAT, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x00);
+        // Identificador fuera del rango de short (65536 en zigzag)
+        assertCorrupt(ChunkCodec.FORMAT, 0x80, 0x80, 0x08, 0xFF, 0x1F);
+    }
+
+    private static void assertCorrupt(int... bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        for (int b : bytes) {
+            buffer.put((byte) b);
+        }
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> ChunkCodec.decode(buffer));
+    }
+}
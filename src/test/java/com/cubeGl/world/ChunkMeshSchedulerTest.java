@@ -0,0 +1,131 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkMeshSchedulerTest {
+    private final ChunkMeshScheduler<Long> scheduler = new ChunkMeshScheduler<>(2, true);
+    private final List<Long> uploaded = new ArrayList<>();
+    private final List<Long> failed = new ArrayList<>();
+    private final ChunkMeshScheduler.PackedUploader<Long> uploader = new ChunkMeshScheduler.PackedUploader<>() {
+        @Override
+        public void upload(Long key, ByteBuffer vertices, IntBuffer indices) {
+            assertTrue(indices.hasRemaining());
+            uploaded.add(key);
+        }
+
+        @Override
+        public void failed(Long key, RuntimeException error) {
+            assertEquals("bloques ilegibles", error.getMessage());
+            failed.add(key);
+        }
+    };
+
+    @AfterEach
+    void cleanup() {
+        scheduler.cleanup();
+    }
+
+    private static Chunk stone() {
+        Chunk chunk = new Chunk(false);
+        chunk.fill(0, 0, 0, Chunk.SIZE, 4, Chunk.SIZE, TerrainGenerator.STONE);
+        return chunk;
+    }
+
+    // Chunk cuyo mallado lanza una excepción en el hilo de trabajo
+    private static Chunk broken() {
+        Chunk chunk = new Chunk(false) {
+            @Override
+            public Chunk copy() {
+                return this;
+            }
+
+            @Override
+            public void copyBlocks(short[] dest) {
+                throw new IllegalStateException("bloques ilegibles");
+            }
+        };
+        chunk.setBlock(0, 0, 0, TerrainGenerator.STONE);
+        return chunk;
+    }
+
+    // Chunk cuyas copias cuentan cuántas se liberan
+    private static Chunk counted(AtomicInteger copies, AtomicInteger freed) {
+        return new Chunk(false) {
+            @Override
+            public Chunk copy() {
+                copies.incrementAndGet();
+                Chunk snapshot = new Chunk(true) {
+                    @Override
+                    public void free() {
+                        freed.incrementAndGet();
+                        super.free();
+                    }
+                };
+                snapshot.fill(0, 0, 0, SIZE, 8, SIZE, TerrainGenerator.STONE);
+                return snapshot;
+            }
+        };
+    }
+
+    private void drainAll() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (scheduler.getPendingJobs() > 0 || scheduler.getQueueDepth() > 0) {
+            assertTrue(System.nanoTime() < deadline, "el mallado no termina");
+            scheduler.drainUploads(Long.MAX_VALUE, uploader);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void uploadsMeshedChunks() throws InterruptedException {
+        for (int i = 0; i < 8; i++) {
+            scheduler.submit((long) i, stone(), i % ChunkLod.LEVELS);
+        }
+        drainAll();
+        assertEquals(8, uploaded.size());
+        assertEquals(8, scheduler.getUploadedCount());
+        assertEquals(0, scheduler.getFailedCount());
+    }
+
+    @Test
+    void failedMeshingIsReportedToTheRenderThread() throws InterruptedException {
+        scheduler.submit(1L, stone());
+        scheduler.submit(2L, broken());
+        scheduler.submit(3L, stone());
+        drainAll();
+        assertEquals(List.of(2L), failed);
+        assertEquals(2, uploaded.size());
+        assertEquals(1, scheduler.getFailedCount());
+        assertEquals(2, scheduler.getUploadedCount());
+
+        // Los hilos de trabajo siguen vivos
+        scheduler.submit(4L, stone());
+        drainAll();
+        assertTrue(uploaded.contains(4L));
+    }
+
+    @Test
+    void cleanupFreesTheSnapshotsOfQueuedJobs() {
+        ChunkMeshScheduler<Long> closing = new ChunkMeshScheduler<>(1, true);
+        AtomicInteger copies = new AtomicInteger();
+        AtomicInteger freed = new AtomicInteger();
+        Chunk chunk = counted(copies, freed);
+        for (int i = 0; i < 200; i++) {
+            closing.submit((long) i, chunk); // Un solo hilo: casi todas siguen en cola al cerrar
+        }
+        closing.cleanup();
+        assertEquals(200, copies.get());
+        assertEquals(200, freed.get());
+        assertEquals(0, closing.getPendingJobs());
+    }
+}
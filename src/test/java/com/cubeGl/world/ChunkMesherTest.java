@@ -0,0 +1,170 @@
+package com.cubeGl.world;
+
+import com.cubeGl.graphics.MeshData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkMesherTest {
+    private static final short STONE = 3;
+
+    private final ChunkMesher mesher = new ChunkMesher();
+
+    private static Chunk solidChunk() {
+        Chunk chunk = new Chunk(false);
+        chunk.fill(0, 0, 0, Chunk.SIZE, Chunk.SIZE, Chunk.SIZE, STONE);
+        return chunk;
+    }
+
+    @Test
+    void emptyChunkHasNoQuads() {
+        assertEquals(0, mesher.build(new Chunk(false)));
+        assertEquals(0, mesher.getIndexCount());
+    }
+
+    @Test
+    void singleBlockHasSixQuads() {
+        Chunk chunk = new Chunk(false);
+        chunk.setBlock(3, 4, 5, STONE);
+        MeshData mesh = mesher.mesh(chunk);
+        assertEquals(6, mesher.build(chunk));
+        assertEquals(24, mesh.getVertexCount());
+        assertEquals(36, mesh.getIndexCount());
+        assertBounds(mesh, 3, 4, 5, 4, 5, 6);
+    }
+
+    @Test
+    void solidChunkMergesIntoSixQuads() {
+        MeshData mesh = mesher.mesh(solidChunk());
+        assertEquals(24, mesh.getVertexCount()); // Una cara de 16×16 por lado
+        assertBounds(mesh, 0, 0, 0, Chunk.SIZE, Chunk.SIZE, Chunk.SIZE);
+    }
+
+    @Test
+    void solidNeighborHidesSharedFace() {
+        Chunk chunk = solidChunk();
+        Chunk neighbor = solidChunk();
+        ChunkBorders borders = new ChunkBorders();
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            borders.clear();
+            borders.set(face, neighbor);
+            assertEquals(5, mesher.build(chunk, 1, borders), "cara " + face);
+        }
+        for (int face = 0; face < ChunkBorders.FACES; face++) {
+            borders.set(face, neighbor);
+        }
+        assertEquals(0, mesher.build(chunk, 1, borders), "rodeado de vecinos sólidos");
+    }
+
+    @Test
+    void neighborFacesAreLeftToTheNeighbor() {
+        // Un chunk vacío junto a uno sólido no emite la cara del vecino: la malla el vecino
+        ChunkBorders borders = new ChunkBorders();
+        borders.clear();
+        borders.set(0, solidChunk());
+        assertEquals(0, mesher.build(new Chunk(false), 1, borders));
+    }
+
+    @Test
+    void partialNeighborHidesOnlyCoveredPart() {
+        Chunk half = new Chunk(false);
+        half.fill(0, 0, 0, Chunk.SIZE, Chunk.SIZE / 2, Chunk.SIZE, STONE);
+        ChunkBorders borders = new ChunkBorders();
+        borders.clear();
+        borders.set(1, half); // Vecino en +X con la mitad inferior sólida
+        assertEquals(6, mesher.build(solidChunk(), 1, borders)); // 5 caras + la mitad superior de +X
+    }
+
+    @Test
+    void scaleMultipliesPositionsAndUvs() {
+        Chunk chunk = new Chunk(false);
+        chunk.setBlock(1, 1, 1, STONE);
+        MeshData mesh = mesher.mesh(chunk, 2);
+        assertEquals(24, mesh.getVertexCount());
+        assertBounds(mesh, 2, 2, 2, 4, 4, 4);
+        float maxUv = 0;
+        float[] texCoords = mesh.getTexCoords();
+        for (int i = 0; i < texCoords.length; i += MeshData.TEX_FLOATS_PER_VERTEX) {
+            maxUv = Math.max(maxUv, Math.max(texCoords[i], texCoords[i + 1]));
+        }
+        assertEquals(2.0f, maxUv, 0.0f); // La textura se repite una vez por bloque
+    }
+
+    @Test
+    void downsampledChunkCoversSameSpace() {
+        Chunk reduced = ChunkLod.downsample(solidChunk(), 2);
+        MeshData mesh = mesher.mesh(reduced, ChunkLod.factor(2));
+        assertEquals(24, mesh.getVertexCount());
+        assertBounds(mesh, 0, 0, 0, Chunk.SIZE, Chunk.SIZE, Chunk.SIZE);
+    }
+
+    @Test
+    void trianglesAreCounterClockwiseAlongTheirNormal() {
+        Chunk chunk = new Chunk(false);
+        chunk.fill(2, 2, 2, 6, 5, 4, STONE);
+        chunk.setBlock(10, 10, 10, STONE);
+        MeshData mesh = mesher.mesh(chunk);
+        float[] v = mesh.getVertices();
+        int[] indices = mesh.getIndices();
+        byte[] normals = mesh.getNormals();
+        for (int t = 0; t < indices.length; t += 3) {
+            int a = indices[t] * MeshData.FLOATS_PER_VERTEX;
+            int b = indices[t + 1] * MeshData.FLOATS_PER_VERTEX;
+            int c = indices[t + 2] * MeshData.FLOATS_PER_VERTEX;
+            float[] e1 = {v[b] - v[a], v[b + 1] - v[a + 1], v[b + 2] - v[a + 2]};
+            float[] e2 = {v[c] - v[a], v[c + 1] - v[a + 1], v[c + 2] - v[a + 2]};
+            float[] cross = {
+                    e1[1] * e2[2] - e1[2] * e2[1],
+                    e1[2] * e2[0] - e1[0] * e2[2],
+                    e1[0] * e2[1] - e1[1] * e2[0]};
+            int normal = normals[indices[t]];
+            int axis = normal / 2;
+            float sign = normal % 2 == 0 ? 1 : -1;
+            assertTrue(cross[axis] * sign > 0, "triángulo " + t / 3 + " con normal " + normal);
+            assertEquals(0.0f, cross[(axis + 1) % 3], 0.0f);
+            assertEquals(0.0f, cross[(axis + 2) % 3], 0.0f);
+        }
+    }
+
+    @Test
+    void singleBlockNormalsPointOutward() {
+        Chunk chunk = new Chunk(false);
+        chunk.setBlock(7, 7, 7, STONE);
+        MeshData mesh = mesher.mesh(chunk);
+        float[] v = mesh.getVertices();
+        byte[] normals = mesh.getNormals();
+        for (int quad = 0; quad < mesh.getVertexCount() / 4; quad++) {
+            // Centro de la cara menos centro del bloque: debe ir en el sentido de la normal
+            float[] center = new float[3];
+            for (int corner = 0; corner < 4; corner++) {
+                int vi = (quad * 4 + corner) * MeshData.FLOATS_PER_VERTEX;
+                for (int k = 0; k < 3; k++) {
+                    center[k] += v[vi + k] / 4;
+                }
+            }
+            int normal = normals[quad * 4];
+            float offset = center[normal / 2] - 7.5f;
+            assertEquals(normal % 2 == 0 ? 0.5f : -0.5f, offset, 1e-6f, "cara " + quad);
+        }
+    }
+
+    private static void assertBounds(MeshData mesh, float minX, float minY, float minZ,
+                                     float maxX, float maxY, float maxZ) {
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        float[] v = mesh.getVertices();
+        for (int i = 0; i < v.length; i += MeshData.FLOATS_PER_VERTEX) {
+            for (int k = 0; k < 3; k++) {
+                min[k] = Math.min(min[k], v[i + k]);
+                max[k] = Math.max(max[k], v[i + k]);
+            }
+        }
+        assertEquals(minX, min[0], 0.0f);
+        assertEquals(minY, min[1], 0.0f);
+        assertEquals(minZ, min[2], 0.0f);
+        assertEquals(maxX, max[0], 0.0f);
+        assertEquals(maxY, max[1], 0.0f);
+        assertEquals(maxZ, max[2], 0.0f);
+    }
+}
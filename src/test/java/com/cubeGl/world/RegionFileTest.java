@@ -0,0 +1,200 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionFileTest {
+    private static final int TABLE_OFFSET = 2 * Integer.BYTES;
+    private static final int HEADER_SECTORS = 17; // (8 + 512 * 8) bytes en sectores de 256
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(21);
+
+    private byte[] data(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] read(RegionFile region, int index) {
+        ByteBuffer buffer = region.read(index);
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    // Sector inicial de la entrada de la tabla, leído del archivo
+    private static int sectorOf(Path path, int index) throws IOException {
+        byte[] file = Files.readAllBytes(path);
+        return ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).getInt(TABLE_OFFSET + index * 2 * Integer.BYTES);
+    }
+
+    @Test
+    void overwritesMovesAndReusesSectors() throws IOException {
+        Path path = dir.resolve("r.0.0.0.cgr");
+        byte[] a, b, c, d, e;
+        try (RegionFile region = RegionFile.open(path)) {
+            assertEquals(HEADER_SECTORS, region.getUsedSectorCount());
+            region.write(0, ByteBuffer.wrap(a = data(300)));  // Sectores 17-18
+            region.write(1, ByteBuffer.wrap(b = data(100)));  // 19
+            assertEquals(HEADER_SECTORS, sectorOf(path, 0));
+            assertEquals(HEADER_SECTORS + 2, sectorOf(path, 1));
+
+            // Cabe en sus dos sectores: se sobrescribe en su sitio
+            region.write(0, ByteBuffer.wrap(a = data(500)));
+            assertEquals(HEADER_SECTORS, sectorOf(path, 0));
+            assertArrayEquals(a, read(region, 0));
+
+            // Necesita tres: se mueve detrás de b y libera los dos de antes
+            region.write(0, ByteBuffer.wrap(a = data(600)));
+            assertEquals(HEADER_SECTORS + 3, sectorOf(path, 0));
+            assertEquals(HEADER_SECTORS + 1 + 3, region.getUsedSectorCount());
+
+            // El hueco liberado se reutiliza
+            region.write(2, ByteBuffer.wrap(c = data(400)));
+            assertEquals(HEADER_SECTORS, sectorOf(path, 2));
+
+            // Al encoger en su sitio, los sectores sobrantes también quedan libres
+            region.write(0, ByteBuffer.wrap(a = data(100)));
+            assertEquals(HEADER_SECTORS + 3, sectorOf(path, 0));
+            region.write(3, ByteBuffer.wrap(d = data(512)));
+            assertEquals(HEADER_SECTORS + 4, sectorOf(path, 3));
+
+            region.delete(1);
+            assertFalse(region.contains(1));
+            assertNull(region.read(1));
+            region.write(4, ByteBuffer.wrap(e = data(256)));
+            assertEquals(HEADER_SECTORS + 2, sectorOf(path, 4));
+            assertEquals(HEADER_SECTORS + 6, region.getUsedSectorCount());
+            assertEquals(4, region.getChunkCount());
+            region.flush();
+        }
+
+        try (RegionFile region = RegionFile.open(path)) {
+            assertArrayEquals(a, read(region, 0));
+            assertNull(read(region, 1));
+            assertArrayEquals(c, read(region, 2));
+            assertArrayEquals(d, read(region, 3));
+            assertArrayEquals(e, read(region, 4));
+            assertEquals(4, region.getChunkCount());
+            assertEquals(HEADER_SECTORS + 6, region.getUsedSectorCount());
+            assertThrows(IllegalArgumentException.class, () -> region.write(5, ByteBuffer.allocate(0)));
+        }
+    }
+
+    @Test
+    void randomWritesSurviveReopening() throws IOException {
+        Path path = dir.resolve("r.1.0.-1.cgr");
+        Map<Integer, byte[]> expected = new HashMap<>();
+        for (int session = 0; session < 5; session++) {
+            try (RegionFile region = RegionFile.open(path)) {
+                for (Map.Entry<Integer, byte[]> entry : expected.entrySet()) {
+                    assertArrayEquals(entry.getValue(), read(region, entry.getKey()), "sesión " + session);
+                }
+                for (int step = 0; step < 400; step++) {
+                    int index = random.nextInt(RegionFile.CHUNKS);
+                    if (random.nextInt(5) == 0) {
+                        region.delete(index);
+                        expected.remove(index);
+                    } else {
+                        byte[] bytes = data(1 + random.nextInt(2_000));
+                        // Desde una posición distinta de 0: se escribe de la posición al límite
+                        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 10).position(10);
+                        buffer.put(bytes).flip().position(10);
+                        region.write(index, buffer);
+                        expected.put(index, bytes);
+                    }
+                }
+                assertEquals(expected.size(), region.getChunkCount());
+                for (Map.Entry<Integer, byte[]> entry : expected.entrySet()) {
+                    assertArrayEquals(entry.getValue(), read(region, entry.getKey()), "sesión " + session);
+                }
+                // Los huecos se reutilizan: el archivo no crece sin límite
+                int dataSectors = expected.values().stream().mapToInt(bytes -> (bytes.length + 255) / 256).sum();
+                assertEquals(HEADER_SECTORS + dataSectors, region.getUsedSectorCount());
+                assertTrue(region.getSectorCount() < 3 * (HEADER_SECTORS + dataSectors) + 64, "sesión " + session);
+            }
+        }
+    }
+
+    @Test
+    void encodedChunksRoundTrip() throws IOException {
+        Chunk worst = new Chunk(false);
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            worst.setBlock(i, i % 2 == 0 ? Short.MIN_VALUE : Short.MAX_VALUE);
+        }
+        Chunk terrain = new Chunk(false);
+        terrain.fill(0, 0, 0, Chunk.SIZE, 7, Chunk.SIZE, TerrainGenerator.STONE);
+
+        Path path = dir.resolve("r.-1.-1.-1.cgr");
+        ByteBuffer buffer = ByteBuffer.allocate(ChunkCodec.MAX_ENCODED_BYTES);
+        try (RegionFile region = RegionFile.open(path)) {
+            int[] indices = {RegionFile.indexOf(-1, -1, -1), RegionFile.indexOf(-8, -1, -3)};
+            Chunk[] chunks = {worst, terrain};
+            for (int i = 0; i < 2; i++) {
+                buffer.clear();
+                ChunkCodec.encode(chunks[i], buffer);
+                region.write(indices[i], buffer.flip());
+            }
+            for (int i = 0; i < 2; i++) {
+                Chunk decoded = ChunkCodec.decode(region.read(indices[i]));
+                short[] expected = new short[Chunk.VOLUME];
+                short[] actual = new short[Chunk.VOLUME];
+                chunks[i].copyBlocks(expected);
+                decoded.copyBlocks(actual);
+                assertArrayEquals(expected, actual);
+                decoded.free();
+            }
+        }
+    }
+
+    @Test
+    void invalidFilesAreRejected() throws IOException {
+        Path path = dir.resolve("r.2.0.0.cgr");
+        try (RegionFile region = RegionFile.open(path)) {
+            region.write(0, ByteBuffer.wrap(data(300)));
+            region.write(1, ByteBuffer.wrap(data(300)));
+        }
+        byte[] file = Files.readAllBytes(path);
+
+        Path truncated = Files.write(dir.resolve("truncado.cgr"), Arrays.copyOf(file, HEADER_SECTORS * 256 - 1));
+        assertThrows(IOException.class, () -> RegionFile.open(truncated));
+
+        byte[] badMagic = file.clone();
+        badMagic[0] ^= 1;
+        Path notRegion = Files.write(dir.resolve("magia.cgr"), badMagic);
+        assertThrows(IOException.class, () -> RegionFile.open(notRegion));
+
+        // Una entrada que apunta fuera del archivo se descarta; las demás siguen
+        byte[] badEntry = file.clone();
+        ByteBuffer.wrap(badEntry).order(ByteOrder.LITTLE_ENDIAN).putInt(TABLE_OFFSET, 1_000_000);
+        Path damaged = Files.write(dir.resolve("entrada.cgr"), badEntry);
+        try (RegionFile region = RegionFile.open(damaged)) {
+            assertFalse(region.contains(0));
+            assertTrue(region.contains(1));
+            assertEquals(1, region.getChunkCount());
+        }
+    }
+}
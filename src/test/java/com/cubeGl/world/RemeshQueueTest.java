@@ -0,0 +1,83 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemeshQueueTest {
+    private final RemeshQueue queue = new RemeshQueue();
+    private final List<Long> drained = new ArrayList<>();
+
+    private int drain(float x, float y, float z, int maxChunks) {
+        drained.clear();
+        return queue.drain(x, y, z, maxChunks, drained::add);
+    }
+
+    @Test
+    void drainsNearestFirstUpToTheLimit() {
+        for (int cx = 0; cx < 10; cx++) {
+            queue.markDirty(ChunkKey.of(cx, 0, 0));
+        }
+        // Cámara en el chunk 9: salen 9, 8 y 7
+        assertEquals(3, drain(9.5f * Chunk.SIZE, 8, 8, 3));
+        assertEquals(List.of(ChunkKey.of(9, 0, 0), ChunkKey.of(8, 0, 0), ChunkKey.of(7, 0, 0)), drained);
+        assertEquals(7, queue.getDirtyCount());
+        assertEquals(3, queue.getInFlightCount());
+    }
+
+    @Test
+    void coalescesMarksOfTheSameChunk() {
+        queue.markBlockChanged(5, 5, 5);
+        queue.markBlockChanged(6, 5, 5);
+        queue.markDirty(ChunkKey.of(0, 0, 0));
+        assertEquals(1, queue.getDirtyCount());
+        assertEquals(2, queue.getCoalescedCount());
+        assertEquals(1, drain(0, 0, 0, 16));
+    }
+
+    @Test
+    void borderEditsMarkTheTouchingNeighbors() {
+        queue.markBlockChanged(0, 5, Chunk.SIZE - 1); // Borde -X y +Z del chunk (0, 0, 0)
+        assertEquals(3, drain(0, 0, 0, 16));
+        assertTrue(drained.contains(ChunkKey.of(0, 0, 0)));
+        assertTrue(drained.contains(ChunkKey.of(-1, 0, 0)));
+        assertTrue(drained.contains(ChunkKey.of(0, 0, 1)));
+
+        queue.markBlockChanged(-1, -1, -1); // Esquina (15, 15, 15) del chunk (-1, -1, -1): tres vecinos
+        assertEquals(4, queue.getDirtyCount());
+        queue.markBlockChanged(-8, -8, -8); // Centro del mismo chunk: ninguno
+        assertEquals(4, queue.getDirtyCount());
+    }
+
+    @Test
+    void inFlightChunksWaitForTheirUpload() {
+        long key = ChunkKey.of(1, 2, 3);
+        queue.markBlockChanged(Chunk.SIZE + 4, 2 * Chunk.SIZE + 4, 3 * Chunk.SIZE + 4);
+        assertEquals(1, drain(0, 0, 0, 16));
+        assertTrue(queue.isInFlight(key));
+
+        queue.markDirty(key); // Edición mientras se malla: espera a la subida
+        assertEquals(0, drain(0, 0, 0, 16));
+        queue.uploaded(key);
+        assertFalse(queue.isInFlight(key));
+        assertEquals(1, drain(0, 0, 0, 16));
+        assertEquals(2, queue.getRemeshCount());
+    }
+
+    @Test
+    void removeForgetsTheChunk() {
+        long key = ChunkKey.of(-4, 0, 7);
+        queue.markDirty(key);
+        assertEquals(1, drain(0, 0, 0, 16));
+        queue.markDirty(key);
+        queue.remove(key);
+        assertEquals(0, queue.getDirtyCount());
+        assertEquals(0, queue.getInFlightCount());
+        assertEquals(0, drain(0, 0, 0, 16));
+    }
+}
@@ -0,0 +1,199 @@
+package com.cubeGl.world;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoxelRaycastTest {
+    private static final short ORE = 7;
+
+    // Chunks de -2 a 1 en cada eje: bloques de -32 a 31
+    private final ChunkGrid grid = new ChunkGrid(4, 4, 4);
+    private final VoxelRaycast raycast = new VoxelRaycast(grid);
+    private ForkJoinPool pool;
+
+    @AfterEach
+    void cleanup() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private void set(int x, int y, int z, short block) {
+        int cx = x >> 4, cy = y >> 4, cz = z >> 4;
+        Chunk chunk = grid.getChunk(cx, cy, cz);
+        if (chunk == null) {
+            chunk = new Chunk(false);
+            grid.put(ChunkKey.of(cx, cy, cz), chunk);
+        }
+        chunk.setBlock(x & 15, y & 15, z & 15, block);
+    }
+
+    private void assertHit(int x, int y, int z, int nx, int ny, int nz, float distance) {
+        assertTrue(raycast.isHit());
+        assertEquals(x, raycast.getBlockX(), "x");
+        assertEquals(y, raycast.getBlockY(), "y");
+        assertEquals(z, raycast.getBlockZ(), "z");
+        assertArrayEquals(new int[]{nx, ny, nz},
+                new int[]{raycast.getNormalX(), raycast.getNormalY(), raycast.getNormalZ()}, "normal");
+        assertEquals(distance, raycast.getDistance(), 1e-4f, "distancia");
+    }
+
+    @Test
+    void axisAlignedHits() {
+        set(5, 2, 3, ORE);
+        assertTrue(raycast.cast(0.5f, 2.5f, 3.5f, 1, 0, 0, 20));
+        assertEquals(ORE, raycast.getBlock());
+        assertHit(5, 2, 3, -1, 0, 0, 4.5f);
+        assertEquals(5, raycast.getSteps());
+
+        assertTrue(raycast.cast(5.5f, 10.5f, 3.5f, 0, -3, 0, 20)); // Dirección sin normalizar
+        assertHit(5, 2, 3, 0, 1, 0, 7.5f);
+
+        assertTrue(raycast.cast(5.5f, 2.5f, -0.5f, 0, 0, 1, 20));
+        assertHit(5, 2, 3, 0, 0, -1, 3.5f);
+
+        assertFalse(raycast.cast(0.5f, 2.5f, 3.5f, -1, 0, 0, 20)); // Hacia el otro lado
+        assertFalse(raycast.cast(0.5f, 2.5f, 3.5f, 0, 0, 0, 20));
+    }
+
+    @Test
+    void diagonalHits() {
+        // Muro en x = 6 y suelo en y = -1 (este en coordenadas negativas)
+        for (int a = -16; a < 16; a++) {
+            for (int b = -16; b < 16; b++) {
+                set(6, a, b, TerrainGenerator.STONE);
+                set(a, -1, b, TerrainGenerator.DIRT);
+            }
+        }
+        float length = (float) Math.sqrt(2 * 2 + 1 + 0.5f * 0.5f);
+        assertTrue(raycast.cast(0.5f, 0.5f, 0.5f, 2, 1, 0.5f, 20));
+        assertEquals(TerrainGenerator.STONE, raycast.getBlock());
+        assertHit(6, 3, 1, -1, 0, 0, 5.5f * length / 2);
+
+        assertTrue(raycast.cast(0.5f, 4.5f, 0.5f, 1, -2, 1, 20));
+        assertEquals(TerrainGenerator.DIRT, raycast.getBlock());
+        assertHit(2, -1, 2, 0, 1, 0, 4.5f * (float) Math.sqrt(6) / 2);
+
+        assertTrue(raycast.cast(0.5f, 4.5f, 0.5f, -1, -2, -1, 20));
+        assertHit(-2, -1, -2, 0, 1, 0, 4.5f * (float) Math.sqrt(6) / 2);
+    }
+
+    @Test
+    void originInsideASolidBlock() {
+        set(5, 2, 3, ORE);
+        assertTrue(raycast.cast(5.2f, 2.7f, 3.1f, 1, 1, 0, 20));
+        assertHit(5, 2, 3, 0, 0, 0, 0.0f);
+        assertEquals(0, raycast.getSteps());
+    }
+
+    @Test
+    void maxDistanceCutsTheRay() {
+        set(5, 2, 3, ORE);
+        assertFalse(raycast.cast(0.5f, 2.5f, 3.5f, 1, 0, 0, 4.4f));
+        assertEquals(4.4f, raycast.getDistance());
+        assertEquals(Chunk.AIR, raycast.getBlock());
+        assertEquals(0, raycast.getNormalX());
+        assertTrue(raycast.cast(0.5f, 2.5f, 3.5f, 1, 0, 0, 4.5f)); // Entra justo en el bloque
+        assertHit(5, 2, 3, -1, 0, 0, 4.5f);
+        assertFalse(raycast.cast(0.5f, 2.5f, 3.5f, 1, 0, 0, 0.0f));
+
+        assertThrows(IllegalArgumentException.class, () -> raycast.cast(0, 0, 0, 1, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> raycast.cast(0, 0, 0, 1, 0, 0, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> raycast.cast(0, 0, 0, 1, 0, 0, Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void crossesChunkBoundaries() {
+        set(-20, -17, -32, ORE);
+        // De x = 10 a x = -20 cruza los chunks 0, -1 y -2
+        assertTrue(raycast.cast(10.5f, -16.5f, -31.5f, -1, 0, 0, 40));
+        assertHit(-20, -17, -32, 1, 0, 0, 29.5f);
+        assertEquals(30, raycast.getSteps());
+
+        // Un chunk cargado pero vacío por el camino cuenta como aire
+        grid.put(ChunkKey.of(-1, -2, -2), new Chunk(false));
+        assertTrue(raycast.cast(10.5f, -16.5f, -31.5f, -1, 0, 0, 40));
+        assertHit(-20, -17, -32, 1, 0, 0, 29.5f);
+
+        // En diagonal hacia el centro de bloques con coordenadas negativas en los tres ejes
+        Random random = new Random(9);
+        for (int i = 0; i < 200; i++) {
+            int x = -32 + random.nextInt(64), y = -32 + random.nextInt(64), z = -32 + random.nextInt(64);
+            float ox = random.nextFloat() * 60 - 30, oy = random.nextFloat() * 60 - 30, oz = random.nextFloat() * 60 - 30;
+            if ((int) Math.floor(ox) == x && (int) Math.floor(oy) == y && (int) Math.floor(oz) == z) {
+                continue;
+            }
+            set(x, y, z, ORE);
+            float dx = x + 0.5f - ox, dy = y + 0.5f - oy, dz = z + 0.5f - oz;
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            assertTrue(raycast.cast(ox, oy, oz, dx, dy, dz, length), "rayo " + i);
+            assertEquals(x, raycast.getBlockX(), "rayo " + i);
+            assertEquals(y, raycast.getBlockY(), "rayo " + i);
+            assertEquals(z, raycast.getBlockZ(), "rayo " + i);
+            assertTrue(raycast.getDistance() <= length);
+            set(x, y, z, Chunk.AIR);
+        }
+    }
+
+    @Test
+    void batchMatchesSingleCasts() {
+        Random random = new Random(4);
+        for (int i = 0; i < 2_000; i++) {
+            set(-32 + random.nextInt(64), -32 + random.nextInt(64), -32 + random.nextInt(64), ORE);
+        }
+        int count = RaycastBatch.LEAF_RAYS * 12 + 17;
+        float[] from = new float[count * 3];
+        float[] to = new float[count * 3];
+        float[] directions = new float[count * 3];
+        float[] maxDistances = new float[count];
+        for (int i = 0; i < count * 3; i++) {
+            from[i] = random.nextFloat() * 64 - 32;
+            to[i] = random.nextFloat() * 64 - 32;
+            directions[i] = to[i] - from[i];
+        }
+        for (int i = 0; i < count; i++) {
+            maxDistances[i] = random.nextFloat() * 30;
+        }
+
+        pool = new ForkJoinPool(4);
+        RaycastBatch batch = new RaycastBatch(grid, pool);
+        boolean[] visible = new boolean[count];
+        float[] hitDistances = new float[count];
+        int visibleCount = batch.lineOfSight(from, to, visible, count);
+        int hits = batch.cast(from, directions, maxDistances, hitDistances, count);
+
+        int expectedVisible = 0;
+        int expectedHits = 0;
+        for (int i = 0; i < count; i++) {
+            int o = i * 3;
+            float length = (float) Math.sqrt(directions[o] * directions[o] + directions[o + 1] * directions[o + 1]
+                    + directions[o + 2] * directions[o + 2]);
+            boolean expected = !raycast.cast(from[o], from[o + 1], from[o + 2],
+                    directions[o], directions[o + 1], directions[o + 2], length)
+                    || raycast.getBlockX() == (int) Math.floor(to[o])
+                    && raycast.getBlockY() == (int) Math.floor(to[o + 1])
+                    && raycast.getBlockZ() == (int) Math.floor(to[o + 2]);
+            assertEquals(expected, visible[i], "par " + i);
+            expectedVisible += expected ? 1 : 0;
+
+            float distance = raycast.cast(from[o], from[o + 1], from[o + 2],
+                    directions[o], directions[o + 1], directions[o + 2], maxDistances[i])
+                    ? raycast.getDistance() : RaycastBatch.MISS;
+            assertEquals(distance, hitDistances[i], "rayo " + i);
+            expectedHits += distance != RaycastBatch.MISS ? 1 : 0;
+        }
+        assertEquals(expectedVisible, visibleCount);
+        assertEquals(expectedHits, hits);
+        // El mundo no es trivial: hay pares visibles y tapados
+        assertTrue(visibleCount > count / 10 && visibleCount < count * 9 / 10, visibleCount + " de " + count);
+    }
+}